@@ -34,6 +34,9 @@ import org.springframework.util.StreamUtils;
 /**
  * Encoder for {@link Resource Resources}.
  *
+ * <p>As of 5.2.10, file resources are memory-mapped through
+ * {@link DataBufferUtils#readMapped} rather than read into allocated buffers.
+ *
  * @author Arjen Poutsma
  * @since 5.0
  */
@@ -44,6 +47,11 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	 */
 	public static final int DEFAULT_BUFFER_SIZE = StreamUtils.BUFFER_SIZE;
 
+	/**
+	 * The maximum size of the buffers used to map file resources.
+	 */
+	private static final int MAPPED_REGION_SIZE = 4 * 1024 * 1024;
+
 	private final int bufferSize;
 
 
@@ -72,6 +80,9 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 			String logPrefix = Hints.getLogPrefix(hints);
 			logger.debug(logPrefix + "Writing [" + resource + "]");
 		}
+		if (resource.isFile()) {
+			return DataBufferUtils.readMapped(resource, 0, bufferFactory, MAPPED_REGION_SIZE);
+		}
 		return DataBufferUtils.read(resource, bufferFactory, this.bufferSize);
 	}
 
@@ -18,6 +18,7 @@ package org.springframework.core.codec;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.OptionalLong;
 
@@ -41,6 +42,9 @@ import org.springframework.util.StreamUtils;
 /**
  * Encoder for {@link ResourceRegion ResourceRegions}.
  *
+ * <p>As of 5.2.10, regions of resources that are files are memory-mapped
+ * through {@link DataBufferUtils#map} rather than read into allocated buffers.
+ *
  * @author Brian Clozel
  * @since 5.0
  */
@@ -56,6 +60,11 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 	 */
 	public static final String BOUNDARY_STRING_HINT = ResourceRegionEncoder.class.getName() + ".boundaryString";
 
+	/**
+	 * The maximum size of the buffers used to map regions of file resources.
+	 */
+	private static final int MAPPED_REGION_SIZE = 4 * 1024 * 1024;
+
 	private final int bufferSize;
 
 
@@ -129,6 +138,15 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
+		if (resource.isFile()) {
+			try {
+				Path path = resource.getFile().toPath();
+				return DataBufferUtils.map(path, position, count, bufferFactory, MAPPED_REGION_SIZE);
+			}
+			catch (IOException ex) {
+				// fallback to DataBufferUtils#read, below
+			}
+		}
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
@@ -20,11 +20,16 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -34,6 +39,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -66,6 +72,18 @@ public abstract class DataBufferUtils {
 
 	private static final Consumer<DataBuffer> RELEASE_CONSUMER = DataBufferUtils::release;
 
+	/**
+	 * The maximum number of regions mapped via {@link #map} that may be
+	 * outstanding at once, i.e. not garbage collected yet.
+	 */
+	private static final int MAX_MAPPED_REGIONS = 1024;
+
+	/**
+	 * The size of the buffers to read file content into once
+	 * {@link #MAX_MAPPED_REGIONS} is reached.
+	 */
+	private static final int UNMAPPED_BUFFER_SIZE = 64 * 1024;
+
 
 	//---------------------------------------------------------------------
 	// Reading
@@ -233,6 +251,80 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s
+	 * starting at the given position, mapping the content of the resource into
+	 * memory if possible.
+	 * <p>If the resource is a file, it is mapped via
+	 * {@link #map(Path, long, long, DataBufferFactory, int)}, so that the
+	 * returned buffers are read-only views of the operating system's page
+	 * cache, or else it is read via {@link #read(Resource, long, DataBufferFactory, int)}.
+	 * Either way, the returned buffers can be released as usual.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to create or wrap data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given resource
+	 * @since 5.2.10
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Resource resource, long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		try {
+			if (resource.isFile()) {
+				File file = resource.getFile();
+				return map(file.toPath(), position, Long.MAX_VALUE, bufferFactory, bufferSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to read(Resource...), below
+		}
+		return read(resource, position, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Map the given region of a file into memory, and expose it as a
+	 * {@code Flux} of read-only {@code DataBuffer}s that wrap
+	 * {@link MappedByteBuffer}s of at most the given size. Contrary to the
+	 * {@code read} variants, the file content is not copied into allocated
+	 * buffers, but read straight from the operating system's page cache when
+	 * the buffers are consumed.
+	 * <p>The region is truncated to the size of the file. Releasing the
+	 * returned buffers does not unmap the file: the mapping is freed once the
+	 * buffers are garbage collected. Since every mapping takes an entry in the
+	 * process' memory map until then, and keeps the file locked on Windows,
+	 * the region size should be large, i.e. in the order of megabytes. Once
+	 * too many mappings are outstanding, further content is read into buffers
+	 * allocated from the given factory instead, which are to be released.
+	 * <p>The file must not be truncated while the buffers are in use:
+	 * accessing a mapped buffer beyond the end of the file results in an
+	 * {@link InternalError} (or a crash on some platforms) rather than an
+	 * {@code IOException}. Files that may change while being read should be
+	 * read via {@link #read(Path, DataBufferFactory, int, OpenOption...)}.
+	 * @param path the path of the file to map
+	 * @param position the position of the region to map
+	 * @param count the number of bytes to map
+	 * @param bufferFactory the factory to wrap the mapped buffers with
+	 * @param regionSize the maximum number of bytes to map in a single buffer
+	 * @return a Flux of data buffers mapping the given region of the file
+	 * @since 5.2.10
+	 */
+	public static Flux<DataBuffer> map(
+			Path path, long position, long count, DataBufferFactory bufferFactory, int regionSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "BufferFactory must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(count >= 0, "'count' must be >= 0");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be > 0");
+
+		return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> Flux.generate(new FileChannelMappingGenerator(
+						channel, position, count, bufferFactory, regionSize)),
+				DataBufferUtils::closeChannel)
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -671,6 +763,100 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class FileChannelMappingGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int regionSize;
+
+		private final long end;
+
+		private long position;
+
+		public FileChannelMappingGenerator(FileChannel channel, long position, long count,
+				DataBufferFactory dataBufferFactory, int regionSize) {
+
+			this.channel = channel;
+			this.position = position;
+			this.end = (count < Long.MAX_VALUE - position ? position + count : Long.MAX_VALUE);
+			this.dataBufferFactory = dataBufferFactory;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				long end = Math.min(this.end, this.channel.size());
+				if (this.position >= end) {
+					sink.complete();
+					return;
+				}
+				long size = Math.min(this.regionSize, end - this.position);
+				if (!MappedRegions.tryAcquire()) {
+					sink.next(read((int) Math.min(UNMAPPED_BUFFER_SIZE, size)));
+					return;
+				}
+				MappedByteBuffer byteBuffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+				MappedRegions.track(byteBuffer);
+				this.position += size;
+				sink.next(this.dataBufferFactory.wrap(byteBuffer));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+
+		private DataBuffer read(int size) throws IOException {
+			DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(size);
+			boolean release = true;
+			try {
+				ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, size);
+				while (byteBuffer.hasRemaining()) {
+					int read = this.channel.read(byteBuffer, this.position + byteBuffer.position());
+					if (read == -1) {
+						break;
+					}
+				}
+				this.position += byteBuffer.position();
+				dataBuffer.writePosition(byteBuffer.position());
+				release = false;
+				return dataBuffer;
+			}
+			finally {
+				if (release) {
+					release(dataBuffer);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Keeps track of the number of regions mapped via {@link #map} that have
+	 * not been garbage collected, and therefore unmapped, yet.
+	 */
+	private static final class MappedRegions {
+
+		private static final ReferenceQueue<MappedByteBuffer> queue = new ReferenceQueue<>();
+
+		private static final Set<Reference<MappedByteBuffer>> references = ConcurrentHashMap.newKeySet();
+
+		static boolean tryAcquire() {
+			Reference<?> reference;
+			while ((reference = queue.poll()) != null) {
+				references.remove(reference);
+			}
+			return (references.size() < MAX_MAPPED_REGIONS);
+		}
+
+		static void track(MappedByteBuffer byteBuffer) {
+			references.add(new PhantomReference<>(byteBuffer, queue));
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
@@ -249,6 +249,92 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void map(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Path path = this.resource.getFile().toPath();
+		Flux<DataBuffer> flux = DataBufferUtils.map(path, 0, Long.MAX_VALUE, super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void mapPositionAndCount(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Path path = this.resource.getFile().toPath();
+		Flux<DataBuffer> flux = DataBufferUtils.map(path, 3, 5, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("ba"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void mapLimitsOutstandingMappings(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 2048; i++) {
+			content.append((char) ('a' + i % 26));
+		}
+		Files.write(this.tempFile, content.toString().getBytes(StandardCharsets.UTF_8));
+		List<DataBuffer> buffers = DataBufferUtils.map(this.tempFile, 0, Long.MAX_VALUE, super.bufferFactory, 1)
+				.collectList()
+				.block(Duration.ofSeconds(5));
+
+		assertThat(buffers).hasSize(2048);
+		assertThat(buffers.stream().filter(buffer -> !buffer.asByteBuffer().isReadOnly())).hasSizeGreaterThan(1000);
+		StringBuilder result = new StringBuilder();
+		buffers.forEach(buffer -> {
+			result.append(buffer.toString(StandardCharsets.UTF_8));
+			release(buffer);
+		});
+		assertThat(result.toString()).isEqualTo(content.toString());
+
+		// Let the mappings be freed for other tests
+		buffers.clear();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedResource(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 3, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(buffer -> {
+					assertThat(buffer.asByteBuffer().isReadOnly()).isTrue();
+					stringConsumer("bar").accept(buffer);
+				})
+				.consumeNextWith(stringConsumer("baz"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedByteArrayResource(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Resource resource = new ByteArrayResource("foobarbazqux" .getBytes());
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(resource, 3, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("baz"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	private void verifyReadData(Flux<DataBuffer> buffers) {
 		StepVerifier.create(buffers)
 				.consumeNextWith(stringConsumer("foo"))
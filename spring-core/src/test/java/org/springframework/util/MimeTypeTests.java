@@ -189,6 +189,15 @@ class MimeTypeTests {
 		assertThat(mimeType.getSubtype()).as("Invalid subtype").isEqualTo("*");
 	}
 
+	@Test
+	void parseMimeTypeReturnsSharedInstances() {
+		assertThat(MimeTypeUtils.parseMimeType("application/json")).isSameAs(MimeTypeUtils.APPLICATION_JSON);
+		assertThat(MimeTypeUtils.parseMimeType("text/plain")).isSameAs(MimeTypeUtils.TEXT_PLAIN);
+
+		MimeType mimeType = MimeTypeUtils.parseMimeType("text/csv;charset=UTF-8");
+		assertThat(MimeTypeUtils.parseMimeType("text/csv;charset=UTF-8")).isSameAs(mimeType);
+	}
+
 	@Test
 	void parseMimeTypeNoSubtype() {
 		assertThatExceptionOfType(InvalidMimeTypeException.class).isThrownBy(() ->
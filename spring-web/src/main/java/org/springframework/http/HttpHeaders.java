@@ -66,6 +66,11 @@ import org.springframework.util.StringUtils;
  *
  * <p>Note that {@code HttpHeaders} generally treats header names in a case-insensitive manner.
  *
+ * <p>As of 5.2.10, the parsed values of the {@code Content-Type}, {@code Accept},
+ * {@code Content-Length} and {@code Cache-Control} headers are memoized, and
+ * parsed again only once the raw header value changes, whether through this
+ * object or through the underlying headers map.
+ *
  * @author Arjen Poutsma
  * @author Sebastien Deleuze
  * @author Brian Clozel
@@ -416,6 +421,18 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 
 	final MultiValueMap<String, String> headers;
 
+	@Nullable
+	private transient ParsedHeader<MediaType> parsedContentType;
+
+	@Nullable
+	private transient ParsedHeader<List<MediaType>> parsedAccept;
+
+	@Nullable
+	private transient ParsedHeader<Long> parsedContentLength;
+
+	@Nullable
+	private transient ParsedHeader<String> parsedCacheControl;
+
 
 	/**
 	 * Construct a new, empty instance of the {@code HttpHeaders} object.
@@ -463,7 +480,18 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	 * <p>Returns an empty list when the acceptable media types are unspecified.
 	 */
 	public List<MediaType> getAccept() {
-		return MediaType.parseMediaTypes(get(ACCEPT));
+		List<String> values = get(ACCEPT);
+		if (CollectionUtils.isEmpty(values)) {
+			return MediaType.parseMediaTypes(values);
+		}
+		ParsedHeader<List<MediaType>> parsed = this.parsedAccept;
+		if (parsed == null || !parsed.isFor(values)) {
+			List<MediaType> mediaTypes = Collections.unmodifiableList(MediaType.parseMediaTypes(values));
+			parsed = new ParsedHeader<>(new ArrayList<>(values), mediaTypes);
+			this.parsedAccept = parsed;
+		}
+		// Callers may sort the returned list...
+		return new ArrayList<>(parsed.value);
 	}
 
 	/**
@@ -823,7 +851,16 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	 */
 	@Nullable
 	public String getCacheControl() {
-		return getFieldValues(CACHE_CONTROL);
+		List<String> values = get(CACHE_CONTROL);
+		if (values == null) {
+			return null;
+		}
+		ParsedHeader<String> parsed = this.parsedCacheControl;
+		if (parsed == null || !parsed.isFor(values)) {
+			parsed = new ParsedHeader<>(new ArrayList<>(values), toCommaDelimitedString(values));
+			this.parsedCacheControl = parsed;
+		}
+		return parsed.value;
 	}
 
 	/**
@@ -938,7 +975,15 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	 */
 	public long getContentLength() {
 		String value = getFirst(CONTENT_LENGTH);
-		return (value != null ? Long.parseLong(value) : -1);
+		if (value == null) {
+			return -1;
+		}
+		ParsedHeader<Long> parsed = this.parsedContentLength;
+		if (parsed == null || !parsed.isFor(value)) {
+			parsed = new ParsedHeader<>(value, Long.parseLong(value));
+			this.parsedContentLength = parsed;
+		}
+		return parsed.value;
 	}
 
 	/**
@@ -964,7 +1009,15 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	@Nullable
 	public MediaType getContentType() {
 		String value = getFirst(CONTENT_TYPE);
-		return (StringUtils.hasLength(value) ? MediaType.parseMediaType(value) : null);
+		if (!StringUtils.hasLength(value)) {
+			return null;
+		}
+		ParsedHeader<MediaType> parsed = this.parsedContentType;
+		if (parsed == null || !parsed.isFor(value)) {
+			parsed = new ParsedHeader<>(value, MediaType.parseMediaType(value));
+			this.parsedContentType = parsed;
+		}
+		return parsed.value;
 	}
 
 	/**
@@ -1856,4 +1909,25 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		return DATE_FORMATTER.format(time);
 	}
 
+
+	/**
+	 * Immutable holder for the parsed value of a header, along with the raw
+	 * value(s) it was parsed from, to detect changes.
+	 */
+	private static final class ParsedHeader<T> {
+
+		private final Object rawValue;
+
+		private final T value;
+
+		ParsedHeader(Object rawValue, T value) {
+			this.rawValue = rawValue;
+			this.value = value;
+		}
+
+		boolean isFor(Object rawValue) {
+			return this.rawValue.equals(rawValue);
+		}
+	}
+
 }
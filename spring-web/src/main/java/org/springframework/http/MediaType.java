@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import java.util.Map;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -369,6 +371,12 @@ public class MediaType extends MimeType implements Serializable {
 
 	private static final String PARAM_QUALITY_FACTOR = "q";
 
+	private static final ConcurrentLruCache<String, MediaType> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, MediaType::parseMediaTypeInternal);
+
+	/** The constants above by their String value, to return shared instances when parsing. */
+	private static final Map<String, MediaType> knownMediaTypes;
+
 
 	static {
 		// Not using "valueOf' to avoid static init cost
@@ -398,6 +406,16 @@ public class MediaType extends MimeType implements Serializable {
 		TEXT_MARKDOWN = new MediaType("text", "markdown");
 		TEXT_PLAIN = new MediaType("text", "plain");
 		TEXT_XML = new MediaType("text", "xml");
+
+		knownMediaTypes = new HashMap<>(32);
+		for (MediaType mediaType : new MediaType[] {ALL, APPLICATION_ATOM_XML, APPLICATION_CBOR,
+				APPLICATION_FORM_URLENCODED, APPLICATION_JSON, APPLICATION_JSON_UTF8, APPLICATION_OCTET_STREAM,
+				APPLICATION_PDF, APPLICATION_PROBLEM_JSON, APPLICATION_PROBLEM_JSON_UTF8, APPLICATION_PROBLEM_XML,
+				APPLICATION_RSS_XML, APPLICATION_STREAM_JSON, APPLICATION_XHTML_XML, APPLICATION_XML,
+				IMAGE_GIF, IMAGE_JPEG, IMAGE_PNG, MULTIPART_FORM_DATA, MULTIPART_MIXED, MULTIPART_RELATED,
+				TEXT_EVENT_STREAM, TEXT_HTML, TEXT_MARKDOWN, TEXT_PLAIN, TEXT_XML}) {
+			knownMediaTypes.put(mediaType.toString(), mediaType);
+		}
 	}
 
 
@@ -573,11 +591,27 @@ public class MediaType extends MimeType implements Serializable {
 
 	/**
 	 * Parse the given String into a single {@code MediaType}.
+	 * <p>As of 5.2.10, recently parsed {@code MediaType} are cached for further
+	 * retrieval, and the constants declared in this class are returned as is.
 	 * @param mediaType the string to parse
 	 * @return the media type
 	 * @throws InvalidMediaTypeException if the media type value cannot be parsed
 	 */
 	public static MediaType parseMediaType(String mediaType) {
+		if (StringUtils.hasLength(mediaType)) {
+			MediaType knownMediaType = knownMediaTypes.get(mediaType);
+			if (knownMediaType != null) {
+				return knownMediaType;
+			}
+			// do not cache multipart media types with random boundaries
+			if (!mediaType.startsWith("multipart")) {
+				return cachedMediaTypes.get(mediaType);
+			}
+		}
+		return parseMediaTypeInternal(mediaType);
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		MimeType type;
 		try {
 			type = MimeTypeUtils.parseMimeType(mediaType);
@@ -605,6 +639,13 @@ public class MediaType extends MimeType implements Serializable {
 			return Collections.emptyList();
 		}
 		// Avoid using java.util.stream.Stream in hot paths
+		if (mediaTypes.indexOf(',') == -1) {
+			List<MediaType> result = new ArrayList<>(1);
+			if (StringUtils.hasText(mediaTypes)) {
+				result.add(parseMediaType(mediaTypes));
+			}
+			return result;
+		}
 		List<String> tokenizedTypes = MimeTypeUtils.tokenize(mediaTypes);
 		List<MediaType> result = new ArrayList<>(tokenizedTypes.size());
 		for (String type : tokenizedTypes) {
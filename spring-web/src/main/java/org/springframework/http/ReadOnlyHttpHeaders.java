@@ -39,42 +39,12 @@ class ReadOnlyHttpHeaders extends HttpHeaders {
 
 	private static final long serialVersionUID = -8578554704772377436L;
 
-	@Nullable
-	private MediaType cachedContentType;
-
-	@Nullable
-	private List<MediaType> cachedAccept;
-
 
 	ReadOnlyHttpHeaders(MultiValueMap<String, String> headers) {
 		super(headers);
 	}
 
 
-	@Override
-	public MediaType getContentType() {
-		if (this.cachedContentType != null) {
-			return this.cachedContentType;
-		}
-		else {
-			MediaType contentType = super.getContentType();
-			this.cachedContentType = contentType;
-			return contentType;
-		}
-	}
-
-	@Override
-	public List<MediaType> getAccept() {
-		if (this.cachedAccept != null) {
-			return this.cachedAccept;
-		}
-		else {
-			List<MediaType> accept = super.getAccept();
-			this.cachedAccept = accept;
-			return accept;
-		}
-	}
-
 	@Override
 	public void clearContentHeaders() {
 		// No-op.
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.util.List;
+
+/**
+ * Contract for client connectors and request factories that expose the state
+ * of their connection pool, per host.
+ *
+ * @since 5.2.10
+ * @see ConnectionPoolStats
+ * @see ClientHttpMetricsListener
+ */
+@FunctionalInterface
+public interface ClientConnectionPoolMetrics {
+
+	/**
+	 * Return the current statistics for each host the pool holds connections for.
+	 * @return the statistics, possibly empty
+	 */
+	List<ConnectionPoolStats> getConnectionPoolStats();
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Timings of a single client HTTP exchange, as reported to a
+ * {@link ClientHttpMetricsListener}.
+ *
+ * <p>Each phase is {@code null} if the exchange did not reach it, or if the
+ * underlying client does not expose it; for example, Apache HttpComponents does
+ * not report when a connection is acquired from the pool, so that the
+ * acquire time is included in the time to first byte instead.
+ *
+ * @since 5.2.10
+ */
+public final class ClientHttpExchangeMetrics {
+
+	private final URI uri;
+
+	private final String method;
+
+	private final int statusCode;
+
+	@Nullable
+	private final Duration acquireTime;
+
+	@Nullable
+	private final Duration timeToFirstByte;
+
+	@Nullable
+	private final Duration bodyTransferTime;
+
+	@Nullable
+	private final Throwable error;
+
+
+	/**
+	 * Create a new instance.
+	 * @param uri the URI of the request
+	 * @param method the HTTP method of the request
+	 * @param statusCode the raw status code of the response, or -1 if none was received
+	 * @param acquireTime the time until a connection was acquired
+	 * @param timeToFirstByte the time from the request being sent to the
+	 * response status and headers being received
+	 * @param bodyTransferTime the time from the response headers being received
+	 * to the response body being consumed
+	 * @param error the error the exchange failed with, if any
+	 */
+	public ClientHttpExchangeMetrics(URI uri, String method, int statusCode, @Nullable Duration acquireTime,
+			@Nullable Duration timeToFirstByte, @Nullable Duration bodyTransferTime, @Nullable Throwable error) {
+
+		Assert.notNull(uri, "URI must not be null");
+		Assert.notNull(method, "Method must not be null");
+		this.uri = uri;
+		this.method = method;
+		this.statusCode = statusCode;
+		this.acquireTime = acquireTime;
+		this.timeToFirstByte = timeToFirstByte;
+		this.bodyTransferTime = bodyTransferTime;
+		this.error = error;
+	}
+
+
+	/**
+	 * Return the URI of the request.
+	 */
+	public URI getUri() {
+		return this.uri;
+	}
+
+	/**
+	 * Return the host the request was sent to, as {@code "host:port"}, with
+	 * the default port of the scheme if the URI does not specify one.
+	 */
+	public String getHost() {
+		return getHost(this.uri);
+	}
+
+	/**
+	 * Return the HTTP method of the request.
+	 */
+	public String getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the raw status code of the response, or -1 if none was received.
+	 */
+	public int getStatusCode() {
+		return this.statusCode;
+	}
+
+	/**
+	 * Return the time it took to acquire a connection, either from the pool
+	 * or by opening a new one.
+	 */
+	@Nullable
+	public Duration getAcquireTime() {
+		return this.acquireTime;
+	}
+
+	/**
+	 * Return the time from the request being sent to the response status
+	 * and headers being received.
+	 */
+	@Nullable
+	public Duration getTimeToFirstByte() {
+		return this.timeToFirstByte;
+	}
+
+	/**
+	 * Return the time from the response headers being received to the
+	 * response body being fully consumed.
+	 */
+	@Nullable
+	public Duration getBodyTransferTime() {
+		return this.bodyTransferTime;
+	}
+
+	/**
+	 * Return the error the exchange failed with, if any.
+	 */
+	@Nullable
+	public Throwable getError() {
+		return this.error;
+	}
+
+
+	@Override
+	public String toString() {
+		return this.method + " " + this.uri + " [status=" + this.statusCode + ", acquire=" + this.acquireTime +
+				", ttfb=" + this.timeToFirstByte + ", body=" + this.bodyTransferTime +
+				(this.error != null ? ", error=" + this.error : "") + "]";
+	}
+
+
+	/**
+	 * Return the given URI's host as {@code "host:port"}, with the default
+	 * port of the scheme if the URI does not specify one.
+	 * @param uri the URI
+	 * @return the host and port
+	 */
+	public static String getHost(URI uri) {
+		int port = uri.getPort();
+		if (port == -1) {
+			port = ("https".equalsIgnoreCase(uri.getScheme()) || "wss".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+		}
+		return uri.getHost() + ":" + port;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+/**
+ * Callback notified by client connectors and request factories when an HTTP
+ * exchange completes, with the timings of the individual phases of the exchange.
+ *
+ * <p>Supported by {@link HttpComponentsClientHttpRequestFactory} as well as by
+ * the Reactor Netty and Jetty {@code ClientHttpConnector} implementations.
+ * The reactive connectors also notify a listener found in the Reactor context
+ * under {@link #CONTEXT_KEY}, which allows registering a listener per
+ * {@code WebClient} through an {@code ExchangeFilterFunction}.
+ *
+ * @since 5.2.10
+ * @see ClientHttpExchangeMetrics
+ * @see ClientConnectionPoolMetrics
+ */
+@FunctionalInterface
+public interface ClientHttpMetricsListener {
+
+	/**
+	 * Key under which reactive connectors look up a listener in the Reactor context.
+	 */
+	String CONTEXT_KEY = ClientHttpMetricsListener.class.getName() + ".CONTEXT";
+
+
+	/**
+	 * Invoked once per exchange, when the response body has been consumed or
+	 * released, or when the exchange failed or was cancelled.
+	 * <p>Invoked on the thread that completed the exchange, and therefore
+	 * expected to return quickly without blocking.
+	 * @param metrics the metrics for the exchange
+	 */
+	void exchangeCompleted(ClientHttpExchangeMetrics metrics);
+
+	/**
+	 * Return a composed listener that notifies this listener and then the given one.
+	 * @param after the listener to notify after this one
+	 * @return the composed listener
+	 */
+	default ClientHttpMetricsListener andThen(ClientHttpMetricsListener after) {
+		return metrics -> {
+			exchangeCompleted(metrics);
+			after.exchangeCompleted(metrics);
+		};
+	}
+
+}
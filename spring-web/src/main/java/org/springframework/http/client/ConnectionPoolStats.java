@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+/**
+ * Point-in-time statistics of the connection pool for a single host.
+ *
+ * @since 5.2.10
+ * @see ClientConnectionPoolMetrics
+ */
+public final class ConnectionPoolStats {
+
+	private final String host;
+
+	private final int active;
+
+	private final int idle;
+
+	private final int pending;
+
+	private final int max;
+
+
+	/**
+	 * Create a new instance.
+	 * @param host the host, as {@code "host:port"}
+	 * @param active the number of connections in use, or -1 if unknown
+	 * @param idle the number of idle connections, or -1 if unknown
+	 * @param pending the number of requests waiting for a connection
+	 * @param max the maximum number of connections, or -1 if unknown
+	 */
+	public ConnectionPoolStats(String host, int active, int idle, int pending, int max) {
+		this.host = host;
+		this.active = active;
+		this.idle = idle;
+		this.pending = pending;
+		this.max = max;
+	}
+
+
+	/**
+	 * Return the host, as {@code "host:port"}.
+	 */
+	public String getHost() {
+		return this.host;
+	}
+
+	/**
+	 * Return the number of connections in use, or -1 if unknown.
+	 */
+	public int getActive() {
+		return this.active;
+	}
+
+	/**
+	 * Return the number of idle connections, or -1 if unknown.
+	 */
+	public int getIdle() {
+		return this.idle;
+	}
+
+	/**
+	 * Return the number of requests waiting for a connection.
+	 */
+	public int getPending() {
+		return this.pending;
+	}
+
+	/**
+	 * Return the maximum number of connections, or -1 if unknown.
+	 */
+	public int getMax() {
+		return this.max;
+	}
+
+
+	@Override
+	public String toString() {
+		return this.host + " [active=" + this.active + ", idle=" + this.idle +
+				", pending=" + this.pending + ", max=" + this.max + "]";
+	}
+
+}
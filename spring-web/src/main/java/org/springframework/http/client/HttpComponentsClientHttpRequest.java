@@ -30,6 +30,7 @@ import org.apache.http.protocol.HttpContext;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
 /**
@@ -52,11 +53,21 @@ final class HttpComponentsClientHttpRequest extends AbstractBufferingClientHttpR
 
 	private final HttpContext httpContext;
 
+	@Nullable
+	private final ClientHttpMetricsListener metricsListener;
+
 
 	HttpComponentsClientHttpRequest(HttpClient client, HttpUriRequest request, HttpContext context) {
+		this(client, request, context, null);
+	}
+
+	HttpComponentsClientHttpRequest(HttpClient client, HttpUriRequest request, HttpContext context,
+			@Nullable ClientHttpMetricsListener metricsListener) {
+
 		this.httpClient = client;
 		this.httpRequest = request;
 		this.httpContext = context;
+		this.metricsListener = metricsListener;
 	}
 
 
@@ -84,6 +95,10 @@ final class HttpComponentsClientHttpRequest extends AbstractBufferingClientHttpR
 			HttpEntity requestEntity = new ByteArrayEntity(bufferedOutput);
 			entityEnclosingRequest.setEntity(requestEntity);
 		}
+		if (this.metricsListener != null) {
+			HttpComponentsMetricsRecorder recorder = new HttpComponentsMetricsRecorder(this.metricsListener, this.httpRequest);
+			return new HttpComponentsClientHttpResponse(recorder.execute(this.httpClient, this.httpContext), recorder);
+		}
 		HttpResponse httpResponse = this.httpClient.execute(this.httpRequest, this.httpContext);
 		return new HttpComponentsClientHttpResponse(httpResponse);
 	}
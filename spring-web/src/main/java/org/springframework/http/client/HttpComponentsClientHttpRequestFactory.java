@@ -19,8 +19,11 @@ package org.springframework.http.client;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiFunction;
 
+import org.apache.http.HttpHost;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.Configurable;
@@ -34,7 +37,10 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpTrace;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 
 import org.springframework.beans.factory.DisposableBean;
@@ -50,6 +56,11 @@ import org.springframework.util.Assert;
  * <p>Allows to use a pre-configured {@link HttpClient} instance -
  * potentially with authentication, HTTP connection pooling, etc.
  *
+ * <p>As of 5.2.10, the timings of each exchange can be reported to a
+ * {@link ClientHttpMetricsListener}, and the state of the connection pool is
+ * exposed if the {@link PoolingHttpClientConnectionManager} of the client is
+ * {@linkplain #setConnectionManager provided}.
+ *
  * <p><b>NOTE:</b> Requires Apache HttpComponents 4.3 or higher, as of Spring 4.0.
  *
  * @author Oleg Kalnichevski
@@ -58,7 +69,8 @@ import org.springframework.util.Assert;
  * @author Juergen Hoeller
  * @since 3.1
  */
-public class HttpComponentsClientHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+public class HttpComponentsClientHttpRequestFactory
+		implements ClientHttpRequestFactory, ClientConnectionPoolMetrics, DisposableBean {
 
 	private HttpClient httpClient;
 
@@ -70,6 +82,12 @@ public class HttpComponentsClientHttpRequestFactory implements ClientHttpRequest
 	@Nullable
 	private BiFunction<HttpMethod, URI, HttpContext> httpContextFactory;
 
+	@Nullable
+	private ClientHttpMetricsListener metricsListener;
+
+	@Nullable
+	private PoolingHttpClientConnectionManager connectionManager;
+
 
 	/**
 	 * Create a new instance of the {@code HttpComponentsClientHttpRequestFactory}
@@ -175,6 +193,66 @@ public class HttpComponentsClientHttpRequestFactory implements ClientHttpRequest
 		this.httpContextFactory = httpContextFactory;
 	}
 
+	/**
+	 * Set a listener to notify with the timings of every exchange, once
+	 * its response is closed.
+	 * <p>HttpClient does not report when a connection is leased from the pool,
+	 * so the time to first byte includes the time to acquire a connection,
+	 * and {@link ClientHttpExchangeMetrics#getAcquireTime()} is {@code null}.
+	 * @param metricsListener the listener, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setMetricsListener(@Nullable ClientHttpMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Return the configured metrics listener, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public ClientHttpMetricsListener getMetricsListener() {
+		return this.metricsListener;
+	}
+
+	/**
+	 * Set the connection manager of the configured {@link HttpClient}, in
+	 * order to expose the state of its connection pool through
+	 * {@link #getConnectionPoolStats()}.
+	 * <p>HttpClient does not provide access to its connection manager, so
+	 * this needs to be the instance the client was built with.
+	 * @param connectionManager the connection manager, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setConnectionManager(@Nullable PoolingHttpClientConnectionManager connectionManager) {
+		this.connectionManager = connectionManager;
+	}
+
+	/**
+	 * Return the state of the connection pool for each route, or an empty
+	 * list if no {@linkplain #setConnectionManager connection manager} was set.
+	 * @since 5.2.10
+	 */
+	@Override
+	public List<ConnectionPoolStats> getConnectionPoolStats() {
+		PoolingHttpClientConnectionManager manager = this.connectionManager;
+		if (manager == null) {
+			return new ArrayList<>();
+		}
+		List<ConnectionPoolStats> result = new ArrayList<>();
+		for (HttpRoute route : manager.getRoutes()) {
+			PoolStats stats = manager.getStats(route);
+			HttpHost target = route.getTargetHost();
+			int port = target.getPort();
+			if (port == -1) {
+				port = ("https".equalsIgnoreCase(target.getSchemeName()) ? 443 : 80);
+			}
+			result.add(new ConnectionPoolStats(target.getHostName() + ":" + port,
+					stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax()));
+		}
+		return result;
+	}
+
 	@Override
 	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
 		HttpClient client = getHttpClient();
@@ -202,10 +280,10 @@ public class HttpComponentsClientHttpRequestFactory implements ClientHttpRequest
 		}
 
 		if (this.bufferRequestBody) {
-			return new HttpComponentsClientHttpRequest(client, httpRequest, context);
+			return new HttpComponentsClientHttpRequest(client, httpRequest, context, this.metricsListener);
 		}
 		else {
-			return new HttpComponentsStreamingClientHttpRequest(client, httpRequest, context);
+			return new HttpComponentsStreamingClientHttpRequest(client, httpRequest, context, this.metricsListener);
 		}
 	}
 
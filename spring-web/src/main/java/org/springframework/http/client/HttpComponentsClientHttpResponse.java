@@ -44,12 +44,20 @@ final class HttpComponentsClientHttpResponse extends AbstractClientHttpResponse
 
 	private final HttpResponse httpResponse;
 
+	@Nullable
+	private final HttpComponentsMetricsRecorder metricsRecorder;
+
 	@Nullable
 	private HttpHeaders headers;
 
 
 	HttpComponentsClientHttpResponse(HttpResponse httpResponse) {
+		this(httpResponse, null);
+	}
+
+	HttpComponentsClientHttpResponse(HttpResponse httpResponse, @Nullable HttpComponentsMetricsRecorder metricsRecorder) {
 		this.httpResponse = httpResponse;
+		this.metricsRecorder = metricsRecorder;
 	}
 
 
@@ -97,6 +105,11 @@ final class HttpComponentsClientHttpResponse extends AbstractClientHttpResponse
 		catch (IOException ex) {
 			// Ignore exception on close...
 		}
+		finally {
+			if (this.metricsRecorder != null) {
+				this.metricsRecorder.responseClosed();
+			}
+		}
 	}
 
 }
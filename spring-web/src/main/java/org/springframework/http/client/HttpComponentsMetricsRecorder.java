@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HttpContext;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Records the timings of a single exchange executed through Apache
+ * HttpComponents, and notifies a {@link ClientHttpMetricsListener} once the
+ * response is closed.
+ *
+ * <p>HttpClient does not report when a connection is leased from the pool,
+ * so the time to first byte includes the acquire time, which is not reported.
+ *
+ * @since 5.2.10
+ */
+final class HttpComponentsMetricsRecorder {
+
+	private final ClientHttpMetricsListener listener;
+
+	private final HttpUriRequest httpRequest;
+
+	private long startTime;
+
+	private long responseTime;
+
+	private int statusCode = -1;
+
+	private boolean completed;
+
+
+	HttpComponentsMetricsRecorder(ClientHttpMetricsListener listener, HttpUriRequest httpRequest) {
+		this.listener = listener;
+		this.httpRequest = httpRequest;
+	}
+
+
+	public HttpResponse execute(HttpClient httpClient, HttpContext httpContext) throws IOException {
+		this.startTime = System.nanoTime();
+		HttpResponse httpResponse;
+		try {
+			httpResponse = httpClient.execute(this.httpRequest, httpContext);
+		}
+		catch (IOException | RuntimeException ex) {
+			complete(ex);
+			throw ex;
+		}
+		this.responseTime = System.nanoTime();
+		this.statusCode = httpResponse.getStatusLine().getStatusCode();
+		return httpResponse;
+	}
+
+	public void responseClosed() {
+		complete(null);
+	}
+
+	private void complete(@Nullable Throwable error) {
+		if (this.completed) {
+			return;
+		}
+		this.completed = true;
+		boolean received = (this.statusCode != -1);
+		this.listener.exchangeCompleted(new ClientHttpExchangeMetrics(
+				this.httpRequest.getURI(), this.httpRequest.getMethod(), this.statusCode, null,
+				(received ? Duration.ofNanos(this.responseTime - this.startTime) : null),
+				(received ? Duration.ofNanos(System.nanoTime() - this.responseTime) : null),
+				error));
+	}
+
+}
@@ -54,14 +54,24 @@ final class HttpComponentsStreamingClientHttpRequest extends AbstractClientHttpR
 
 	private final HttpContext httpContext;
 
+	@Nullable
+	private final ClientHttpMetricsListener metricsListener;
+
 	@Nullable
 	private Body body;
 
 
 	HttpComponentsStreamingClientHttpRequest(HttpClient client, HttpUriRequest request, HttpContext context) {
+		this(client, request, context, null);
+	}
+
+	HttpComponentsStreamingClientHttpRequest(HttpClient client, HttpUriRequest request, HttpContext context,
+			@Nullable ClientHttpMetricsListener metricsListener) {
+
 		this.httpClient = client;
 		this.httpRequest = request;
 		this.httpContext = context;
+		this.metricsListener = metricsListener;
 	}
 
 
@@ -96,6 +106,10 @@ final class HttpComponentsStreamingClientHttpRequest extends AbstractClientHttpR
 			entityEnclosingRequest.setEntity(requestEntity);
 		}
 
+		if (this.metricsListener != null) {
+			HttpComponentsMetricsRecorder recorder = new HttpComponentsMetricsRecorder(this.metricsListener, this.httpRequest);
+			return new HttpComponentsClientHttpResponse(recorder.execute(this.httpClient, this.httpContext), recorder);
+		}
 		HttpResponse httpResponse = this.httpClient.execute(this.httpRequest, this.httpContext);
 		return new HttpComponentsClientHttpResponse(httpResponse);
 	}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.OutputStreamContentProvider;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpRequest} implementation based on the Jetty
+ * {@code HttpClient}, streaming the request body as it is written.
+ *
+ * <p>Created via the {@link JettyClientHttpRequestFactory}.
+ *
+ * @since 5.2.10
+ */
+final class JettyClientHttpRequest extends AbstractClientHttpRequest {
+
+	private final Request request;
+
+	private final long readTimeout;
+
+	private final InputStreamResponseListener listener = new InputStreamResponseListener();
+
+	@Nullable
+	private OutputStream body;
+
+
+	JettyClientHttpRequest(Request request, long readTimeout) {
+		this.request = request;
+		this.readTimeout = readTimeout;
+	}
+
+
+	@Override
+	public String getMethodValue() {
+		return this.request.getMethod();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.request.getURI();
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+		if (this.body == null) {
+			// The request is sent with the headers as soon as the body is opened,
+			// and body content is then streamed as it is written. Content-Type,
+			// if any, is among the headers already.
+			OutputStreamContentProvider contentProvider = new OutputStreamContentProvider();
+			addHeaders(headers);
+			this.request.content(contentProvider);
+			this.request.send(this.listener);
+			this.body = contentProvider.getOutputStream();
+		}
+		return this.body;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		if (this.body != null) {
+			this.body.close();
+		}
+		else {
+			addHeaders(headers);
+			this.request.send(this.listener);
+		}
+		try {
+			Response response = (this.readTimeout > 0 ?
+					this.listener.get(this.readTimeout, TimeUnit.MILLISECONDS) :
+					this.listener.get(Long.MAX_VALUE, TimeUnit.MILLISECONDS));
+			return new JettyClientHttpResponse(response, this.listener.getInputStream());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			this.request.abort(ex);
+			throw new InterruptedIOException("Interrupted while waiting for response");
+		}
+		catch (TimeoutException ex) {
+			this.request.abort(ex);
+			throw new IOException("Timed out waiting for response from " + getURI(), ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Failed to execute request to " + getURI(), cause);
+		}
+	}
+
+	private void addHeaders(HttpHeaders headers) {
+		headers.forEach((headerName, headerValues) -> {
+			for (String headerValue : headerValues) {
+				this.request.header(headerName, headerValue);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.JettyResourceFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation based on the Jetty
+ * {@link HttpClient}, which pools connections per destination and, when
+ * configured with an HTTP/2 transport, multiplexes requests over them.
+ * Request and response bodies are streamed rather than buffered.
+ *
+ * <p>Given the same {@link JettyResourceFactory} as a
+ * {@link org.springframework.http.client.reactive.JettyClientHttpConnector},
+ * {@code RestTemplate} and {@code WebClient} share one executor, buffer pool
+ * and scheduler; they may also share the {@link HttpClient} itself.
+ *
+ * @since 5.2.10
+ * @see org.springframework.http.client.reactive.JettyClientHttpConnector
+ */
+public class JettyClientHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+
+	private final HttpClient httpClient;
+
+	private final boolean defaultClient;
+
+	private long readTimeout = 30_000;
+
+
+	/**
+	 * Create a factory with a default {@link HttpClient} instance.
+	 */
+	public JettyClientHttpRequestFactory() {
+		this.httpClient = new HttpClient();
+		this.defaultClient = true;
+	}
+
+	/**
+	 * Create a factory with the given {@link HttpClient} instance.
+	 * @param httpClient the client to use
+	 */
+	public JettyClientHttpRequestFactory(HttpClient httpClient) {
+		this(httpClient, null);
+	}
+
+	/**
+	 * Create a factory with the given {@link HttpClient} instance, configured
+	 * with the resources of the given {@link JettyResourceFactory}.
+	 * @param httpClient the client to use
+	 * @param resourceFactory the resources to use
+	 */
+	public JettyClientHttpRequestFactory(HttpClient httpClient, @Nullable JettyResourceFactory resourceFactory) {
+		Assert.notNull(httpClient, "HttpClient must not be null");
+		if (resourceFactory != null) {
+			httpClient.setExecutor(resourceFactory.getExecutor());
+			httpClient.setByteBufferPool(resourceFactory.getByteBufferPool());
+			httpClient.setScheduler(resourceFactory.getScheduler());
+		}
+		this.httpClient = httpClient;
+		this.defaultClient = false;
+	}
+
+
+	/**
+	 * Set the underlying connect timeout in milliseconds.
+	 * A value of 0 specifies an infinite timeout.
+	 * <p>Must be set before the first request is created.
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		Assert.isTrue(connectTimeout >= 0, "Timeout must be a non-negative value");
+		this.httpClient.setConnectTimeout(connectTimeout);
+	}
+
+	/**
+	 * Set how long to wait, in milliseconds, for the response headers once the
+	 * request has been sent, as well as the idle timeout while reading the
+	 * response body. A value of 0 specifies an infinite timeout.
+	 * <p>Default is 30 seconds.
+	 */
+	public void setReadTimeout(int readTimeout) {
+		Assert.isTrue(readTimeout >= 0, "Timeout must be a non-negative value");
+		this.readTimeout = readTimeout;
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		if (!this.httpClient.isStarted()) {
+			try {
+				this.httpClient.start();
+			}
+			catch (Exception ex) {
+				throw new IOException("Failed to start Jetty HttpClient", ex);
+			}
+		}
+		Request request = this.httpClient.newRequest(uri).method(httpMethod.name());
+		if (this.readTimeout > 0) {
+			request.idleTimeout(this.readTimeout, TimeUnit.MILLISECONDS);
+		}
+		return new JettyClientHttpRequest(request, this.readTimeout);
+	}
+
+
+	@Override
+	public void destroy() throws Exception {
+		if (this.defaultClient) {
+			// Clean up the client if we created it in the constructor
+			this.httpClient.stop();
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.InputStream;
+
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.http.HttpField;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpResponse} implementation based on the Jetty
+ * {@code HttpClient}, streaming the response body as it is read.
+ *
+ * @since 5.2.10
+ */
+final class JettyClientHttpResponse extends AbstractClientHttpResponse {
+
+	private final Response response;
+
+	private final InputStream body;
+
+	@Nullable
+	private volatile HttpHeaders headers;
+
+
+	JettyClientHttpResponse(Response response, InputStream body) {
+		this.response = response;
+		this.body = body;
+	}
+
+
+	@Override
+	public int getRawStatusCode() {
+		return this.response.getStatus();
+	}
+
+	@Override
+	public String getStatusText() {
+		String reason = this.response.getReason();
+		return (reason != null ? reason : "");
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		HttpHeaders headers = this.headers;
+		if (headers == null) {
+			headers = new HttpHeaders();
+			for (HttpField field : this.response.getHeaders()) {
+				headers.add(field.getName(), field.getValue());
+			}
+			this.headers = headers;
+		}
+		return headers;
+	}
+
+	@Override
+	public InputStream getBody() {
+		return this.body;
+	}
+
+	@Override
+	public void close() {
+		try {
+			// Drain the body so that the connection can be reused
+			StreamUtils.drain(this.body);
+			this.body.close();
+		}
+		catch (Exception ex) {
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
+
+/**
+ * Variant of {@link ClientHttpRequestInterceptor} that is passed the request
+ * body as a {@link StreamingHttpOutputMessage.Body} callback rather than as a
+ * byte array, so that the body does not need to be buffered in memory.
+ * Implementations of this interface can be
+ * {@linkplain org.springframework.http.client.support.InterceptingHttpAccessor#setStreamingInterceptors
+ * registered} with the {@link org.springframework.web.client.RestTemplate RestTemplate}.
+ *
+ * <p>Interceptors can examine and modify the request headers, wrap the body
+ * callback, e.g. to decorate the {@link java.io.OutputStream} it is written
+ * to, and wrap the response, e.g. to decorate its body stream.
+ *
+ * @since 5.2.10
+ * @see StreamingInterceptingClientHttpRequestFactory
+ */
+@FunctionalInterface
+public interface StreamingClientHttpRequestInterceptor {
+
+	/**
+	 * Intercept the given request, and return a response. The given
+	 * {@link StreamingClientHttpRequestExecution} allows the interceptor to pass
+	 * on the request and response to the next entity in the chain.
+	 * <p>Note that the body is written only once, when the request is finally
+	 * executed, and that it cannot be read or written more than once.
+	 * @param request the request, containing method, URI, and headers
+	 * @param body the body of the request, or {@code null} if there is none
+	 * @param execution the request execution
+	 * @return the response
+	 * @throws IOException in case of I/O errors
+	 */
+	ClientHttpResponse intercept(HttpRequest request, @Nullable StreamingHttpOutputMessage.Body body,
+			StreamingClientHttpRequestExecution execution) throws IOException;
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpRequestFactory} wrapper with support for
+ * {@link StreamingClientHttpRequestInterceptor StreamingClientHttpRequestInterceptors}.
+ *
+ * <p>In contrast to {@link InterceptingClientHttpRequestFactory}, the request
+ * body is not buffered, as long as it is written through
+ * {@link org.springframework.http.StreamingHttpOutputMessage#setBody}, as
+ * {@link org.springframework.http.converter.HttpMessageConverter HttpMessageConverters}
+ * do. A body written to {@link ClientHttpRequest#getBody()} is buffered instead.
+ * The body is streamed to the wrapped request factory if that supports it.
+ *
+ * @since 5.2.10
+ * @see StreamingClientHttpRequestInterceptor
+ */
+public class StreamingInterceptingClientHttpRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+	private final List<StreamingClientHttpRequestInterceptor> interceptors;
+
+
+	/**
+	 * Create a new instance of the {@code StreamingInterceptingClientHttpRequestFactory}
+	 * with the given parameters.
+	 * @param requestFactory the request factory to wrap
+	 * @param interceptors the interceptors that are to be applied (can be {@code null})
+	 */
+	public StreamingInterceptingClientHttpRequestFactory(ClientHttpRequestFactory requestFactory,
+			@Nullable List<StreamingClientHttpRequestInterceptor> interceptors) {
+
+		super(requestFactory);
+		this.interceptors = (interceptors != null ? interceptors : Collections.emptyList());
+	}
+
+
+	@Override
+	protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod, ClientHttpRequestFactory requestFactory) {
+		return new StreamingInterceptingClientHttpRequest(requestFactory, this.interceptors, uri, httpMethod);
+	}
+
+}
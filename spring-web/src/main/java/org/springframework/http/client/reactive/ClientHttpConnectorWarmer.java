@@ -0,0 +1,254 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link SmartLifecycle} that warms up the connection pool of a
+ * {@link ClientHttpConnector} when the application context starts, so that
+ * the first requests to each downstream host do not pay for DNS resolution,
+ * TCP connect and TLS handshake.
+ *
+ * <p>For each configured target, the given number of requests is sent
+ * concurrently, by default with the {@code HEAD} method, and their responses
+ * are drained so that the connections are returned to the pool. Since the
+ * connections are pooled by the connector, e.g. in the {@code ConnectionProvider}
+ * of a {@link ReactorResourceFactory} or in the {@code HttpClient} configured
+ * with a {@link JettyResourceFactory}, the connector to warm up must be the
+ * one used by the application's {@code WebClient}:
+ * <pre class="code">
+ * ClientHttpConnectorWarmer warmer = new ClientHttpConnectorWarmer(connector);
+ * warmer.addTarget(URI.create("https://orders.internal/health"), 10);
+ * </pre>
+ *
+ * <p>The warm-up runs in the background by default, with its progress
+ * reported through {@link #isReady()}, e.g. for a readiness probe. It can
+ * also be {@linkplain #setWaitForWarmUp made to block} the start of the
+ * application context. Failed warm-up requests are counted and logged,
+ * but do not fail the start.
+ *
+ * @since 5.2.10
+ */
+public class ClientHttpConnectorWarmer implements SmartLifecycle {
+
+	private static final Log logger = LogFactory.getLog(ClientHttpConnectorWarmer.class);
+
+
+	private final ClientHttpConnector connector;
+
+	private final Map<URI, Integer> targets = new LinkedHashMap<>();
+
+	private HttpMethod method = HttpMethod.HEAD;
+
+	private Duration timeout = Duration.ofSeconds(10);
+
+	private boolean waitForWarmUp = false;
+
+	private int phase = 0;
+
+	private final LongAdder succeededCount = new LongAdder();
+
+	private final LongAdder failedCount = new LongAdder();
+
+	private volatile CountDownLatch readyLatch = new CountDownLatch(1);
+
+	@Nullable
+	private volatile Disposable warmUp;
+
+	private volatile boolean running;
+
+
+	/**
+	 * Create a warmer for the given connector.
+	 * @param connector the connector whose connection pool to warm up
+	 */
+	public ClientHttpConnectorWarmer(ClientHttpConnector connector) {
+		Assert.notNull(connector, "ClientHttpConnector must not be null");
+		this.connector = connector;
+	}
+
+
+	/**
+	 * Add a target to warm up connections to.
+	 * @param uri the absolute URI to send warm-up requests to, e.g. a
+	 * health check endpoint of the downstream service
+	 * @param connections the number of connections to establish, i.e. the
+	 * number of concurrent warm-up requests
+	 */
+	public void addTarget(URI uri, int connections) {
+		Assert.isTrue(uri.isAbsolute(), "URI must be absolute");
+		Assert.isTrue(connections > 0, "'connections' must be greater than 0");
+		this.targets.put(uri, connections);
+	}
+
+	/**
+	 * Return the configured targets, with the number of connections for each.
+	 */
+	public Map<URI, Integer> getTargets() {
+		return this.targets;
+	}
+
+	/**
+	 * Set the HTTP method of warm-up requests.
+	 * <p>By default set to HEAD.
+	 */
+	public void setMethod(HttpMethod method) {
+		Assert.notNull(method, "'method' must not be null");
+		this.method = method;
+	}
+
+	/**
+	 * Set the maximum time to spend on the warm-up, after which pending
+	 * warm-up requests are canceled.
+	 * <p>By default set to 10 seconds.
+	 */
+	public void setTimeout(Duration timeout) {
+		Assert.isTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(), "'timeout' must be positive");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Whether {@link #start()} should wait for the warm-up to complete, or
+	 * for the {@linkplain #setTimeout timeout} to expire.
+	 * <p>By default set to {@code false}, i.e. the warm-up runs in the background.
+	 */
+	public void setWaitForWarmUp(boolean waitForWarmUp) {
+		this.waitForWarmUp = waitForWarmUp;
+	}
+
+	/**
+	 * Set the lifecycle phase to warm up in.
+	 * <p>By default set to 0, i.e. before lifecycle beans in later phases,
+	 * such as embedded web servers, are started.
+	 */
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+
+	@Override
+	public void start() {
+		if (this.running) {
+			return;
+		}
+		this.running = true;
+		CountDownLatch readyLatch = new CountDownLatch(1);
+		this.readyLatch = readyLatch;
+		Mono<Void> warmUp = Flux.fromIterable(this.targets.entrySet())
+				.flatMap(target -> Flux.range(0, target.getValue())
+						.flatMap(i -> warmUpConnection(target.getKey()), target.getValue()))
+				.then()
+				.timeout(this.timeout, Mono.fromRunnable(() -> {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Connection warm-up did not complete within " + this.timeout);
+					}
+				}))
+				.doOnTerminate(() -> {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Connection warm-up finished: " + this.succeededCount.sum() +
+								" succeeded, " + this.failedCount.sum() + " failed");
+					}
+					readyLatch.countDown();
+				});
+		this.warmUp = warmUp.subscribe();
+		if (this.waitForWarmUp) {
+			try {
+				readyLatch.await(this.timeout.toMillis() + 1000, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private Mono<Void> warmUpConnection(URI uri) {
+		return this.connector.connect(this.method, uri, ClientHttpRequest::setComplete)
+				.flatMap(response -> response.getBody().doOnNext(DataBufferUtils::release).then())
+				.doOnSuccess(aVoid -> this.succeededCount.increment())
+				.onErrorResume(ex -> {
+					this.failedCount.increment();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Warm-up request to " + uri + " failed: " + ex);
+					}
+					return Mono.empty();
+				});
+	}
+
+	@Override
+	public void stop() {
+		Disposable warmUp = this.warmUp;
+		if (warmUp != null) {
+			warmUp.dispose();
+		}
+		this.running = false;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+
+	/**
+	 * Whether the warm-up of the last {@link #start()} has finished,
+	 * successfully or not, or has timed out. A warm-up canceled through
+	 * {@link #stop()} does not count as finished.
+	 */
+	public boolean isReady() {
+		return (this.readyLatch.getCount() == 0);
+	}
+
+	/**
+	 * Return the number of warm-up requests that succeeded, i.e. the number
+	 * of connections that were established or verified.
+	 */
+	public long getSucceededCount() {
+		return this.succeededCount.sum();
+	}
+
+	/**
+	 * Return the number of warm-up requests that failed.
+	 */
+	public long getFailedCount() {
+		return this.failedCount.sum();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpExchangeMetrics;
+import org.springframework.http.client.ClientHttpMetricsListener;
+import org.springframework.lang.Nullable;
+
+/**
+ * Records the phases of a single exchange on behalf of a connector, and
+ * notifies a {@link ClientHttpMetricsListener} once the exchange completes.
+ *
+ * <p>All times are kept as nanoseconds elapsed since the exchange started,
+ * with -1 for phases that were not reached.
+ *
+ * @since 5.2.10
+ */
+final class ExchangeMetricsRecorder {
+
+	private final ClientHttpMetricsListener listener;
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final long startTime = System.nanoTime();
+
+	private volatile long acquiredTime = -1;
+
+	private volatile long requestSentTime = -1;
+
+	private volatile long responseTime = -1;
+
+	private volatile int statusCode = -1;
+
+	private final AtomicBoolean completed = new AtomicBoolean();
+
+
+	private ExchangeMetricsRecorder(ClientHttpMetricsListener listener, HttpMethod method, URI uri) {
+		this.listener = listener;
+		this.method = method;
+		this.uri = uri;
+	}
+
+
+	public void connectionAcquired() {
+		this.acquiredTime = elapsed();
+	}
+
+	public void requestSent() {
+		this.requestSentTime = elapsed();
+	}
+
+	public void responseReceived(int statusCode) {
+		this.statusCode = statusCode;
+		this.responseTime = elapsed();
+	}
+
+	/**
+	 * Wrap the given response body so that the exchange completes when the
+	 * body is consumed, fails, or is cancelled.
+	 */
+	public Flux<DataBuffer> recordBody(Flux<DataBuffer> body) {
+		return body.doOnError(this::completed).doFinally(signalType -> completed(null));
+	}
+
+	/**
+	 * Complete the exchange and notify the listener, unless already completed.
+	 * @param error the error the exchange failed with, if any
+	 */
+	public void completed(@Nullable Throwable error) {
+		if (!this.completed.compareAndSet(false, true)) {
+			return;
+		}
+		long endTime = elapsed();
+		long acquired = this.acquiredTime;
+		long sent = this.requestSentTime;
+		long response = this.responseTime;
+		long firstByteStart = (sent != -1 ? sent : Math.max(acquired, 0));
+		this.listener.exchangeCompleted(new ClientHttpExchangeMetrics(this.uri, this.method.name(), this.statusCode,
+				(acquired != -1 ? Duration.ofNanos(acquired) : null),
+				(response != -1 ? Duration.ofNanos(response - firstByteStart) : null),
+				(response != -1 ? Duration.ofNanos(endTime - response) : null),
+				error));
+	}
+
+	private long elapsed() {
+		return System.nanoTime() - this.startTime;
+	}
+
+
+	/**
+	 * Create a recorder for an exchange that starts now, combining the given
+	 * listener with one found in the given context, if any.
+	 * @return the recorder, or {@code null} if there is no listener to notify
+	 */
+	@Nullable
+	public static ExchangeMetricsRecorder create(@Nullable ClientHttpMetricsListener listener,
+			Context context, HttpMethod method, URI uri) {
+
+		ClientHttpMetricsListener contextListener = context.getOrDefault(ClientHttpMetricsListener.CONTEXT_KEY, null);
+		if (contextListener != null) {
+			listener = (listener != null ? listener.andThen(contextListener) : contextListener);
+		}
+		return (listener != null ? new ExchangeMetricsRecorder(listener, method, uri) : null);
+	}
+
+}
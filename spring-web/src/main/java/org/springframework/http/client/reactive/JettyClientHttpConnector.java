@@ -17,10 +17,17 @@
 package org.springframework.http.client.reactive;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.DuplexConnectionPool;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+import org.eclipse.jetty.client.api.Destination;
+import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.reactive.client.ContentChunk;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -29,22 +36,33 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientConnectionPoolMetrics;
+import org.springframework.http.client.ClientHttpMetricsListener;
+import org.springframework.http.client.ConnectionPoolStats;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
  * {@link ClientHttpConnector} for the Jetty Reactive Streams HttpClient.
  *
+ * <p>As of 5.2.10, also exposes the state of the connection pool of the
+ * underlying {@link HttpClient} per destination.
+ *
  * @author Sebastien Deleuze
  * @since 5.1
  * @see <a href="https://github.com/jetty-project/jetty-reactive-httpclient">Jetty ReactiveStreams HttpClient</a>
  */
-public class JettyClientHttpConnector implements ClientHttpConnector {
+public class JettyClientHttpConnector implements ClientHttpConnector, ClientConnectionPoolMetrics {
 
 	private final HttpClient httpClient;
 
 	private DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
+	@Nullable
+	private ClientHttpMetricsListener metricsListener;
+
+	private long maxResponseSize = -1;
+
 
 	/**
 	 * Default constructor that creates a new instance of {@link HttpClient}.
@@ -96,6 +114,49 @@ public class JettyClientHttpConnector implements ClientHttpConnector {
 		this.bufferFactory = bufferFactory;
 	}
 
+	/**
+	 * Set a listener to notify with the timings of every exchange.
+	 * <p>A listener found in the Reactor context under
+	 * {@link ClientHttpMetricsListener#CONTEXT_KEY} is notified as well.
+	 * @param metricsListener the listener, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setMetricsListener(@Nullable ClientHttpMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Return the configured metrics listener, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public ClientHttpMetricsListener getMetricsListener() {
+		return this.metricsListener;
+	}
+
+
+	/**
+	 * Set the maximum size of a response body, beyond which reading the body
+	 * fails with a {@link org.springframework.core.io.buffer.DataBufferLimitException},
+	 * and the connection is aborted. Unlike the {@code maxInMemorySize} of
+	 * codecs, this applies to the raw body, whether it is decoded, aggregated
+	 * or streamed, and is checked against the {@code Content-Length} header
+	 * before any of the body is read.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxResponseSize the maximum number of bytes, or -1 for unlimited
+	 * @since 5.2.10
+	 */
+	public void setMaxResponseSize(long maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+	}
+
+	/**
+	 * Return the configured maximum size of a response body, or -1 if unlimited.
+	 * @since 5.2.10
+	 */
+	public long getMaxResponseSize() {
+		return this.maxResponseSize;
+	}
 
 	@Override
 	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
@@ -114,14 +175,30 @@ public class JettyClientHttpConnector implements ClientHttpConnector {
 			}
 		}
 
-		JettyClientHttpRequest clientHttpRequest = new JettyClientHttpRequest(
-				this.httpClient.newRequest(uri).method(method.toString()), this.bufferFactory);
+		return Mono.deferWithContext(context -> {
+			Request jettyRequest = this.httpClient.newRequest(uri).method(method.toString());
+			ExchangeMetricsRecorder recorder =
+					ExchangeMetricsRecorder.create(this.metricsListener, context, method, uri);
+			if (recorder != null) {
+				jettyRequest
+						.onRequestBegin(request -> recorder.connectionAcquired())
+						.onRequestSuccess(request -> recorder.requestSent())
+						.onResponseBegin(response -> recorder.responseReceived(response.getStatus()))
+						.onComplete(result -> recorder.completed(result.getFailure()));
+			}
 
-		return requestCallback.apply(clientHttpRequest).then(Mono.from(
-				clientHttpRequest.getReactiveRequest().response((response, chunks) -> {
-					Flux<DataBuffer> content = Flux.from(chunks).map(this::toDataBuffer);
-					return Mono.just(new JettyClientHttpResponse(response, content));
-				})));
+			JettyClientHttpRequest clientHttpRequest = new JettyClientHttpRequest(jettyRequest, this.bufferFactory);
+
+			Mono<ClientHttpResponse> result = requestCallback.apply(clientHttpRequest).then(Mono.from(
+					clientHttpRequest.getReactiveRequest().response((response, chunks) -> {
+						Flux<DataBuffer> content = Flux.from(chunks).map(this::toDataBuffer);
+						ClientHttpResponse clientHttpResponse = new JettyClientHttpResponse(response, content);
+						return Mono.just(this.maxResponseSize >= 0 ?
+								new SizeLimitingClientHttpResponse(clientHttpResponse, method, this.maxResponseSize) :
+								clientHttpResponse);
+					})));
+			return (recorder != null ? result.doOnCancel(() -> recorder.completed(null)) : result);
+		});
 	}
 
 	private DataBuffer toDataBuffer(ContentChunk chunk) {
@@ -139,4 +216,37 @@ public class JettyClientHttpConnector implements ClientHttpConnector {
 		return buffer;
 	}
 
+
+	/**
+	 * Return the state of the connection pool of each destination.
+	 * <p>Active and idle connections are reported for Jetty's default
+	 * {@link DuplexConnectionPool}, and as -1 for other pool implementations.
+	 * @since 5.2.10
+	 */
+	@Override
+	public List<ConnectionPoolStats> getConnectionPoolStats() {
+		List<Destination> destinations = this.httpClient.getDestinations();
+		List<ConnectionPoolStats> result = new ArrayList<>(destinations.size());
+		for (Destination destination : destinations) {
+			if (!(destination instanceof HttpDestination)) {
+				continue;
+			}
+			HttpDestination httpDestination = (HttpDestination) destination;
+			int active = -1;
+			int idle = -1;
+			int max = -1;
+			if (httpDestination.getConnectionPool() instanceof DuplexConnectionPool) {
+				DuplexConnectionPool pool = (DuplexConnectionPool) httpDestination.getConnectionPool();
+				active = pool.getActiveConnectionCount();
+				idle = pool.getIdleConnectionCount();
+			}
+			if (httpDestination.getConnectionPool() instanceof AbstractConnectionPool) {
+				max = ((AbstractConnectionPool) httpDestination.getConnectionPool()).getMaxConnectionCount();
+			}
+			result.add(new ConnectionPoolStats(httpDestination.getHost() + ":" + httpDestination.getPort(),
+					active, idle, httpDestination.getQueuedRequestCount(), max));
+		}
+		return result;
+	}
+
 }
@@ -20,6 +20,7 @@ import java.net.URI;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.NettyOutbound;
 import reactor.netty.http.client.HttpClient;
@@ -27,7 +28,10 @@ import reactor.netty.http.client.HttpClientRequest;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.resources.LoopResources;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpMetricsListener;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -45,6 +49,11 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 
 	private final HttpClient httpClient;
 
+	@Nullable
+	private ClientHttpMetricsListener metricsListener;
+
+	private long maxResponseSize = -1;
+
 
 	/**
 	 * Default constructor. Initializes {@link HttpClient} via:
@@ -95,6 +104,52 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 	}
 
 
+	/**
+	 * Set a listener to notify with the timings of every exchange.
+	 * <p>A listener found in the Reactor context under
+	 * {@link ClientHttpMetricsListener#CONTEXT_KEY} is notified as well.
+	 * <p>For the state of the connection pool, configure the
+	 * {@link ConnectionProvider} with a {@link ReactorConnectionPoolMetrics}.
+	 * @param metricsListener the listener, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setMetricsListener(@Nullable ClientHttpMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Return the configured metrics listener, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public ClientHttpMetricsListener getMetricsListener() {
+		return this.metricsListener;
+	}
+
+
+	/**
+	 * Set the maximum size of a response body, beyond which reading the body
+	 * fails with a {@link org.springframework.core.io.buffer.DataBufferLimitException},
+	 * and the connection is aborted. Unlike the {@code maxInMemorySize} of
+	 * codecs, this applies to the raw body, whether it is decoded, aggregated
+	 * or streamed, and is checked against the {@code Content-Length} header
+	 * before any of the body is read.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param maxResponseSize the maximum number of bytes, or -1 for unlimited
+	 * @since 5.2.10
+	 */
+	public void setMaxResponseSize(long maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+	}
+
+	/**
+	 * Return the configured maximum size of a response body, or -1 if unlimited.
+	 * @since 5.2.10
+	 */
+	public long getMaxResponseSize() {
+		return this.maxResponseSize;
+	}
+
 	@Override
 	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
 			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
@@ -103,13 +158,53 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 			return Mono.error(new IllegalArgumentException("URI is not absolute: " + uri));
 		}
 
+		return Mono.deferWithContext(context -> {
+			ExchangeMetricsRecorder recorder =
+					ExchangeMetricsRecorder.create(this.metricsListener, context, method, uri);
+			Mono<ClientHttpResponse> result = (recorder != null ?
+					connectAndRecord(method, uri, requestCallback, recorder) :
+					connectInternal(method, uri, requestCallback, null));
+			return (this.maxResponseSize >= 0 ?
+					result.map(response -> new SizeLimitingClientHttpResponse(response, method, this.maxResponseSize)) :
+					result);
+		});
+	}
+
+	private Mono<ClientHttpResponse> connectAndRecord(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback, ExchangeMetricsRecorder recorder) {
+
+		return connectInternal(method, uri, requestCallback, recorder)
+				.<ClientHttpResponse>map(response -> new ClientHttpResponseDecorator(response) {
+					@Override
+					public Flux<DataBuffer> getBody() {
+						return recorder.recordBody(super.getBody());
+					}
+				})
+				.doOnError(recorder::completed)
+				.doOnCancel(() -> recorder.completed(null));
+	}
+
+	private Mono<ClientHttpResponse> connectInternal(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback,
+			@Nullable ExchangeMetricsRecorder recorder) {
+
 		AtomicReference<ReactorClientHttpResponse> responseRef = new AtomicReference<>();
 
 		return this.httpClient
 				.request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
 				.uri(uri.toString())
-				.send((request, outbound) -> requestCallback.apply(adaptRequest(method, uri, request, outbound)))
+				.send((request, outbound) -> {
+					if (recorder == null) {
+						return requestCallback.apply(adaptRequest(method, uri, request, outbound));
+					}
+					recorder.connectionAcquired();
+					return requestCallback.apply(adaptRequest(method, uri, request, outbound))
+							.doOnSuccess(aVoid -> recorder.requestSent());
+				})
 				.responseConnection((response, connection) -> {
+					if (recorder != null) {
+						recorder.responseReceived(response.status().code());
+					}
 					responseRef.set(new ReactorClientHttpResponse(response, connection));
 					return Mono.just((ClientHttpResponse) responseRef.get());
 				})
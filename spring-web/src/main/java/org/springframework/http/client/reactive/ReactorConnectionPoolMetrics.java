@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.http.client.ClientConnectionPoolMetrics;
+import org.springframework.http.client.ConnectionPoolStats;
+
+/**
+ * {@link ClientConnectionPoolMetrics} for Reactor Netty, registered with a
+ * {@link ConnectionProvider} as its {@link ConnectionProvider.MeterRegistrar}:
+ * <pre class="code">
+ * ReactorConnectionPoolMetrics poolMetrics = new ReactorConnectionPoolMetrics();
+ * ConnectionProvider provider = ConnectionProvider.builder("http")
+ *         .metrics(true, () -&gt; poolMetrics)
+ *         .build();
+ * </pre>
+ *
+ * <p>Reactor Netty creates a pool per remote address, and registers it on
+ * first use. It does not report the configured maximum number of
+ * connections, so that {@link ConnectionPoolStats#getMax()} is -1.
+ *
+ * @since 5.2.10
+ * @see ReactorClientHttpConnector#setMetricsListener
+ */
+public class ReactorConnectionPoolMetrics implements ClientConnectionPoolMetrics, ConnectionProvider.MeterRegistrar {
+
+	private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+
+	@Override
+	public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+		this.pools.put(getHost(remoteAddress), metrics);
+	}
+
+	@Override
+	public List<ConnectionPoolStats> getConnectionPoolStats() {
+		List<ConnectionPoolStats> result = new ArrayList<>(this.pools.size());
+		this.pools.forEach((host, metrics) -> result.add(new ConnectionPoolStats(
+				host, metrics.acquiredSize(), metrics.idleSize(), metrics.pendingAcquireSize(), -1)));
+		return result;
+	}
+
+	private static String getHost(SocketAddress address) {
+		if (address instanceof InetSocketAddress) {
+			InetSocketAddress inetAddress = (InetSocketAddress) address;
+			return inetAddress.getHostString() + ":" + inetAddress.getPort();
+		}
+		return address.toString();
+	}
+
+}
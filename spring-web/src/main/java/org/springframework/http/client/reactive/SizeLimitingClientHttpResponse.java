@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Response decorator that fails the body with a {@link DataBufferLimitException}
+ * once it exceeds a maximum size, canceling the underlying body, which aborts
+ * the connection, and releasing the buffer that exceeded the limit.
+ *
+ * <p>A body whose declared {@code Content-Length} exceeds the limit is
+ * canceled without reading any of it. That check is skipped for responses
+ * that have no body, i.e. responses to {@code HEAD} requests and responses
+ * with a 1xx, 204, or 304 status, whose {@code Content-Length} describes
+ * the body that would have been sent otherwise.
+ *
+ * @since 5.2.10
+ */
+final class SizeLimitingClientHttpResponse extends ClientHttpResponseDecorator {
+
+	private final HttpMethod method;
+
+	private final long maxSize;
+
+
+	SizeLimitingClientHttpResponse(ClientHttpResponse delegate, HttpMethod method, long maxSize) {
+		super(delegate);
+		this.method = method;
+		this.maxSize = maxSize;
+	}
+
+
+	@Override
+	public Flux<DataBuffer> getBody() {
+		Flux<DataBuffer> body = super.getBody();
+		if (!isBodiless() && getHeaders().getContentLength() > this.maxSize) {
+			return body.take(0).concatWith(Flux.error(new DataBufferLimitException(
+					"Content-Length " + getHeaders().getContentLength() +
+							" exceeds limit on max response size: " + this.maxSize)));
+		}
+		return Flux.defer(() -> {
+			long[] byteCount = new long[1];
+			return body.<DataBuffer>handle((buffer, sink) -> {
+				byteCount[0] += buffer.readableByteCount();
+				if (byteCount[0] > this.maxSize) {
+					DataBufferUtils.release(buffer);
+					sink.error(new DataBufferLimitException(
+							"Exceeded limit on max response size: " + this.maxSize));
+				}
+				else {
+					sink.next(buffer);
+				}
+			}).doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+		});
+	}
+
+	private boolean isBodiless() {
+		int status = getRawStatusCode();
+		return (this.method == HttpMethod.HEAD || status < 200 ||
+				status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.NOT_MODIFIED.value());
+	}
+
+}
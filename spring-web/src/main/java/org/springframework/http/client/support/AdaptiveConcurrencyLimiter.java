@@ -0,0 +1,354 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Limits the number of in-flight client requests per host, adapting each
+ * host's limit to how it copes with the load: the limit grows additively while
+ * requests succeed with the limit in use, and shrinks multiplicatively when a
+ * request is dropped, i.e. fails, times out, or is rejected by the server with
+ * a 429 or 503 status (AIMD).
+ *
+ * <p>Requests beyond the limit wait in a bounded FIFO queue, for at most the
+ * {@link #setMaxQueueTime max queue time}; once the queue is full, further
+ * requests are rejected immediately with a {@link RejectedExecutionException}.
+ *
+ * <p>Used by {@link ConcurrencyLimitingInterceptor} for the {@code RestTemplate}
+ * and by the corresponding {@code ExchangeFilterFunctions} for the
+ * {@code WebClient}.
+ *
+ * @since 5.2.10
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private int initialLimit = 20;
+
+	private int minLimit = 1;
+
+	private int maxLimit = 200;
+
+	private double backoffRatio = 0.9;
+
+	private int maxQueueSize = 100;
+
+	private Duration maxQueueTime = Duration.ofSeconds(1);
+
+
+	/**
+	 * Set the limit that each host starts with.
+	 * <p>By default set to 20.
+	 */
+	public void setInitialLimit(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "'initialLimit' must be greater than 0");
+		this.initialLimit = initialLimit;
+	}
+
+	/**
+	 * Set the lower bound for the limit of a host.
+	 * <p>By default set to 1.
+	 */
+	public void setMinLimit(int minLimit) {
+		Assert.isTrue(minLimit > 0, "'minLimit' must be greater than 0");
+		this.minLimit = minLimit;
+	}
+
+	/**
+	 * Set the upper bound for the limit of a host.
+	 * <p>By default set to 200.
+	 */
+	public void setMaxLimit(int maxLimit) {
+		Assert.isTrue(maxLimit > 0, "'maxLimit' must be greater than 0");
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Set the factor to multiply the limit of a host by when a request is dropped.
+	 * <p>By default set to 0.9.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "'backoffRatio' must be between 0 and 1");
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * Set the maximum number of requests per host that may wait for a permit;
+	 * further requests are rejected immediately. A value of 0 disables queueing.
+	 * <p>By default set to 100.
+	 */
+	public void setMaxQueueSize(int maxQueueSize) {
+		Assert.isTrue(maxQueueSize >= 0, "'maxQueueSize' must be a non-negative value");
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	/**
+	 * Set how long a request may wait for a permit before it is rejected.
+	 * <p>By default set to 1 second.
+	 */
+	public void setMaxQueueTime(Duration maxQueueTime) {
+		Assert.notNull(maxQueueTime, "'maxQueueTime' must not be null");
+		this.maxQueueTime = maxQueueTime;
+	}
+
+	/**
+	 * Return the configured maximum time to wait for a permit.
+	 */
+	public Duration getMaxQueueTime() {
+		return this.maxQueueTime;
+	}
+
+
+	/**
+	 * Obtain a permit for a request to the given URI without waiting.
+	 * @param uri the request URI
+	 * @return the permit, or {@code null} if the limit for the host is reached
+	 */
+	@Nullable
+	public Permit tryAcquire(URI uri) {
+		return getLimit(uri).tryAcquire();
+	}
+
+	/**
+	 * Obtain a permit for a request to the given URI, waiting in the queue if
+	 * the limit for the host is reached.
+	 * <p>Callers that stop waiting, e.g. after the {@link #getMaxQueueTime()
+	 * max queue time}, must {@link CompletableFuture#cancel cancel} the future,
+	 * and release the permit if cancellation fails because it was just granted.
+	 * @param uri the request URI
+	 * @return the future permit, completed with a
+	 * {@link RejectedExecutionException} if the queue is full
+	 */
+	public CompletableFuture<Permit> acquire(URI uri) {
+		return getLimit(uri).acquire();
+	}
+
+	private Limit getLimit(URI uri) {
+		return this.limits.computeIfAbsent(getKey(uri), Limit::new);
+	}
+
+	private static String getKey(URI uri) {
+		int port = uri.getPort();
+		if (port == -1) {
+			port = ("https".equalsIgnoreCase(uri.getScheme()) || "wss".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+		}
+		return uri.getHost() + ":" + port;
+	}
+
+
+	/**
+	 * Return the hosts, as {@code host:port}, that requests were made to.
+	 */
+	public Set<String> getHosts() {
+		return this.limits.keySet();
+	}
+
+	/**
+	 * Return the current limit for the given {@code host:port}.
+	 */
+	public int getLimit(String host) {
+		Limit limit = this.limits.get(host);
+		return (limit != null ? limit.getLimit() : this.initialLimit);
+	}
+
+	/**
+	 * Return the number of in-flight requests for the given {@code host:port}.
+	 */
+	public int getInFlight(String host) {
+		Limit limit = this.limits.get(host);
+		return (limit != null ? limit.getInFlight() : 0);
+	}
+
+	/**
+	 * Return the number of queued requests for the given {@code host:port}.
+	 */
+	public int getQueueSize(String host) {
+		Limit limit = this.limits.get(host);
+		return (limit != null ? limit.getQueueSize() : 0);
+	}
+
+	/**
+	 * Return the number of requests rejected because the queue was full.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+
+	/**
+	 * A permit for one in-flight request, to be released exactly once, through
+	 * one of {@link #onSuccess()}, {@link #onDropped()} or {@link #release()}.
+	 * Further calls are ignored.
+	 */
+	public static final class Permit {
+
+		private final Limit limit;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Permit(Limit limit) {
+			this.limit = limit;
+		}
+
+		/**
+		 * Release the permit after a successful request.
+		 */
+		public void onSuccess() {
+			if (this.released.compareAndSet(false, true)) {
+				this.limit.release(Outcome.SUCCESS);
+			}
+		}
+
+		/**
+		 * Release the permit after a request that failed due to overload.
+		 */
+		public void onDropped() {
+			if (this.released.compareAndSet(false, true)) {
+				this.limit.release(Outcome.DROPPED);
+			}
+		}
+
+		/**
+		 * Release the permit without adapting the limit, e.g. if the request
+		 * was cancelled.
+		 */
+		public void release() {
+			if (this.released.compareAndSet(false, true)) {
+				this.limit.release(Outcome.IGNORED);
+			}
+		}
+	}
+
+
+	private enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+
+	private final class Limit {
+
+		private final String host;
+
+		private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+		private double limit = initialLimit;
+
+		private int inFlight;
+
+		Limit(String host) {
+			this.host = host;
+		}
+
+		@Nullable
+		public synchronized Permit tryAcquire() {
+			if (this.inFlight < getLimit()) {
+				this.inFlight++;
+				return new Permit(this);
+			}
+			return null;
+		}
+
+		public CompletableFuture<Permit> acquire() {
+			CompletableFuture<Permit> future = new CompletableFuture<>();
+			synchronized (this) {
+				if (this.inFlight < getLimit()) {
+					this.inFlight++;
+				}
+				else if (this.waiters.size() < maxQueueSize) {
+					this.waiters.add(future);
+					future.whenComplete((permit, ex) -> {
+						if (future.isCancelled()) {
+							removeWaiter(future);
+						}
+					});
+					return future;
+				}
+				else {
+					rejectedCount.increment();
+					future.completeExceptionally(new RejectedExecutionException(
+							"Concurrency limit of " + getLimit() + " reached for " + this.host));
+					return future;
+				}
+			}
+			future.complete(new Permit(this));
+			return future;
+		}
+
+		public void release(Outcome outcome) {
+			CompletableFuture<Permit> next = null;
+			synchronized (this) {
+				if (outcome == Outcome.SUCCESS) {
+					// Only grow the limit while it is actually being used
+					if (this.inFlight * 2 >= this.limit) {
+						this.limit = Math.min(maxLimit, this.limit + 1 / this.limit);
+					}
+				}
+				else if (outcome == Outcome.DROPPED) {
+					this.limit = Math.max(minLimit, this.limit * backoffRatio);
+				}
+				this.inFlight--;
+				while (!this.waiters.isEmpty() && this.inFlight < getLimit()) {
+					CompletableFuture<Permit> waiter = this.waiters.poll();
+					if (!waiter.isDone()) {
+						this.inFlight++;
+						next = waiter;
+						break;
+					}
+				}
+			}
+			if (next != null) {
+				Permit permit = new Permit(this);
+				if (!next.complete(permit)) {
+					// Cancelled concurrently
+					permit.release();
+				}
+			}
+		}
+
+		private synchronized void removeWaiter(CompletableFuture<Permit> waiter) {
+			this.waiters.remove(waiter);
+		}
+
+		public synchronized int getLimit() {
+			return Math.max(minLimit, Math.min(maxLimit, (int) this.limit));
+		}
+
+		public synchronized int getInFlight() {
+			return this.inFlight;
+		}
+
+		public synchronized int getQueueSize() {
+			return this.waiters.size();
+		}
+	}
+
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that serves {@code GET} requests from
+ * an {@link HttpResponseCache}, revalidating stale responses with conditional
+ * requests, and collapsing concurrent identical requests that miss the cache.
+ *
+ * <p>If an {@link Executor} is given, responses within their
+ * {@code stale-while-revalidate} window are served immediately and
+ * revalidated in the background; otherwise they are revalidated first.
+ * This interceptor should be the last one in the chain, so that background
+ * revalidations go through the same interceptors.
+ *
+ * @since 5.2.10
+ * @see HttpResponseCache
+ */
+public class CachingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Log logger = LogFactory.getLog(CachingClientHttpRequestInterceptor.class);
+
+
+	private final HttpResponseCache cache;
+
+	@Nullable
+	private final Executor executor;
+
+
+	/**
+	 * Create a new interceptor that revalidates stale responses before using them.
+	 * @param cache the cache to use
+	 */
+	public CachingClientHttpRequestInterceptor(HttpResponseCache cache) {
+		this(cache, null);
+	}
+
+	/**
+	 * Create a new interceptor that revalidates responses within their
+	 * {@code stale-while-revalidate} window on the given executor.
+	 * @param cache the cache to use
+	 * @param executor the executor for background revalidation, if any
+	 */
+	public CachingClientHttpRequestInterceptor(HttpResponseCache cache, @Nullable Executor executor) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		this.cache = cache;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Return the configured cache.
+	 */
+	public HttpResponseCache getCache() {
+		return this.cache;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		HttpMethod method = request.getMethod();
+		if (!this.cache.isCacheable(method, request.getHeaders())) {
+			if (method != null && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS &&
+					method != HttpMethod.TRACE) {
+				this.cache.evict(request.getURI());
+			}
+			return execution.execute(request, body);
+		}
+
+		HttpResponseCache.Entry entry = this.cache.get(request.getURI(), request.getHeaders());
+		if (entry != null) {
+			HttpResponseCache.Freshness freshness = this.cache.getFreshness(entry, request.getHeaders());
+			if (freshness == HttpResponseCache.Freshness.FRESH) {
+				return new CachedResponse(entry);
+			}
+			if (freshness == HttpResponseCache.Freshness.STALE_WHILE_REVALIDATE && this.executor != null) {
+				HttpResponseCache.Entry stale = entry;
+				this.executor.execute(() -> revalidate(request, body, execution, stale));
+				return new CachedResponse(entry);
+			}
+		}
+		return fetch(request, body, execution, entry);
+	}
+
+	private void revalidate(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+			HttpResponseCache.Entry entry) {
+
+		try {
+			fetch(request, body, execution, entry).close();
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to revalidate cached response for " + request.getURI(), ex);
+			}
+		}
+	}
+
+	private ClientHttpResponse fetch(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+			@Nullable HttpResponseCache.Entry entry) throws IOException {
+
+		URI uri = request.getURI();
+		HttpHeaders requestHeaders = request.getHeaders();
+		CompletableFuture<HttpResponseCache.Entry> fetch = new CompletableFuture<>();
+		CompletableFuture<HttpResponseCache.Entry> existing = this.cache.joinFetch(uri, requestHeaders, fetch);
+		if (existing != null) {
+			HttpResponseCache.Entry result = await(existing);
+			return (result != null ? new CachedResponse(result) : execution.execute(request, body));
+		}
+
+		HttpResponseCache.Entry result = null;
+		try {
+			HttpRequest requestToUse = request;
+			if (entry != null) {
+				requestToUse = new HttpRequestWrapper(request) {
+					private final HttpHeaders headers = copyHeaders(request.getHeaders(), entry);
+					@Override
+					public HttpHeaders getHeaders() {
+						return this.headers;
+					}
+				};
+			}
+			long requestTime = this.cache.getClock().millis();
+			ClientHttpResponse response = execution.execute(requestToUse, body);
+			int statusCode = response.getRawStatusCode();
+			if (entry != null && statusCode == HttpStatus.NOT_MODIFIED.value()) {
+				HttpHeaders headers = response.getHeaders();
+				response.close();
+				result = this.cache.revalidated(uri, entry, headers, requestTime);
+				return new CachedResponse(result);
+			}
+			HttpHeaders headers = response.getHeaders();
+			if (!this.cache.isStorable(requestHeaders, statusCode, headers)) {
+				return response;
+			}
+			String statusText = response.getStatusText();
+			InputStream responseBody;
+			byte[] content;
+			try {
+				responseBody = response.getBody();
+				content = readAtMost(responseBody, this.cache.getMaxEntrySize() + 1L);
+			}
+			catch (IOException | RuntimeException ex) {
+				response.close();
+				throw ex;
+			}
+			if (content.length > this.cache.getMaxEntrySize()) {
+				return new TooLargeResponse(response, new SequenceInputStream(
+						new ByteArrayInputStream(content), responseBody));
+			}
+			response.close();
+			result = this.cache.put(uri, requestHeaders, statusCode, headers, content, requestTime);
+			return new CachedResponse(statusCode, statusText, headers, content);
+		}
+		finally {
+			this.cache.completeFetch(uri, requestHeaders, fetch, result);
+		}
+	}
+
+	private static byte[] readAtMost(InputStream in, long maxBytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(maxBytes, StreamUtils.BUFFER_SIZE));
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		long remaining = maxBytes;
+		int bytesRead;
+		while (remaining > 0 && (bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+			out.write(buffer, 0, bytesRead);
+			remaining -= bytesRead;
+		}
+		return out.toByteArray();
+	}
+
+	private HttpHeaders copyHeaders(HttpHeaders headers, HttpResponseCache.Entry entry) {
+		HttpHeaders result = new HttpHeaders();
+		result.putAll(headers);
+		this.cache.addConditionalHeaders(entry, result);
+		return result;
+	}
+
+	@Nullable
+	private static HttpResponseCache.Entry await(CompletableFuture<HttpResponseCache.Entry> fetch)
+			throws IOException {
+
+		try {
+			return fetch.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for concurrent request");
+		}
+		catch (ExecutionException ex) {
+			// Not expected: fetches are always completed normally
+			return null;
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a response too large to be cached, whose
+	 * body continues with the remainder of the original response body after
+	 * the part read already.
+	 */
+	private static class TooLargeResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		private final InputStream body;
+
+		TooLargeResponse(ClientHttpResponse delegate, InputStream body) {
+			this.delegate = delegate;
+			this.body = body;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return this.delegate.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return this.delegate.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public void close() {
+			this.delegate.close();
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a response held in memory.
+	 */
+	private static class CachedResponse extends AbstractClientHttpResponse {
+
+		private final int statusCode;
+
+		private final String statusText;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		CachedResponse(HttpResponseCache.Entry entry) {
+			this(entry.getStatusCode(), getReasonPhrase(entry.getStatusCode()), entry.getHeaders(), entry.getBody());
+		}
+
+		CachedResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body) {
+			this.statusCode = statusCode;
+			this.statusText = statusText;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		private static String getReasonPhrase(int statusCode) {
+			HttpStatus status = HttpStatus.resolve(statusCode);
+			return (status != null ? status.getReasonPhrase() : "");
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return this.statusCode;
+		}
+
+		@Override
+		public String getStatusText() {
+			return this.statusText;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.body);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
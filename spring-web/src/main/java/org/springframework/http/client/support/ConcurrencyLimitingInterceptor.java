@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that limits the number of in-flight
+ * requests per host through an {@link AdaptiveConcurrencyLimiter}.
+ *
+ * <p>A request that cannot obtain a permit within the limiter's max queue
+ * time, or that is rejected because the queue is full, fails with an
+ * {@link IOException}, which the {@code RestTemplate} reports as a
+ * {@link org.springframework.web.client.ResourceAccessException}. A response
+ * with a 429 or 503 status, or an {@code IOException} from the execution,
+ * counts as a dropped request; the permit is released once the response
+ * has been received.
+ *
+ * @since 5.2.10
+ */
+public class ConcurrencyLimitingInterceptor implements ClientHttpRequestInterceptor {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+
+	/**
+	 * Create a new interceptor with the given limiter.
+	 * @param limiter the limiter, possibly shared with other clients
+	 */
+	public ConcurrencyLimitingInterceptor(AdaptiveConcurrencyLimiter limiter) {
+		Assert.notNull(limiter, "AdaptiveConcurrencyLimiter must not be null");
+		this.limiter = limiter;
+	}
+
+
+	/**
+	 * Return the configured limiter.
+	 */
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return this.limiter;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		AdaptiveConcurrencyLimiter.Permit permit = acquire(request);
+		boolean dropped = true;
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			int status = response.getRawStatusCode();
+			dropped = (status == HttpStatus.TOO_MANY_REQUESTS.value() ||
+					status == HttpStatus.SERVICE_UNAVAILABLE.value());
+			return response;
+		}
+		finally {
+			if (dropped) {
+				permit.onDropped();
+			}
+			else {
+				permit.onSuccess();
+			}
+		}
+	}
+
+	private AdaptiveConcurrencyLimiter.Permit acquire(HttpRequest request) throws IOException {
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> future = this.limiter.acquire(request.getURI());
+		try {
+			return future.get(this.limiter.getMaxQueueTime().toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (ExecutionException ex) {
+			throw new IOException(ex.getCause().getMessage(), ex.getCause());
+		}
+		catch (TimeoutException ex) {
+			cancel(future);
+			throw new IOException("Timed out waiting for concurrency limit of " + request.getURI().getHost());
+		}
+		catch (InterruptedException ex) {
+			cancel(future);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for concurrency limit");
+		}
+	}
+
+	private static void cancel(CompletableFuture<AdaptiveConcurrencyLimiter.Permit> future) {
+		if (!future.cancel(false)) {
+			// Granted in the meantime
+			future.thenAccept(AdaptiveConcurrencyLimiter.Permit::release);
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that hedges requests according to a
+ * {@link HedgingPolicy}: if no response has been received after the hedge
+ * delay, the request is sent once more, and the first response received is
+ * used while the other one is closed.
+ *
+ * <p>Hedged requests are executed on the given {@link Executor}, and the
+ * calling thread waits for the first response. This interceptor should be the
+ * last one in the chain, so that both attempts go through the same interceptors.
+ *
+ * @since 5.2.10
+ */
+public class HedgingInterceptor implements ClientHttpRequestInterceptor {
+
+	private final HedgingPolicy policy;
+
+	private final Executor executor;
+
+
+	/**
+	 * Create a new interceptor.
+	 * @param policy the policy deciding when to hedge
+	 * @param executor the executor to send hedged requests with
+	 */
+	public HedgingInterceptor(HedgingPolicy policy, Executor executor) {
+		Assert.notNull(policy, "HedgingPolicy must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		this.policy = policy;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Return the configured policy.
+	 */
+	public HedgingPolicy getPolicy() {
+		return this.policy;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		Duration delay = this.policy.getHedgeDelay(request.getMethod());
+		if (delay == null) {
+			long startTime = System.nanoTime();
+			ClientHttpResponse response = execution.execute(request, body);
+			this.policy.recordLatency(System.nanoTime() - startTime);
+			return response;
+		}
+
+		CompletableFuture<ClientHttpResponse> result = new CompletableFuture<>();
+		AtomicInteger attempts = new AtomicInteger(1);
+		this.executor.execute(() -> execute(request, body, execution, result, attempts));
+		try {
+			try {
+				return result.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			catch (TimeoutException ex) {
+				if (this.policy.tryHedge() && attempts.getAndIncrement() > 0) {
+					this.executor.execute(() -> execute(request, body, execution, result, attempts));
+				}
+				return result.get();
+			}
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause.getMessage(), cause);
+		}
+		catch (InterruptedException ex) {
+			// Make sure that responses that arrive later are closed
+			result.completeExceptionally(ex);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for response");
+		}
+	}
+
+	private void execute(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+			CompletableFuture<ClientHttpResponse> result, AtomicInteger attempts) {
+
+		try {
+			long startTime = System.nanoTime();
+			ClientHttpResponse response = execution.execute(request, body);
+			this.policy.recordLatency(System.nanoTime() - startTime);
+			if (!result.complete(response)) {
+				response.close();
+			}
+		}
+		catch (Throwable ex) {
+			// Fail only once no other attempt is pending
+			if (attempts.decrementAndGet() == 0) {
+				result.completeExceptionally(ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.metrics.LatencyHistogram;
+
+/**
+ * Decides when to hedge a client request, i.e. to send a second copy of a
+ * request that has not completed within a given percentile of the observed
+ * latencies, and use whichever response arrives first.
+ *
+ * <p>Only idempotent methods are hedged, and only once enough latencies have
+ * been observed. To bound the extra load on the server, hedges are limited to
+ * a fraction of all requests.
+ *
+ * <p>Used by {@link HedgingInterceptor} for the {@code RestTemplate} and by
+ * the corresponding {@code ExchangeFilterFunctions} for the {@code WebClient}.
+ * A policy tracks the latencies of the requests it sees, and should therefore
+ * be used for requests with a comparable latency, e.g. to one service.
+ *
+ * @since 5.2.10
+ */
+public class HedgingPolicy {
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private final LongAdder requestCount = new LongAdder();
+
+	private final LongAdder hedgeCount = new LongAdder();
+
+	private Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+	private double percentile = 95;
+
+	private Duration minDelay = Duration.ofMillis(10);
+
+	private int minSamples = 100;
+
+	private double maxHedgeRatio = 0.1;
+
+	@Nullable
+	private volatile Duration delay;
+
+
+	/**
+	 * Set the HTTP methods that may be hedged, which must be idempotent.
+	 * <p>By default set to GET, HEAD and OPTIONS.
+	 */
+	public void setMethods(HttpMethod... methods) {
+		Assert.notEmpty(methods, "'methods' must not be empty");
+		this.methods = EnumSet.copyOf(Arrays.asList(methods));
+	}
+
+	/**
+	 * Set the latency percentile after which a request is hedged.
+	 * <p>By default set to 95.
+	 */
+	public void setPercentile(double percentile) {
+		Assert.isTrue(percentile > 0 && percentile < 100, "'percentile' must be between 0 and 100");
+		this.percentile = percentile;
+	}
+
+	/**
+	 * Set the minimum time to wait before a request is hedged.
+	 * <p>By default set to 10 milliseconds.
+	 */
+	public void setMinDelay(Duration minDelay) {
+		Assert.notNull(minDelay, "'minDelay' must not be null");
+		this.minDelay = minDelay;
+	}
+
+	/**
+	 * Set the number of latencies to observe before requests are hedged.
+	 * <p>By default set to 100.
+	 */
+	public void setMinSamples(int minSamples) {
+		Assert.isTrue(minSamples > 0, "'minSamples' must be greater than 0");
+		this.minSamples = minSamples;
+	}
+
+	/**
+	 * Set the maximum number of hedges, as a fraction of all requests.
+	 * <p>By default set to 0.1.
+	 */
+	public void setMaxHedgeRatio(double maxHedgeRatio) {
+		Assert.isTrue(maxHedgeRatio >= 0 && maxHedgeRatio <= 1, "'maxHedgeRatio' must be between 0 and 1");
+		this.maxHedgeRatio = maxHedgeRatio;
+	}
+
+
+	/**
+	 * Return how long to wait for a response before hedging a request with
+	 * the given method, counting the request towards the hedge budget.
+	 * @param method the HTTP method of the request
+	 * @return the delay, or {@code null} if the request is not to be hedged
+	 */
+	@Nullable
+	public Duration getHedgeDelay(@Nullable HttpMethod method) {
+		this.requestCount.increment();
+		return (method != null && this.methods.contains(method) ? this.delay : null);
+	}
+
+	/**
+	 * Whether a hedge may be sent within the budget, counting it if so.
+	 * To be called once the {@link #getHedgeDelay hedge delay} has elapsed.
+	 */
+	public boolean tryHedge() {
+		if (this.hedgeCount.sum() >= this.requestCount.sum() * this.maxHedgeRatio) {
+			return false;
+		}
+		this.hedgeCount.increment();
+		return true;
+	}
+
+	/**
+	 * Record the latency of a completed request, or request attempt.
+	 * @param nanos the time from sending the request to receiving the
+	 * response, in nanoseconds
+	 */
+	public void recordLatency(long nanos) {
+		this.latencies.recordNanos(nanos);
+		long count = this.latencies.getCount();
+		// Refresh the delay periodically rather than on every request
+		if (count >= this.minSamples && (this.delay == null || (count & 63) == 0)) {
+			Duration delay = this.latencies.getSnapshot().getValueAtPercentile(this.percentile);
+			this.delay = (delay.compareTo(this.minDelay) > 0 ? delay : this.minDelay);
+		}
+	}
+
+
+	/**
+	 * Return the number of requests seen.
+	 */
+	public long getRequestCount() {
+		return this.requestCount.sum();
+	}
+
+	/**
+	 * Return the number of hedges sent.
+	 */
+	public long getHedgeCount() {
+		return this.hedgeCount.sum();
+	}
+
+	/**
+	 * Return the observed request latencies.
+	 */
+	public LatencyHistogram.Snapshot getLatencies() {
+		return this.latencies.getSnapshot();
+	}
+
+}
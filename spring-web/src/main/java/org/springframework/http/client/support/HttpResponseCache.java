@@ -0,0 +1,597 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * HTTP cache for client responses, following the caching rules of
+ * RFC 7234 for {@code GET} requests: responses with an explicit freshness
+ * lifetime ({@code Cache-Control: max-age} or {@code Expires}) or a validator
+ * ({@code ETag} or {@code Last-Modified}) are stored, served while fresh, and
+ * revalidated with a conditional request ({@code If-None-Match} or
+ * {@code If-Modified-Since}) once stale. Responses within their
+ * {@code stale-while-revalidate} window may be served while they are
+ * revalidated in the background.
+ *
+ * <p>Entries are kept in an {@link org.springframework.cache.Cache}, by
+ * default a bounded, in-memory, least recently used store. Concurrent
+ * identical requests that miss the cache can be collapsed, so that only one
+ * of them is sent.
+ *
+ * <p>As the cache may be used on behalf of different users, responses marked
+ * {@code Cache-Control: private} and responses to requests with an
+ * {@code Authorization} header are only stored as permitted for a shared
+ * cache, unless {@link #setCachePrivateResponses cachePrivateResponses} is
+ * enabled.
+ *
+ * <p>Used by {@link CachingClientHttpRequestInterceptor} for the
+ * {@code RestTemplate} and by the corresponding {@code ExchangeFilterFunctions}
+ * for the {@code WebClient}. Responses considered for caching are buffered
+ * in memory, up to the {@link #setMaxEntrySize max entry size}.
+ *
+ * @since 5.2.10
+ */
+public class HttpResponseCache {
+
+	private static final int[] CACHEABLE_STATUS_CODES = {200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501};
+
+	private static final String[] FETCH_KEY_HEADERS = {HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_CHARSET,
+			HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE};
+
+
+	/**
+	 * How a cached response may be used.
+	 */
+	public enum Freshness {
+
+		/** The response may be used as-is. */
+		FRESH,
+
+		/** The response may be used, but is to be revalidated in the background. */
+		STALE_WHILE_REVALIDATE,
+
+		/** The response must be revalidated before it is used. */
+		STALE
+	}
+
+
+	private final Cache cache;
+
+	private final ConcurrentMap<List<Object>, CompletableFuture<Entry>> fetches = new ConcurrentHashMap<>();
+
+	private int maxEntrySize = 1024 * 1024;
+
+	private boolean cachePrivateResponses;
+
+	private Clock clock = Clock.systemUTC();
+
+
+	/**
+	 * Create a cache with an in-memory store of at most 1000 entries.
+	 */
+	public HttpResponseCache() {
+		this(new BoundedCache(1000));
+	}
+
+	/**
+	 * Create a cache with an in-memory store of at most the given number of entries.
+	 * @param maxEntries the maximum number of entries
+	 */
+	public HttpResponseCache(int maxEntries) {
+		this(new BoundedCache(maxEntries));
+	}
+
+	/**
+	 * Create a cache storing entries in the given {@link Cache}.
+	 * @param cache the store to use, keyed by request URI
+	 */
+	public HttpResponseCache(Cache cache) {
+		Assert.notNull(cache, "Cache must not be null");
+		this.cache = cache;
+	}
+
+
+	/**
+	 * Set the maximum size of a response body to be cached.
+	 * <p>By default set to 1MB.
+	 */
+	public void setMaxEntrySize(int maxEntrySize) {
+		Assert.isTrue(maxEntrySize >= 0, "'maxEntrySize' must be a non-negative value");
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured maximum size of a response body to be cached.
+	 * Callers are expected to read no more than one byte beyond it before
+	 * deciding not to cache a response.
+	 */
+	public int getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Set whether this cache is used on behalf of a single user only, and may
+	 * therefore store responses marked {@code Cache-Control: private} as well
+	 * as responses to requests with an {@code Authorization} header.
+	 * <p>By default set to {@code false}, in which case such responses are
+	 * only stored if explicitly marked as cacheable by a shared cache.
+	 */
+	public void setCachePrivateResponses(boolean cachePrivateResponses) {
+		this.cachePrivateResponses = cachePrivateResponses;
+	}
+
+	/**
+	 * Whether this cache may store private responses.
+	 */
+	public boolean isCachePrivateResponses() {
+		return this.cachePrivateResponses;
+	}
+
+	/**
+	 * Set the clock to determine the age of responses with.
+	 * <p>By default set to {@link Clock#systemUTC()}.
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock must not be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the configured clock.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return the underlying store.
+	 */
+	public Cache getCache() {
+		return this.cache;
+	}
+
+
+	/**
+	 * Whether a request may be served from, and stored in, the cache.
+	 * @param method the HTTP method
+	 * @param requestHeaders the request headers
+	 */
+	public boolean isCacheable(@Nullable HttpMethod method, HttpHeaders requestHeaders) {
+		return (method == HttpMethod.GET &&
+				!parseDirectives(requestHeaders.getCacheControl()).containsKey("no-store"));
+	}
+
+	/**
+	 * Remove the response for the given URI, e.g. after an unsafe request
+	 * such as a {@code POST} to it.
+	 * @param uri the request URI
+	 */
+	public void evict(URI uri) {
+		this.cache.evict(uri);
+	}
+
+	/**
+	 * Return the cached response for a request.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers, matched against the
+	 * {@code Vary} header of the cached response
+	 * @return the cached response, or {@code null} if none
+	 */
+	@Nullable
+	public Entry get(URI uri, HttpHeaders requestHeaders) {
+		Entry entry = this.cache.get(uri, Entry.class);
+		return (entry != null && matches(entry, requestHeaders) ? entry : null);
+	}
+
+	private static boolean matches(Entry entry, HttpHeaders requestHeaders) {
+		for (Map.Entry<String, List<String>> vary : entry.varyValues.entrySet()) {
+			List<String> values = requestHeaders.getOrEmpty(vary.getKey());
+			if (!vary.getValue().equals(values)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine how the given cached response may be used for a request.
+	 * @param entry the cached response
+	 * @param requestHeaders the request headers
+	 */
+	public Freshness getFreshness(Entry entry, HttpHeaders requestHeaders) {
+		Map<String, String> requestDirectives = parseDirectives(requestHeaders.getCacheControl());
+		if (requestDirectives.containsKey("no-cache") || "0".equals(requestDirectives.get("max-age")) ||
+				requestHeaders.getOrEmpty(HttpHeaders.PRAGMA).contains("no-cache")) {
+			return Freshness.STALE;
+		}
+		Map<String, String> directives = parseDirectives(entry.headers.getCacheControl());
+		if (directives.containsKey("no-cache")) {
+			return Freshness.STALE;
+		}
+		long age = getAge(entry);
+		long lifetime = getFreshnessLifetime(entry, directives);
+		if (age < lifetime) {
+			return Freshness.FRESH;
+		}
+		long staleWhileRevalidate = deltaSecondsToMillis(directives.get("stale-while-revalidate"));
+		if (!directives.containsKey("must-revalidate") && age < lifetime + staleWhileRevalidate) {
+			return Freshness.STALE_WHILE_REVALIDATE;
+		}
+		return Freshness.STALE;
+	}
+
+	private long getAge(Entry entry) {
+		long age = deltaSecondsToMillis(entry.headers.getFirst(HttpHeaders.AGE));
+		return age + Math.max(0, this.clock.millis() - entry.requestTime);
+	}
+
+	private static long getFreshnessLifetime(Entry entry, Map<String, String> directives) {
+		String maxAge = directives.get("max-age");
+		if (maxAge != null) {
+			return deltaSecondsToMillis(maxAge);
+		}
+		long expires = entry.headers.getExpires();
+		if (expires != -1) {
+			long date = entry.headers.getDate();
+			return Math.max(0, expires - (date != -1 ? date : entry.responseTime));
+		}
+		return 0;
+	}
+
+	/**
+	 * Add the headers to revalidate the given cached response with, unless
+	 * the request already has conditional headers.
+	 * @param entry the cached response
+	 * @param requestHeaders the headers of the request to revalidate with
+	 */
+	public void addConditionalHeaders(Entry entry, HttpHeaders requestHeaders) {
+		if (requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) ||
+				requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+			return;
+		}
+		String etag = entry.headers.getETag();
+		if (etag != null) {
+			requestHeaders.set(HttpHeaders.IF_NONE_MATCH, etag);
+		}
+		String lastModified = entry.headers.getFirst(HttpHeaders.LAST_MODIFIED);
+		if (lastModified != null) {
+			requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+		}
+	}
+
+	/**
+	 * Whether a response with the given status and headers may be stored,
+	 * in which case at most {@link #getMaxEntrySize()} bytes of its body are
+	 * to be read and passed to {@link #put}.
+	 * @param requestHeaders the request headers
+	 * @param statusCode the response status code
+	 * @param responseHeaders the response headers
+	 */
+	public boolean isStorable(HttpHeaders requestHeaders, int statusCode, HttpHeaders responseHeaders) {
+		boolean cacheableStatus = false;
+		for (int code : CACHEABLE_STATUS_CODES) {
+			if (code == statusCode) {
+				cacheableStatus = true;
+				break;
+			}
+		}
+		if (!cacheableStatus || responseHeaders.getContentLength() > this.maxEntrySize ||
+				responseHeaders.getVary().contains("*")) {
+			return false;
+		}
+		Map<String, String> directives = parseDirectives(responseHeaders.getCacheControl());
+		if (directives.containsKey("no-store")) {
+			return false;
+		}
+		if (!this.cachePrivateResponses) {
+			if (directives.containsKey("private")) {
+				return false;
+			}
+			if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION) && !directives.containsKey("public") &&
+					!directives.containsKey("s-maxage") && !directives.containsKey("must-revalidate")) {
+				return false;
+			}
+		}
+		return (directives.containsKey("max-age") || responseHeaders.containsKey(HttpHeaders.EXPIRES) ||
+				responseHeaders.containsKey(HttpHeaders.ETAG) ||
+				responseHeaders.containsKey(HttpHeaders.LAST_MODIFIED));
+	}
+
+	/**
+	 * Store a response, if {@link #isStorable storable}.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @param statusCode the response status code
+	 * @param responseHeaders the response headers
+	 * @param body the response body
+	 * @param requestTime the time the request was sent, per {@link #getClock()}
+	 * @return the stored response, or {@code null} if it was not stored
+	 */
+	@Nullable
+	public Entry put(URI uri, HttpHeaders requestHeaders, int statusCode, HttpHeaders responseHeaders,
+			byte[] body, long requestTime) {
+
+		if (!isStorable(requestHeaders, statusCode, responseHeaders) || body.length > this.maxEntrySize) {
+			return null;
+		}
+		Map<String, List<String>> varyValues = Collections.emptyMap();
+		List<String> vary = responseHeaders.getVary();
+		if (!vary.isEmpty()) {
+			varyValues = new LinkedHashMap<>(vary.size());
+			for (String name : vary) {
+				varyValues.put(name, requestHeaders.getOrEmpty(name));
+			}
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(responseHeaders);
+		Entry entry = new Entry(statusCode, headers, body, varyValues, requestTime, this.clock.millis());
+		this.cache.put(uri, entry);
+		return entry;
+	}
+
+	/**
+	 * Update a cached response after a {@code 304 Not Modified} response to
+	 * a conditional request, storing the updated response.
+	 * @param uri the request URI
+	 * @param entry the cached response
+	 * @param notModifiedHeaders the headers of the {@code 304} response
+	 * @param requestTime the time the conditional request was sent
+	 * @return the updated response
+	 */
+	public Entry revalidated(URI uri, Entry entry, HttpHeaders notModifiedHeaders, long requestTime) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(entry.headers);
+		notModifiedHeaders.forEach((name, values) -> {
+			if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				headers.put(name, values);
+			}
+		});
+		Entry updated = new Entry(entry.statusCode, headers, entry.body, entry.varyValues,
+				requestTime, this.clock.millis());
+		this.cache.put(uri, updated);
+		return updated;
+	}
+
+
+	/**
+	 * Join a fetch of the given URI that is already in progress for a request
+	 * with the same content negotiation and credential headers, or else
+	 * register the given fetch, to be completed via {@link #completeFetch}.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @param fetch the fetch to register
+	 * @return the fetch in progress, completed with the response stored by
+	 * it or {@code null} if none was stored or if the stored response does
+	 * not match the {@code Vary} header for this request; or {@code null}
+	 * if the given fetch was registered and the caller should send the request
+	 */
+	@Nullable
+	public CompletableFuture<Entry> joinFetch(URI uri, HttpHeaders requestHeaders, CompletableFuture<Entry> fetch) {
+		CompletableFuture<Entry> existing = this.fetches.putIfAbsent(getFetchKey(uri, requestHeaders), fetch);
+		if (existing == null) {
+			return null;
+		}
+		return existing.thenApply(entry -> (entry != null && matches(entry, requestHeaders) ? entry : null));
+	}
+
+	/**
+	 * Complete a fetch {@link #joinFetch registered} earlier.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @param fetch the registered fetch
+	 * @param entry the stored response, or {@code null} if none was stored
+	 */
+	public void completeFetch(URI uri, HttpHeaders requestHeaders, CompletableFuture<Entry> fetch,
+			@Nullable Entry entry) {
+
+		this.fetches.remove(getFetchKey(uri, requestHeaders), fetch);
+		fetch.complete(entry);
+	}
+
+	private static List<Object> getFetchKey(URI uri, HttpHeaders requestHeaders) {
+		List<Object> key = new ArrayList<>(FETCH_KEY_HEADERS.length + 1);
+		key.add(uri);
+		for (String name : FETCH_KEY_HEADERS) {
+			key.add(requestHeaders.getOrEmpty(name));
+		}
+		return key;
+	}
+
+
+	private static Map<String, String> parseDirectives(@Nullable String cacheControl) {
+		if (!StringUtils.hasText(cacheControl)) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> directives = new LinkedHashMap<>();
+		for (String directive : StringUtils.tokenizeToStringArray(cacheControl, ",")) {
+			int index = directive.indexOf('=');
+			if (index != -1) {
+				String value = StringUtils.trimWhitespace(directive.substring(index + 1));
+				directives.put(StringUtils.trimWhitespace(directive.substring(0, index)).toLowerCase(Locale.ROOT),
+						StringUtils.trimTrailingCharacter(StringUtils.trimLeadingCharacter(value, '"'), '"'));
+			}
+			else {
+				directives.put(directive.toLowerCase(Locale.ROOT), "");
+			}
+		}
+		return directives;
+	}
+
+	private static long deltaSecondsToMillis(@Nullable String value) {
+		if (!StringUtils.hasText(value)) {
+			return 0;
+		}
+		try {
+			return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value.trim())));
+		}
+		catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+
+	/**
+	 * A cached response.
+	 */
+	public static final class Entry implements Serializable {
+
+		private final int statusCode;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		private final Map<String, List<String>> varyValues;
+
+		private final long requestTime;
+
+		private final long responseTime;
+
+		Entry(int statusCode, HttpHeaders headers, byte[] body, Map<String, List<String>> varyValues,
+				long requestTime, long responseTime) {
+
+			this.statusCode = statusCode;
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+			this.body = body;
+			this.varyValues = varyValues;
+			this.requestTime = requestTime;
+			this.responseTime = responseTime;
+		}
+
+		/**
+		 * Return the status code of the response.
+		 */
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		/**
+		 * Return the headers of the response.
+		 */
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * Return the body of the response, which must not be modified.
+		 */
+		public byte[] getBody() {
+			return this.body;
+		}
+	}
+
+
+	/**
+	 * Default in-memory store, evicting the least recently used entry once full.
+	 */
+	private static class BoundedCache extends AbstractValueAdaptingCache {
+
+		private final Map<Object, Object> store;
+
+		BoundedCache(int maxEntries) {
+			super(false);
+			Assert.isTrue(maxEntries > 0, "'maxEntries' must be greater than 0");
+			this.store = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+					return size() > maxEntries;
+				}
+			};
+		}
+
+		@Override
+		public String getName() {
+			return "httpResponseCache";
+		}
+
+		@Override
+		public Object getNativeCache() {
+			return this.store;
+		}
+
+		@Override
+		@Nullable
+		protected Object lookup(Object key) {
+			synchronized (this.store) {
+				return this.store.get(key);
+			}
+		}
+
+		@Override
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public <T> T get(Object key, Callable<T> valueLoader) {
+			synchronized (this.store) {
+				Object value = this.store.get(key);
+				if (value == null) {
+					try {
+						value = valueLoader.call();
+					}
+					catch (Throwable ex) {
+						throw new ValueRetrievalException(key, valueLoader, ex);
+					}
+					this.store.put(key, value);
+				}
+				return (T) value;
+			}
+		}
+
+		@Override
+		public void put(Object key, @Nullable Object value) {
+			synchronized (this.store) {
+				this.store.put(key, value);
+			}
+		}
+
+		@Override
+		public void evict(Object key) {
+			synchronized (this.store) {
+				this.store.remove(key);
+			}
+		}
+
+		@Override
+		public void clear() {
+			synchronized (this.store) {
+				this.store.clear();
+			}
+		}
+	}
+
+}
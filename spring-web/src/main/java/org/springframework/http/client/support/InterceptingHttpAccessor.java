@@ -23,6 +23,8 @@ import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.StreamingClientHttpRequestInterceptor;
+import org.springframework.http.client.StreamingInterceptingClientHttpRequestFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -46,9 +48,15 @@ public abstract class InterceptingHttpAccessor extends HttpAccessor {
 
 	private final List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
 
+	private final List<StreamingClientHttpRequestInterceptor> streamingInterceptors = new ArrayList<>();
+
 	@Nullable
 	private volatile ClientHttpRequestFactory interceptingRequestFactory;
 
+	private boolean interceptorsApplied;
+
+	private boolean streamingInterceptorsApplied;
+
 
 	/**
 	 * Set the request interceptors that this accessor should use.
@@ -64,6 +72,7 @@ public abstract class InterceptingHttpAccessor extends HttpAccessor {
 			this.interceptors.clear();
 			this.interceptors.addAll(interceptors);
 			AnnotationAwareOrderComparator.sort(this.interceptors);
+			this.interceptingRequestFactory = null;
 		}
 	}
 
@@ -78,6 +87,39 @@ public abstract class InterceptingHttpAccessor extends HttpAccessor {
 		return this.interceptors;
 	}
 
+	/**
+	 * Set the streaming request interceptors that this accessor should use.
+	 * <p>In contrast to {@link #setInterceptors regular interceptors}, these
+	 * are passed the request body as a callback, and do not require it to be
+	 * buffered in memory. Streaming interceptors are applied before regular
+	 * interceptors, if any; note that the latter still buffer the request body.
+	 * <p>The interceptors will get immediately sorted according to their
+	 * {@linkplain AnnotationAwareOrderComparator#sort(List) order}.
+	 * @since 5.2.10
+	 * @see #getRequestFactory()
+	 * @see StreamingInterceptingClientHttpRequestFactory
+	 */
+	public void setStreamingInterceptors(List<StreamingClientHttpRequestInterceptor> interceptors) {
+		Assert.noNullElements(interceptors, "'interceptors' must not contain null elements");
+		// Take getStreamingInterceptors() List as-is when passed in here
+		if (this.streamingInterceptors != interceptors) {
+			this.streamingInterceptors.clear();
+			this.streamingInterceptors.addAll(interceptors);
+			AnnotationAwareOrderComparator.sort(this.streamingInterceptors);
+			this.interceptingRequestFactory = null;
+		}
+	}
+
+	/**
+	 * Get the streaming request interceptors that this accessor uses.
+	 * <p>The returned {@link List} is active and may be modified, with the
+	 * same caveat as for {@link #getInterceptors()}.
+	 * @since 5.2.10
+	 */
+	public List<StreamingClientHttpRequestInterceptor> getStreamingInterceptors() {
+		return this.streamingInterceptors;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -89,16 +131,30 @@ public abstract class InterceptingHttpAccessor extends HttpAccessor {
 
 	/**
 	 * Overridden to expose an {@link InterceptingClientHttpRequestFactory}
-	 * if necessary.
+	 * and/or a {@link StreamingInterceptingClientHttpRequestFactory} if necessary.
 	 * @see #getInterceptors()
+	 * @see #getStreamingInterceptors()
 	 */
 	@Override
 	public ClientHttpRequestFactory getRequestFactory() {
 		List<ClientHttpRequestInterceptor> interceptors = getInterceptors();
-		if (!CollectionUtils.isEmpty(interceptors)) {
+		List<StreamingClientHttpRequestInterceptor> streamingInterceptors = getStreamingInterceptors();
+		if (!CollectionUtils.isEmpty(interceptors) || !CollectionUtils.isEmpty(streamingInterceptors)) {
 			ClientHttpRequestFactory factory = this.interceptingRequestFactory;
-			if (factory == null) {
-				factory = new InterceptingClientHttpRequestFactory(super.getRequestFactory(), interceptors);
+			boolean applyInterceptors = !CollectionUtils.isEmpty(interceptors);
+			boolean applyStreamingInterceptors = !CollectionUtils.isEmpty(streamingInterceptors);
+			// Either List may have been populated through its getter since the factory was built
+			if (factory == null || this.interceptorsApplied != applyInterceptors ||
+					this.streamingInterceptorsApplied != applyStreamingInterceptors) {
+				factory = super.getRequestFactory();
+				if (applyInterceptors) {
+					factory = new InterceptingClientHttpRequestFactory(factory, interceptors);
+				}
+				if (applyStreamingInterceptors) {
+					factory = new StreamingInterceptingClientHttpRequestFactory(factory, streamingInterceptors);
+				}
+				this.interceptorsApplied = applyInterceptors;
+				this.streamingInterceptorsApplied = applyStreamingInterceptors;
 				this.interceptingRequestFactory = factory;
 			}
 			return factory;
@@ -64,6 +64,8 @@ public class EncoderHttpMessageWriter<T> implements HttpMessageWriter<T> {
 	@Nullable
 	private final MediaType defaultMediaType;
 
+	private FlushPolicy flushPolicy = FlushPolicy.perItem();
+
 
 	/**
 	 * Create an instance wrapping the given {@link Encoder}.
@@ -97,6 +99,26 @@ public class EncoderHttpMessageWriter<T> implements HttpMessageWriter<T> {
 		return this.encoder;
 	}
 
+	/**
+	 * Configure how often to flush when writing a streaming media type, as
+	 * declared via {@link HttpMessageEncoder#getStreamingMediaTypes()}.
+	 * <p>By default set to {@link FlushPolicy#perItem()}.
+	 * @param flushPolicy the flush policy to use
+	 * @since 5.2.10
+	 */
+	public void setFlushPolicy(FlushPolicy flushPolicy) {
+		Assert.notNull(flushPolicy, "FlushPolicy is required");
+		this.flushPolicy = flushPolicy;
+	}
+
+	/**
+	 * Return the configured flush policy.
+	 * @since 5.2.10
+	 */
+	public FlushPolicy getFlushPolicy() {
+		return this.flushPolicy;
+	}
+
 	@Override
 	public List<MediaType> getWritableMediaTypes() {
 		return this.mediaTypes;
@@ -132,8 +154,7 @@ public class EncoderHttpMessageWriter<T> implements HttpMessageWriter<T> {
 		}
 
 		if (isStreamingMediaType(contentType)) {
-			return message.writeAndFlushWith(body.map(buffer ->
-					Mono.just(buffer).doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)));
+			return message.writeAndFlushWith(this.flushPolicy.apply(body));
 		}
 
 		return message.writeWith(body);
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Policy that decides how often a streaming response body is flushed, used by
+ * {@link EncoderHttpMessageWriter} for streaming media types such as
+ * {@code application/x-ndjson} or {@code application/stream+json}.
+ *
+ * <p>By default every encoded item is flushed as soon as it is written. For
+ * streams of many small items, a {@link #coalescing coalescing} policy
+ * batches consecutive items into a single flush, bounded by a number of
+ * items, a number of bytes, and a maximum delay after the first item of the
+ * batch was encoded, so that latency remains bounded for sparse streams.
+ *
+ * @since 5.2.10
+ * @see EncoderHttpMessageWriter#setFlushPolicy(FlushPolicy)
+ */
+public final class FlushPolicy {
+
+	private static final FlushPolicy PER_ITEM = new FlushPolicy(1, Integer.MAX_VALUE, Duration.ZERO);
+
+
+	private final int maxItems;
+
+	private final int maxBytes;
+
+	private final Duration maxDelay;
+
+
+	private FlushPolicy(int maxItems, int maxBytes, Duration maxDelay) {
+		this.maxItems = maxItems;
+		this.maxBytes = maxBytes;
+		this.maxDelay = maxDelay;
+	}
+
+
+	/**
+	 * Return the maximum number of items written between two flushes.
+	 */
+	public int getMaxItems() {
+		return this.maxItems;
+	}
+
+	/**
+	 * Return the maximum number of bytes written between two flushes. A single
+	 * item larger than this is still written, and flushed, as a whole.
+	 */
+	public int getMaxBytes() {
+		return this.maxBytes;
+	}
+
+	/**
+	 * Return how long an encoded item may be held back before it is flushed.
+	 */
+	public Duration getMaxDelay() {
+		return this.maxDelay;
+	}
+
+	/**
+	 * Whether this policy flushes every item individually.
+	 */
+	public boolean isPerItem() {
+		return (this.maxItems == 1);
+	}
+
+
+	/**
+	 * Group the given encoded items into the publishers to pass to
+	 * {@link org.springframework.http.ReactiveHttpOutputMessage#writeAndFlushWith},
+	 * each of which is followed by a flush.
+	 * <p>Batches are only emitted on demand: while the output message does not
+	 * request a further batch, e.g. for a slow client, items keep being added
+	 * to the current batch until it is full, and no further items are
+	 * requested until the batch has been emitted.
+	 */
+	Flux<Publisher<DataBuffer>> apply(Flux<DataBuffer> body) {
+		if (isPerItem()) {
+			return body.<Publisher<DataBuffer>>map(buffer ->
+					Mono.just(buffer).doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release));
+		}
+		return body.transform(Operators.<DataBuffer, Publisher<DataBuffer>>lift(
+				(scannable, actual) -> new CoalescingSubscriber(actual, this)));
+	}
+
+	@Override
+	public String toString() {
+		return (isPerItem() ? "FlushPolicy[per item]" : "FlushPolicy[maxItems=" + this.maxItems +
+				", maxBytes=" + this.maxBytes + ", maxDelay=" + this.maxDelay + "]");
+	}
+
+
+	/**
+	 * Return a policy that flushes after every item, which is the default.
+	 */
+	public static FlushPolicy perItem() {
+		return PER_ITEM;
+	}
+
+	/**
+	 * Return a policy that flushes once {@code maxItems} items or
+	 * {@code maxBytes} bytes have been written since the last flush, or once
+	 * {@code maxDelay} has elapsed since the first of those items was encoded,
+	 * whichever comes first.
+	 * @param maxItems the maximum number of items per flush
+	 * @param maxBytes the maximum number of bytes per flush
+	 * @param maxDelay the maximum time to hold back an encoded item
+	 */
+	public static FlushPolicy coalescing(int maxItems, int maxBytes, Duration maxDelay) {
+		Assert.isTrue(maxItems > 0, "'maxItems' must be greater than 0");
+		Assert.isTrue(maxBytes > 0, "'maxBytes' must be greater than 0");
+		Assert.notNull(maxDelay, "'maxDelay' must not be null");
+		Assert.isTrue(!maxDelay.isNegative() && !maxDelay.isZero(), "'maxDelay' must be positive");
+		return (maxItems == 1 ? PER_ITEM : new FlushPolicy(maxItems, maxBytes, maxDelay));
+	}
+
+
+
+	/**
+	 * Subscriber that collects encoded items into batches, bounded by the
+	 * policy, and emits complete batches as downstream demand allows.
+	 * At most {@code maxItems} items are requested ahead of demand.
+	 */
+	private static final class CoalescingSubscriber implements CoreSubscriber<DataBuffer>, Subscription {
+
+		private final CoreSubscriber<? super Publisher<DataBuffer>> actual;
+
+		private final FlushPolicy policy;
+
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private final Deque<List<DataBuffer>> readyBatches = new ArrayDeque<>();
+
+		private List<DataBuffer> currentBatch = new ArrayList<>();
+
+		private long currentBytes;
+
+		private long batchIndex;
+
+		@Nullable
+		private Disposable timer;
+
+		private long requested;
+
+		private boolean done;
+
+		@Nullable
+		private Throwable error;
+
+		private volatile boolean terminated;
+
+		@Nullable
+		private Subscription upstream;
+
+		CoalescingSubscriber(CoreSubscriber<? super Publisher<DataBuffer>> actual, FlushPolicy policy) {
+			this.actual = actual;
+			this.policy = policy;
+		}
+
+		@Override
+		public Context currentContext() {
+			return this.actual.currentContext();
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.upstream = subscription;
+			this.actual.onSubscribe(this);
+			subscription.request(this.policy.maxItems);
+		}
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			synchronized (this) {
+				if (this.terminated) {
+					DataBufferUtils.release(buffer);
+					return;
+				}
+				int byteCount = buffer.readableByteCount();
+				if (!this.currentBatch.isEmpty() && this.currentBytes + byteCount > this.policy.maxBytes) {
+					closeCurrentBatch();
+				}
+				this.currentBatch.add(buffer);
+				this.currentBytes += byteCount;
+				if (this.currentBatch.size() >= this.policy.maxItems || this.currentBytes >= this.policy.maxBytes) {
+					closeCurrentBatch();
+				}
+				else if (this.currentBatch.size() == 1) {
+					long index = this.batchIndex;
+					this.timer = Schedulers.parallel().schedule(() -> onTimeout(index),
+							this.policy.maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+				}
+			}
+			drain();
+		}
+
+		private void onTimeout(long index) {
+			synchronized (this) {
+				if (index != this.batchIndex || this.currentBatch.isEmpty()) {
+					return;
+				}
+				closeCurrentBatch();
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			synchronized (this) {
+				this.error = ex;
+				this.done = true;
+			}
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			synchronized (this) {
+				if (!this.currentBatch.isEmpty()) {
+					closeCurrentBatch();
+				}
+				this.done = true;
+			}
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (Operators.validate(n)) {
+				synchronized (this) {
+					this.requested = Operators.addCap(this.requested, n);
+				}
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			this.terminated = true;
+			Subscription upstream = this.upstream;
+			if (upstream != null) {
+				upstream.cancel();
+			}
+			synchronized (this) {
+				releaseAll();
+			}
+		}
+
+		private void closeCurrentBatch() {
+			this.readyBatches.add(this.currentBatch);
+			this.currentBatch = new ArrayList<>();
+			this.currentBytes = 0;
+			this.batchIndex++;
+			if (this.timer != null) {
+				this.timer.dispose();
+				this.timer = null;
+			}
+		}
+
+		private void releaseAll() {
+			if (this.timer != null) {
+				this.timer.dispose();
+				this.timer = null;
+			}
+			this.currentBatch.forEach(DataBufferUtils::release);
+			this.currentBatch.clear();
+			this.readyBatches.forEach(batch -> batch.forEach(DataBufferUtils::release));
+			this.readyBatches.clear();
+		}
+
+		private void drain() {
+			if (this.wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			for (;;) {
+				for (;;) {
+					List<DataBuffer> batch = null;
+					Throwable ex = null;
+					boolean complete = false;
+					synchronized (this) {
+						if (this.terminated) {
+							releaseAll();
+							return;
+						}
+						if (this.error != null) {
+							ex = this.error;
+							this.terminated = true;
+							releaseAll();
+						}
+						else if (!this.readyBatches.isEmpty() && this.requested > 0) {
+							batch = this.readyBatches.poll();
+							this.requested--;
+						}
+						else if (this.done && this.readyBatches.isEmpty()) {
+							complete = true;
+							this.terminated = true;
+						}
+					}
+					if (ex != null) {
+						this.actual.onError(ex);
+						return;
+					}
+					if (complete) {
+						this.actual.onComplete();
+						return;
+					}
+					if (batch == null) {
+						break;
+					}
+					this.actual.onNext(Flux.fromIterable(batch)
+							.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release));
+					Subscription upstream = this.upstream;
+					if (upstream != null) {
+						upstream.request(batch.size());
+					}
+				}
+				missed = this.wip.addAndGet(-missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+	}
+
+}
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -43,6 +44,7 @@ import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -62,8 +64,20 @@ import org.springframework.util.MimeType;
  */
 public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport implements HttpMessageDecoder<Object> {
 
+	/**
+	 * The name of the hint that specifies the JSON pointer of the array whose
+	 * elements to decode when decoding to a {@code Flux}, e.g. "/data/items",
+	 * overriding the {@link #setElementPointer configured element pointer}.
+	 * @since 5.2.10
+	 */
+	public static final String ELEMENT_POINTER_HINT = AbstractJackson2Decoder.class.getName() + ".elementPointer";
+
+
 	private int maxInMemorySize = 256 * 1024;
 
+	@Nullable
+	private JsonPointer elementPointer;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -76,8 +90,9 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	/**
 	 * Set the max number of bytes that can be buffered by this decoder. This
 	 * is either the size of the entire input when decoding as a whole, or the
-	 * size of one top-level JSON object within a JSON stream. When the limit
-	 * is exceeded, {@link DataBufferLimitException} is raised.
+	 * size of one top-level JSON object within a JSON stream, or the size of
+	 * one element of the array at the {@link #setElementPointer element pointer}.
+	 * When the limit is exceeded, {@link DataBufferLimitException} is raised.
 	 * <p>By default this is set to 256K.
 	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
 	 * @since 5.1.11
@@ -94,6 +109,32 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return this.maxInMemorySize;
 	}
 
+	/**
+	 * Set the JSON pointer of the array whose elements to decode when decoding
+	 * to a {@code Flux}, e.g. "/data/items" for the array at {@code items} in
+	 * the object at {@code data}. Elements are then decoded one by one as soon
+	 * as they are received, while the content around the array is skipped
+	 * rather than buffered, so that input of any size is decoded with memory
+	 * bounded by the size of the largest element.
+	 * <p>By default this is not set, in which case the elements of a top-level
+	 * array, or else the top-level values, are decoded.
+	 * @param elementPointer the JSON pointer expression, or {@code null}
+	 * @since 5.2.10
+	 * @see #ELEMENT_POINTER_HINT
+	 */
+	public void setElementPointer(@Nullable String elementPointer) {
+		this.elementPointer = (elementPointer != null ? JsonPointer.compile(elementPointer) : null);
+	}
+
+	/**
+	 * Return the {@link #setElementPointer configured} element pointer, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public String getElementPointer() {
+		return (this.elementPointer != null ? this.elementPointer.toString() : null);
+	}
+
 
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -116,9 +157,9 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, mapper.getFactory(), mapper,
-				true, forceUseOfBigDecimal, getMaxInMemorySize());
+				true, getElementPointer(hints), forceUseOfBigDecimal, getMaxInMemorySize());
 
-		ObjectReader reader = getObjectReader(elementType, hints);
+		ObjectReader reader = getObjectReader(elementType, mimeType, hints);
 
 		return tokens.handle((tokenBuffer, sink) -> {
 			try {
@@ -164,7 +205,7 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) throws DecodingException {
 
 		try {
-			ObjectReader objectReader = getObjectReader(targetType, hints);
+			ObjectReader objectReader = getObjectReader(targetType, mimeType, hints);
 			Object value = objectReader.readValue(dataBuffer.asInputStream());
 			logValue(value, hints);
 			return value;
@@ -177,7 +218,15 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 	}
 
-	private ObjectReader getObjectReader(ResolvableType elementType, @Nullable Map<String, Object> hints) {
+	@Nullable
+	private JsonPointer getElementPointer(@Nullable Map<String, Object> hints) {
+		String elementPointer = (hints != null ? (String) hints.get(ELEMENT_POINTER_HINT) : null);
+		return (elementPointer != null ? JsonPointer.compile(elementPointer) : this.elementPointer);
+	}
+
+	private ObjectReader getObjectReader(ResolvableType elementType, @Nullable MimeType mimeType,
+			@Nullable Map<String, Object> hints) {
+
 		Assert.notNull(elementType, "'elementType' must not be null");
 		Class<?> contextClass = getContextClass(elementType);
 		if (contextClass == null && hints != null) {
@@ -185,6 +234,15 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 		JavaType javaType = getJavaType(elementType.getType(), contextClass);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
+		Jackson2ObjectReaderWriterCache cache = getObjectReaderWriterCache();
+		if (cache != null) {
+			return cache.getObjectReader(getObjectMapper(), javaType, jsonView, mimeType,
+					() -> createObjectReader(javaType, jsonView));
+		}
+		return createObjectReader(javaType, jsonView);
+	}
+
+	private ObjectReader createObjectReader(JavaType javaType, @Nullable Class<?> jsonView) {
 		return jsonView != null ?
 				getObjectMapper().readerWithView(jsonView).forType(javaType) :
 				getObjectMapper().readerFor(javaType);
@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -45,9 +46,11 @@ import org.springframework.core.codec.EncodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -86,6 +89,8 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private boolean encodeToDataBuffer = false;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -107,6 +112,33 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		this.streamingMediaTypes.addAll(mediaTypes);
 	}
 
+	/**
+	 * Whether to serialize values directly into {@link DataBuffer}s allocated
+	 * from the {@link DataBufferFactory} passed to {@code encode}, rather than
+	 * into an intermediate byte array that is then copied into a buffer.
+	 * <p>This avoids a {@code byte[]} allocation and copy per encoded value,
+	 * which is most effective with a pooled buffer factory such as the
+	 * {@code NettyDataBufferFactory} of a Reactor Netty response. Jackson's
+	 * own internal buffers remain recycled through the
+	 * {@link com.fasterxml.jackson.core.util.BufferRecycler BufferRecycler}
+	 * of the {@code JsonFactory}.
+	 * <p>By default this is set to {@code false}.
+	 * @param encodeToDataBuffer whether to write straight into data buffers
+	 * @since 5.2.10
+	 */
+	public void setEncodeToDataBuffer(boolean encodeToDataBuffer) {
+		this.encodeToDataBuffer = encodeToDataBuffer;
+	}
+
+	/**
+	 * Whether values are serialized directly into data buffers.
+	 * @since 5.2.10
+	 * @see #setEncodeToDataBuffer(boolean)
+	 */
+	public boolean isEncodeToDataBuffer() {
+		return this.encodeToDataBuffer;
+	}
+
 
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -142,6 +174,16 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			if (separator != null) { // streaming
 				try {
 					ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+					if (this.encodeToDataBuffer) {
+						DataBufferOutputStream outputStream = new DataBufferOutputStream();
+						JsonGenerator generator = getObjectMapper().getFactory().createGenerator(
+								outputStream, getJsonEncoding(mimeType));
+						SequenceWriter sequenceWriter = writer.writeValues(generator);
+
+						return Flux.from(inputStream)
+								.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter,
+										outputStream, separator));
+					}
 					ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 					JsonEncoding encoding = getJsonEncoding(mimeType);
 					JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
@@ -171,24 +213,22 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		ObjectWriter writer = createObjectWriter(valueType, mimeType, hints);
-		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 		JsonEncoding encoding = getJsonEncoding(mimeType);
 
 		logValue(hints, value);
 
+		if (this.encodeToDataBuffer) {
+			return encodeValueToDataBuffer(value, bufferFactory, writer, encoding);
+		}
+
+		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 		try {
 			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
 			writer.writeValue(generator, value);
 			generator.flush();
 		}
-		catch (InvalidDefinitionException ex) {
-			throw new CodecException("Type definition error: " + ex.getType(), ex);
-		}
-		catch (JsonProcessingException ex) {
-			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
-		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw translateException(ex, false);
 		}
 
 		byte[] bytes = byteBuilder.toByteArray();
@@ -198,6 +238,29 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return buffer;
 	}
 
+	private DataBuffer encodeValueToDataBuffer(Object value, DataBufferFactory bufferFactory,
+			ObjectWriter writer, JsonEncoding encoding) {
+
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		boolean release = true;
+		try {
+			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(buffer.asOutputStream(), encoding);
+			writer.writeValue(generator, value);
+			// Closing flushes remaining content and returns Jackson's buffers to the recycler
+			generator.close();
+			release = false;
+			return buffer;
+		}
+		catch (IOException ex) {
+			throw translateException(ex, true);
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+	}
+
 	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
 			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
 
@@ -207,14 +270,8 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			sequenceWriter.write(value);
 			sequenceWriter.flush();
 		}
-		catch (InvalidDefinitionException ex) {
-			throw new CodecException("Type definition error: " + ex.getType(), ex);
-		}
-		catch (JsonProcessingException ex) {
-			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
-		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw translateException(ex, false);
 		}
 
 		byte[] bytes = byteArrayBuilder.toByteArray();
@@ -238,6 +295,47 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return buffer;
 	}
 
+	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
+			SequenceWriter sequenceWriter, DataBufferOutputStream outputStream, byte[] separator) {
+
+		logValue(hints, value);
+
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		outputStream.setDataBuffer(buffer);
+		try {
+			sequenceWriter.write(value);
+			sequenceWriter.flush();
+		}
+		catch (IOException ex) {
+			DataBufferUtils.release(buffer);
+			throw translateException(ex, true);
+		}
+		finally {
+			outputStream.setDataBuffer(null);
+		}
+
+		if (buffer.readableByteCount() > 0 && buffer.getByte(buffer.readPosition()) == ' ') {
+			// SequenceWriter writes an unnecessary space in between values
+			buffer.readPosition(buffer.readPosition() + 1);
+		}
+		buffer.write(separator);
+
+		return buffer;
+	}
+
+	private RuntimeException translateException(IOException ex, boolean toDataBuffer) {
+		if (ex instanceof InvalidDefinitionException) {
+			return new CodecException("Type definition error: " + ((InvalidDefinitionException) ex).getType(), ex);
+		}
+		else if (ex instanceof JsonProcessingException) {
+			return new EncodingException("JSON encoding error: " + ((JsonProcessingException) ex).getOriginalMessage(), ex);
+		}
+		else {
+			return new IllegalStateException("Unexpected I/O error while writing to " +
+					(toDataBuffer ? "data buffer" : "byte array builder"), ex);
+		}
+	}
+
 	private void logValue(@Nullable Map<String, Object> hints, Object value) {
 		if (!Hints.isLoggingSuppressed(hints)) {
 			LogFormatUtils.traceDebug(logger, traceOn -> {
@@ -252,6 +350,17 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 		JavaType javaType = getJavaType(valueType.getType(), null);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
+		Jackson2ObjectReaderWriterCache cache = getObjectReaderWriterCache();
+		if (cache != null) {
+			return cache.getObjectWriter(getObjectMapper(), javaType, jsonView, mimeType,
+					() -> createObjectWriter(javaType, jsonView, valueType, mimeType, hints));
+		}
+		return createObjectWriter(javaType, jsonView, valueType, mimeType, hints);
+	}
+
+	private ObjectWriter createObjectWriter(JavaType javaType, @Nullable Class<?> jsonView,
+			ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+
 		ObjectWriter writer = (jsonView != null ?
 				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
 
@@ -262,6 +371,18 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return customizeWriter(writer, mimeType, valueType, hints);
 	}
 
+	/**
+	 * Subclasses can use this method to customize the {@link ObjectWriter} used
+	 * for writing values.
+	 * <p>Note that when a {@link #setObjectReaderWriterCache cache} is configured,
+	 * the customized writer is cached by target type, JSON view and MIME type,
+	 * so customizations should not depend on any other hints.
+	 * @param writer the writer instance to customize
+	 * @param mimeType the selected MIME type
+	 * @param elementType the type of element values to write
+	 * @param hints a map with serialization hints
+	 * @return the customized {@code ObjectWriter} to use
+	 */
 	protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
 			ResolvableType elementType, @Nullable Map<String, Object> hints) {
 
@@ -323,4 +444,37 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	/**
+	 * {@link OutputStream} that writes into the {@link DataBuffer} currently set,
+	 * allowing a single {@link JsonGenerator} to serialize a stream of values
+	 * into a separate buffer per value.
+	 */
+	private static class DataBufferOutputStream extends OutputStream {
+
+		@Nullable
+		private DataBuffer dataBuffer;
+
+		public void setDataBuffer(@Nullable DataBuffer dataBuffer) {
+			this.dataBuffer = dataBuffer;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			getDataBuffer().write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			getDataBuffer().write(bytes, off, len);
+		}
+
+		private DataBuffer getDataBuffer() throws IOException {
+			if (this.dataBuffer == null) {
+				throw new IOException("No DataBuffer to write to");
+			}
+			return this.dataBuffer;
+		}
+	}
+
 }
@@ -34,6 +34,7 @@ import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.Hints;
 import org.springframework.http.HttpLogging;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -81,6 +82,9 @@ public abstract class Jackson2CodecSupport {
 
 	private final List<MimeType> mimeTypes;
 
+	@Nullable
+	private Jackson2ObjectReaderWriterCache objectReaderWriterCache;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -97,6 +101,29 @@ public abstract class Jackson2CodecSupport {
 		return this.objectMapper;
 	}
 
+	/**
+	 * Configure a cache of prepared {@link com.fasterxml.jackson.databind.ObjectReader}
+	 * and {@link com.fasterxml.jackson.databind.ObjectWriter} instances to use
+	 * instead of deriving them from the {@code ObjectMapper} for every value.
+	 * The same cache may be shared with other codecs and with the Jackson
+	 * based {@code HttpMessageConverter}s.
+	 * <p>By default this is not set, and readers and writers are created per call.
+	 * @param objectReaderWriterCache the cache to use, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setObjectReaderWriterCache(@Nullable Jackson2ObjectReaderWriterCache objectReaderWriterCache) {
+		this.objectReaderWriterCache = objectReaderWriterCache;
+	}
+
+	/**
+	 * Return the configured cache of readers and writers, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public Jackson2ObjectReaderWriterCache getObjectReaderWriterCache() {
+		return this.objectReaderWriterCache;
+	}
+
 	/**
 	 * Subclasses should expose this as "decodable" or "encodable" mime types.
 	 */
@@ -17,13 +17,17 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.function.Function;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -37,12 +41,18 @@ import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
 
 /**
  * {@link Function} to transform a JSON stream of arbitrary size, byte array
  * chunks into a {@code Flux<TokenBuffer>} where each token buffer is a
  * well-formed JSON object.
  *
+ * <p>If an element pointer is given, only the elements of the array(s) found at
+ * that pointer are tokenized, each one as soon as it is complete, while all other
+ * content is skipped rather than buffered. The limit on the number of bytes to
+ * buffer then applies to each individual element.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
@@ -56,6 +66,9 @@ final class Jackson2Tokenizer {
 
 	private final boolean tokenizeArrayElements;
 
+	@Nullable
+	private final JsonPointer elementPointer;
+
 	private final boolean forceUseOfBigDecimal;
 
 	private final int maxInMemorySize;
@@ -66,6 +79,12 @@ final class Jackson2Tokenizer {
 
 	private int byteCount;
 
+	/** The depth of the array at the element pointer, or -1 if not within such an array. */
+	private int elementArrayDepth = -1;
+
+	/** The byte offset at which the current element starts, or -1 if between elements. */
+	private long elementOffset = -1;
+
 	private TokenBuffer tokenBuffer;
 
 
@@ -75,11 +94,13 @@ final class Jackson2Tokenizer {
 
 
 	private Jackson2Tokenizer(JsonParser parser, DeserializationContext deserializationContext,
-			boolean tokenizeArrayElements, boolean forceUseOfBigDecimal, int maxInMemorySize) {
+			boolean tokenizeArrayElements, @Nullable JsonPointer elementPointer, boolean forceUseOfBigDecimal,
+			int maxInMemorySize) {
 
 		this.parser = parser;
 		this.deserializationContext = deserializationContext;
 		this.tokenizeArrayElements = tokenizeArrayElements;
+		this.elementPointer = elementPointer;
 		this.forceUseOfBigDecimal = forceUseOfBigDecimal;
 		this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
 		this.maxInMemorySize = maxInMemorySize;
@@ -97,7 +118,9 @@ final class Jackson2Tokenizer {
 		try {
 			this.inputFeeder.feedInput(bytes, 0, bytes.length);
 			List<TokenBuffer> result = parseTokenBufferFlux();
-			assertInMemorySize(bufferSize, result);
+			if (this.elementPointer == null) {
+				assertInMemorySize(bufferSize, result);
+			}
 			return result;
 		}
 		catch (JsonProcessingException ex) {
@@ -132,6 +155,7 @@ final class Jackson2Tokenizer {
 			JsonToken token = this.parser.nextToken();
 			if (token == JsonToken.NOT_AVAILABLE ||
 					token == null && previousNull) {
+				assertElementSize();
 				break;
 			}
 			else if (token == null ) { // !previousNull
@@ -142,7 +166,10 @@ final class Jackson2Tokenizer {
 				previousNull = false;
 			}
 			updateDepth(token);
-			if (!this.tokenizeArrayElements) {
+			if (this.elementPointer != null) {
+				processTokenPointer(token, result);
+			}
+			else if (!this.tokenizeArrayElements) {
 				processTokenNormal(token, result);
 			}
 			else {
@@ -190,6 +217,52 @@ final class Jackson2Tokenizer {
 		}
 	}
 
+	private void processTokenPointer(JsonToken token, List<TokenBuffer> result) throws IOException {
+		int depth = this.objectDepth + this.arrayDepth;
+		if (this.elementArrayDepth == -1) {
+			if (token == JsonToken.START_ARRAY && isAtElementPointer()) {
+				this.elementArrayDepth = depth;
+			}
+			return;
+		}
+		if (depth < this.elementArrayDepth) {
+			// End of the array at the element pointer
+			this.elementArrayDepth = -1;
+			return;
+		}
+		if (this.elementOffset == -1) {
+			this.elementOffset = this.parser.getTokenLocation().getByteOffset();
+		}
+		this.tokenBuffer.copyCurrentEvent(this.parser);
+		if (depth == this.elementArrayDepth) {
+			result.add(this.tokenBuffer);
+			this.tokenBuffer = createToken();
+			this.elementOffset = -1;
+		}
+		else {
+			assertElementSize();
+		}
+	}
+
+	/**
+	 * Whether the array that the parser just entered is located at the element pointer.
+	 */
+	private boolean isAtElementPointer() {
+		Deque<JsonStreamContext> contexts = new ArrayDeque<>();
+		JsonStreamContext context = this.parser.getParsingContext().getParent();
+		while (context != null && !context.inRoot()) {
+			contexts.push(context);
+			context = context.getParent();
+		}
+		JsonPointer pointer = this.elementPointer;
+		while (pointer != null && !contexts.isEmpty()) {
+			context = contexts.pop();
+			pointer = (context.inObject() ? pointer.matchProperty(context.getCurrentName()) :
+					pointer.matchElement(context.getCurrentIndex()));
+		}
+		return (pointer != null && pointer.matches());
+	}
+
 	private TokenBuffer createToken() {
 		TokenBuffer tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
 		tokenBuffer.forceUseOfBigDecimal(this.forceUseOfBigDecimal);
@@ -218,6 +291,13 @@ final class Jackson2Tokenizer {
 		}
 	}
 
+	private void assertElementSize() {
+		if (this.maxInMemorySize >= 0 && this.elementOffset != -1 &&
+				this.parser.getCurrentLocation().getByteOffset() - this.elementOffset > this.maxInMemorySize) {
+			raiseLimitException();
+		}
+	}
+
 	private void raiseLimitException() {
 		throw new DataBufferLimitException(
 				"Exceeded limit on max bytes per JSON object: " + this.maxInMemorySize);
@@ -239,6 +319,30 @@ final class Jackson2Tokenizer {
 	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
 			ObjectMapper objectMapper, boolean tokenizeArrays, boolean forceUseOfBigDecimal, int maxInMemorySize) {
 
+		return tokenize(dataBuffers, jsonFactory, objectMapper, tokenizeArrays, null,
+				forceUseOfBigDecimal, maxInMemorySize);
+	}
+
+	/**
+	 * Tokenize the given {@code Flux<DataBuffer>} into {@code Flux<TokenBuffer>}.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the factory to use
+	 * @param objectMapper the current mapper instance
+	 * @param tokenizeArrays if {@code true} and the "top level" JSON object is
+	 * an array, each element is returned individually immediately after it is received
+	 * @param elementPointer if not {@code null}, only the elements of the array(s)
+	 * at this pointer are returned individually, and all other content is skipped
+	 * @param forceUseOfBigDecimal if {@code true}, any floating point values encountered
+	 * in source will use {@link java.math.BigDecimal}
+	 * @param maxInMemorySize maximum memory size, per element if an element
+	 * pointer is given
+	 * @return the resulting token buffers
+	 * @since 5.2.10
+	 */
+	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			ObjectMapper objectMapper, boolean tokenizeArrays, @Nullable JsonPointer elementPointer,
+			boolean forceUseOfBigDecimal, int maxInMemorySize) {
+
 		try {
 			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
 			DeserializationContext context = objectMapper.getDeserializationContext();
@@ -247,7 +351,8 @@ final class Jackson2Tokenizer {
 						objectMapper.getDeserializationConfig(), parser, objectMapper.getInjectableValues());
 			}
 			Jackson2Tokenizer tokenizer =
-					new Jackson2Tokenizer(parser, context, tokenizeArrays, forceUseOfBigDecimal, maxInMemorySize);
+					new Jackson2Tokenizer(parser, context, tokenizeArrays, elementPointer,
+							forceUseOfBigDecimal, maxInMemorySize);
 			return dataBuffers.concatMapIterable(tokenizer::tokenize).concatWith(tokenizer.endOfInput());
 		}
 		catch (IOException ex) {
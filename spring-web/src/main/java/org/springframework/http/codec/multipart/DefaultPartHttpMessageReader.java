@@ -0,0 +1,595 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.log.LogFormatUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Default {@code HttpMessageReader} for parsing {@code "multipart/form-data"}
+ * requests to a stream of {@link Part}s, without a third-party library.
+ *
+ * <p>The multipart content is parsed directly from the {@link DataBuffer}s of
+ * the request body, requesting more input only as parts are consumed. The body
+ * of a non-file part is kept in memory, up to the
+ * {@link #setMaxInMemorySize(int) maxInMemorySize}. The body of a file part is
+ * kept in memory up to the same size, and is otherwise written to a temporary
+ * file in the {@link #setFileStorageDirectory(Path) file storage directory}
+ * through an {@link AsynchronousFileChannel}.
+ *
+ * <p>The content of a file part that was written to a temporary file can be
+ * consumed any number of times, through {@link Part#content()} or
+ * {@link FilePart#transferTo(Path)}, until the file is deleted through
+ * {@link Part#delete()}. On a server, this happens for the parts of
+ * {@link org.springframework.web.server.ServerWebExchange#getMultipartData()}
+ * once the exchange is complete. If reading the parts fails, the temporary
+ * files of all parts read so far are deleted.
+ *
+ * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
+ * to aggregate all parts into a Map.
+ *
+ * @since 5.2.10
+ * @see MultipartHttpMessageReader
+ * @see SynchronossPartHttpMessageReader
+ */
+public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
+
+	private static final String FILE_STORAGE_DIRECTORY_PREFIX = "spring-multipart-";
+
+	// Static DataBufferFactory to wrap bytes[] and read temporary files.
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+	@Nullable
+	private Path fileStorageDirectory;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+
+	/**
+	 * Configure the maximum amount of memory that is allowed to use per part.
+	 * When the limit is exceeded:
+	 * <ul>
+	 * <li>file parts are written to a temporary file.
+	 * <li>non-file parts are rejected with {@link DataBufferLimitException}.
+	 * </ul>
+	 * <p>By default this is set to 256K.
+	 * @param maxInMemorySize the in-memory limit in bytes; if set to -1 the
+	 * entire contents of all parts are kept in memory
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Get the {@link #setMaxInMemorySize configured} maximum in-memory size.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum size of the headers of each part.
+	 * <p>By default this is set to 8K.
+	 * @param byteCount the maximum amount of header bytes per part
+	 */
+	public void setMaxHeadersSize(int byteCount) {
+		Assert.isTrue(byteCount > 0, "'maxHeadersSize' must be greater than 0");
+		this.maxHeadersSize = byteCount;
+	}
+
+	/**
+	 * Get the {@link #setMaxHeadersSize configured} maximum size of part headers.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
+
+	/**
+	 * Configure the maximum amount of disk space allowed for file parts.
+	 * <p>By default this is set to -1, meaning that there is no maximum.
+	 * @param maxDiskUsagePerPart the disk limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Get the {@link #setMaxDiskUsagePerPart configured} maximum disk usage.
+	 */
+	public long getMaxDiskUsagePerPart() {
+		return this.maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Specify the maximum number of parts allowed in a given multipart request.
+	 * <p>By default this is set to -1, meaning that there is no maximum.
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Return the {@link #setMaxParts configured} limit on the number of parts.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
+
+	/**
+	 * Set the character set used to decode part headers.
+	 * <p>By default this is set to UTF-8, which browsers use for file names
+	 * with non-ASCII characters.
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "Charset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+	/**
+	 * Return the {@link #setHeadersCharset configured} charset for part headers.
+	 */
+	public Charset getHeadersCharset() {
+		return this.headersCharset;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize(int) maxInMemorySize}. The directory is
+	 * created if it does not exist yet.
+	 * <p>By default a new temporary directory is created on first use.
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for creating files and
+	 * directories, and copying and deleting files, all of which are blocking
+	 * operations. Writing and reading the contents of files uses an
+	 * {@link AsynchronousFileChannel} instead.
+	 * <p>By default this is set to {@link Schedulers#boundedElastic()}.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "Scheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	@Override
+	public List<MediaType> getReadableMediaTypes() {
+		return MultipartHttpMessageReader.MIME_TYPES;
+	}
+
+	@Override
+	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
+		if (Part.class.equals(elementType.toClass())) {
+			if (mediaType == null) {
+				return true;
+			}
+			for (MediaType supportedMediaType : getReadableMediaTypes()) {
+				if (supportedMediaType.isCompatibleWith(mediaType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Flux.defer(() -> {
+			MediaType contentType = message.getHeaders().getContentType();
+			byte[] boundary = MultipartParser.getBoundary(contentType);
+			if (boundary == null) {
+				return Flux.error(new DecodingException("No multipart boundary found in Content-Type: \"" +
+						contentType + "\""));
+			}
+			AtomicInteger partCount = new AtomicInteger();
+			Queue<Path> files = new ConcurrentLinkedQueue<>();
+			return MultipartParser.parse(message.getBody(), boundary, this.maxHeadersSize, this.headersCharset)
+					.windowUntil(MultipartParser.Token::isHeaders, true)
+					// Parser errors are signalled by each window and by the main sequence: only use the latter
+					.map(window -> window.onErrorResume(ex -> Mono.never()))
+					.concatMap(window -> window.switchOnFirst((signal, tokens) -> {
+						MultipartParser.Token first = signal.get();
+						if (first == null || !first.isHeaders()) {
+							return tokens.ofType(MultipartParser.BodyToken.class)
+									.doOnNext(token -> DataBufferUtils.release(token.buffer()))
+									.thenMany(Flux.empty());
+						}
+						HttpHeaders headers = ((MultipartParser.HeadersToken) first).headers();
+						Flux<DataBuffer> body = tokens.skip(1)
+								.cast(MultipartParser.BodyToken.class)
+								.map(MultipartParser.BodyToken::buffer);
+						return createPart(headers, body, partCount.incrementAndGet(), files);
+					}))
+					.doOnDiscard(MultipartParser.BodyToken.class, token -> DataBufferUtils.release(token.buffer()))
+					.doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+					.doOnError(ex -> files.forEach(this::deleteFile));
+		})
+		.doOnNext(part -> {
+			if (!Hints.isLoggingSuppressed(hints)) {
+				LogFormatUtils.traceDebug(logger, traceOn -> Hints.getLogPrefix(hints) + "Parsed " +
+						(isEnableLoggingRequestDetails() ?
+								LogFormatUtils.formatValue(part, !traceOn) :
+								"parts '" + part.name() + "' (content masked)"));
+			}
+		});
+	}
+
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException("Cannot read multipart request body into single Part"));
+	}
+
+
+	private Mono<Part> createPart(HttpHeaders headers, Flux<DataBuffer> body, int index, Queue<Path> files) {
+		if (this.maxParts > 0 && index > this.maxParts) {
+			return Mono.error(new DecodingException("Too many parts (" + this.maxParts + " allowed)"));
+		}
+		String filename = headers.getContentDisposition().getFilename();
+		if (filename != null) {
+			FilePartCollector collector = new FilePartCollector(headers, filename, index, files);
+			return body.concatMap(collector::add, 1)
+					.then(Mono.defer(collector::toPart))
+					.doOnError(ex -> collector.discard())
+					.doOnCancel(collector::discard);
+		}
+		return DataBufferUtils.join(body, this.maxInMemorySize)
+				.onErrorMap(DataBufferLimitException.class, ex -> new DataBufferLimitException(
+						"Part[" + index + "] exceeded the in-memory limit of " + this.maxInMemorySize + " bytes"))
+				.map(DefaultPartHttpMessageReader::toBytes)
+				.defaultIfEmpty(new byte[0])
+				.map(bytes -> {
+					MediaType contentType = headers.getContentType();
+					if (contentType == null || MediaType.TEXT_PLAIN.isCompatibleWith(contentType)) {
+						Charset charset = (contentType != null && contentType.getCharset() != null ?
+								contentType.getCharset() : StandardCharsets.UTF_8);
+						return new DefaultFormFieldPart(headers, new String(bytes, charset), bytes);
+					}
+					return new DefaultPart(headers, bytes);
+				});
+	}
+
+	private static byte[] toBytes(DataBuffer buffer) {
+		try {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			return bytes;
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	private synchronized Path getFileStorageDirectory() throws IOException {
+		if (this.fileStorageDirectory == null) {
+			this.fileStorageDirectory = Files.createTempDirectory(FILE_STORAGE_DIRECTORY_PREFIX);
+		}
+		else if (!Files.exists(this.fileStorageDirectory)) {
+			Files.createDirectories(this.fileStorageDirectory);
+		}
+		return this.fileStorageDirectory;
+	}
+
+	private void deleteFile(Path file) {
+		deleteFileMono(file).subscribe();
+	}
+
+	private Mono<Void> deleteFileMono(Path file) {
+		return Mono.<Void>fromRunnable(() -> {
+					try {
+						Files.deleteIfExists(file);
+					}
+					catch (IOException ex) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Could not delete temporary file " + file + ": " + ex);
+						}
+					}
+				})
+				.subscribeOn(this.blockingOperationScheduler);
+	}
+
+
+	/**
+	 * Collects the body of a file part in memory, and switches to a temporary
+	 * file once the in-memory limit is exceeded.
+	 */
+	private class FilePartCollector {
+
+		private final HttpHeaders headers;
+
+		private final String filename;
+
+		private final int index;
+
+		private final Queue<Path> files;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private long byteCount;
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private AsynchronousFileChannel channel;
+
+		FilePartCollector(HttpHeaders headers, String filename, int index, Queue<Path> files) {
+			this.headers = headers;
+			this.filename = filename;
+			this.index = index;
+			this.files = files;
+		}
+
+		Mono<Void> add(DataBuffer buffer) {
+			long position = this.byteCount;
+			this.byteCount += buffer.readableByteCount();
+			if (maxDiskUsagePerPart > 0 && this.byteCount > maxDiskUsagePerPart) {
+				DataBufferUtils.release(buffer);
+				return Mono.error(new DecodingException("Part[" + this.index + "] " +
+						"exceeded the disk usage limit of " + maxDiskUsagePerPart + " bytes"));
+			}
+			if (this.channel != null) {
+				return write(Flux.just(buffer), position);
+			}
+			this.buffers.add(buffer);
+			if (maxInMemorySize < 0 || this.byteCount <= maxInMemorySize) {
+				return Mono.empty();
+			}
+			return Mono.fromCallable(this::createFile)
+					.subscribeOn(blockingOperationScheduler)
+					.then(Mono.defer(() -> {
+						List<DataBuffer> inMemory = new ArrayList<>(this.buffers);
+						this.buffers.clear();
+						return write(Flux.fromIterable(inMemory), 0);
+					}));
+		}
+
+		private AsynchronousFileChannel createFile() throws IOException {
+			Path file = Files.createTempFile(getFileStorageDirectory(), null, ".multipart");
+			this.file = file;
+			this.channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+			return this.channel;
+		}
+
+		private Mono<Void> write(Flux<DataBuffer> content, long position) {
+			Assert.state(this.channel != null, "No file channel");
+			return DataBufferUtils.write(content, this.channel, position)
+					.doOnNext(DataBufferUtils::release)
+					.then();
+		}
+
+		Mono<Part> toPart() {
+			if (this.file != null) {
+				closeChannel();
+				this.files.add(this.file);
+				return Mono.just(new DefaultFilePart(this.headers, this.filename, this.file));
+			}
+			List<DataBuffer> inMemory = new ArrayList<>(this.buffers);
+			this.buffers.clear();
+			return DataBufferUtils.join(Flux.fromIterable(inMemory))
+					.map(DefaultPartHttpMessageReader::toBytes)
+					.defaultIfEmpty(new byte[0])
+					.map(bytes -> new DefaultInMemoryFilePart(this.headers, this.filename, bytes));
+		}
+
+		void discard() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+			closeChannel();
+			if (this.file != null) {
+				deleteFile(this.file);
+			}
+		}
+
+		private void closeChannel() {
+			if (this.channel != null) {
+				try {
+					this.channel.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+				this.channel = null;
+			}
+		}
+	}
+
+
+	private abstract static class AbstractPart implements Part {
+
+		private final String name;
+
+		private final HttpHeaders headers;
+
+		AbstractPart(HttpHeaders headers) {
+			String name = headers.getContentDisposition().getName();
+			this.name = (name != null ? name : "");
+			this.headers = headers;
+		}
+
+		@Override
+		public String name() {
+			return this.name;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + this.name + "', headers=" + this.headers;
+		}
+	}
+
+
+	private static class DefaultPart extends AbstractPart {
+
+		private final byte[] content;
+
+		DefaultPart(HttpHeaders headers, byte[] content) {
+			super(headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content)));
+		}
+	}
+
+
+	private static class DefaultFormFieldPart extends DefaultPart implements FormFieldPart {
+
+		private final String value;
+
+		DefaultFormFieldPart(HttpHeaders headers, String value, byte[] content) {
+			super(headers, content);
+			this.value = value;
+		}
+
+		@Override
+		public String value() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "=" + this.value + "'";
+		}
+	}
+
+
+	private static class DefaultInMemoryFilePart extends DefaultPart implements FilePart {
+
+		private final String filename;
+
+		DefaultInMemoryFilePart(HttpHeaders headers, String filename, byte[] content) {
+			super(headers, content);
+			this.filename = filename;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return DataBufferUtils.write(content(), dest);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+
+	private class DefaultFilePart extends AbstractPart implements FilePart {
+
+		private final String filename;
+
+		private final Path file;
+
+		DefaultFilePart(HttpHeaders headers, String filename, Path file) {
+			super(headers);
+			this.filename = filename;
+			this.file = file;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return DataBufferUtils.readAsynchronousFileChannel(
+					() -> AsynchronousFileChannel.open(this.file, StandardOpenOption.READ), bufferFactory, 4096);
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+						Files.copy(this.file, dest, StandardCopyOption.REPLACE_EXISTING);
+						return null;
+					})
+					.subscribeOn(blockingOperationScheduler);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return deleteFileMono(this.file);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+}
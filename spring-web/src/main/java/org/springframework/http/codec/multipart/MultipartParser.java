@@ -0,0 +1,420 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+/**
+ * Subscribes to a stream of {@link DataBuffer}s and parses it into a stream of
+ * {@link Token}s: the headers of each part, followed by the buffers that make
+ * up its body. Body buffers are slices of the input buffers, so that part
+ * content is not copied while parsing.
+ *
+ * <p>Input buffers are requested one at a time, and only while there is
+ * demand for tokens, so that parsing is subject to backpressure.
+ *
+ * @since 5.2.10
+ * @see DefaultPartHttpMessageReader
+ */
+final class MultipartParser extends BaseSubscriber<DataBuffer> {
+
+	private static final byte[] CRLF = {'\r', '\n'};
+
+	private static final byte[] BOUNDARY_PREFIX = {'\r', '\n', '-', '-'};
+
+	private static final byte[] HEADERS_END = {'\r', '\n', '\r', '\n'};
+
+	private static final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private final FluxSink<Token> sink;
+
+	private final byte[] delimiter;
+
+	private final DataBufferUtils.Matcher delimiterMatcher;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+	private State state = State.PREAMBLE;
+
+	/** Body buffers held back since they might end with the start of the delimiter. */
+	private final Deque<DataBuffer> heldBuffers = new ArrayDeque<>();
+
+	private int heldByteCount;
+
+	/** Bytes of headers, or of the two bytes following a delimiter. */
+	private final ByteArrayOutputStream accumulated = new ByteArrayOutputStream();
+
+	/** Number of trailing accumulated bytes that match the start of HEADERS_END. */
+	private int headersEndMatches;
+
+
+	private MultipartParser(FluxSink<Token> sink, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		this.sink = sink;
+		this.delimiter = concat(BOUNDARY_PREFIX, boundary);
+		this.delimiterMatcher = DataBufferUtils.matcher(this.delimiter);
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+	}
+
+
+	/**
+	 * Parse the given stream of buffers into a stream of {@link Token}s.
+	 * @param buffers the multipart content
+	 * @param boundary the boundary, as found in the content type
+	 * @param maxHeadersSize the maximum size of the headers of each part
+	 * @param headersCharset the charset to decode headers with
+	 * @return the stream of tokens
+	 */
+	static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		return Flux.create(sink -> {
+			MultipartParser parser = new MultipartParser(sink, boundary, maxHeadersSize, headersCharset);
+			sink.onCancel(parser::onSinkCancel);
+			sink.onRequest(n -> parser.requestBuffer());
+			buffers.subscribe(parser);
+		});
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		// The first delimiter is not preceded by CRLF if there is no preamble
+		this.delimiterMatcher.match(bufferFactory.wrap(CRLF));
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer buffer) {
+		this.requestOutstanding.set(false);
+		try {
+			while (buffer.readableByteCount() > 0 && !this.sink.isCancelled()) {
+				switch (this.state) {
+					case PREAMBLE:
+					case BODY:
+						buffer = parseBody(buffer);
+						break;
+					case AFTER_DELIMITER:
+						parseAfterDelimiter(buffer);
+						break;
+					case HEADERS:
+						parseHeaders(buffer);
+						break;
+					default:
+						// Epilogue: ignore
+						buffer.readPosition(buffer.writePosition());
+				}
+			}
+		}
+		catch (Throwable ex) {
+			DataBufferUtils.release(buffer);
+			cancel();
+			this.sink.error(ex);
+			return;
+		}
+		DataBufferUtils.release(buffer);
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		this.sink.error(throwable);
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		if (this.state == State.EPILOGUE) {
+			this.sink.complete();
+		}
+		else if (this.state == State.PREAMBLE) {
+			this.sink.error(new DecodingException("No multipart boundary found"));
+		}
+		else {
+			this.sink.error(new DecodingException("Could not find end of multipart content"));
+		}
+	}
+
+	@Override
+	protected void hookFinally(SignalType type) {
+		releaseHeldBuffers();
+	}
+
+	private void onSinkCancel() {
+		cancel();
+		releaseHeldBuffers();
+	}
+
+	private synchronized void releaseHeldBuffers() {
+		DataBuffer buffer;
+		while ((buffer = this.heldBuffers.poll()) != null) {
+			DataBufferUtils.release(buffer);
+		}
+		this.heldByteCount = 0;
+	}
+
+	private void requestBuffer() {
+		if (upstream() != null && !this.sink.isCancelled() && this.sink.requestedFromDownstream() > 0 &&
+				this.requestOutstanding.compareAndSet(false, true)) {
+			request(1);
+		}
+	}
+
+
+	/**
+	 * Look for the delimiter in the given buffer. Content before it is emitted
+	 * as part body, or discarded in case of the preamble.
+	 * @return the buffer to continue with, positioned after the delimiter
+	 * if found, or fully read if not
+	 */
+	private DataBuffer parseBody(DataBuffer buffer) {
+		int start = buffer.readPosition();
+		int endIdx = this.delimiterMatcher.match(buffer);
+		if (endIdx == -1) {
+			if (this.state == State.BODY) {
+				hold(buffer.retainedSlice(start, buffer.readableByteCount()));
+			}
+			buffer.readPosition(buffer.writePosition());
+			return buffer;
+		}
+		int matchedInBuffer = endIdx - start + 1;
+		if (this.state == State.BODY) {
+			if (matchedInBuffer < this.delimiter.length) {
+				emitHeld(this.heldByteCount - (this.delimiter.length - matchedInBuffer));
+			}
+			else {
+				emitHeld(this.heldByteCount);
+				int length = matchedInBuffer - this.delimiter.length;
+				if (length > 0) {
+					emitBody(buffer.retainedSlice(start, length));
+				}
+			}
+		}
+		buffer.readPosition(endIdx + 1);
+		this.accumulated.reset();
+		this.state = State.AFTER_DELIMITER;
+		return buffer;
+	}
+
+	private synchronized void hold(DataBuffer slice) {
+		this.heldBuffers.add(slice);
+		this.heldByteCount += slice.readableByteCount();
+		// Only the last delimiter.length - 1 bytes can be the start of a delimiter
+		DataBuffer first = this.heldBuffers.peek();
+		while (first != null && this.heldByteCount - first.readableByteCount() >= this.delimiter.length - 1) {
+			this.heldBuffers.poll();
+			this.heldByteCount -= first.readableByteCount();
+			emitBody(first);
+			first = this.heldBuffers.peek();
+		}
+	}
+
+	/**
+	 * Emit the given number of held back bytes as body, and release the rest,
+	 * which is the start of the delimiter.
+	 */
+	private synchronized void emitHeld(int count) {
+		DataBuffer buffer;
+		while ((buffer = this.heldBuffers.poll()) != null) {
+			int readable = buffer.readableByteCount();
+			if (count >= readable) {
+				emitBody(buffer);
+				count -= readable;
+			}
+			else {
+				if (count > 0) {
+					emitBody(buffer.retainedSlice(buffer.readPosition(), count));
+					count = 0;
+				}
+				DataBufferUtils.release(buffer);
+			}
+		}
+		this.heldByteCount = 0;
+	}
+
+	private void emitBody(DataBuffer buffer) {
+		this.sink.next(new BodyToken(buffer));
+	}
+
+	/**
+	 * Read the two bytes following a delimiter: CRLF before the headers of
+	 * the next part, or "--" at the end of the multipart content.
+	 */
+	private void parseAfterDelimiter(DataBuffer buffer) {
+		while (buffer.readableByteCount() > 0 && this.accumulated.size() < 2) {
+			this.accumulated.write(buffer.read());
+		}
+		if (this.accumulated.size() == 2) {
+			byte[] bytes = this.accumulated.toByteArray();
+			this.accumulated.reset();
+			if (bytes[0] == '-' && bytes[1] == '-') {
+				this.state = State.EPILOGUE;
+			}
+			else if (bytes[0] == CRLF[0] && bytes[1] == CRLF[1]) {
+				// Start with CRLF so that a part without headers ends with HEADERS_END
+				this.accumulated.write(CRLF, 0, CRLF.length);
+				this.headersEndMatches = CRLF.length;
+				this.state = State.HEADERS;
+			}
+			else {
+				throw new DecodingException("Invalid multipart boundary delimiter");
+			}
+		}
+	}
+
+	private void parseHeaders(DataBuffer buffer) {
+		while (buffer.readableByteCount() > 0) {
+			byte b = buffer.read();
+			this.accumulated.write(b);
+			if (this.accumulated.size() > this.maxHeadersSize) {
+				throw new DataBufferLimitException(
+						"Part headers exceeded the limit of " + this.maxHeadersSize + " bytes");
+			}
+			if (b == HEADERS_END[this.headersEndMatches]) {
+				this.headersEndMatches++;
+			}
+			else {
+				this.headersEndMatches = (b == HEADERS_END[0] ? 1 : 0);
+			}
+			if (this.headersEndMatches == HEADERS_END.length) {
+				this.headersEndMatches = 0;
+				byte[] bytes = this.accumulated.toByteArray();
+				this.accumulated.reset();
+				String headers = new String(bytes, CRLF.length, bytes.length - HEADERS_END.length, this.headersCharset);
+				this.sink.next(new HeadersToken(toHttpHeaders(headers)));
+				this.state = State.BODY;
+				return;
+			}
+		}
+	}
+
+	private static HttpHeaders toHttpHeaders(String headers) {
+		HttpHeaders result = new HttpHeaders();
+		for (String line : headers.split("\r\n")) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			int idx = line.indexOf(':');
+			if (idx == -1) {
+				throw new DecodingException("Invalid multipart header line: \"" + line + "\"");
+			}
+			result.add(line.substring(0, idx).trim(), line.substring(idx + 1).trim());
+		}
+		return result;
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = new byte[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	/**
+	 * Return the boundary parameter of the given content type as bytes, if any.
+	 */
+	@Nullable
+	static byte[] getBoundary(@Nullable MediaType contentType) {
+		if (contentType != null) {
+			String boundary = contentType.getParameter("boundary");
+			if (boundary != null) {
+				int length = boundary.length();
+				if (length > 2 && boundary.charAt(0) == '"' && boundary.charAt(length - 1) == '"') {
+					boundary = boundary.substring(1, length - 1);
+				}
+				return boundary.getBytes(StandardCharsets.ISO_8859_1);
+			}
+		}
+		return null;
+	}
+
+
+	private enum State {
+
+		PREAMBLE, AFTER_DELIMITER, HEADERS, BODY, EPILOGUE
+	}
+
+
+	/**
+	 * Output of the parser: either the headers of a part, or a buffer of its body.
+	 */
+	abstract static class Token {
+
+		abstract boolean isHeaders();
+	}
+
+
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		boolean isHeaders() {
+			return true;
+		}
+	}
+
+
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		DataBuffer buffer() {
+			return this.buffer;
+		}
+
+		@Override
+		boolean isHeaders() {
+			return false;
+		}
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.http.codec.multipart;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -57,4 +58,15 @@ public interface Part {
 	 */
 	Flux<DataBuffer> content();
 
+	/**
+	 * Return a mono that, when subscribed to, deletes the underlying storage
+	 * for this part, e.g. a temporary file.
+	 * <p>The default implementation returns an empty mono, which is suitable
+	 * for parts that are kept in memory.
+	 * @since 5.2.10
+	 */
+	default Mono<Void> delete() {
+		return Mono.empty();
+	}
+
 }
@@ -43,6 +43,7 @@ import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.http.HttpInputMessage;
@@ -100,6 +101,9 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	@Nullable
 	private PrettyPrinter ssePrettyPrinter;
 
+	@Nullable
+	private Jackson2ObjectReaderWriterCache objectReaderWriterCache;
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		this.objectMapper = objectMapper;
@@ -161,6 +165,33 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		if (this.prettyPrint != null) {
 			this.objectMapper.configure(SerializationFeature.INDENT_OUTPUT, this.prettyPrint);
 		}
+		if (this.objectReaderWriterCache != null) {
+			this.objectReaderWriterCache.clear();
+		}
+	}
+
+	/**
+	 * Configure a cache of prepared {@link ObjectReader} and {@link ObjectWriter}
+	 * instances to use instead of deriving them from the {@code ObjectMapper}
+	 * for every message. The same cache may be shared with other converters
+	 * and with the reactive Jackson codecs.
+	 * <p>By default this is not set, and readers and writers are created
+	 * per message. Note that writers are not cached for
+	 * {@link MappingJacksonValue} instances with {@link FilterProvider filters}.
+	 * @param objectReaderWriterCache the cache to use, or {@code null} for none
+	 * @since 5.2.10
+	 */
+	public void setObjectReaderWriterCache(@Nullable Jackson2ObjectReaderWriterCache objectReaderWriterCache) {
+		this.objectReaderWriterCache = objectReaderWriterCache;
+	}
+
+	/**
+	 * Return the configured cache of readers and writers, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public Jackson2ObjectReaderWriterCache getObjectReaderWriterCache() {
+		return this.objectReaderWriterCache;
 	}
 
 
@@ -255,17 +286,18 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 
 		boolean isUnicode = ENCODINGS.containsKey(charset.name());
 		try {
+			Class<?> deserializationView = null;
 			if (inputMessage instanceof MappingJacksonInputMessage) {
-				Class<?> deserializationView = ((MappingJacksonInputMessage) inputMessage).getDeserializationView();
-				if (deserializationView != null) {
-					ObjectReader objectReader = this.objectMapper.readerWithView(deserializationView).forType(javaType);
-					if (isUnicode) {
-						return objectReader.readValue(inputMessage.getBody());
-					}
-					else {
-						Reader reader = new InputStreamReader(inputMessage.getBody(), charset);
-						return objectReader.readValue(reader);
-					}
+				deserializationView = ((MappingJacksonInputMessage) inputMessage).getDeserializationView();
+			}
+			if (deserializationView != null || this.objectReaderWriterCache != null) {
+				ObjectReader objectReader = getObjectReader(javaType, deserializationView, contentType);
+				if (isUnicode) {
+					return objectReader.readValue(inputMessage.getBody());
+				}
+				else {
+					Reader reader = new InputStreamReader(inputMessage.getBody(), charset);
+					return objectReader.readValue(reader);
 				}
 			}
 			if (isUnicode) {
@@ -326,19 +358,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				javaType = getJavaType(type, null);
 			}
 
-			ObjectWriter objectWriter = (serializationView != null ?
-					this.objectMapper.writerWithView(serializationView) : this.objectMapper.writer());
-			if (filters != null) {
-				objectWriter = objectWriter.with(filters);
-			}
-			if (javaType != null && javaType.isContainerType()) {
-				objectWriter = objectWriter.forType(javaType);
-			}
-			SerializationConfig config = objectWriter.getConfig();
-			if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
-					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-				objectWriter = objectWriter.with(this.ssePrettyPrinter);
-			}
+			ObjectWriter objectWriter = getObjectWriter(javaType, serializationView, filters, contentType);
 			objectWriter.writeValue(generator, value);
 
 			writeSuffix(generator, object);
@@ -352,6 +372,53 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private ObjectReader getObjectReader(JavaType javaType, @Nullable Class<?> deserializationView,
+			@Nullable MediaType contentType) {
+
+		if (this.objectReaderWriterCache == null) {
+			return createObjectReader(javaType, deserializationView);
+		}
+		return this.objectReaderWriterCache.getObjectReader(this.objectMapper, javaType, deserializationView,
+				contentType, () -> createObjectReader(javaType, deserializationView));
+	}
+
+	private ObjectReader createObjectReader(JavaType javaType, @Nullable Class<?> deserializationView) {
+		return (deserializationView != null ?
+				this.objectMapper.readerWithView(deserializationView).forType(javaType) :
+				this.objectMapper.readerFor(javaType));
+	}
+
+	private ObjectWriter getObjectWriter(@Nullable JavaType javaType, @Nullable Class<?> serializationView,
+			@Nullable FilterProvider filters, @Nullable MediaType contentType) {
+
+		if (this.objectReaderWriterCache == null || filters != null) {
+			return createObjectWriter(javaType, serializationView, filters, contentType);
+		}
+		JavaType cacheType = (javaType != null && javaType.isContainerType() ?
+				javaType : TypeFactory.unknownType());
+		return this.objectReaderWriterCache.getObjectWriter(this.objectMapper, cacheType, serializationView,
+				contentType, () -> createObjectWriter(javaType, serializationView, null, contentType));
+	}
+
+	private ObjectWriter createObjectWriter(@Nullable JavaType javaType, @Nullable Class<?> serializationView,
+			@Nullable FilterProvider filters, @Nullable MediaType contentType) {
+
+		ObjectWriter objectWriter = (serializationView != null ?
+				this.objectMapper.writerWithView(serializationView) : this.objectMapper.writer());
+		if (filters != null) {
+			objectWriter = objectWriter.with(filters);
+		}
+		if (javaType != null && javaType.isContainerType()) {
+			objectWriter = objectWriter.forType(javaType);
+		}
+		SerializationConfig config = objectWriter.getConfig();
+		if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
+				config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+			objectWriter = objectWriter.with(this.ssePrettyPrinter);
+		}
+		return objectWriter;
+	}
+
 	/**
 	 * Write a prefix before the main content.
 	 * @param generator the generator to use for writing content.
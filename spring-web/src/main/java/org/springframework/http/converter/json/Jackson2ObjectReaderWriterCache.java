@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter.json;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Bounded cache of prepared Jackson {@link ObjectReader} and {@link ObjectWriter}
+ * instances, keyed by {@link ObjectMapper}, target {@link JavaType}, JSON view
+ * and {@link MimeType}.
+ *
+ * <p>Readers and writers are immutable and thread-safe, so a single instance
+ * can be shared between the Jackson based {@code HttpMessageConverter}s and the
+ * reactive Jackson encoders and decoders. Since an {@code ObjectReader} or
+ * {@code ObjectWriter} captures the configuration of its {@code ObjectMapper}
+ * at creation time, the mapper should be fully configured before it is used
+ * through this cache, or {@link #clear()} should be called after changing it.
+ *
+ * <p>The cache keeps track of hits and misses which can be used to verify its
+ * effectiveness, e.g. through {@link #getHitCount()} and {@link #getMissCount()}.
+ *
+ * @since 5.2.10
+ * @see AbstractJackson2HttpMessageConverter#setObjectReaderWriterCache
+ * @see org.springframework.http.codec.json.Jackson2CodecSupport#setObjectReaderWriterCache
+ */
+public class Jackson2ObjectReaderWriterCache {
+
+	/** Default maximum number of entries for the cache: 256. */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+
+	private final int cacheLimit;
+
+	/** Fast access cache for prepared readers and writers, returning already cached instances without a global lock. */
+	private final Map<CacheKey, Object> accessCache = new ConcurrentHashMap<>(DEFAULT_CACHE_LIMIT);
+
+	/** Map from cache key to reader or writer, synchronized for creation and eviction of the eldest entries. */
+	private final Map<CacheKey, Object> creationCache;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+
+	/**
+	 * Create a new cache with the {@link #DEFAULT_CACHE_LIMIT default} limit.
+	 */
+	public Jackson2ObjectReaderWriterCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new cache with the given limit.
+	 * @param cacheLimit the maximum number of readers and writers to keep
+	 */
+	public Jackson2ObjectReaderWriterCache(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cacheLimit = cacheLimit;
+		this.creationCache = new LinkedHashMap<CacheKey, Object>(cacheLimit, 0.75f) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+				if (size() > getCacheLimit()) {
+					accessCache.remove(eldest.getKey());
+					return true;
+				}
+				else {
+					return false;
+				}
+			}
+		};
+	}
+
+
+	/**
+	 * Return the maximum number of entries for the cache.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return a cached {@link ObjectReader} for the given arguments, creating
+	 * it through the given factory if necessary.
+	 * @param objectMapper the mapper the reader is derived from
+	 * @param javaType the target type to read
+	 * @param jsonView the JSON view to apply, if any
+	 * @param mimeType the MIME type of the input, if known
+	 * @param readerFactory callback to create the reader on a cache miss
+	 * @return the prepared reader
+	 */
+	public ObjectReader getObjectReader(ObjectMapper objectMapper, JavaType javaType,
+			@Nullable Class<?> jsonView, @Nullable MimeType mimeType, Supplier<ObjectReader> readerFactory) {
+
+		return (ObjectReader) get(new CacheKey(ObjectReader.class, objectMapper, javaType, jsonView, mimeType),
+				readerFactory);
+	}
+
+	/**
+	 * Return a cached {@link ObjectWriter} for the given arguments, creating
+	 * it through the given factory if necessary.
+	 * @param objectMapper the mapper the writer is derived from
+	 * @param javaType the type of value to write
+	 * @param jsonView the JSON view to apply, if any
+	 * @param mimeType the MIME type of the output, if known
+	 * @param writerFactory callback to create the writer on a cache miss
+	 * @return the prepared writer
+	 */
+	public ObjectWriter getObjectWriter(ObjectMapper objectMapper, JavaType javaType,
+			@Nullable Class<?> jsonView, @Nullable MimeType mimeType, Supplier<ObjectWriter> writerFactory) {
+
+		return (ObjectWriter) get(new CacheKey(ObjectWriter.class, objectMapper, javaType, jsonView, mimeType),
+				writerFactory);
+	}
+
+	private Object get(CacheKey cacheKey, Supplier<?> factory) {
+		Object cached = this.accessCache.get(cacheKey);
+		if (cached != null) {
+			this.hitCount.incrementAndGet();
+			return cached;
+		}
+		synchronized (this.creationCache) {
+			cached = this.creationCache.get(cacheKey);
+			if (cached != null) {
+				this.hitCount.incrementAndGet();
+				return cached;
+			}
+			this.missCount.incrementAndGet();
+			Object created = factory.get();
+			Assert.state(created != null, "Factory returned null ObjectReader/ObjectWriter");
+			this.accessCache.put(cacheKey, created);
+			this.creationCache.put(cacheKey, created);
+			return created;
+		}
+	}
+
+	/**
+	 * Return the number of lookups served from the cache.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that required the creation of a new
+	 * reader or writer.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the current number of cached readers and writers.
+	 */
+	public int size() {
+		return this.accessCache.size();
+	}
+
+	/**
+	 * Clear the cache, e.g. after a change to the configuration of a
+	 * {@code ObjectMapper} that is used through it. Hit and miss counts
+	 * are not reset.
+	 */
+	public void clear() {
+		synchronized (this.creationCache) {
+			this.accessCache.clear();
+			this.creationCache.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[size=" + size() + ", hits=" + getHitCount() +
+				", misses=" + getMissCount() + "]";
+	}
+
+
+	private static final class CacheKey {
+
+		private final Class<?> kind;
+
+		private final ObjectMapper objectMapper;
+
+		private final JavaType javaType;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		@Nullable
+		private final MimeType mimeType;
+
+		private final int hashCode;
+
+		CacheKey(Class<?> kind, ObjectMapper objectMapper, JavaType javaType,
+				@Nullable Class<?> jsonView, @Nullable MimeType mimeType) {
+
+			this.kind = kind;
+			this.objectMapper = objectMapper;
+			this.javaType = javaType;
+			this.jsonView = jsonView;
+			this.mimeType = mimeType;
+			int result = kind.hashCode();
+			result = 31 * result + System.identityHashCode(objectMapper);
+			result = 31 * result + javaType.hashCode();
+			result = 31 * result + ObjectUtils.nullSafeHashCode(jsonView);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(mimeType);
+			this.hashCode = result;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey otherKey = (CacheKey) other;
+			return (this.kind == otherKey.kind && this.objectMapper == otherKey.objectMapper &&
+					this.javaType.equals(otherKey.javaType) &&
+					ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView) &&
+					ObjectUtils.nullSafeEquals(this.mimeType, otherKey.mimeType));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+}
@@ -0,0 +1,682 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.CompressionUtils;
+import org.springframework.web.util.DeflaterPool;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@link javax.servlet.Filter} that GZIP compresses response content, e.g. as
+ * written by {@code HttpMessageConverter}s, when the client accepts it.
+ *
+ * <p>Content is buffered only up to the {@link #setMinResponseSize minimum
+ * response size}. Once that is exceeded, and the response content type is one
+ * of the {@link #setCompressibleMediaTypes compressible media types}, the
+ * response is compressed while it is being written, using a
+ * {@link java.util.zip.Deflater Deflater} from a shared {@link DeflaterPool}.
+ * Smaller responses are written as-is.
+ * The minimum size can be refined per route through
+ * {@link #setMinResponseSizes(Map) path patterns}.
+ *
+ * <p>Responses that are flushed before reaching the minimum size, and
+ * responses that already declare a {@code Content-Encoding} or
+ * {@code Content-Range} are not compressed. Neither are async responses that
+ * are below the minimum size when the initial request thread exits. Async
+ * responses that are compressed by then are finished on the async dispatch,
+ * or when the async request completes.
+ *
+ * <p>Responses written with Servlet 3.1 non-blocking I/O are not compressed,
+ * and a response that is compressed already rejects a
+ * {@link javax.servlet.WriteListener WriteListener}, so that the caller can
+ * fall back on blocking I/O.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.reactive.CompressionFilter
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+	/** Default minimum response size for compression: 2048 bytes. */
+	public static final int DEFAULT_MIN_RESPONSE_SIZE = 2048;
+
+	private static final String GZIP = "gzip";
+
+
+	private DeflaterPool deflaterPool = new DeflaterPool();
+
+	private int minResponseSize = DEFAULT_MIN_RESPONSE_SIZE;
+
+	private List<MediaType> compressibleMediaTypes = CompressionUtils.DEFAULT_COMPRESSIBLE_MEDIA_TYPES;
+
+	private final Map<String, Integer> minResponseSizes = new LinkedHashMap<>();
+
+	private PathMatcher pathMatcher = new AntPathMatcher();
+
+	private UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+
+	/**
+	 * Set the pool of deflaters to use, e.g. to share it with other filters
+	 * or to customize the compression level.
+	 * <p>By default, a {@link DeflaterPool#DeflaterPool() default pool} is used.
+	 */
+	public void setDeflaterPool(DeflaterPool deflaterPool) {
+		Assert.notNull(deflaterPool, "DeflaterPool must not be null");
+		this.deflaterPool = deflaterPool;
+	}
+
+	/**
+	 * Return the configured pool of deflaters.
+	 */
+	public DeflaterPool getDeflaterPool() {
+		return this.deflaterPool;
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to be compressed.
+	 * <p>By default this is set to {@link #DEFAULT_MIN_RESPONSE_SIZE}.
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		Assert.isTrue(minResponseSize >= 0, "Minimum response size must not be negative");
+		this.minResponseSize = minResponseSize;
+	}
+
+	/**
+	 * Return the configured minimum response size for compression.
+	 */
+	public int getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Configure minimum response sizes per request path pattern, overriding the
+	 * {@link #setMinResponseSize default minimum} for matching requests. A
+	 * negative value disables compression for the matching requests.
+	 * <p>Patterns are matched in the order given, against the lookup path of
+	 * the request, as determined by the {@link #setUrlPathHelper UrlPathHelper}.
+	 */
+	public void setMinResponseSizes(Map<String, Integer> minResponseSizes) {
+		this.minResponseSizes.clear();
+		this.minResponseSizes.putAll(minResponseSizes);
+	}
+
+	/**
+	 * Return the configured minimum response sizes per path pattern.
+	 */
+	public Map<String, Integer> getMinResponseSizes() {
+		return Collections.unmodifiableMap(this.minResponseSizes);
+	}
+
+	/**
+	 * Set the media types of responses to compress.
+	 * <p>By default these are the {@link CompressionUtils#DEFAULT_COMPRESSIBLE_MEDIA_TYPES}.
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> mediaTypes) {
+		Assert.notNull(mediaTypes, "Media types must not be null");
+		this.compressibleMediaTypes = new ArrayList<>(mediaTypes);
+	}
+
+	/**
+	 * Return the media types of responses to compress.
+	 */
+	public List<MediaType> getCompressibleMediaTypes() {
+		return Collections.unmodifiableList(this.compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the {@code PathMatcher} to match request paths against the patterns
+	 * of {@link #setMinResponseSizes(Map)}. Default is {@link AntPathMatcher}.
+	 */
+	public void setPathMatcher(PathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "PathMatcher must not be null");
+		this.pathMatcher = pathMatcher;
+	}
+
+	/**
+	 * Set the {@code UrlPathHelper} to determine the lookup path of requests.
+	 */
+	public void setUrlPathHelper(UrlPathHelper urlPathHelper) {
+		Assert.notNull(urlPathHelper, "UrlPathHelper must not be null");
+		this.urlPathHelper = urlPathHelper;
+	}
+
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		CompressingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+		HttpServletResponse responseToUse = response;
+		if (wrapper == null) {
+			int minSize = getMinResponseSize(request);
+			if (isAsyncDispatch(request) || minSize < 0 || HttpMethod.HEAD.matches(request.getMethod()) ||
+					!CompressionUtils.acceptsGzip(Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING)))) {
+				filterChain.doFilter(request, response);
+				return;
+			}
+			wrapper = new CompressingResponseWrapper(response, request, minSize);
+			responseToUse = wrapper;
+		}
+
+		boolean success = false;
+		try {
+			filterChain.doFilter(request, responseToUse);
+			success = true;
+		}
+		finally {
+			if (success) {
+				wrapper.finishResponse();
+			}
+			else {
+				wrapper.releaseResources();
+			}
+		}
+	}
+
+	/**
+	 * The default value is {@code false} so that the filter may finish the
+	 * compressed content of a response once its async processing is done.
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	/**
+	 * Determine the minimum response size for the given request.
+	 * @return the minimum size, or a negative value to skip compression
+	 */
+	protected int getMinResponseSize(HttpServletRequest request) {
+		if (!this.minResponseSizes.isEmpty()) {
+			String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
+			for (Map.Entry<String, Integer> entry : this.minResponseSizes.entrySet()) {
+				if (this.pathMatcher.match(entry.getKey(), lookupPath)) {
+					return entry.getValue();
+				}
+			}
+		}
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Whether a response with the given status and headers should be compressed.
+	 * @param response the response, once it has reached the minimum size
+	 * @return {@code true} to compress, {@code false} to write it as is
+	 */
+	protected boolean isCompressible(HttpServletResponse response) {
+		int status = response.getStatus();
+		if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT ||
+				status == HttpServletResponse.SC_NOT_MODIFIED ||
+				response.getHeader(HttpHeaders.CONTENT_ENCODING) != null ||
+				response.getHeader(HttpHeaders.CONTENT_RANGE) != null) {
+			return false;
+		}
+		String contentType = response.getContentType();
+		if (!StringUtils.hasLength(contentType)) {
+			return false;
+		}
+		try {
+			MediaType mediaType = MediaType.parseMediaType(contentType);
+			for (MediaType compressibleType : this.compressibleMediaTypes) {
+				if (compressibleType.includes(mediaType)) {
+					return true;
+				}
+			}
+		}
+		catch (InvalidMediaTypeException ex) {
+			// Leave unknown content types alone
+		}
+		return false;
+	}
+
+
+	/**
+	 * Response wrapper that holds back content up to the minimum size, and
+	 * then decides whether to compress the response.
+	 */
+	private class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private final int minSize;
+
+		@Nullable
+		private CompressingServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		private long contentLength = -1;
+
+		private boolean asyncListenerRegistered;
+
+		CompressingResponseWrapper(HttpServletResponse response, HttpServletRequest request, int minSize) {
+			super(response);
+			this.request = request;
+			this.minSize = minSize;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			Assert.state(this.writer == null, "getWriter() has already been called");
+			return obtainOutputStream();
+		}
+
+		private CompressingServletOutputStream obtainOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new CompressingServletOutputStream(this, getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				Assert.state(this.outputStream == null, "getOutputStream() has already been called");
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new PrintWriter(new OutputStreamWriter(obtainOutputStream(),
+						(characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING)));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+			else if (this.outputStream != null) {
+				this.outputStream.flush();
+			}
+			super.flushBuffer();
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (isUndecided()) {
+				this.contentLength = len;
+			}
+			else if (!isCompressing()) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(Long.parseLong(value));
+			}
+			else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(Long.parseLong(value));
+			}
+			else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(value);
+			}
+			else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			writeUncompressed();
+			super.sendError(sc);
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public void sendError(int sc, String msg) throws IOException {
+			writeUncompressed();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeUncompressed();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (this.outputStream != null && this.outputStream.isUndecided()) {
+				this.outputStream.resetBuffer();
+			}
+			super.resetBuffer();
+		}
+
+		@Override
+		public void reset() {
+			resetBuffer();
+			this.contentLength = -1;
+			super.reset();
+		}
+
+		long getContentLength() {
+			return this.contentLength;
+		}
+
+		boolean isAsyncStarted() {
+			return this.request.isAsyncStarted();
+		}
+
+		int getMinSize() {
+			return this.minSize;
+		}
+
+		private boolean isUndecided() {
+			return (this.outputStream == null || this.outputStream.isUndecided());
+		}
+
+		private boolean isCompressing() {
+			return (this.outputStream != null && this.outputStream.isCompressing());
+		}
+
+		private void writeUncompressed() throws IOException {
+			if (this.outputStream != null) {
+				this.outputStream.decide(false);
+			}
+			else {
+				applyContentLength();
+			}
+		}
+
+		void applyContentLength() {
+			if (this.contentLength >= 0) {
+				super.setContentLengthLong(this.contentLength);
+			}
+		}
+
+		void finishResponse() throws IOException {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+			if (this.outputStream != null) {
+				if (isAsyncStarted()) {
+					this.outputStream.decide(false);
+					if (this.outputStream.isCompressing() && !this.asyncListenerRegistered) {
+						// Content may still be written: finish it once async processing is done
+						this.request.getAsyncContext().addListener(new CompressionAsyncListener());
+						this.asyncListenerRegistered = true;
+					}
+				}
+				else {
+					this.outputStream.finish();
+				}
+			}
+			else {
+				applyContentLength();
+			}
+		}
+
+		void releaseResources() {
+			if (this.outputStream != null) {
+				this.outputStream.release();
+			}
+		}
+
+
+		/**
+		 * Writes the GZIP trailer and returns the deflater to the pool when an
+		 * async request, whose response is being compressed, completes.
+		 */
+		private class CompressionAsyncListener implements AsyncListener {
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+				event.getAsyncContext().addListener(this);
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+				try {
+					if (writer != null) {
+						writer.flush();
+					}
+					if (outputStream != null) {
+						outputStream.finish();
+					}
+				}
+				catch (IOException ex) {
+					// Ignore: the response is broken anyway
+				}
+				finally {
+					releaseResources();
+				}
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				releaseResources();
+			}
+		}
+	}
+
+
+	private class CompressingServletOutputStream extends ServletOutputStream {
+
+		private final CompressingResponseWrapper response;
+
+		private final ServletOutputStream responseStream;
+
+		@Nullable
+		private FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(256);
+
+		@Nullable
+		private OutputStream target;
+
+		private boolean compressing;
+
+		CompressingServletOutputStream(CompressingResponseWrapper response, ServletOutputStream responseStream) {
+			this.response = response;
+			this.responseStream = responseStream;
+		}
+
+		boolean isUndecided() {
+			return (this.target == null);
+		}
+
+		boolean isCompressing() {
+			return this.compressing;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.target == null) {
+				checkBuffer(1);
+			}
+			if (this.target != null) {
+				this.target.write(b);
+			}
+			else {
+				obtainBuffer().write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.target == null) {
+				checkBuffer(len);
+			}
+			if (this.target != null) {
+				this.target.write(b, off, len);
+			}
+			else {
+				obtainBuffer().write(b, off, len);
+			}
+		}
+
+		private void checkBuffer(int len) throws IOException {
+			long contentLength = this.response.getContentLength();
+			if (contentLength >= 0 && contentLength < this.response.getMinSize()) {
+				decide(false);
+			}
+			else if (obtainBuffer().size() + len >= this.response.getMinSize()) {
+				decide(isCompressible(this.response));
+			}
+		}
+
+		private FastByteArrayOutputStream obtainBuffer() {
+			Assert.state(this.buffer != null, "Response already finished");
+			return this.buffer;
+		}
+
+		void decide(boolean compress) throws IOException {
+			if (this.target != null) {
+				return;
+			}
+			if (compress) {
+				this.response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+				this.response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+				this.target = getDeflaterPool().createGzipOutputStream(StreamUtils.nonClosing(this.responseStream));
+				this.compressing = true;
+			}
+			else {
+				this.response.applyContentLength();
+				this.target = this.responseStream;
+			}
+			FastByteArrayOutputStream buffer = obtainBuffer();
+			if (buffer.size() > 0) {
+				buffer.writeTo(this.target);
+			}
+			this.buffer = null;
+		}
+
+		void resetBuffer() {
+			if (this.buffer != null) {
+				this.buffer.reset();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (this.target == null) {
+				decide(false);
+			}
+			Assert.state(this.target != null, "No target stream");
+			this.target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		void finish() throws IOException {
+			if (this.target == null) {
+				decide(false);
+			}
+			else if (this.compressing) {
+				this.compressing = false;
+				// Writes the GZIP trailer and returns the deflater to the pool
+				Assert.state(this.target != null, "No target stream");
+				this.target.close();
+				this.target = this.responseStream;
+			}
+		}
+
+		void release() {
+			this.buffer = null;
+			if (this.compressing && this.target != null) {
+				this.compressing = false;
+				try {
+					this.target.close();
+				}
+				catch (IOException ex) {
+					// Ignore: the response is broken anyway
+				}
+				this.target = this.responseStream;
+			}
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.responseStream.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			// Compressed output involves writes of its own, e.g. for the GZIP trailer,
+			// which cannot wait for isReady(): only support uncompressed output
+			if (this.compressing) {
+				throw new IllegalStateException("Non-blocking I/O is not supported for a compressed response");
+			}
+			try {
+				decide(false);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write buffered content", ex);
+			}
+			this.responseStream.setWriteListener(writeListener);
+		}
+	}
+
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.metrics.RequestMetricsRecorder;
+import org.springframework.web.metrics.RequestMetricsRegistry;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@code Filter} that records the latency of every request, along with the
+ * number of request and response body bytes, to a {@link RequestMetricsRecorder}.
+ *
+ * <p>Requests are recorded per route, which is the best matching URL pattern
+ * exposed by Spring MVC handler mappings, or else the handler method, prefixed
+ * with the HTTP method. Subclasses can customize this via {@link #getRoute}.
+ * Asynchronous requests are recorded when they complete.
+ *
+ * <p>Bytes are counted as they pass through the request input stream or reader
+ * and the response output stream or writer; content read by the container
+ * itself, e.g. to parse form parameters, is not counted.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.reactive.RequestMetricsFilter
+ * @see RequestMetricsRegistry
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	/** Route under which requests are recorded if no handler was mapped. */
+	public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+	private static final String BEST_MATCHING_PATTERN_ATTRIBUTE =
+			"org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+
+	private static final String BEST_MATCHING_HANDLER_ATTRIBUTE =
+			"org.springframework.web.servlet.HandlerMapping.bestMatchingHandler";
+
+
+	private final RequestMetricsRecorder recorder;
+
+
+	/**
+	 * Create a new filter recording to the given recorder.
+	 * @param recorder the recorder to use, e.g. a {@link RequestMetricsRegistry}
+	 */
+	public RequestMetricsFilter(RequestMetricsRecorder recorder) {
+		Assert.notNull(recorder, "RequestMetricsRecorder must not be null");
+		this.recorder = recorder;
+	}
+
+
+	/**
+	 * Return the configured recorder.
+	 */
+	public RequestMetricsRecorder getRecorder() {
+		return this.recorder;
+	}
+
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+			FilterChain filterChain) throws ServletException, IOException {
+
+		long startTime = System.nanoTime();
+		CountingRequestWrapper requestToUse = new CountingRequestWrapper(request);
+		CountingResponseWrapper responseToUse = new CountingResponseWrapper(response);
+		boolean failed = true;
+		try {
+			filterChain.doFilter(requestToUse, responseToUse);
+			failed = false;
+		}
+		finally {
+			if (!failed && requestToUse.isAsyncStarted()) {
+				requestToUse.getAsyncContext().addListener(
+						new RecordingAsyncListener(requestToUse, responseToUse, startTime));
+			}
+			else {
+				record(requestToUse, responseToUse, startTime, failed);
+			}
+		}
+	}
+
+	private void record(CountingRequestWrapper request, CountingResponseWrapper response,
+			long startTime, boolean failed) {
+
+		long duration = System.nanoTime() - startTime;
+		int status = (failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+		this.recorder.record(getRoute(request), status, duration, request.getByteCount(), response.getByteCount());
+	}
+
+	/**
+	 * Determine the route to record the given request under.
+	 * <p>By default, this is the HTTP method followed by the best matching
+	 * pattern, or else the handler method, or {@link #UNMATCHED_ROUTE}.
+	 * @param request the current request
+	 * @return the route
+	 */
+	protected String getRoute(HttpServletRequest request) {
+		Object pattern = request.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (pattern != null) {
+			return request.getMethod() + " " + pattern;
+		}
+		Object handler = request.getAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE);
+		if (handler instanceof HandlerMethod) {
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			return request.getMethod() + " " + handlerMethod.getBeanType().getSimpleName() + "#" +
+					handlerMethod.getMethod().getName();
+		}
+		return UNMATCHED_ROUTE;
+	}
+
+
+	private class RecordingAsyncListener implements AsyncListener {
+
+		private final CountingRequestWrapper request;
+
+		private final CountingResponseWrapper response;
+
+		private final long startTime;
+
+		public RecordingAsyncListener(CountingRequestWrapper request, CountingResponseWrapper response,
+				long startTime) {
+
+			this.request = request;
+			this.response = response;
+			this.startTime = startTime;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			record(this.request, this.response, this.startTime, false);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+
+
+	private static class CountingRequestWrapper extends HttpServletRequestWrapper {
+
+		@Nullable
+		private CountingInputStream inputStream;
+
+		@Nullable
+		private BufferedReader reader;
+
+		public CountingRequestWrapper(HttpServletRequest request) {
+			super(request);
+		}
+
+		@Override
+		public ServletInputStream getInputStream() throws IOException {
+			if (this.inputStream == null) {
+				this.inputStream = new CountingInputStream(getRequest().getInputStream());
+			}
+			return this.inputStream;
+		}
+
+		@Override
+		public BufferedReader getReader() throws IOException {
+			if (this.reader == null) {
+				String encoding = getCharacterEncoding();
+				this.reader = new BufferedReader(new InputStreamReader(getInputStream(),
+						(encoding != null ? encoding : WebUtils.DEFAULT_CHARACTER_ENCODING)));
+			}
+			return this.reader;
+		}
+
+		public long getByteCount() {
+			return (this.inputStream != null ? this.inputStream.count : 0);
+		}
+	}
+
+
+	private static class CountingInputStream extends ServletInputStream {
+
+		private final ServletInputStream delegate;
+
+		private volatile long count;
+
+		public CountingInputStream(ServletInputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = this.delegate.read();
+			if (b != -1) {
+				this.count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = this.delegate.read(b, off, len);
+			if (n > 0) {
+				this.count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public int readLine(byte[] b, int off, int len) throws IOException {
+			int n = this.delegate.readLine(b, off, len);
+			if (n > 0) {
+				this.count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return this.delegate.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.delegate.close();
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.delegate.isFinished();
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.delegate.isReady();
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			this.delegate.setReadListener(readListener);
+		}
+	}
+
+
+	private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+		@Nullable
+		private CountingOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		public CountingResponseWrapper(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			Assert.state(this.writer == null, "getWriter() has already been called");
+			return getCountingOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				this.writer = new CountingPrintWriter(getCountingOutputStream(), getCharacterEncoding());
+			}
+			return this.writer;
+		}
+
+		private CountingOutputStream getCountingOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new CountingOutputStream(getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+			super.flushBuffer();
+		}
+
+		public long getByteCount() {
+			return (this.outputStream != null ? this.outputStream.count : 0);
+		}
+	}
+
+
+	/**
+	 * {@code PrintWriter} that encodes every write right away, so that the
+	 * bytes are counted even if the writer is used asynchronously and is not
+	 * flushed, but passes a flush on to the response only when asked to.
+	 */
+	private static class CountingPrintWriter extends PrintWriter {
+
+		private final CountingOutputStream outputStream;
+
+		public CountingPrintWriter(CountingOutputStream outputStream, String encoding)
+				throws UnsupportedEncodingException {
+
+			super(new OutputStreamWriter(new NonFlushingOutputStream(outputStream), encoding));
+			this.outputStream = outputStream;
+		}
+
+		@Override
+		public void write(int c) {
+			super.write(c);
+			super.flush();
+		}
+
+		@Override
+		public void write(char[] buf, int off, int len) {
+			super.write(buf, off, len);
+			super.flush();
+		}
+
+		@Override
+		public void write(String s, int off, int len) {
+			super.write(s, off, len);
+			super.flush();
+		}
+
+		@Override
+		public void println() {
+			super.println();
+			super.flush();
+		}
+
+		@Override
+		public void flush() {
+			super.flush();
+			try {
+				this.outputStream.flush();
+			}
+			catch (IOException ex) {
+				setError();
+			}
+		}
+	}
+
+
+	private static class NonFlushingOutputStream extends FilterOutputStream {
+
+		public NonFlushingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+		}
+
+		@Override
+		public void flush() {
+		}
+	}
+
+
+	private static class CountingOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream delegate;
+
+		private volatile long count;
+
+		public CountingOutputStream(ServletOutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.delegate.write(b);
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.delegate.write(b, off, len);
+			this.count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			this.delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.delegate.setWriteListener(writeListener);
+		}
+	}
+
+}
@@ -18,17 +18,23 @@ package org.springframework.web.filter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
@@ -46,6 +52,13 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>By default the complete response body is buffered and hashed once it has
+ * been rendered. As of 5.2.10, a {@link #setHashAlgorithm hash algorithm} can be
+ * configured to update the hash incrementally while the body is written, including
+ * the cheap, non-cryptographic {@link #CRC32_HASH_ALGORITHM CRC32} checksum, and a
+ * {@link #setContentCacheLimit content cache limit} can be set so that larger
+ * responses are streamed to the client without an ETag rather than kept in memory.
+ *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
  *
@@ -61,9 +74,24 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
 
+	/**
+	 * Name of the {@link #setHashAlgorithm hash algorithm} for a CRC32 checksum,
+	 * a cheap non-cryptographic alternative to a {@link MessageDigest}.
+	 * @since 5.2.10
+	 */
+	public static final String CRC32_HASH_ALGORITHM = "CRC32";
+
+	private static final char[] HEX_CHARS =
+			{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
 
 	private boolean writeWeakETag = false;
 
+	private int contentCacheLimit = -1;
+
+	@Nullable
+	private String hashAlgorithm;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -84,6 +112,68 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the maximum number of bytes of response content to keep in memory
+	 * for the computation of the ETag. Once a response exceeds this limit
+	 * (or declares a larger content length), the content cached so far is
+	 * copied to the response and the rest is written through, without an ETag
+	 * and without a chance of a {@code 304 "Not Modified"} response, since
+	 * the response is committed before the ETag is known.
+	 * <p>By default there is no limit.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "contentCacheLimit" in the filter definition in {@code web.xml}.
+	 * @param contentCacheLimit the maximum number of bytes to cache,
+	 * or -1 for no limit
+	 * @since 5.2.10
+	 */
+	public void setContentCacheLimit(int contentCacheLimit) {
+		this.contentCacheLimit = contentCacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of bytes of response content to keep in memory
+	 * for the computation of the ETag, or -1 for no limit.
+	 * @since 5.2.10
+	 */
+	public int getContentCacheLimit() {
+		return this.contentCacheLimit;
+	}
+
+	/**
+	 * Set the algorithm for a hash of the response content that is updated
+	 * incrementally as the content is written, rather than computed from the
+	 * complete cached content afterwards.
+	 * <p>This may be the name of any {@link MessageDigest} algorithm, with
+	 * "MD5" generating the same ETag values as the default mode, or
+	 * {@link #CRC32_HASH_ALGORITHM} for a considerably cheaper checksum that
+	 * is generally sufficient for {@link #setWriteWeakETag weak} ETags.
+	 * <p>By default this is not set, in which case the ETag is generated from
+	 * the cached content through {@link #generateETagHeaderValue(InputStream, boolean)}.
+	 * Otherwise {@link #generateETagHeaderValue(byte[], boolean)} is used.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "hashAlgorithm" in the filter definition in {@code web.xml}.
+	 * @param hashAlgorithm the name of the hash algorithm, or {@code null}
+	 * for the default mode
+	 * @since 5.2.10
+	 */
+	public void setHashAlgorithm(@Nullable String hashAlgorithm) {
+		if (hashAlgorithm != null) {
+			// fail early for an unknown algorithm
+			ContentHasher.create(hashAlgorithm);
+		}
+		this.hashAlgorithm = hashAlgorithm;
+	}
+
+	/**
+	 * Return the configured algorithm for an incrementally updated hash of the
+	 * response content, if any.
+	 * @since 5.2.10
+	 */
+	@Nullable
+	public String getHashAlgorithm() {
+		return this.hashAlgorithm;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -100,7 +190,9 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ConditionalContentCachingResponseWrapper)) {
-			responseToUse = new ConditionalContentCachingResponseWrapper(response, request);
+			ContentHasher hasher = (this.hashAlgorithm != null ? ContentHasher.create(this.hashAlgorithm) : null);
+			responseToUse = new ConditionalContentCachingResponseWrapper(
+					response, request, this.contentCacheLimit, hasher);
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -115,11 +207,19 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 				WebUtils.getNativeResponse(response, ConditionalContentCachingResponseWrapper.class);
 		Assert.notNull(wrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
+		wrapper.flushWriter();
+
+		if (wrapper.isContentCacheLimitExceeded()) {
+			wrapper.copyRemainingBodyToResponse();
+			return;
+		}
 
 		if (isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
 			String eTag = wrapper.getHeader(HttpHeaders.ETAG);
 			if (!StringUtils.hasText(eTag)) {
-				eTag = generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag);
+				byte[] hash = wrapper.getContentHash();
+				eTag = (hash != null ? generateETagHeaderValue(hash, this.writeWeakETag) :
+						generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag));
 				rawResponse.setHeader(HttpHeaders.ETAG, eTag);
 			}
 			if (new ServletWebRequest(request, rawResponse).checkNotModified(eTag)) {
@@ -179,6 +279,31 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return builder.toString();
 	}
 
+	/**
+	 * Generate the ETag header value from the given hash of the response body,
+	 * as computed incrementally with the configured {@link #setHashAlgorithm
+	 * hash algorithm}.
+	 * <p>The default implementation renders the hash in hexadecimal form,
+	 * in the same format as {@link #generateETagHeaderValue(InputStream, boolean)}.
+	 * @param hash the hash of the response body
+	 * @param isWeak whether the generated ETag should be weak
+	 * @return the ETag header value
+	 * @since 5.2.10
+	 */
+	protected String generateETagHeaderValue(byte[] hash, boolean isWeak) {
+		StringBuilder builder = new StringBuilder(5 + hash.length * 2);
+		if (isWeak) {
+			builder.append("W/");
+		}
+		builder.append("\"0");
+		for (byte b : hash) {
+			builder.append(HEX_CHARS[(b & 0xF0) >>> 4]);
+			builder.append(HEX_CHARS[b & 0x0F]);
+		}
+		builder.append('"');
+		return builder.toString();
+	}
+
 	private boolean compareETagHeaderValue(String requestETag, String responseETag) {
 		if (requestETag.startsWith("W/")) {
 			requestETag = requestETag.substring(2);
@@ -211,32 +336,285 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Returns the raw OutputStream, instead of the one that does caching,
-	 * if {@link #isContentCachingDisabled}.
+	 * if {@link #isContentCachingDisabled}. Optionally updates a hash as content
+	 * is written and switches to writing through once the content cache limit
+	 * is exceeded.
 	 */
 	private static class ConditionalContentCachingResponseWrapper extends ContentCachingResponseWrapper {
 
 		private final HttpServletRequest request;
 
-		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+		private final int contentCacheLimit;
+
+		@Nullable
+		private final ContentHasher hasher;
+
+		private boolean contentCacheLimitExceeded;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int contentCacheLimit, @Nullable ContentHasher hasher) {
+
 			super(response);
 			this.request = request;
+			this.contentCacheLimit = contentCacheLimit;
+			this.hasher = hasher;
 		}
 
 		@Override
 		public ServletOutputStream getOutputStream() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag() ?
-					getResponse().getOutputStream() : super.getOutputStream());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getOutputStream();
+			}
+			if (!isTrackingContent()) {
+				return super.getOutputStream();
+			}
+			if (this.outputStream == null) {
+				this.outputStream = new TrackingServletOutputStream(super.getOutputStream());
+			}
+			return this.outputStream;
 		}
 
 		@Override
 		public PrintWriter getWriter() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag()?
-					getResponse().getWriter() : super.getWriter());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getWriter();
+			}
+			if (!isTrackingContent()) {
+				return super.getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), (characterEncoding != null ?
+						characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING)));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			flushWriter();
+			if (this.contentCacheLimitExceeded) {
+				copyRemainingBodyToResponse();
+				getResponse().flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (exceedsContentCacheLimit(len)) {
+				this.contentCacheLimitExceeded = true;
+				getResponse().setContentLength(len);
+			}
+			else {
+				super.setContentLength(len);
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (exceedsContentCacheLimit(len)) {
+				this.contentCacheLimitExceeded = true;
+				getResponse().setContentLengthLong(len);
+			}
+			else {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			resetHash();
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			resetHash();
 		}
 
 		private boolean hasETag() {
 			return StringUtils.hasText(getHeader(HttpHeaders.ETAG));
 		}
+
+		private boolean isTrackingContent() {
+			return (this.contentCacheLimit >= 0 || this.hasher != null);
+		}
+
+		private boolean exceedsContentCacheLimit(long contentLength) {
+			return (this.contentCacheLimit >= 0 && contentLength > this.contentCacheLimit &&
+					!isContentCachingDisabled(this.request) && !hasETag());
+		}
+
+		private void resetHash() {
+			if (this.hasher != null) {
+				this.hasher.reset();
+			}
+		}
+
+		/**
+		 * Pass characters buffered by the writer, if any, on to the content
+		 * cache, or to the response once the content cache limit is exceeded.
+		 */
+		void flushWriter() {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+		}
+
+		boolean isContentCacheLimitExceeded() {
+			return this.contentCacheLimitExceeded;
+		}
+
+		/**
+		 * Return the incrementally computed hash of the cached content, if any.
+		 */
+		@Nullable
+		byte[] getContentHash() {
+			return (this.hasher != null ? this.hasher.getHash() : null);
+		}
+
+		/**
+		 * Copy content cached before the limit was exceeded to the response,
+		 * without setting a content length for it.
+		 */
+		void copyRemainingBodyToResponse() throws IOException {
+			copyBodyToResponse(false);
+		}
+
+
+		private class TrackingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream cachingStream;
+
+			TrackingServletOutputStream(ServletOutputStream cachingStream) {
+				this.cachingStream = cachingStream;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				if (contentCacheLimitExceeded) {
+					copyRemainingBodyToResponse();
+					getResponse().getOutputStream().write(b);
+					return;
+				}
+				if (hasher != null) {
+					hasher.update(b);
+				}
+				this.cachingStream.write(b);
+				checkContentCacheLimit();
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				if (contentCacheLimitExceeded) {
+					copyRemainingBodyToResponse();
+					getResponse().getOutputStream().write(b, off, len);
+					return;
+				}
+				if (hasher != null) {
+					hasher.update(b, off, len);
+				}
+				this.cachingStream.write(b, off, len);
+				checkContentCacheLimit();
+			}
+
+			private void checkContentCacheLimit() throws IOException {
+				if (contentCacheLimit >= 0 && getContentSize() > contentCacheLimit) {
+					contentCacheLimitExceeded = true;
+					copyRemainingBodyToResponse();
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (contentCacheLimitExceeded) {
+					getResponse().getOutputStream().flush();
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.cachingStream.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.cachingStream.setWriteListener(writeListener);
+			}
+		}
+	}
+
+
+	/**
+	 * Incrementally updated hash of response content, either through a
+	 * {@link MessageDigest} or a {@link CRC32} checksum.
+	 */
+	private static final class ContentHasher {
+
+		@Nullable
+		private final MessageDigest digest;
+
+		@Nullable
+		private final CRC32 checksum;
+
+		private ContentHasher(@Nullable MessageDigest digest, @Nullable CRC32 checksum) {
+			this.digest = digest;
+			this.checksum = checksum;
+		}
+
+		static ContentHasher create(String algorithm) {
+			if (CRC32_HASH_ALGORITHM.equalsIgnoreCase(algorithm)) {
+				return new ContentHasher(null, new CRC32());
+			}
+			try {
+				return new ContentHasher(MessageDigest.getInstance(algorithm), null);
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalArgumentException("Could not find MessageDigest with algorithm \"" + algorithm + "\"", ex);
+			}
+		}
+
+		void update(int b) {
+			if (this.digest != null) {
+				this.digest.update((byte) b);
+			}
+			else if (this.checksum != null) {
+				this.checksum.update(b);
+			}
+		}
+
+		void update(byte[] b, int off, int len) {
+			if (this.digest != null) {
+				this.digest.update(b, off, len);
+			}
+			else if (this.checksum != null) {
+				this.checksum.update(b, off, len);
+			}
+		}
+
+		void reset() {
+			if (this.digest != null) {
+				this.digest.reset();
+			}
+			else if (this.checksum != null) {
+				this.checksum.reset();
+			}
+		}
+
+		byte[] getHash() {
+			if (this.digest != null) {
+				return this.digest.digest();
+			}
+			long value = (this.checksum != null ? this.checksum.getValue() : 0);
+			return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+		}
 	}
 
 }
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.CompressionUtils;
+import org.springframework.web.util.DeflaterPool;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Reactive {@link WebFilter} that GZIP compresses response content when the
+ * client accepts it.
+ *
+ * <p>Content is streamed through a {@link java.util.zip.Deflater Deflater} from a
+ * shared {@link DeflaterPool}, one {@link DataBuffer} at a time, without
+ * aggregating the response body. Only the first bytes, up to the
+ * {@link #setMinResponseSize minimum response size}, are held back to decide
+ * whether compression is worthwhile; smaller responses are written as-is.
+ * The minimum size can be refined per route through
+ * {@link #setMinResponseSizes(Map) path patterns}.
+ *
+ * <p>Only responses with one of the {@link #setCompressibleMediaTypes
+ * compressible media types}, without a {@code Content-Encoding} or
+ * {@code Content-Range}, and written through
+ * {@link ServerHttpResponse#writeWith(Publisher) writeWith} are compressed.
+ * Streaming responses written through
+ * {@link ServerHttpResponse#writeAndFlushWith(Publisher) writeAndFlushWith}
+ * are passed through as-is to preserve their flush semantics.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.CompressionFilter
+ */
+public class CompressionFilter implements WebFilter {
+
+	/** Default minimum response size for compression: 2048 bytes. */
+	public static final int DEFAULT_MIN_RESPONSE_SIZE = 2048;
+
+	private static final String GZIP = "gzip";
+
+	private static final int CHUNK_SIZE = 8192;
+
+
+	private DeflaterPool deflaterPool = new DeflaterPool();
+
+	private int minResponseSize = DEFAULT_MIN_RESPONSE_SIZE;
+
+	private List<MediaType> compressibleMediaTypes = CompressionUtils.DEFAULT_COMPRESSIBLE_MEDIA_TYPES;
+
+	private final Map<PathPattern, Integer> minResponseSizes = new LinkedHashMap<>();
+
+	private PathPatternParser patternParser = PathPatternParser.defaultInstance;
+
+
+	/**
+	 * Set the pool of deflaters to use, e.g. to share it with other filters
+	 * or to customize the compression level.
+	 * <p>By default, a {@link DeflaterPool#DeflaterPool() default pool} is used.
+	 */
+	public void setDeflaterPool(DeflaterPool deflaterPool) {
+		Assert.notNull(deflaterPool, "DeflaterPool must not be null");
+		this.deflaterPool = deflaterPool;
+	}
+
+	/**
+	 * Return the configured pool of deflaters.
+	 */
+	public DeflaterPool getDeflaterPool() {
+		return this.deflaterPool;
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to be compressed.
+	 * <p>By default this is set to {@link #DEFAULT_MIN_RESPONSE_SIZE}.
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		Assert.isTrue(minResponseSize >= 0, "Minimum response size must not be negative");
+		this.minResponseSize = minResponseSize;
+	}
+
+	/**
+	 * Return the configured minimum response size for compression.
+	 */
+	public int getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Configure minimum response sizes per request path pattern, overriding the
+	 * {@link #setMinResponseSize default minimum} for matching requests. A
+	 * negative value disables compression for the matching requests.
+	 * <p>Patterns are matched in the order given, against the path within the
+	 * application, and are parsed with the configured
+	 * {@link #setPathPatternParser PathPatternParser}.
+	 */
+	public void setMinResponseSizes(Map<String, Integer> minResponseSizes) {
+		this.minResponseSizes.clear();
+		minResponseSizes.forEach((pattern, size) -> this.minResponseSizes.put(this.patternParser.parse(pattern), size));
+	}
+
+	/**
+	 * Set the media types of responses to compress.
+	 * <p>By default these are the {@link CompressionUtils#DEFAULT_COMPRESSIBLE_MEDIA_TYPES}.
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> mediaTypes) {
+		Assert.notNull(mediaTypes, "Media types must not be null");
+		this.compressibleMediaTypes = new ArrayList<>(mediaTypes);
+	}
+
+	/**
+	 * Return the media types of responses to compress.
+	 */
+	public List<MediaType> getCompressibleMediaTypes() {
+		return Collections.unmodifiableList(this.compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the parser for the patterns of {@link #setMinResponseSizes(Map)}.
+	 * Must be set before the patterns are configured.
+	 * <p>By default this is {@link PathPatternParser#defaultInstance}.
+	 */
+	public void setPathPatternParser(PathPatternParser patternParser) {
+		Assert.notNull(patternParser, "PathPatternParser must not be null");
+		this.patternParser = patternParser;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		int minSize = getMinResponseSize(exchange);
+		if (minSize < 0 || request.getMethod() == HttpMethod.HEAD ||
+				!CompressionUtils.acceptsGzip(request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING))) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new CompressingResponse(exchange.getResponse(), minSize);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	/**
+	 * Determine the minimum response size for the given exchange.
+	 * @return the minimum size, or a negative value to skip compression
+	 */
+	protected int getMinResponseSize(ServerWebExchange exchange) {
+		if (!this.minResponseSizes.isEmpty()) {
+			PathContainer lookupPath = exchange.getRequest().getPath().pathWithinApplication();
+			for (Map.Entry<PathPattern, Integer> entry : this.minResponseSizes.entrySet()) {
+				if (entry.getKey().matches(lookupPath)) {
+					return entry.getValue();
+				}
+			}
+		}
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Whether a response with the given status and headers should be compressed.
+	 * @param response the response, at the time its body is written
+	 * @return {@code true} to compress if it reaches the minimum size,
+	 * {@code false} to write it as is
+	 */
+	protected boolean isCompressible(ServerHttpResponse response) {
+		HttpStatus status = response.getStatusCode();
+		if (status != null && (status.is1xxInformational() ||
+				status == HttpStatus.NO_CONTENT || status == HttpStatus.NOT_MODIFIED)) {
+			return false;
+		}
+		HttpHeaders headers = response.getHeaders();
+		if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+			return false;
+		}
+		MediaType contentType = headers.getContentType();
+		if (contentType == null) {
+			return false;
+		}
+		for (MediaType compressibleType : this.compressibleMediaTypes) {
+			if (compressibleType.includes(contentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final int minSize;
+
+		CompressingResponse(ServerHttpResponse delegate, int minSize) {
+			super(delegate);
+			this.minSize = minSize;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			long contentLength = getHeaders().getContentLength();
+			if ((contentLength >= 0 && contentLength < this.minSize) || !isCompressible(getDelegate())) {
+				return super.writeWith(body);
+			}
+			return super.writeWith(Flux.defer(() -> {
+				CompressingWriter writer = new CompressingWriter(this, bufferFactory(), this.minSize);
+				return Flux.from(body)
+						.concatMapIterable(writer::write)
+						.concatWith(Flux.defer(() -> Flux.fromIterable(writer.complete())))
+						.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
+						.doFinally(signalType -> writer.release());
+			}));
+		}
+	}
+
+
+	/**
+	 * Holds back buffers until the minimum size is reached, and compresses
+	 * them from then on.
+	 */
+	private class CompressingWriter {
+
+		private final ServerHttpResponse response;
+
+		private final DataBufferFactory bufferFactory;
+
+		private final int minSize;
+
+		private final List<DataBuffer> pending = new ArrayList<>();
+
+		private long pendingSize;
+
+		private boolean compressing;
+
+		private final DataBufferOutputStream target = new DataBufferOutputStream();
+
+		@Nullable
+		private OutputStream gzipStream;
+
+		@Nullable
+		private byte[] chunk;
+
+		CompressingWriter(ServerHttpResponse response, DataBufferFactory bufferFactory, int minSize) {
+			this.response = response;
+			this.bufferFactory = bufferFactory;
+			this.minSize = minSize;
+		}
+
+		public synchronized List<DataBuffer> write(DataBuffer buffer) {
+			List<DataBuffer> result = new ArrayList<>(1);
+			if (this.compressing) {
+				compress(buffer, result);
+				return result;
+			}
+			this.pending.add(buffer);
+			this.pendingSize += buffer.readableByteCount();
+			if (this.pendingSize >= this.minSize) {
+				HttpHeaders headers = this.response.getHeaders();
+				headers.remove(HttpHeaders.CONTENT_LENGTH);
+				headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+				headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+				this.compressing = true;
+				while (!this.pending.isEmpty()) {
+					compress(this.pending.remove(0), result);
+				}
+			}
+			return result;
+		}
+
+		private void compress(DataBuffer input, List<DataBuffer> result) {
+			DataBuffer output = this.bufferFactory.allocateBuffer();
+			this.target.setDataBuffer(output);
+			try {
+				OutputStream gzipStream = obtainGzipStream();
+				byte[] chunk = obtainChunk();
+				int remaining;
+				while ((remaining = input.readableByteCount()) > 0) {
+					int length = Math.min(remaining, chunk.length);
+					input.read(chunk, 0, length);
+					gzipStream.write(chunk, 0, length);
+				}
+			}
+			catch (IOException ex) {
+				DataBufferUtils.release(output);
+				throw new UncheckedIOException(ex);
+			}
+			finally {
+				this.target.setDataBuffer(null);
+				DataBufferUtils.release(input);
+			}
+			addOrRelease(output, result);
+		}
+
+		private OutputStream obtainGzipStream() throws IOException {
+			if (this.gzipStream == null) {
+				// Writes the GZIP header into the current buffer
+				this.gzipStream = getDeflaterPool().createGzipOutputStream(this.target);
+			}
+			return this.gzipStream;
+		}
+
+		private byte[] obtainChunk() {
+			if (this.chunk == null) {
+				this.chunk = new byte[CHUNK_SIZE];
+			}
+			return this.chunk;
+		}
+
+		private void addOrRelease(DataBuffer output, List<DataBuffer> result) {
+			if (output.readableByteCount() > 0) {
+				result.add(output);
+			}
+			else {
+				DataBufferUtils.release(output);
+			}
+		}
+
+		public synchronized List<DataBuffer> complete() {
+			if (!this.compressing) {
+				if (!this.pending.isEmpty()) {
+					this.response.getHeaders().setContentLength(this.pendingSize);
+				}
+				List<DataBuffer> result = new ArrayList<>(this.pending);
+				this.pending.clear();
+				return result;
+			}
+			DataBuffer output = this.bufferFactory.allocateBuffer();
+			this.target.setDataBuffer(output);
+			try {
+				// Writes the GZIP trailer and returns the deflater to the pool
+				obtainGzipStream().close();
+			}
+			catch (IOException ex) {
+				DataBufferUtils.release(output);
+				throw new UncheckedIOException(ex);
+			}
+			finally {
+				this.target.setDataBuffer(null);
+				this.gzipStream = null;
+			}
+			List<DataBuffer> result = new ArrayList<>(1);
+			addOrRelease(output, result);
+			return result;
+		}
+
+		public synchronized void release() {
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+			if (this.gzipStream != null) {
+				// Discard remaining output, but return the deflater to the pool
+				this.target.setDataBuffer(null);
+				try {
+					this.gzipStream.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+				this.gzipStream = null;
+			}
+		}
+	}
+
+
+	/**
+	 * {@link OutputStream} that writes into the {@link DataBuffer} currently
+	 * set, if any, and discards content otherwise.
+	 */
+	private static class DataBufferOutputStream extends OutputStream {
+
+		@Nullable
+		private DataBuffer dataBuffer;
+
+		public void setDataBuffer(@Nullable DataBuffer dataBuffer) {
+			this.dataBuffer = dataBuffer;
+		}
+
+		@Override
+		public void write(int b) {
+			if (this.dataBuffer != null) {
+				this.dataBuffer.write((byte) b);
+			}
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) {
+			if (this.dataBuffer != null) {
+				this.dataBuffer.write(bytes, off, len);
+			}
+		}
+	}
+
+}
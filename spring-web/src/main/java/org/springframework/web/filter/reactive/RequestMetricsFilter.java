@@ -0,0 +1,203 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.metrics.RequestMetricsRecorder;
+import org.springframework.web.metrics.RequestMetricsRegistry;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that records the latency of every exchange, along
+ * with the number of request and response body bytes, to a
+ * {@link RequestMetricsRecorder}.
+ *
+ * <p>Exchanges are recorded per route, which is the best matching URL pattern
+ * exposed by WebFlux handler mappings, or else the handler method, prefixed with
+ * the HTTP method. Subclasses can customize this via {@link #getRoute}.
+ *
+ * <p>Bytes are counted through a {@link ServerHttpRequestDecorator} and a
+ * {@link ServerHttpResponseDecorator}; zero-copy file transfers are counted
+ * by their requested length.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.RequestMetricsFilter
+ * @see RequestMetricsRegistry
+ */
+public class RequestMetricsFilter implements WebFilter {
+
+	/** Route under which exchanges are recorded if no handler was mapped. */
+	public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+	private static final String BEST_MATCHING_PATTERN_ATTRIBUTE =
+			"org.springframework.web.reactive.HandlerMapping.bestMatchingPattern";
+
+	private static final String BEST_MATCHING_HANDLER_ATTRIBUTE =
+			"org.springframework.web.reactive.HandlerMapping.bestMatchingHandler";
+
+
+	private final RequestMetricsRecorder recorder;
+
+
+	/**
+	 * Create a new filter recording to the given recorder.
+	 * @param recorder the recorder to use, e.g. a {@link RequestMetricsRegistry}
+	 */
+	public RequestMetricsFilter(RequestMetricsRecorder recorder) {
+		Assert.notNull(recorder, "RequestMetricsRecorder must not be null");
+		this.recorder = recorder;
+	}
+
+
+	/**
+	 * Return the configured recorder.
+	 */
+	public RequestMetricsRecorder getRecorder() {
+		return this.recorder;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		long startTime = System.nanoTime();
+		AtomicLong bytesRead = new AtomicLong();
+		AtomicLong bytesWritten = new AtomicLong();
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		ServerHttpRequest request = new CountingRequest(exchange.getRequest(), bytesRead);
+		ServerHttpResponse response = (exchange.getResponse() instanceof ZeroCopyHttpOutputMessage ?
+				new ZeroCopyCountingResponse(exchange.getResponse(), bytesWritten) :
+				new CountingResponse(exchange.getResponse(), bytesWritten));
+
+		return chain.filter(exchange.mutate().request(request).response(response).build())
+				.doOnError(error::set)
+				.doFinally(signalType -> {
+					long duration = System.nanoTime() - startTime;
+					int status = getStatus(exchange.getResponse(), error.get());
+					this.recorder.record(getRoute(exchange), status, duration, bytesRead.get(), bytesWritten.get());
+				});
+	}
+
+	private static int getStatus(ServerHttpResponse response, @Nullable Throwable error) {
+		if (error instanceof ResponseStatusException) {
+			return ((ResponseStatusException) error).getStatus().value();
+		}
+		else if (error != null) {
+			return HttpStatus.INTERNAL_SERVER_ERROR.value();
+		}
+		Integer status = response.getRawStatusCode();
+		return (status != null ? status : HttpStatus.OK.value());
+	}
+
+	/**
+	 * Determine the route to record the given exchange under.
+	 * <p>By default, this is the HTTP method followed by the best matching
+	 * pattern, or else the handler method, or {@link #UNMATCHED_ROUTE}.
+	 * @param exchange the current exchange
+	 * @return the route
+	 */
+	protected String getRoute(ServerWebExchange exchange) {
+		String method = exchange.getRequest().getMethodValue();
+		Object pattern = exchange.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (pattern != null) {
+			return method + " " + pattern;
+		}
+		Object handler = exchange.getAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE);
+		if (handler instanceof HandlerMethod) {
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			return method + " " + handlerMethod.getBeanType().getSimpleName() + "#" +
+					handlerMethod.getMethod().getName();
+		}
+		return UNMATCHED_ROUTE;
+	}
+
+
+	private static class CountingRequest extends ServerHttpRequestDecorator {
+
+		private final AtomicLong byteCount;
+
+		public CountingRequest(ServerHttpRequest delegate, AtomicLong byteCount) {
+			super(delegate);
+			this.byteCount = byteCount;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return super.getBody().doOnNext(buffer -> this.byteCount.addAndGet(buffer.readableByteCount()));
+		}
+	}
+
+
+	private static class CountingResponse extends ServerHttpResponseDecorator {
+
+		protected final AtomicLong byteCount;
+
+		public CountingResponse(ServerHttpResponse delegate, AtomicLong byteCount) {
+			super(delegate);
+			this.byteCount = byteCount;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			return super.writeWith(count(body));
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return super.writeAndFlushWith(Flux.from(body).map(this::count));
+		}
+
+		private Flux<? extends DataBuffer> count(Publisher<? extends DataBuffer> body) {
+			return Flux.from(body).doOnNext(buffer -> this.byteCount.addAndGet(buffer.readableByteCount()));
+		}
+	}
+
+
+	private static class ZeroCopyCountingResponse extends CountingResponse implements ZeroCopyHttpOutputMessage {
+
+		public ZeroCopyCountingResponse(ServerHttpResponse delegate, AtomicLong byteCount) {
+			super(delegate, byteCount);
+		}
+
+		@Override
+		public Mono<Void> writeWith(Path file, long position, long count) {
+			return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count)
+					.doOnSuccess(aVoid -> this.byteCount.addAndGet(count));
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * Lock-free histogram of latencies with microsecond resolution, in the style
+ * of an HDR histogram: values are counted in buckets whose width grows with
+ * the magnitude of the value, so that any recorded value is reported with a
+ * relative error of at most about 3%, at a fixed memory cost of about 10 KB.
+ *
+ * <p>Values from 0 up to 2<sup>40</sup> microseconds (about 12 days) are
+ * tracked; larger values are counted as the maximum trackable value.
+ *
+ * @since 5.2.10
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	private static final long MAX_VALUE = (1L << 40) - 1;
+
+	private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAdder totalCount = new LongAdder();
+
+	private final LongAdder totalMicros = new LongAdder();
+
+	private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+
+	/**
+	 * Record the given latency.
+	 * @param duration the latency
+	 */
+	public void record(Duration duration) {
+		recordNanos(duration.toNanos());
+	}
+
+	/**
+	 * Record the given latency.
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void recordNanos(long nanos) {
+		long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+		this.counts.incrementAndGet(bucketIndex(micros));
+		this.totalCount.increment();
+		this.totalMicros.add(micros);
+		this.maxMicros.accumulate(micros);
+	}
+
+	/**
+	 * Return the number of recorded values.
+	 */
+	public long getCount() {
+		return this.totalCount.sum();
+	}
+
+	/**
+	 * Remove all recorded values.
+	 * <p>Values recorded concurrently may or may not be retained.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.counts.set(i, 0);
+		}
+		this.totalCount.reset();
+		this.totalMicros.reset();
+		this.maxMicros.reset();
+	}
+
+	/**
+	 * Return a point-in-time copy of this histogram.
+	 * <p>Values recorded concurrently may or may not be included.
+	 */
+	public Snapshot getSnapshot() {
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = this.counts.get(i);
+			count += counts[i];
+		}
+		return new Snapshot(counts, count, this.totalMicros.sum(), this.maxMicros.get());
+	}
+
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int shift = magnitude - (SUB_BUCKET_BITS - 1);
+		return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT +
+				(int) ((value >>> shift) - SUB_BUCKET_HALF_COUNT);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int offset = index - SUB_BUCKET_COUNT;
+		int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+		long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+
+	/**
+	 * Immutable copy of a {@link LatencyHistogram}.
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+
+		private final long count;
+
+		private final long totalMicros;
+
+		private final long maxMicros;
+
+		Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+			this.counts = counts;
+			this.count = count;
+			this.totalMicros = totalMicros;
+			this.maxMicros = maxMicros;
+		}
+
+		/**
+		 * Return the number of recorded values.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Return the mean of the recorded values, or zero if none were recorded.
+		 */
+		public Duration getMean() {
+			return (this.count != 0 ? micros(this.totalMicros / this.count) : Duration.ZERO);
+		}
+
+		/**
+		 * Return the largest recorded value, or zero if none were recorded.
+		 */
+		public Duration getMax() {
+			return micros(this.maxMicros);
+		}
+
+		/**
+		 * Return the value below or at which the given percentage of recorded
+		 * values fall, or zero if none were recorded.
+		 * @param percentile the percentile, between 0 and 100
+		 */
+		public Duration getValueAtPercentile(double percentile) {
+			Assert.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+			if (this.count == 0) {
+				return Duration.ZERO;
+			}
+			long target = Math.max((long) Math.ceil(percentile / 100 * this.count), 1);
+			long cumulative = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				cumulative += this.counts[i];
+				if (cumulative >= target) {
+					return micros(Math.min(highestEquivalentValue(i), this.maxMicros));
+				}
+			}
+			return getMax();
+		}
+
+		private static Duration micros(long micros) {
+			return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + this.count + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50) +
+					", p99=" + getValueAtPercentile(99) + ", max=" + getMax();
+		}
+	}
+
+}
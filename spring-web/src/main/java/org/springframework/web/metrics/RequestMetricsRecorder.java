@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Strategy to record the outcome of handled requests, as reported by the
+ * {@link org.springframework.web.filter.RequestMetricsFilter Servlet} and
+ * {@link org.springframework.web.filter.reactive.RequestMetricsFilter reactive}
+ * {@code RequestMetricsFilter}.
+ *
+ * <p>Implementations must be thread-safe, and should be cheap enough to be
+ * called for every request, e.g. delegating to an existing metrics library.
+ *
+ * @since 5.2.10
+ * @see RequestMetricsRegistry
+ */
+public interface RequestMetricsRecorder {
+
+	/**
+	 * Record a handled request.
+	 * @param route the route the request was mapped to, e.g. the best matching
+	 * URL pattern prefixed with the HTTP method
+	 * @param status the response status code
+	 * @param durationNanos the time taken to handle the request, in nanoseconds
+	 * @param bytesRead the number of request body bytes read
+	 * @param bytesWritten the number of response body bytes written
+	 */
+	void record(String route, int status, long durationNanos, long bytesRead, long bytesWritten);
+
+	/**
+	 * Return snapshots of the metrics recorded so far, keyed by route,
+	 * if kept by this recorder.
+	 * <p>By default, this returns an empty map.
+	 */
+	default Map<String, RouteMetricsSnapshot> getSnapshots() {
+		return Collections.emptyMap();
+	}
+
+}
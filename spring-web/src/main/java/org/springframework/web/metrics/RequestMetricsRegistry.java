@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Default {@link RequestMetricsRecorder} that keeps a {@link LatencyHistogram}
+ * and byte counters per route in memory.
+ *
+ * <p>The number of distinct routes is bounded by {@link #setMaxRoutes(int)};
+ * requests for further routes are recorded under {@link #OTHER_ROUTE}.
+ *
+ * <p>This class is a standard MBean, and can be exported to JMX as-is:
+ * <pre class="code">
+ * MBeanExporter exporter = new MBeanExporter();
+ * exporter.setBeans(Collections.singletonMap("org.springframework.web:type=RequestMetrics", registry));
+ * </pre>
+ *
+ * @since 5.2.10
+ */
+public class RequestMetricsRegistry implements RequestMetricsRecorder, RequestMetricsRegistryMBean {
+
+	/** Route under which requests are recorded once the maximum number of routes is reached. */
+	public static final String OTHER_ROUTE = "OTHER";
+
+
+	private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+	private int maxRoutes = 1000;
+
+
+	/**
+	 * Set the maximum number of distinct routes to keep metrics for.
+	 * <p>By default set to 1000.
+	 */
+	public void setMaxRoutes(int maxRoutes) {
+		Assert.isTrue(maxRoutes > 0, "'maxRoutes' must be greater than 0");
+		this.maxRoutes = maxRoutes;
+	}
+
+	/**
+	 * Return the maximum number of distinct routes to keep metrics for.
+	 */
+	public int getMaxRoutes() {
+		return this.maxRoutes;
+	}
+
+
+	@Override
+	public void record(String route, int status, long durationNanos, long bytesRead, long bytesWritten) {
+		RouteMetrics metrics = this.routes.get(route);
+		if (metrics == null) {
+			if (this.routes.size() >= this.maxRoutes) {
+				route = OTHER_ROUTE;
+			}
+			metrics = this.routes.computeIfAbsent(route, key -> new RouteMetrics());
+		}
+		metrics.record(status, durationNanos, bytesRead, bytesWritten);
+	}
+
+	@Override
+	public Map<String, RouteMetricsSnapshot> getSnapshots() {
+		Map<String, RouteMetricsSnapshot> result = new LinkedHashMap<>(this.routes.size());
+		this.routes.forEach((route, metrics) -> result.put(route, metrics.getSnapshot(route)));
+		return result;
+	}
+
+	/**
+	 * Return a snapshot of the metrics recorded for the given route.
+	 * @param route the route
+	 * @return the snapshot, or {@code null} if nothing was recorded for the route
+	 */
+	@Nullable
+	public RouteMetricsSnapshot getSnapshot(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? metrics.getSnapshot(route) : null);
+	}
+
+
+	// RequestMetricsRegistryMBean
+
+	@Override
+	public String[] getRoutes() {
+		return this.routes.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public long getRequestCount(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? metrics.latency.getCount() : 0);
+	}
+
+	@Override
+	public long getServerErrorCount(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? metrics.serverErrors.sum() : 0);
+	}
+
+	@Override
+	public double getLatencyPercentile(String route, double percentile) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? millis(metrics.latency.getSnapshot().getValueAtPercentile(percentile)) : 0);
+	}
+
+	@Override
+	public double getMeanLatency(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? millis(metrics.latency.getSnapshot().getMean()) : 0);
+	}
+
+	@Override
+	public double getMaxLatency(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? millis(metrics.latency.getSnapshot().getMax()) : 0);
+	}
+
+	@Override
+	public long getBytesRead(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? metrics.bytesRead.sum() : 0);
+	}
+
+	@Override
+	public long getBytesWritten(String route) {
+		RouteMetrics metrics = this.routes.get(route);
+		return (metrics != null ? metrics.bytesWritten.sum() : 0);
+	}
+
+	@Override
+	public void reset() {
+		this.routes.clear();
+	}
+
+	private static double millis(Duration duration) {
+		return duration.toNanos() / 1_000_000d;
+	}
+
+
+	private static class RouteMetrics {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private final LongAdder serverErrors = new LongAdder();
+
+		private final LongAdder bytesRead = new LongAdder();
+
+		private final LongAdder bytesWritten = new LongAdder();
+
+		public void record(int status, long durationNanos, long bytesRead, long bytesWritten) {
+			this.latency.recordNanos(durationNanos);
+			if (status >= 500) {
+				this.serverErrors.increment();
+			}
+			this.bytesRead.add(bytesRead);
+			this.bytesWritten.add(bytesWritten);
+		}
+
+		public RouteMetricsSnapshot getSnapshot(String route) {
+			return new RouteMetricsSnapshot(route, this.latency.getSnapshot(), this.serverErrors.sum(),
+					this.bytesRead.sum(), this.bytesWritten.sum());
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+/**
+ * Standard MBean interface of {@link RequestMetricsRegistry}, allowing it to be
+ * registered as-is, e.g. through
+ * {@link org.springframework.jmx.export.MBeanExporter#setBeans MBeanExporter}.
+ * Latencies are expressed in milliseconds.
+ *
+ * @since 5.2.10
+ */
+public interface RequestMetricsRegistryMBean {
+
+	/**
+	 * Return the routes for which metrics were recorded.
+	 */
+	String[] getRoutes();
+
+	/**
+	 * Return the number of requests handled for the given route.
+	 */
+	long getRequestCount(String route);
+
+	/**
+	 * Return the number of requests for the given route that completed with a 5xx status.
+	 */
+	long getServerErrorCount(String route);
+
+	/**
+	 * Return the latency percentile for the given route, in milliseconds.
+	 * @param route the route
+	 * @param percentile the percentile, between 0 and 100
+	 */
+	double getLatencyPercentile(String route, double percentile);
+
+	/**
+	 * Return the mean latency for the given route, in milliseconds.
+	 */
+	double getMeanLatency(String route);
+
+	/**
+	 * Return the maximum latency for the given route, in milliseconds.
+	 */
+	double getMaxLatency(String route);
+
+	/**
+	 * Return the total number of request body bytes read for the given route.
+	 */
+	long getBytesRead(String route);
+
+	/**
+	 * Return the total number of response body bytes written for the given route.
+	 */
+	long getBytesWritten(String route);
+
+	/**
+	 * Remove all recorded metrics.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+/**
+ * Immutable snapshot of the metrics recorded for a route.
+ *
+ * @since 5.2.10
+ * @see RequestMetricsRecorder#getSnapshots()
+ */
+public final class RouteMetricsSnapshot {
+
+	private final String route;
+
+	private final LatencyHistogram.Snapshot latency;
+
+	private final long serverErrorCount;
+
+	private final long bytesRead;
+
+	private final long bytesWritten;
+
+
+	public RouteMetricsSnapshot(String route, LatencyHistogram.Snapshot latency, long serverErrorCount,
+			long bytesRead, long bytesWritten) {
+
+		this.route = route;
+		this.latency = latency;
+		this.serverErrorCount = serverErrorCount;
+		this.bytesRead = bytesRead;
+		this.bytesWritten = bytesWritten;
+	}
+
+
+	/**
+	 * Return the route the metrics were recorded for.
+	 */
+	public String getRoute() {
+		return this.route;
+	}
+
+	/**
+	 * Return the number of handled requests.
+	 */
+	public long getRequestCount() {
+		return this.latency.getCount();
+	}
+
+	/**
+	 * Return the distribution of request latencies.
+	 */
+	public LatencyHistogram.Snapshot getLatency() {
+		return this.latency;
+	}
+
+	/**
+	 * Return the number of requests that completed with a 5xx status.
+	 */
+	public long getServerErrorCount() {
+		return this.serverErrorCount;
+	}
+
+	/**
+	 * Return the total number of request body bytes read.
+	 */
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	/**
+	 * Return the total number of response body bytes written.
+	 */
+	public long getBytesWritten() {
+		return this.bytesWritten;
+	}
+
+	@Override
+	public String toString() {
+		return this.route + " [" + this.latency + ", serverErrors=" + this.serverErrorCount +
+				", bytesRead=" + this.bytesRead + ", bytesWritten=" + this.bytesWritten + "]";
+	}
+
+}
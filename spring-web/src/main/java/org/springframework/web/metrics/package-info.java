@@ -0,0 +1,10 @@
+/**
+ * Lightweight per-route request metrics, recorded by the
+ * {@code RequestMetricsFilter} variants for Servlet and reactive applications.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.web.metrics;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
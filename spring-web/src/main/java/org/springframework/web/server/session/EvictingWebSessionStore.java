@@ -0,0 +1,683 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.util.SerializationUtils;
+import org.springframework.web.server.WebSession;
+
+/**
+ * In-memory {@link WebSessionStore} that bounds the number of sessions by
+ * evicting the least recently used ones, rather than rejecting new sessions
+ * as {@link InMemoryWebSessionStore} does once its limit is reached.
+ *
+ * <p>Expiration is tracked with a hashed timing wheel: each session is placed
+ * in the slot of its expiration second, and only the slots that elapsed since
+ * the last store operation are examined, instead of scanning all sessions.
+ * Sessions accessed in the meantime are simply moved to their new slot when
+ * their old one comes up.
+ *
+ * <p>Optionally, the number of sessions kept on the heap can be limited via
+ * {@link #setMaxActiveSessions(int)}. The least recently used sessions beyond
+ * that limit are then serialized into direct (off-heap) buffers, and restored
+ * on their next access. This requires session attributes to be
+ * {@link Serializable}; sessions that cannot be serialized stay on the heap.
+ * Note that a passivated session is restored as a new {@link WebSession}
+ * instance, so the limit should leave room for all sessions in concurrent use.
+ *
+ * <p>Counters for active, passivated, expired and evicted sessions are exposed
+ * for monitoring purposes.
+ *
+ * @since 5.2.10
+ * @see InMemoryWebSessionStore
+ */
+public class EvictingWebSessionStore implements WebSessionStore {
+
+	private static final Log logger = LogFactory.getLog(EvictingWebSessionStore.class);
+
+	private static final IdGenerator idGenerator = new JdkIdGenerator();
+
+
+	private int maxSessions = 10000;
+
+	private int maxActiveSessions = Integer.MAX_VALUE;
+
+	private Clock clock = Clock.system(ZoneId.of("GMT"));
+
+	/**
+	 * Sessions on the heap, least recently used first. Sessions are moved to
+	 * the end explicitly when accessed, so that expiration checks do not
+	 * affect the order.
+	 */
+	private final LinkedHashMap<String, EvictingWebSession> activeSessions = new LinkedHashMap<>();
+
+	/** Serialized sessions, least recently used first. */
+	private final LinkedHashMap<String, PassivatedWebSession> passivatedSessions = new LinkedHashMap<>();
+
+	private final ExpirationWheel expirationWheel = new ExpirationWheel(this.clock.millis());
+
+	private final Object monitor = new Object();
+
+	private final AtomicLong expiredSessionCount = new AtomicLong();
+
+	private final AtomicLong evictedSessionCount = new AtomicLong();
+
+	private volatile int activeSessionCount;
+
+	private volatile int passivatedSessionCount;
+
+
+	/**
+	 * Set the maximum number of sessions that can be stored, on the heap and
+	 * off-heap combined. Once the limit is reached, storing an additional
+	 * session evicts the least recently used one, preferring passivated ones.
+	 * <p>By default set to 10000.
+	 * @param maxSessions the maximum number of sessions
+	 */
+	public void setMaxSessions(int maxSessions) {
+		Assert.isTrue(maxSessions > 0, "'maxSessions' must be greater than 0");
+		this.maxSessions = maxSessions;
+	}
+
+	/**
+	 * Return the maximum number of sessions that can be stored.
+	 */
+	public int getMaxSessions() {
+		return this.maxSessions;
+	}
+
+	/**
+	 * Set the maximum number of sessions to keep on the heap. The least recently
+	 * used sessions beyond that limit are serialized to off-heap memory.
+	 * <p>By default this is not limited, i.e. sessions are never passivated.
+	 * @param maxActiveSessions the maximum number of sessions on the heap
+	 */
+	public void setMaxActiveSessions(int maxActiveSessions) {
+		Assert.isTrue(maxActiveSessions > 0, "'maxActiveSessions' must be greater than 0");
+		this.maxActiveSessions = maxActiveSessions;
+	}
+
+	/**
+	 * Return the maximum number of sessions to keep on the heap.
+	 */
+	public int getMaxActiveSessions() {
+		return this.maxActiveSessions;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to set lastAccessTime on every created
+	 * session and to calculate if it is expired.
+	 * <p>By default this is {@code Clock.system(ZoneId.of("GMT"))}.
+	 * @param clock the clock to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+		removeExpiredSessions();
+	}
+
+	/**
+	 * Return the configured clock for session lastAccessTime calculations.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return the number of sessions currently held on the heap.
+	 */
+	public int getActiveSessionCount() {
+		return this.activeSessionCount;
+	}
+
+	/**
+	 * Return the number of sessions currently serialized to off-heap memory.
+	 */
+	public int getPassivatedSessionCount() {
+		return this.passivatedSessionCount;
+	}
+
+	/**
+	 * Return the total number of sessions removed so far because they expired.
+	 */
+	public long getExpiredSessionCount() {
+		return this.expiredSessionCount.get();
+	}
+
+	/**
+	 * Return the total number of sessions removed so far to stay within
+	 * {@link #setMaxSessions(int) maxSessions}.
+	 */
+	public long getEvictedSessionCount() {
+		return this.evictedSessionCount.get();
+	}
+
+
+	@Override
+	public Mono<WebSession> createWebSession() {
+		Instant now = this.clock.instant();
+		removeExpiredSessions(now);
+		return Mono.<WebSession>fromSupplier(() -> new EvictingWebSession(now))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@Override
+	public Mono<WebSession> retrieveSession(String id) {
+		Instant now = this.clock.instant();
+		EvictingWebSession session;
+		synchronized (this.monitor) {
+			advanceExpirationWheel(now);
+			session = this.activeSessions.remove(id);
+			if (session != null) {
+				this.activeSessions.put(id, session);
+			}
+			else {
+				session = activate(id, now);
+			}
+			if (session != null) {
+				if (session.isExpired(now)) {
+					this.activeSessions.remove(id);
+					this.expiredSessionCount.incrementAndGet();
+					updateCounts();
+					return Mono.empty();
+				}
+				session.updateLastAccessTime(now);
+				schedule(session);
+			}
+		}
+		return Mono.justOrEmpty(session);
+	}
+
+	@Override
+	public Mono<Void> removeSession(String id) {
+		synchronized (this.monitor) {
+			this.activeSessions.remove(id);
+			this.passivatedSessions.remove(id);
+			updateCounts();
+		}
+		return Mono.empty();
+	}
+
+	@Override
+	public Mono<WebSession> updateLastAccessTime(WebSession session) {
+		return Mono.fromSupplier(() -> {
+			Assert.isInstanceOf(EvictingWebSession.class, session);
+			((EvictingWebSession) session).updateLastAccessTime(this.clock.instant());
+			return session;
+		});
+	}
+
+	/**
+	 * Remove the sessions that expired since the last check. Such checks are
+	 * made as part of every {@link #createWebSession() create} and
+	 * {@link #retrieveSession retrieve} call, and only examine the sessions
+	 * due since the previous check, so there is usually no need to call this
+	 * method explicitly.
+	 */
+	public void removeExpiredSessions() {
+		removeExpiredSessions(this.clock.instant());
+	}
+
+	private void removeExpiredSessions(Instant now) {
+		synchronized (this.monitor) {
+			advanceExpirationWheel(now);
+		}
+	}
+
+
+	// The following methods must be called while holding the monitor
+
+	private void advanceExpirationWheel(Instant now) {
+		if (this.expirationWheel.advance(now.toEpochMilli(), id -> expireIfNecessary(id, now))) {
+			updateCounts();
+		}
+	}
+
+	/**
+	 * Remove the session with the given id if expired, or reschedule it.
+	 * @return whether the session was removed
+	 */
+	private boolean expireIfNecessary(String id, Instant now) {
+		EvictingWebSession session = this.activeSessions.get(id);
+		if (session != null) {
+			if (session.isExpired(now)) {
+				this.activeSessions.remove(id);
+				session.invalidateAttributes();
+				this.expiredSessionCount.incrementAndGet();
+				return true;
+			}
+			schedule(session);
+			return false;
+		}
+		PassivatedWebSession passivated = this.passivatedSessions.get(id);
+		if (passivated != null) {
+			if (passivated.isExpired(now)) {
+				this.passivatedSessions.remove(id);
+				this.expiredSessionCount.incrementAndGet();
+				return true;
+			}
+			this.expirationWheel.schedule(id, passivated.getExpirationTime());
+		}
+		return false;
+	}
+
+	private void schedule(EvictingWebSession session) {
+		this.expirationWheel.schedule(session.getId(), session.getExpirationTime());
+	}
+
+	private void store(EvictingWebSession session) {
+		String id = session.getId();
+		if (this.activeSessions.remove(id) == null && this.passivatedSessions.remove(id) == null) {
+			advanceExpirationWheel(this.clock.instant());
+			evictIfNecessary();
+		}
+		this.activeSessions.put(id, session);
+		schedule(session);
+		passivateIfNecessary();
+		updateCounts();
+	}
+
+	private void evictIfNecessary() {
+		while (this.activeSessions.size() + this.passivatedSessions.size() >= this.maxSessions) {
+			if (!this.passivatedSessions.isEmpty()) {
+				Iterator<String> iterator = this.passivatedSessions.keySet().iterator();
+				iterator.next();
+				iterator.remove();
+			}
+			else {
+				Iterator<EvictingWebSession> iterator = this.activeSessions.values().iterator();
+				EvictingWebSession session = iterator.next();
+				iterator.remove();
+				session.state.set(State.EXPIRED);
+			}
+			this.evictedSessionCount.incrementAndGet();
+		}
+	}
+
+	private void passivateIfNecessary() {
+		// Only consider the least recently used sessions beyond the limit
+		int excess = this.activeSessions.size() - this.maxActiveSessions;
+		Iterator<EvictingWebSession> iterator = this.activeSessions.values().iterator();
+		while (excess-- > 0 && iterator.hasNext()) {
+			EvictingWebSession session = iterator.next();
+			PassivatedWebSession passivated = session.passivate();
+			if (passivated != null) {
+				iterator.remove();
+				this.passivatedSessions.put(session.getId(), passivated);
+			}
+		}
+	}
+
+	@Nullable
+	private EvictingWebSession activate(String id, Instant now) {
+		PassivatedWebSession passivated = this.passivatedSessions.remove(id);
+		if (passivated == null) {
+			return null;
+		}
+		if (passivated.isExpired(now)) {
+			this.expiredSessionCount.incrementAndGet();
+			updateCounts();
+			return null;
+		}
+		EvictingWebSession session = passivated.activate();
+		this.activeSessions.put(id, session);
+		passivateIfNecessary();
+		updateCounts();
+		return session;
+	}
+
+	private void updateCounts() {
+		this.activeSessionCount = this.activeSessions.size();
+		this.passivatedSessionCount = this.passivatedSessions.size();
+	}
+
+
+	private static boolean isExpired(Instant now, Instant lastAccessTime, Duration maxIdleTime) {
+		return !maxIdleTime.isNegative() && now.minus(maxIdleTime).isAfter(lastAccessTime);
+	}
+
+	@Nullable
+	private static Instant expirationTime(Instant lastAccessTime, Duration maxIdleTime) {
+		return (maxIdleTime.isNegative() ? null : lastAccessTime.plus(maxIdleTime));
+	}
+
+
+	private class EvictingWebSession implements WebSession {
+
+		private final AtomicReference<String> id;
+
+		private final Map<String, Object> attributes;
+
+		private final Instant creationTime;
+
+		private volatile Instant lastAccessTime;
+
+		private volatile Duration maxIdleTime;
+
+		private final AtomicReference<State> state;
+
+
+		public EvictingWebSession(Instant creationTime) {
+			this(String.valueOf(idGenerator.generateId()), new ConcurrentHashMap<>(), creationTime,
+					creationTime, Duration.ofMinutes(30), State.NEW);
+		}
+
+		private EvictingWebSession(String id, Map<String, Object> attributes, Instant creationTime,
+				Instant lastAccessTime, Duration maxIdleTime, State state) {
+
+			this.id = new AtomicReference<>(id);
+			this.attributes = attributes;
+			this.creationTime = creationTime;
+			this.lastAccessTime = lastAccessTime;
+			this.maxIdleTime = maxIdleTime;
+			this.state = new AtomicReference<>(state);
+		}
+
+		@Override
+		public String getId() {
+			return this.id.get();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return this.creationTime;
+		}
+
+		@Override
+		public Instant getLastAccessTime() {
+			return this.lastAccessTime;
+		}
+
+		@Override
+		public void setMaxIdleTime(Duration maxIdleTime) {
+			this.maxIdleTime = maxIdleTime;
+		}
+
+		@Override
+		public Duration getMaxIdleTime() {
+			return this.maxIdleTime;
+		}
+
+		@Override
+		public void start() {
+			this.state.compareAndSet(State.NEW, State.STARTED);
+		}
+
+		@Override
+		public boolean isStarted() {
+			return this.state.get().equals(State.STARTED) || !getAttributes().isEmpty();
+		}
+
+		@Override
+		public Mono<Void> changeSessionId() {
+			synchronized (monitor) {
+				String currentId = this.id.get();
+				boolean stored = (activeSessions.remove(currentId) != null |
+						passivatedSessions.remove(currentId) != null);
+				this.id.set(String.valueOf(idGenerator.generateId()));
+				if (stored) {
+					activeSessions.put(getId(), this);
+					schedule(this);
+					updateCounts();
+				}
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> invalidate() {
+			invalidateAttributes();
+			removeSession(getId());
+			return Mono.empty();
+		}
+
+		private void invalidateAttributes() {
+			this.state.set(State.EXPIRED);
+			getAttributes().clear();
+		}
+
+		@Override
+		public Mono<Void> save() {
+
+			// Implicitly started session..
+			if (!getAttributes().isEmpty()) {
+				this.state.compareAndSet(State.NEW, State.STARTED);
+			}
+
+			if (isStarted()) {
+				synchronized (monitor) {
+					if (!this.state.get().equals(State.EXPIRED)) {
+						store(this);
+					}
+
+					// Unless it was invalidated or evicted
+					if (this.state.get().equals(State.EXPIRED)) {
+						activeSessions.remove(getId());
+						updateCounts();
+						return Mono.error(new IllegalStateException("Session was invalidated"));
+					}
+				}
+			}
+
+			return Mono.empty();
+		}
+
+		@Override
+		public boolean isExpired() {
+			return isExpired(clock.instant());
+		}
+
+		private boolean isExpired(Instant now) {
+			if (this.state.get().equals(State.EXPIRED)) {
+				return true;
+			}
+			if (isStarted() && EvictingWebSessionStore.isExpired(now, this.lastAccessTime, this.maxIdleTime)) {
+				this.state.set(State.EXPIRED);
+				return true;
+			}
+			return false;
+		}
+
+		@Nullable
+		private Instant getExpirationTime() {
+			return expirationTime(this.lastAccessTime, this.maxIdleTime);
+		}
+
+		private void updateLastAccessTime(Instant currentTime) {
+			this.lastAccessTime = currentTime;
+		}
+
+		@Nullable
+		private PassivatedWebSession passivate() {
+			SessionAttributes attributes = new SessionAttributes(this.creationTime, new HashMap<>(this.attributes));
+			byte[] bytes;
+			try {
+				bytes = SerializationUtils.serialize(attributes);
+			}
+			catch (IllegalArgumentException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Keeping session " + getId() + " on the heap: " + ex.getMessage());
+				}
+				return null;
+			}
+			Assert.state(bytes != null, "No serialized session");
+			ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+			buffer.put(bytes);
+			buffer.flip();
+			return new PassivatedWebSession(getId(), buffer, this.lastAccessTime, this.maxIdleTime);
+		}
+	}
+
+
+	/**
+	 * Session serialized to a direct buffer, with the metadata needed
+	 * to check expiration kept on the heap.
+	 */
+	private class PassivatedWebSession {
+
+		private final String id;
+
+		private final ByteBuffer buffer;
+
+		private final Instant lastAccessTime;
+
+		private final Duration maxIdleTime;
+
+		public PassivatedWebSession(String id, ByteBuffer buffer, Instant lastAccessTime, Duration maxIdleTime) {
+			this.id = id;
+			this.buffer = buffer;
+			this.lastAccessTime = lastAccessTime;
+			this.maxIdleTime = maxIdleTime;
+		}
+
+		public boolean isExpired(Instant now) {
+			return EvictingWebSessionStore.isExpired(now, this.lastAccessTime, this.maxIdleTime);
+		}
+
+		@Nullable
+		public Instant getExpirationTime() {
+			return expirationTime(this.lastAccessTime, this.maxIdleTime);
+		}
+
+		public EvictingWebSession activate() {
+			byte[] bytes = new byte[this.buffer.remaining()];
+			this.buffer.duplicate().get(bytes);
+			SessionAttributes attributes = (SessionAttributes) SerializationUtils.deserialize(bytes);
+			Assert.state(attributes != null, "No deserialized session");
+			return new EvictingWebSession(this.id, new ConcurrentHashMap<>(attributes.attributes),
+					attributes.creationTime, this.lastAccessTime, this.maxIdleTime, State.STARTED);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class SessionAttributes implements Serializable {
+
+		private final Instant creationTime;
+
+		private final HashMap<String, Object> attributes;
+
+		public SessionAttributes(Instant creationTime, HashMap<String, Object> attributes) {
+			this.creationTime = creationTime;
+			this.attributes = attributes;
+		}
+	}
+
+
+	/**
+	 * Hashed timing wheel of session ids, with one slot per second. Ids are
+	 * scheduled at most once, and whoever processes a due slot reschedules the
+	 * sessions that are still alive.
+	 */
+	private static class ExpirationWheel {
+
+		private static final long TICK_MILLIS = 1000;
+
+		private static final int WHEEL_SIZE = 1024;
+
+
+		private final List<Set<String>> slots = new ArrayList<>(WHEEL_SIZE);
+
+		private final Set<String> scheduled = new HashSet<>();
+
+		private long currentTick;
+
+
+		public ExpirationWheel(long currentTimeMillis) {
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				this.slots.add(new HashSet<>());
+			}
+			this.currentTick = currentTimeMillis / TICK_MILLIS;
+		}
+
+		public void schedule(String id, @Nullable Instant expirationTime) {
+			if (expirationTime == null || !this.scheduled.add(id)) {
+				return;
+			}
+			long tick = Math.max(expirationTime.toEpochMilli() / TICK_MILLIS + 1, this.currentTick + 1);
+			this.slots.get((int) (tick % WHEEL_SIZE)).add(id);
+		}
+
+		/**
+		 * Process the slots that became due since the last call.
+		 * @param currentTimeMillis the current time
+		 * @param expirer callback that removes expired sessions, or reschedules others
+		 * @return whether any session was removed
+		 */
+		public boolean advance(long currentTimeMillis, Predicate<String> expirer) {
+			long tick = currentTimeMillis / TICK_MILLIS;
+			if (tick <= this.currentTick) {
+				// Clock set back: slots ahead are processed again as time passes
+				this.currentTick = tick;
+				return false;
+			}
+			long ticks = Math.min(tick - this.currentTick, WHEEL_SIZE);
+			long firstTick = tick - ticks + 1;
+			this.currentTick = tick;
+			boolean removed = false;
+			for (long i = firstTick; i <= tick; i++) {
+				int index = (int) (i % WHEEL_SIZE);
+				Set<String> due = this.slots.get(index);
+				if (due.isEmpty()) {
+					continue;
+				}
+				this.slots.set(index, new HashSet<>());
+				for (String id : due) {
+					this.scheduled.remove(id);
+					removed |= expirer.test(id);
+				}
+			}
+			return removed;
+		}
+	}
+
+
+	private enum State { NEW, STARTED, EXPIRED }
+
+}
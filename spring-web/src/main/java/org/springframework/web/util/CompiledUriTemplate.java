@@ -0,0 +1,383 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.HierarchicalUriComponents.FullPathComponent;
+import org.springframework.web.util.HierarchicalUriComponents.PathComponent;
+import org.springframework.web.util.HierarchicalUriComponents.PathComponentComposite;
+import org.springframework.web.util.HierarchicalUriComponents.PathSegmentComponent;
+import org.springframework.web.util.HierarchicalUriComponents.Type;
+import org.springframework.web.util.UriComponents.UriTemplateVariables;
+
+/**
+ * Precompiled form of a URI template, consisting of literal parts, already
+ * encoded, and URI variables. Expands and encodes URI variables into a single
+ * {@code StringBuilder} in one pass, with the same result as expanding and
+ * encoding the {@link UriComponents} the template was compiled from.
+ *
+ * <p>Used by {@link DefaultUriBuilderFactory} to avoid parsing the same URI
+ * template for every expansion.
+ *
+ * @since 5.2.10
+ */
+final class CompiledUriTemplate {
+
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+
+	private final Part[] parts;
+
+	private final int initialCapacity;
+
+
+	private CompiledUriTemplate(List<Part> parts, int literalLength) {
+		this.parts = parts.toArray(new Part[0]);
+		this.initialCapacity = literalLength + 16 * parts.size();
+	}
+
+
+	/**
+	 * Expand the template with the given map of URI variables.
+	 * @throws IllegalArgumentException if a variable has no value
+	 */
+	public URI expand(Map<String, ?> uriVariables) {
+		return expand(new UriComponents.MapTemplateVariables(uriVariables));
+	}
+
+	/**
+	 * Expand the template with the given array of URI variable values.
+	 * @throws IllegalArgumentException if there are not enough values
+	 */
+	public URI expand(Object... uriVariableValues) {
+		return expand(new UriComponents.VarArgsTemplateVariables(uriVariableValues));
+	}
+
+	private URI expand(UriTemplateVariables uriVariables) {
+		StringBuilder builder = new StringBuilder(this.initialCapacity);
+		for (Part part : this.parts) {
+			part.appendTo(builder, uriVariables);
+		}
+		return URI.create(builder.toString());
+	}
+
+
+	/**
+	 * Compile the given URI components, as built from a URI template.
+	 * @param uriComponents the URI components to compile, either encoded as a
+	 * template via {@link UriComponentsBuilder#encode()}, or not encoded at all
+	 * @param encodeComponents whether the expanded components are to be encoded
+	 * as per {@link UriComponents#encode()}, in which case URI variable values
+	 * are encoded according to the rules of the component they are in, or else
+	 * as per {@link UriUtils#encode(String, Charset)}
+	 * @return the compiled template, or {@code null} if the template uses
+	 * URI variables in ways not supported by this class, e.g. in the port or
+	 * in query parameter names
+	 */
+	@Nullable
+	static CompiledUriTemplate compile(UriComponents uriComponents, boolean encodeComponents) {
+		if (!(uriComponents instanceof HierarchicalUriComponents)) {
+			return null;
+		}
+		HierarchicalUriComponents uric = (HierarchicalUriComponents) uriComponents;
+		Compiler compiler = new Compiler(encodeComponents);
+
+		// Same order as HierarchicalUriComponents#toUriString, and #expandInternal
+		String scheme = uric.getScheme();
+		if (scheme != null) {
+			compiler.append(scheme, Type.SCHEME);
+			compiler.append(":");
+		}
+		String userInfo = uric.getUserInfo();
+		String host = uric.getHost();
+		if (userInfo != null || host != null) {
+			compiler.append("//");
+			if (userInfo != null) {
+				compiler.append(userInfo, Type.USER_INFO);
+				compiler.append("@");
+			}
+			if (host != null) {
+				if (encodeComponents && host.indexOf('{') != -1) {
+					// Host type depends on the expanded value
+					return null;
+				}
+				compiler.append(host, host.startsWith("[") ? Type.HOST_IPV6 : Type.HOST_IPV4);
+			}
+			String port = uric.getPortAsString();
+			if (port != null) {
+				if (port.indexOf('{') != -1) {
+					return null;
+				}
+				compiler.append(":");
+				compiler.append(port);
+			}
+		}
+		String path = uric.getPath();
+		if (StringUtils.hasLength(path)) {
+			if (compiler.hasParts()) {
+				if (path.charAt(0) == '{') {
+					// Leading delimiter depends on the expanded value
+					return null;
+				}
+				else if (path.charAt(0) != '/') {
+					compiler.append("/");
+				}
+			}
+			if (!compiler.appendPath(uric.getPathComponent())) {
+				return null;
+			}
+		}
+		MultiValueMap<String, String> queryParams = uric.getQueryParams();
+		if (!queryParams.isEmpty()) {
+			compiler.append("?");
+			boolean first = true;
+			for (Map.Entry<String, List<String>> entry : queryParams.entrySet()) {
+				String name = entry.getKey();
+				if (name.indexOf('{') != -1) {
+					// Expanded names might collide
+					return null;
+				}
+				List<String> values = entry.getValue();
+				if (CollectionUtils.isEmpty(values)) {
+					compiler.append(first ? "" : "&");
+					compiler.append(name, Type.QUERY_PARAM);
+					first = false;
+				}
+				else {
+					for (String value : values) {
+						compiler.append(first ? "" : "&");
+						compiler.append(name, Type.QUERY_PARAM);
+						if (value != null) {
+							compiler.append("=");
+							compiler.appendQueryParamValue(value);
+						}
+						first = false;
+					}
+				}
+			}
+		}
+		String fragment = uric.getFragment();
+		if (fragment != null) {
+			compiler.append("#");
+			compiler.append(fragment, Type.FRAGMENT);
+		}
+		return compiler.compile();
+	}
+
+	/**
+	 * Append the given source to the builder, encoded as per
+	 * {@link HierarchicalUriComponents#encodeUriComponent(String, Charset, Type)}.
+	 */
+	private static void appendEncoded(StringBuilder builder, String source, Type type) {
+		int length = source.length();
+		int index = 0;
+		while (index < length) {
+			char c = source.charAt(index);
+			if (c >= 0x80 || !type.isAllowed(c)) {
+				break;
+			}
+			index++;
+		}
+		if (index == length) {
+			builder.append(source);
+			return;
+		}
+		builder.append(source, 0, index);
+		for (byte b : source.substring(index).getBytes(CHARSET)) {
+			if (type.isAllowed(b)) {
+				builder.append((char) b);
+			}
+			else {
+				builder.append('%');
+				builder.append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)));
+				builder.append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+			}
+		}
+	}
+
+
+	private static class Compiler {
+
+		private final boolean encodeComponents;
+
+		private final List<Part> parts = new ArrayList<>();
+
+		private final StringBuilder literal = new StringBuilder();
+
+		private int literalLength;
+
+		public Compiler(boolean encodeComponents) {
+			this.encodeComponents = encodeComponents;
+		}
+
+		public boolean hasParts() {
+			return (this.literal.length() > 0 || !this.parts.isEmpty());
+		}
+
+		public void append(String delimiter) {
+			this.literal.append(delimiter);
+		}
+
+		public void append(String source, Type type) {
+			append(source, type, false);
+		}
+
+		public void appendQueryParamValue(String source) {
+			append(source, Type.QUERY_PARAM, true);
+		}
+
+		public boolean appendPath(PathComponent path) {
+			if (path instanceof FullPathComponent) {
+				append(path.getPath(), Type.PATH);
+			}
+			else if (path instanceof PathSegmentComponent) {
+				List<String> segments = path.getPathSegments();
+				if (segments.isEmpty()) {
+					append("/");
+				}
+				for (String segment : segments) {
+					append("/");
+					append(segment, Type.PATH_SEGMENT);
+				}
+			}
+			else if (path instanceof PathComponentComposite) {
+				for (PathComponent component : ((PathComponentComposite) path).getPathComponents()) {
+					if (!appendPath(component)) {
+						return false;
+					}
+				}
+			}
+			else {
+				return false;
+			}
+			return true;
+		}
+
+		// Same parsing as UriComponents#expandUriComponent
+		private void append(String source, Type type, boolean query) {
+			if (source.indexOf('{') == -1) {
+				appendLiteral(source, type);
+				return;
+			}
+			if (source.indexOf(':') != -1) {
+				source = UriComponents.sanitizeSource(source);
+			}
+			Matcher matcher = UriComponents.NAMES_PATTERN.matcher(source);
+			int end = 0;
+			while (matcher.find()) {
+				appendLiteral(source.substring(end, matcher.start()), type);
+				String placeholder = matcher.group();
+				if (this.encodeComponents) {
+					placeholder = HierarchicalUriComponents.encodeUriComponent(placeholder, CHARSET, type);
+				}
+				flushLiteral();
+				this.parts.add(new VariablePart(UriComponents.getVariableName(matcher.group(1)), placeholder,
+						(this.encodeComponents ? type : Type.URI), query));
+				end = matcher.end();
+			}
+			appendLiteral(source.substring(end), type);
+		}
+
+		private void appendLiteral(String source, Type type) {
+			if (this.encodeComponents) {
+				appendEncoded(this.literal, source, type);
+			}
+			else {
+				this.literal.append(source);
+			}
+		}
+
+		private void flushLiteral() {
+			if (this.literal.length() > 0) {
+				this.parts.add(new LiteralPart(this.literal.toString()));
+				this.literalLength += this.literal.length();
+				this.literal.setLength(0);
+			}
+		}
+
+		public CompiledUriTemplate compile() {
+			flushLiteral();
+			return new CompiledUriTemplate(this.parts, this.literalLength);
+		}
+	}
+
+
+	private interface Part {
+
+		void appendTo(StringBuilder builder, UriTemplateVariables uriVariables);
+	}
+
+
+	private static class LiteralPart implements Part {
+
+		private final String value;
+
+		public LiteralPart(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public void appendTo(StringBuilder builder, UriTemplateVariables uriVariables) {
+			builder.append(this.value);
+		}
+	}
+
+
+	private static class VariablePart implements Part {
+
+		private final String name;
+
+		private final String placeholder;
+
+		private final Type type;
+
+		private final boolean query;
+
+		public VariablePart(String name, String placeholder, Type type, boolean query) {
+			this.name = name;
+			this.placeholder = placeholder;
+			this.type = type;
+			this.query = query;
+		}
+
+		@Override
+		public void appendTo(StringBuilder builder, UriTemplateVariables uriVariables) {
+			Object value = uriVariables.getValue(this.name);
+			if (UriTemplateVariables.SKIP_VALUE.equals(value)) {
+				builder.append(this.placeholder);
+				return;
+			}
+			if (this.query && ObjectUtils.isArray(value)) {
+				value = StringUtils.arrayToCommaDelimitedString(ObjectUtils.toObjectArray(value));
+			}
+			appendEncoded(builder, (value != null ? value.toString() : ""), this.type);
+		}
+	}
+
+}
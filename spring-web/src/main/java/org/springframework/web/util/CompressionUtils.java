@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility methods for GZIP compression of HTTP responses, shared by the
+ * Servlet and the reactive {@code CompressionFilter}.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.CompressionFilter
+ * @see org.springframework.web.filter.reactive.CompressionFilter
+ */
+public abstract class CompressionUtils {
+
+	/** Media types compressed by default. */
+	public static final List<MediaType> DEFAULT_COMPRESSIBLE_MEDIA_TYPES = Collections.unmodifiableList(
+			Arrays.asList(MediaType.TEXT_HTML, MediaType.TEXT_XML, MediaType.TEXT_PLAIN,
+					MediaType.TEXT_EVENT_STREAM, new MediaType("text", "css"), new MediaType("text", "javascript"),
+					new MediaType("application", "javascript"), MediaType.APPLICATION_JSON,
+					new MediaType("application", "*+json"), MediaType.APPLICATION_XML,
+					new MediaType("application", "*+xml")));
+
+	private static final String GZIP = "gzip";
+
+
+	/**
+	 * Whether the given {@code Accept-Encoding} header values accept the
+	 * {@code gzip} content coding, explicitly or through {@code *}, with a
+	 * quality value other than 0.
+	 * @param acceptEncodings the values of the {@code Accept-Encoding} header
+	 */
+	public static boolean acceptsGzip(Iterable<String> acceptEncodings) {
+		for (String value : acceptEncodings) {
+			for (String coding : StringUtils.tokenizeToStringArray(value, ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+				if (parts.length > 0 && (GZIP.equalsIgnoreCase(parts[0]) || "*".equals(parts[0]))) {
+					return (parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?"));
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -21,8 +21,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
@@ -34,6 +37,10 @@ import org.springframework.util.StringUtils;
  * <p>Provides options to create {@link UriBuilder} instances with a common
  * base URI, alternative encoding mode strategies, among others.
  *
+ * <p>URI templates expanded via {@link #expand(String, Map)} or
+ * {@link #expand(String, Object...)} are parsed once, and kept in precompiled
+ * form in a bounded cache, see {@link #setTemplateCacheLimit(int)}.
+ *
  * @author Rossen Stoyanchev
  * @since 5.0
  * @see UriComponentsBuilder
@@ -49,6 +56,9 @@ public class DefaultUriBuilderFactory implements UriBuilderFactory {
 
 	private boolean parsePath = true;
 
+	private ConcurrentLruCache<String, Optional<CompiledUriTemplate>> compiledTemplates =
+			new ConcurrentLruCache<>(256, this::compile);
+
 
 	/**
 	 * Default constructor without a base URI.
@@ -92,6 +102,7 @@ public class DefaultUriBuilderFactory implements UriBuilderFactory {
 	 */
 	public void setEncodingMode(EncodingMode encodingMode) {
 		this.encodingMode = encodingMode;
+		this.compiledTemplates.clear();
 	}
 
 	/**
@@ -130,6 +141,7 @@ public class DefaultUriBuilderFactory implements UriBuilderFactory {
 	 */
 	public void setParsePath(boolean parsePath) {
 		this.parsePath = parsePath;
+		this.compiledTemplates.clear();
 	}
 
 	/**
@@ -140,19 +152,78 @@ public class DefaultUriBuilderFactory implements UriBuilderFactory {
 		return this.parsePath;
 	}
 
+	/**
+	 * Set the maximum number of URI templates to keep in precompiled form, for
+	 * expansion without parsing them again, if the encoding mode is set to
+	 * {@link EncodingMode#TEMPLATE_AND_VALUES TEMPLATE_AND_VALUES} or
+	 * {@link EncodingMode#URI_COMPONENT URI_COMPONENT}.
+	 * <p>By default this is set to 256. Set it to 0 to parse URI templates
+	 * on every expansion, e.g. if they are not reused.
+	 * @param templateCacheLimit the maximum number of precompiled templates
+	 * @since 5.2.10
+	 */
+	public void setTemplateCacheLimit(int templateCacheLimit) {
+		Assert.isTrue(templateCacheLimit >= 0, "'templateCacheLimit' must not be negative");
+		this.compiledTemplates = new ConcurrentLruCache<>(templateCacheLimit, this::compile);
+	}
+
+	/**
+	 * Return the configured maximum number of precompiled URI templates.
+	 * @since 5.2.10
+	 */
+	public int getTemplateCacheLimit() {
+		return this.compiledTemplates.sizeLimit();
+	}
+
 
 	// UriTemplateHandler
 
 	@Override
 	public URI expand(String uriTemplate, Map<String, ?> uriVars) {
+		CompiledUriTemplate compiledTemplate = getCompiledTemplate(uriTemplate);
+		if (compiledTemplate != null) {
+			return compiledTemplate.expand(withDefaultUriVariables(uriVars));
+		}
 		return uriString(uriTemplate).build(uriVars);
 	}
 
 	@Override
 	public URI expand(String uriTemplate, Object... uriVars) {
+		CompiledUriTemplate compiledTemplate = getCompiledTemplate(uriTemplate);
+		if (compiledTemplate != null) {
+			if (ObjectUtils.isEmpty(uriVars) && !this.defaultUriVariables.isEmpty()) {
+				return compiledTemplate.expand(this.defaultUriVariables);
+			}
+			return compiledTemplate.expand(uriVars);
+		}
 		return uriString(uriTemplate).build(uriVars);
 	}
 
+	@Nullable
+	private CompiledUriTemplate getCompiledTemplate(String uriTemplate) {
+		if (this.compiledTemplates.sizeLimit() == 0 || (!this.encodingMode.equals(EncodingMode.TEMPLATE_AND_VALUES) &&
+				!this.encodingMode.equals(EncodingMode.URI_COMPONENT))) {
+			return null;
+		}
+		return this.compiledTemplates.get(uriTemplate).orElse(null);
+	}
+
+	private Optional<CompiledUriTemplate> compile(String uriTemplate) {
+		UriComponents uric = new DefaultUriBuilder(uriTemplate).uriComponentsBuilder.build();
+		return Optional.ofNullable(
+				CompiledUriTemplate.compile(uric, this.encodingMode.equals(EncodingMode.URI_COMPONENT)));
+	}
+
+	private Map<String, ?> withDefaultUriVariables(Map<String, ?> uriVars) {
+		if (this.defaultUriVariables.isEmpty()) {
+			return uriVars;
+		}
+		Map<String, Object> map = new HashMap<>();
+		map.putAll(this.defaultUriVariables);
+		map.putAll(uriVars);
+		return map;
+	}
+
 	// UriBuilderFactory
 
 	@Override
@@ -372,12 +443,7 @@ public class DefaultUriBuilderFactory implements UriBuilderFactory {
 
 		@Override
 		public URI build(Map<String, ?> uriVars) {
-			if (!defaultUriVariables.isEmpty()) {
-				Map<String, Object> map = new HashMap<>();
-				map.putAll(defaultUriVariables);
-				map.putAll(uriVars);
-				uriVars = map;
-			}
+			uriVars = withDefaultUriVariables(uriVars);
 			if (encodingMode.equals(EncodingMode.VALUES_ONLY)) {
 				uriVars = UriUtils.encodeUriVariables(uriVars);
 			}
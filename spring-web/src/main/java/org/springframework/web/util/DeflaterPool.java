@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.springframework.util.Assert;
+
+/**
+ * Pool of {@link Deflater} instances for GZIP compression of HTTP responses.
+ *
+ * <p>A {@code Deflater} holds a sizable native buffer that is only released by
+ * {@link Deflater#end()}, so creating one per response is comparatively
+ * expensive. This pool hands out "nowrap" deflaters at a fixed compression level,
+ * {@link Deflater#reset() resets} them on release, and keeps up to a maximum
+ * number of idle instances around, ending any surplus ones.
+ *
+ * <p>{@link #createGzipOutputStream(OutputStream)} wraps a target stream with
+ * GZIP framing on top of a pooled deflater, returning the deflater to the pool
+ * once the stream is closed.
+ *
+ * @since 5.2.10
+ * @see org.springframework.web.filter.CompressionFilter
+ * @see org.springframework.web.filter.reactive.CompressionFilter
+ */
+public class DeflaterPool {
+
+	/** Default maximum number of idle deflaters kept in the pool. */
+	public static final int DEFAULT_MAX_IDLE = 32;
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final int BUFFER_SIZE = 8192;
+
+
+	private final int level;
+
+	private final int maxIdle;
+
+	private final Queue<Deflater> idle = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+
+	/**
+	 * Create a pool with {@link Deflater#DEFAULT_COMPRESSION default} compression
+	 * and the {@link #DEFAULT_MAX_IDLE default} maximum of idle deflaters.
+	 */
+	public DeflaterPool() {
+		this(Deflater.DEFAULT_COMPRESSION, DEFAULT_MAX_IDLE);
+	}
+
+	/**
+	 * Create a pool with the given compression level and maximum number of
+	 * idle deflaters.
+	 * @param level the compression level (0-9), or -1 for the default
+	 * @param maxIdle the maximum number of idle deflaters to keep
+	 */
+	public DeflaterPool(int level, int maxIdle) {
+		Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION ||
+				(level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+				"Invalid compression level: " + level);
+		Assert.isTrue(maxIdle >= 0, "Max idle must not be negative");
+		this.level = level;
+		this.maxIdle = maxIdle;
+	}
+
+
+	/**
+	 * Return the compression level of the deflaters in this pool.
+	 */
+	public int getLevel() {
+		return this.level;
+	}
+
+	/**
+	 * Return the maximum number of idle deflaters kept in the pool.
+	 */
+	public int getMaxIdle() {
+		return this.maxIdle;
+	}
+
+	/**
+	 * Return the current number of idle deflaters in the pool.
+	 */
+	public int getIdleCount() {
+		return this.idleCount.get();
+	}
+
+	/**
+	 * Obtain a deflater from the pool, or create a new one if none is idle.
+	 * The deflater must be returned through {@link #release(Deflater)}.
+	 */
+	public Deflater obtain() {
+		Deflater deflater = this.idle.poll();
+		if (deflater != null) {
+			this.idleCount.decrementAndGet();
+			return deflater;
+		}
+		return new Deflater(this.level, true);
+	}
+
+	/**
+	 * Return the given deflater to the pool, or end it if the pool is full.
+	 */
+	public void release(Deflater deflater) {
+		if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+			deflater.reset();
+			this.idle.offer(deflater);
+		}
+		else {
+			this.idleCount.decrementAndGet();
+			deflater.end();
+		}
+	}
+
+	/**
+	 * End all idle deflaters, e.g. on shutdown.
+	 */
+	public void clear() {
+		Deflater deflater;
+		while ((deflater = this.idle.poll()) != null) {
+			this.idleCount.decrementAndGet();
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Create an {@link OutputStream} that writes GZIP compressed content to the
+	 * given target, using a deflater from this pool.
+	 * <p>{@link OutputStream#flush() Flushing} the returned stream performs a
+	 * {@link Deflater#SYNC_FLUSH sync flush}, making all content written so far
+	 * available to the client. {@link OutputStream#close() Closing} it writes
+	 * the GZIP trailer, closes the target and returns the deflater to the pool.
+	 * @param out the target stream for compressed content
+	 * @return the compressing stream
+	 * @throws IOException if writing the GZIP header fails
+	 */
+	public OutputStream createGzipOutputStream(OutputStream out) throws IOException {
+		return new PooledGzipOutputStream(out, obtain());
+	}
+
+
+	/**
+	 * Variant of {@link java.util.zip.GZIPOutputStream} with a pooled deflater.
+	 */
+	private class PooledGzipOutputStream extends DeflaterOutputStream {
+
+		private final CRC32 crc = new CRC32();
+
+		private boolean closed;
+
+		PooledGzipOutputStream(OutputStream out, Deflater deflater) throws IOException {
+			super(out, deflater, BUFFER_SIZE, true);
+			try {
+				writeHeader();
+			}
+			catch (IOException ex) {
+				releaseDeflater();
+				throw ex;
+			}
+		}
+
+		private void writeHeader() throws IOException {
+			this.out.write(new byte[] {
+					(byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0});
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			super.write(b, off, len);
+			this.crc.update(b, off, len);
+		}
+
+		@Override
+		public void finish() throws IOException {
+			if (!this.def.finished()) {
+				super.finish();
+				writeTrailer();
+			}
+		}
+
+		private void writeTrailer() throws IOException {
+			byte[] trailer = new byte[8];
+			writeInt((int) this.crc.getValue(), trailer, 0);
+			writeInt(this.def.getTotalIn(), trailer, 4);
+			this.out.write(trailer);
+		}
+
+		private void writeInt(int value, byte[] buf, int offset) {
+			buf[offset] = (byte) value;
+			buf[offset + 1] = (byte) (value >> 8);
+			buf[offset + 2] = (byte) (value >> 16);
+			buf[offset + 3] = (byte) (value >> 24);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				finish();
+			}
+			finally {
+				releaseDeflater();
+				this.out.close();
+			}
+		}
+
+		private void releaseDeflater() {
+			release(this.def);
+		}
+	}
+
+}
@@ -195,6 +195,14 @@ final class HierarchicalUriComponents extends UriComponents {
 		return Integer.parseInt(this.port);
 	}
 
+	/**
+	 * Return the port as given, possibly containing a URI variable.
+	 */
+	@Nullable
+	String getPortAsString() {
+		return this.port;
+	}
+
 	@Override
 	@NonNull
 	public String getPath() {
@@ -206,6 +214,13 @@ final class HierarchicalUriComponents extends UriComponents {
 		return this.path.getPathSegments();
 	}
 
+	/**
+	 * Return the path component, as a plain path, path segments, or both.
+	 */
+	PathComponent getPathComponent() {
+		return this.path;
+	}
+
 	@Override
 	@Nullable
 	public String getQuery() {
@@ -993,6 +1008,10 @@ final class HierarchicalUriComponents extends UriComponents {
 			this.pathComponents = pathComponents;
 		}
 
+		public List<PathComponent> getPathComponents() {
+			return this.pathComponents;
+		}
+
 		@Override
 		public String getPath() {
 			StringBuilder pathBuilder = new StringBuilder();
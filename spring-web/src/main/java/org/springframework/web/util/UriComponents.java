@@ -48,7 +48,7 @@ import org.springframework.util.MultiValueMap;
 public abstract class UriComponents implements Serializable {
 
 	/** Captures URI template variable names. */
-	private static final Pattern NAMES_PATTERN = Pattern.compile("\\{([^/]+?)}");
+	static final Pattern NAMES_PATTERN = Pattern.compile("\\{([^/]+?)}");
 
 
 	@Nullable
@@ -274,7 +274,7 @@ public abstract class UriComponents implements Serializable {
 	/**
 	 * Remove nested "{}" such as in URI vars with regular expressions.
 	 */
-	private static String sanitizeSource(String source) {
+	static String sanitizeSource(String source) {
 		int level = 0;
 		StringBuilder sb = new StringBuilder();
 		for (char c : source.toCharArray()) {
@@ -292,7 +292,7 @@ public abstract class UriComponents implements Serializable {
 		return sb.toString();
 	}
 
-	private static String getVariableName(String match) {
+	static String getVariableName(String match) {
 		int colonIdx = match.indexOf(':');
 		return (colonIdx != -1 ? match.substring(0, colonIdx) : match);
 	}
@@ -330,7 +330,7 @@ public abstract class UriComponents implements Serializable {
 	/**
 	 * URI template variables backed by a map.
 	 */
-	private static class MapTemplateVariables implements UriTemplateVariables {
+	static class MapTemplateVariables implements UriTemplateVariables {
 
 		private final Map<String, ?> uriVariables;
 
@@ -352,7 +352,7 @@ public abstract class UriComponents implements Serializable {
 	/**
 	 * URI template variables backed by a variable argument array.
 	 */
-	private static class VarArgsTemplateVariables implements UriTemplateVariables {
+	static class VarArgsTemplateVariables implements UriTemplateVariables {
 
 		private final Iterator<Object> valueIterator;
 
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+
+/**
+ * Necessary condition for a functional route to match: the set of HTTP
+ * methods and the set of literal first path segments that the route can
+ * possibly accept, {@code null} meaning "any".
+ *
+ * <p>Guards are derived from the method and path leaves of a route
+ * predicate through a {@link Builder}, and are used by
+ * {@code RouterFunctions.compile} in WebFlux and Spring MVC to skip routes
+ * that cannot match a request; a guard never rejects a request that the
+ * predicate would accept.
+ *
+ * <p>Mainly for internal use within the framework.
+ *
+ * @since 5.2.10
+ */
+public final class RouteGuard {
+
+	/** Guard that admits any request. */
+	public static final RouteGuard ANY = new RouteGuard(null, null);
+
+	private static final String WILDCARD_CHARS = "{}*?;%\\";
+
+
+	@Nullable
+	private final Set<HttpMethod> methods;
+
+	@Nullable
+	private final Set<String> segments;
+
+
+	private RouteGuard(@Nullable Set<HttpMethod> methods, @Nullable Set<String> segments) {
+		this.methods = methods;
+		this.segments = segments;
+	}
+
+
+	/**
+	 * Return the HTTP methods the route can accept, or {@code null} for any.
+	 */
+	@Nullable
+	public Set<HttpMethod> getMethods() {
+		return this.methods;
+	}
+
+	/**
+	 * Return the lower-cased literal first path segments the route can
+	 * accept, or {@code null} for any.
+	 */
+	@Nullable
+	public Set<String> getSegments() {
+		return this.segments;
+	}
+
+	private RouteGuard and(RouteGuard other, boolean nested) {
+		// When nesting, the right-hand side sees the remainder of the path
+		Set<String> segments = (nested ? this.segments : intersect(this.segments, other.segments));
+		return new RouteGuard(intersect(this.methods, other.methods), segments);
+	}
+
+	private RouteGuard or(RouteGuard other) {
+		return new RouteGuard(union(this.methods, other.methods), union(this.segments, other.segments));
+	}
+
+
+	/**
+	 * Return the lower-cased first path segment of the given request path,
+	 * or {@code null} if the path does not start with a non-empty segment.
+	 */
+	@Nullable
+	public static String segment(PathContainer path) {
+		List<PathContainer.Element> elements = path.elements();
+		if (elements.size() > 1 && elements.get(0) instanceof PathContainer.Separator &&
+				elements.get(1) instanceof PathContainer.PathSegment) {
+			return toLowerCase(((PathContainer.PathSegment) elements.get(1)).valueToMatch());
+		}
+		return null;
+	}
+
+	/**
+	 * Return the lower-cased first path segment of the given pattern,
+	 * or {@code null} if it is not a plain literal.
+	 */
+	@Nullable
+	static String segment(String pattern) {
+		if (!pattern.startsWith("/")) {
+			return null;
+		}
+		int end = pattern.indexOf('/', 1);
+		String segment = (end != -1 ? pattern.substring(1, end) : pattern.substring(1));
+		if (segment.isEmpty()) {
+			return null;
+		}
+		for (int i = 0; i < segment.length(); i++) {
+			if (WILDCARD_CHARS.indexOf(segment.charAt(i)) != -1) {
+				return null;
+			}
+		}
+		return toLowerCase(segment);
+	}
+
+	// Character-based, as used for case-insensitive path patterns
+	private static String toLowerCase(String value) {
+		char[] chars = value.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	@Nullable
+	private static <E> Set<E> intersect(@Nullable Set<E> first, @Nullable Set<E> second) {
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		Set<E> result = new HashSet<>(first);
+		result.retainAll(second);
+		return result;
+	}
+
+	@Nullable
+	private static <E> Set<E> union(@Nullable Set<E> first, @Nullable Set<E> second) {
+		if (first == null || second == null) {
+			return null;
+		}
+		Set<E> result = new HashSet<>(first);
+		result.addAll(second);
+		return result;
+	}
+
+
+	/**
+	 * Folds a predicate tree, visited depth-first, into a guard: leaves are
+	 * pushed in the order visited, and each {@code and}, {@code or}, or
+	 * {@code negate} combines the guards of its operands.
+	 */
+	public static final class Builder {
+
+		private final boolean nested;
+
+		private final Deque<RouteGuard> guards = new ArrayDeque<>();
+
+		/**
+		 * Create a builder for the guard of a route predicate.
+		 * @param nested whether the predicate is used to nest routes, in
+		 * which case the right-hand side of an {@code and} is matched
+		 * against the remainder of the path
+		 */
+		public Builder(boolean nested) {
+			this.nested = nested;
+		}
+
+		/**
+		 * Add a leaf that accepts the given HTTP methods only.
+		 */
+		public Builder method(Set<HttpMethod> methods) {
+			Set<HttpMethod> result = EnumSet.noneOf(HttpMethod.class);
+			result.addAll(methods);
+			this.guards.push(new RouteGuard(result, null));
+			return this;
+		}
+
+		/**
+		 * Add a leaf for the given path pattern, which constrains the first
+		 * path segment if that is a plain literal.
+		 */
+		public Builder path(String pattern) {
+			String segment = segment(pattern);
+			this.guards.push(segment != null ? new RouteGuard(null, Collections.singleton(segment)) : ANY);
+			return this;
+		}
+
+		/**
+		 * Add a leaf that may accept any request.
+		 */
+		public Builder any() {
+			this.guards.push(ANY);
+			return this;
+		}
+
+		/**
+		 * Combine the last two guards into one that requires both.
+		 */
+		public Builder and() {
+			RouteGuard right = pop();
+			RouteGuard left = pop();
+			this.guards.push(left.and(right, this.nested));
+			return this;
+		}
+
+		/**
+		 * Combine the last two guards into one that requires either.
+		 */
+		public Builder or() {
+			RouteGuard right = pop();
+			RouteGuard left = pop();
+			this.guards.push(left.or(right));
+			return this;
+		}
+
+		/**
+		 * Replace the last guard with {@link #ANY}, since the negation of a
+		 * necessary condition is not one.
+		 */
+		public Builder negate() {
+			pop();
+			this.guards.push(ANY);
+			return this;
+		}
+
+		/**
+		 * Return the resulting guard, or {@link #ANY} if the leaves and
+		 * combinations added did not fold into a single guard.
+		 */
+		public RouteGuard build() {
+			return (this.guards.size() == 1 ? this.guards.peek() : ANY);
+		}
+
+		private RouteGuard pop() {
+			return (this.guards.isEmpty() ? ANY : this.guards.pop());
+		}
+	}
+
+}
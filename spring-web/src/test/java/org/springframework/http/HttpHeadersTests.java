@@ -38,6 +38,9 @@ import java.util.TimeZone;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -151,6 +154,44 @@ public class HttpHeadersTests {
 		assertThat(headers.getFirst("Content-Type")).as("Invalid Content-Type header").isEqualTo("text/html;charset=UTF-8");
 	}
 
+	@Test
+	public void contentTypeParsedOnceUntilChanged() {
+		headers.set("Content-Type", "text/html;charset=UTF-8");
+		MediaType contentType = headers.getContentType();
+		assertThat(headers.getContentType()).isSameAs(contentType);
+
+		headers.set("Content-Type", "text/plain");
+		assertThat(headers.getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+	}
+
+	@Test
+	public void parsedHeadersReflectChangesToUnderlyingMap() {
+		MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
+		HttpHeaders readOnly = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(map));
+		map.add("Accept", "text/html");
+		map.add("Content-Length", "42");
+		map.add("Cache-Control", "no-cache");
+		assertThat(readOnly.getAccept()).containsExactly(MediaType.TEXT_HTML);
+		assertThat(readOnly.getContentLength()).isEqualTo(42);
+		assertThat(readOnly.getCacheControl()).isEqualTo("no-cache");
+
+		map.add("Accept", "text/plain");
+		map.set("Content-Length", "7");
+		map.get("Cache-Control").add("no-store");
+		assertThat(readOnly.getAccept()).containsExactly(MediaType.TEXT_HTML, MediaType.TEXT_PLAIN);
+		assertThat(readOnly.getContentLength()).isEqualTo(7);
+		assertThat(readOnly.getCacheControl()).isEqualTo("no-cache, no-store");
+	}
+
+	@Test
+	public void acceptReturnsIndependentLists() {
+		headers.set("Accept", "text/plain, text/html;q=0.9, */*;q=0.1");
+		List<MediaType> accept = headers.getAccept();
+		Collections.reverse(accept);
+		assertThat(headers.getAccept()).containsExactly(
+				MediaType.TEXT_PLAIN, MediaType.valueOf("text/html;q=0.9"), MediaType.valueOf("*/*;q=0.1"));
+	}
+
 	@Test
 	public void location() throws URISyntaxException {
 		URI location = new URI("https://www.example.com/hotels");
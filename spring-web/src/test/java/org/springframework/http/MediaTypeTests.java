@@ -160,6 +160,17 @@ public class MediaTypeTests {
 		assertThat(mediaTypes.size()).as("Invalid amount of media types").isEqualTo(0);
 	}
 
+	@Test
+	public void parseMediaTypeReturnsSharedInstances() {
+		assertThat(MediaType.parseMediaType("application/json")).isSameAs(MediaType.APPLICATION_JSON);
+		assertThat(MediaType.parseMediaType("*/*")).isSameAs(MediaType.ALL);
+		assertThat(MediaType.parseMediaTypes("text/html")).containsExactly(MediaType.TEXT_HTML);
+		assertThat(MediaType.parseMediaTypes("text/html").get(0)).isSameAs(MediaType.TEXT_HTML);
+
+		MediaType mediaType = MediaType.parseMediaType("text/csv;q=0.5");
+		assertThat(MediaType.parseMediaType("text/csv;q=0.5")).isSameAs(mediaType);
+	}
+
 	@Test // gh-23241
 	public void parseMediaTypesWithTrailingComma() {
 		List<MediaType> mediaTypes = MediaType.parseMediaTypes("text/plain, text/html, ");
@@ -17,6 +17,9 @@
 package org.springframework.http.client;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.client.HttpClient;
@@ -26,9 +29,12 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.http.HttpMethod;
+import org.springframework.util.StreamUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -164,6 +170,40 @@ public class HttpComponentsClientHttpRequestFactoryTests extends AbstractHttpReq
 
 	}
 
+	@Test
+	public void metrics() throws Exception {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		HttpComponentsClientHttpRequestFactory hrf =
+				new HttpComponentsClientHttpRequestFactory(HttpClients.custom().setConnectionManager(connectionManager).build());
+		List<ClientHttpExchangeMetrics> recorded = new ArrayList<>();
+		hrf.setMetricsListener(recorded::add);
+		hrf.setConnectionManager(connectionManager);
+
+		ClientHttpRequest request = hrf.createRequest(new URI(baseUrl + "/echo"), HttpMethod.POST);
+		StreamUtils.copy("Hello", StandardCharsets.UTF_8, request.getBody());
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("Hello");
+			assertThat(recorded).isEmpty();
+		}
+
+		assertThat(recorded).hasSize(1);
+		ClientHttpExchangeMetrics metrics = recorded.get(0);
+		assertThat(metrics.getHost()).isEqualTo("localhost:" + port);
+		assertThat(metrics.getMethod()).isEqualTo("POST");
+		assertThat(metrics.getStatusCode()).isEqualTo(200);
+		assertThat(metrics.getAcquireTime()).isNull();
+		assertThat(metrics.getTimeToFirstByte()).isNotNull();
+		assertThat(metrics.getBodyTransferTime()).isNotNull();
+		assertThat(metrics.getError()).isNull();
+
+		List<ConnectionPoolStats> poolStats = hrf.getConnectionPoolStats();
+		assertThat(poolStats).hasSize(1);
+		assertThat(poolStats.get(0).getHost()).isEqualTo("localhost:" + port);
+		assertThat(poolStats.get(0).getActive()).isEqualTo(0);
+		assertThat(poolStats.get(0).getIdle()).isEqualTo(1);
+		assertThat(poolStats.get(0).getPending()).isEqualTo(0);
+	}
+
 	private void testRequestBodyAllowed(URI uri, HttpMethod method, boolean allowed) {
 		HttpUriRequest request = ((HttpComponentsClientHttpRequestFactory) this.factory).createHttpUriRequest(method, uri);
 		Object actual = request instanceof HttpEntityEnclosingRequest;
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link JettyClientHttpRequestFactory}.
+ */
+public class JettyClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTests {
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return new JettyClientHttpRequestFactory();
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Override
+	@Test
+	public void multipleWrites() throws Exception {
+		// The echo endpoint copies "Transfer-Encoding: chunked" next to its own
+		// Content-Length, a combination that the Jetty client rejects
+		ClientHttpRequest request = factory.createRequest(new URI(baseUrl + "/echo"), HttpMethod.POST);
+		byte[] body = "Hello World".getBytes(StandardCharsets.UTF_8);
+		request.getHeaders().setContentLength(body.length);
+		StreamUtils.copy(body, request.getBody());
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(StreamUtils.copyToByteArray(response.getBody())).isEqualTo(body);
+		}
+		assertThatIllegalStateException().isThrownBy(() -> FileCopyUtils.copy(body, request.getBody()));
+	}
+
+	@Test
+	public void contentTypeSentOnce() throws Exception {
+		ClientHttpRequest request = factory.createRequest(new URI(baseUrl + "/echo"), HttpMethod.POST);
+		byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+		request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		request.getHeaders().setContentLength(body.length);
+		StreamUtils.copy(body, request.getBody());
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getHeaders().get(HttpHeaders.CONTENT_TYPE))
+					.containsExactly(MediaType.APPLICATION_JSON_VALUE);
+		}
+	}
+
+	@Test
+	public void streamingRequestBody() throws Exception {
+		ClientHttpRequest request = factory.createRequest(new URI(baseUrl + "/methods/post"), HttpMethod.POST);
+		for (int i = 0; i < 10; i++) {
+			request.getBody().write(("chunk " + i).getBytes(StandardCharsets.UTF_8));
+			request.getBody().flush();
+		}
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		}
+	}
+
+}
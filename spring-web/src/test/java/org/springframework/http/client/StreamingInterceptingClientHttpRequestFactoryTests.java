@@ -0,0 +1,217 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link StreamingInterceptingClientHttpRequestFactory}.
+ */
+public class StreamingInterceptingClientHttpRequestFactoryTests {
+
+	private static final URI URL = URI.create("https://example.com");
+
+
+	private final ClientHttpResponse response = mock(ClientHttpResponse.class);
+
+	private final StreamingRequestMock requestMock = new StreamingRequestMock();
+
+
+	@Test
+	public void bodyIsStreamedThroughInterceptors() throws Exception {
+		AtomicInteger byteCount = new AtomicInteger();
+		StreamingClientHttpRequestInterceptor counting = (request, body, execution) ->
+				execution.execute(request, outputStream -> body.writeTo(new FilterOutputStream(outputStream) {
+					@Override
+					public void write(int b) throws IOException {
+						byteCount.incrementAndGet();
+						super.write(b);
+					}
+				}));
+		StreamingClientHttpRequestInterceptor headers = (request, body, execution) -> {
+			HttpRequestWrapper wrapper = new HttpRequestWrapper(request);
+			wrapper.getHeaders().add("Foo", "Bar");
+			return execution.execute(wrapper, body);
+		};
+		ClientHttpRequestFactory factory = new StreamingInterceptingClientHttpRequestFactory(
+				(uri, method) -> this.requestMock, Arrays.asList(counting, headers));
+
+		ClientHttpRequest request = factory.createRequest(URL, HttpMethod.POST);
+		AtomicInteger bodyWrites = new AtomicInteger();
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> {
+			bodyWrites.incrementAndGet();
+			outputStream.write("foo".getBytes(StandardCharsets.UTF_8));
+		});
+		assertThat(request.execute()).isSameAs(this.response);
+
+		assertThat(bodyWrites.get()).isEqualTo(1);
+		assertThat(byteCount.get()).isEqualTo(3);
+		assertThat(this.requestMock.written.toString("UTF-8")).isEqualTo("foo");
+		assertThat(this.requestMock.getHeaders().getFirst("Foo")).isEqualTo("Bar");
+	}
+
+	@Test
+	public void bodyIsWrittenToNonStreamingRequest() throws Exception {
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		ClientHttpRequest delegate = mock(ClientHttpRequest.class);
+		given(delegate.getHeaders()).willReturn(new HttpHeaders());
+		given(delegate.getBody()).willReturn(written);
+		given(delegate.execute()).willReturn(this.response);
+		ClientHttpRequestFactory factory = new StreamingInterceptingClientHttpRequestFactory(
+				(uri, method) -> delegate, Collections.singletonList((request, body, execution) ->
+						execution.execute(request, body)));
+
+		ClientHttpRequest request = factory.createRequest(URL, HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write(42));
+		assertThat(request.execute()).isSameAs(this.response);
+		assertThat(written.toByteArray()).containsExactly(42);
+	}
+
+	@Test
+	public void bodyWrittenToOutputStreamIsBuffered() throws Exception {
+		ClientHttpRequestFactory factory = new StreamingInterceptingClientHttpRequestFactory(
+				(uri, method) -> this.requestMock, Collections.singletonList((request, body, execution) ->
+						execution.execute(request, body)));
+
+		ClientHttpRequest request = factory.createRequest(URL, HttpMethod.PUT);
+		request.getBody().write("foo".getBytes(StandardCharsets.UTF_8));
+		request.execute();
+		assertThat(this.requestMock.written.toString("UTF-8")).isEqualTo("foo");
+	}
+
+	@Test
+	public void noBody() throws Exception {
+		AtomicReference<StreamingHttpOutputMessage.Body> bodyRef = new AtomicReference<>();
+		ClientHttpRequestFactory factory = new StreamingInterceptingClientHttpRequestFactory(
+				(uri, method) -> this.requestMock, Collections.singletonList((request, body, execution) -> {
+					bodyRef.set(body);
+					return execution.execute(request, body);
+				}));
+
+		factory.createRequest(URL, HttpMethod.GET).execute();
+		assertThat(bodyRef.get()).isNull();
+		assertThat(this.requestMock.body).isNull();
+		assertThat(this.requestMock.executed).isTrue();
+	}
+
+	@Test
+	public void noExecution() throws Exception {
+		ClientHttpRequestFactory factory = new StreamingInterceptingClientHttpRequestFactory(
+				(uri, method) -> this.requestMock, Collections.singletonList((request, body, execution) ->
+						this.response));
+
+		assertThat(factory.createRequest(URL, HttpMethod.GET).execute()).isSameAs(this.response);
+		assertThat(this.requestMock.executed).isFalse();
+	}
+
+	@Test
+	public void restTemplate() throws Exception {
+		AtomicReference<StreamingHttpOutputMessage.Body> bodyRef = new AtomicReference<>();
+		RestTemplate restTemplate = new RestTemplate((uri, method) -> this.requestMock);
+		restTemplate.setStreamingInterceptors(Collections.singletonList((request, body, execution) -> {
+			bodyRef.set(body);
+			return execution.execute(request, body);
+		}));
+		given(this.response.getRawStatusCode()).willReturn(200);
+		given(this.response.getHeaders()).willReturn(new HttpHeaders());
+
+		restTemplate.put(URL, "foo");
+		assertThat(bodyRef.get()).isNotNull();
+		assertThat(this.requestMock.written.toString("UTF-8")).isEqualTo("foo");
+	}
+
+	@Test
+	public void restTemplateWithInterceptorAddedLater() throws Exception {
+		RestTemplate restTemplate = new RestTemplate((uri, method) -> new StreamingRequestMock());
+		restTemplate.setStreamingInterceptors(Collections.singletonList((request, body, execution) ->
+				execution.execute(request, body)));
+		given(this.response.getRawStatusCode()).willReturn(200);
+		given(this.response.getHeaders()).willReturn(new HttpHeaders());
+		restTemplate.put(URL, "foo");
+
+		AtomicInteger invocations = new AtomicInteger();
+		restTemplate.getInterceptors().add((request, body, execution) -> {
+			invocations.incrementAndGet();
+			return execution.execute(request, body);
+		});
+
+		restTemplate.put(URL, "bar");
+		assertThat(invocations.get()).isEqualTo(1);
+	}
+
+
+	private class StreamingRequestMock extends AbstractClientHttpRequest implements StreamingHttpOutputMessage {
+
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+		private Body body;
+
+		private boolean executed;
+
+		@Override
+		public String getMethodValue() {
+			return "POST";
+		}
+
+		@Override
+		public URI getURI() {
+			return URL;
+		}
+
+		@Override
+		public void setBody(Body body) {
+			this.body = body;
+		}
+
+		@Override
+		protected OutputStream getBodyInternal(HttpHeaders headers) {
+			throw new UnsupportedOperationException("getBody not supported");
+		}
+
+		@Override
+		protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+			if (this.body != null) {
+				this.body.writeTo(this.written);
+			}
+			this.executed = true;
+			return response;
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.http.client.ConnectionPoolStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ClientHttpConnectorWarmer}.
+ */
+public class ClientHttpConnectorWarmerTests {
+
+	private final MockWebServer server = new MockWebServer();
+
+
+	@BeforeEach
+	public void setup() throws IOException {
+		this.server.setDispatcher(new Dispatcher() {
+			@Override
+			public MockResponse dispatch(RecordedRequest request) {
+				// Delay responses so that warm-up requests overlap
+				return new MockResponse().setHeadersDelay(100, TimeUnit.MILLISECONDS);
+			}
+		});
+		this.server.start();
+	}
+
+	@AfterEach
+	public void shutdown() throws IOException {
+		this.server.shutdown();
+	}
+
+
+	@Test
+	public void warmUpReactorConnector() throws Exception {
+		ReactorConnectionPoolMetrics poolMetrics = new ReactorConnectionPoolMetrics();
+		ConnectionProvider provider = ConnectionProvider.builder("test").metrics(true, () -> poolMetrics).build();
+		try {
+			ClientHttpConnectorWarmer warmer =
+					new ClientHttpConnectorWarmer(new ReactorClientHttpConnector(HttpClient.create(provider)));
+			warmer.addTarget(this.server.url("/health").uri(), 3);
+			warmer.setWaitForWarmUp(true);
+			warmer.start();
+
+			assertThat(warmer.isReady()).isTrue();
+			assertThat(warmer.getSucceededCount()).isEqualTo(3);
+			assertThat(warmer.getFailedCount()).isEqualTo(0);
+			assertThat(this.server.getRequestCount()).isEqualTo(3);
+
+			// Connections are released to the pool asynchronously
+			List<ConnectionPoolStats> poolStats = poolMetrics.getConnectionPoolStats();
+			for (int i = 0; i < 20 && poolStats.get(0).getIdle() < 3; i++) {
+				Thread.sleep(50);
+				poolStats = poolMetrics.getConnectionPoolStats();
+			}
+			assertThat(poolStats).hasSize(1);
+			assertThat(poolStats.get(0).getIdle()).isEqualTo(3);
+			assertThat(poolStats.get(0).getActive()).isEqualTo(0);
+		}
+		finally {
+			provider.disposeLater().block(Duration.ofSeconds(5));
+		}
+	}
+
+	@Test
+	public void warmUpJettyConnector() throws Exception {
+		org.eclipse.jetty.client.HttpClient httpClient = new org.eclipse.jetty.client.HttpClient();
+		JettyClientHttpConnector connector = new JettyClientHttpConnector(httpClient);
+		try {
+			ClientHttpConnectorWarmer warmer = new ClientHttpConnectorWarmer(connector);
+			warmer.addTarget(this.server.url("/health").uri(), 3);
+			warmer.setWaitForWarmUp(true);
+			warmer.start();
+
+			assertThat(warmer.isReady()).isTrue();
+			assertThat(warmer.getSucceededCount()).isEqualTo(3);
+
+			List<ConnectionPoolStats> poolStats = connector.getConnectionPoolStats();
+			assertThat(poolStats).hasSize(1);
+			assertThat(poolStats.get(0).getIdle()).isEqualTo(3);
+		}
+		finally {
+			httpClient.stop();
+		}
+	}
+
+	@Test
+	public void warmUpInBackground() throws Exception {
+		ConnectionProvider provider = ConnectionProvider.create("test");
+		try {
+			ClientHttpConnectorWarmer warmer =
+					new ClientHttpConnectorWarmer(new ReactorClientHttpConnector(HttpClient.create(provider)));
+			warmer.addTarget(this.server.url("/health").uri(), 2);
+			warmer.addTarget(URI.create("http://localhost:1/unreachable"), 1);
+			warmer.start();
+
+			assertThat(warmer.isRunning()).isTrue();
+			assertThat(warmer.isReady()).isFalse();
+			for (int i = 0; i < 50 && !warmer.isReady(); i++) {
+				Thread.sleep(100);
+			}
+
+			assertThat(warmer.isReady()).isTrue();
+			assertThat(warmer.getSucceededCount()).isEqualTo(2);
+			assertThat(warmer.getFailedCount()).isEqualTo(1);
+
+			warmer.stop();
+			assertThat(warmer.isRunning()).isFalse();
+		}
+		finally {
+			provider.disposeLater().block(Duration.ofSeconds(5));
+		}
+	}
+
+	@Test
+	public void restartAfterStop() throws Exception {
+		ConnectionProvider provider = ConnectionProvider.create("test");
+		try {
+			ClientHttpConnectorWarmer warmer =
+					new ClientHttpConnectorWarmer(new ReactorClientHttpConnector(HttpClient.create(provider)));
+			warmer.addTarget(this.server.url("/health").uri(), 2);
+			warmer.start();
+			warmer.stop();
+			assertThat(warmer.isReady()).isFalse();
+
+			warmer.setWaitForWarmUp(true);
+			warmer.start();
+			assertThat(warmer.isReady()).isTrue();
+			assertThat(warmer.getSucceededCount()).isEqualTo(2);
+
+			warmer.stop();
+			assertThat(warmer.isReady()).isTrue();
+		}
+		finally {
+			provider.disposeLater().block(Duration.ofSeconds(5));
+		}
+	}
+
+}
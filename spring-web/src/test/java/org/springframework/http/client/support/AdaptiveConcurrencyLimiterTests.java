@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimiter} and
+ * {@link ConcurrencyLimitingInterceptor}.
+ */
+public class AdaptiveConcurrencyLimiterTests {
+
+	private static final URI URI_1 = URI.create("https://example.com/foo");
+
+	private static final URI URI_2 = URI.create("http://example.com:8080/foo");
+
+
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+
+
+	@Test
+	public void limitPerHost() {
+		this.limiter.setInitialLimit(2);
+		AdaptiveConcurrencyLimiter.Permit permit = this.limiter.tryAcquire(URI_1);
+		assertThat(permit).isNotNull();
+		assertThat(this.limiter.tryAcquire(URI_1)).isNotNull();
+		assertThat(this.limiter.tryAcquire(URI_1)).isNull();
+		assertThat(this.limiter.tryAcquire(URI_2)).isNotNull();
+
+		assertThat(this.limiter.getHosts()).containsExactlyInAnyOrder("example.com:443", "example.com:8080");
+		assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(2);
+
+		permit.release();
+		permit.release();
+		assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(1);
+		assertThat(this.limiter.tryAcquire(URI_1)).isNotNull();
+	}
+
+	@Test
+	public void queueAndReject() throws Exception {
+		this.limiter.setInitialLimit(1);
+		this.limiter.setMaxQueueSize(1);
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> first = this.limiter.acquire(URI_1);
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> second = this.limiter.acquire(URI_1);
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> third = this.limiter.acquire(URI_1);
+
+		assertThat(first).isCompleted();
+		assertThat(second).isNotDone();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(third::get)
+				.withCauseInstanceOf(RejectedExecutionException.class);
+		assertThat(this.limiter.getQueueSize("example.com:443")).isEqualTo(1);
+		assertThat(this.limiter.getRejectedCount()).isEqualTo(1);
+
+		first.get().onSuccess();
+		assertThat(second).isCompleted();
+		assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(1);
+		assertThat(this.limiter.getQueueSize("example.com:443")).isEqualTo(0);
+	}
+
+	@Test
+	public void cancelledWaiterIsSkipped() throws Exception {
+		this.limiter.setInitialLimit(1);
+		AdaptiveConcurrencyLimiter.Permit permit = this.limiter.acquire(URI_1).get();
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> cancelled = this.limiter.acquire(URI_1);
+		cancelled.cancel(false);
+		assertThat(this.limiter.getQueueSize("example.com:443")).isEqualTo(0);
+
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = this.limiter.acquire(URI_1);
+		permit.onSuccess();
+		assertThat(waiting).isCompleted();
+		assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(1);
+	}
+
+	@Test
+	public void additiveIncreaseMultiplicativeDecrease() {
+		this.limiter.setInitialLimit(4);
+		this.limiter.setMaxLimit(6);
+		this.limiter.setBackoffRatio(0.5);
+
+		for (int i = 0; i < 100; i++) {
+			AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[4];
+			for (int j = 0; j < permits.length; j++) {
+				permits[j] = this.limiter.tryAcquire(URI_1);
+			}
+			for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+				permit.onSuccess();
+			}
+		}
+		assertThat(this.limiter.getLimit("example.com:443")).isEqualTo(6);
+
+		this.limiter.tryAcquire(URI_1).onDropped();
+		assertThat(this.limiter.getLimit("example.com:443")).isEqualTo(3);
+		for (int i = 0; i < 10; i++) {
+			this.limiter.tryAcquire(URI_1).onDropped();
+		}
+		assertThat(this.limiter.getLimit("example.com:443")).isEqualTo(1);
+	}
+
+	@Test
+	public void limitDoesNotGrowWhenUnused() {
+		this.limiter.setInitialLimit(10);
+		for (int i = 0; i < 100; i++) {
+			this.limiter.tryAcquire(URI_1).onSuccess();
+		}
+		assertThat(this.limiter.getLimit("example.com:443")).isEqualTo(10);
+	}
+
+	@Test
+	public void interceptor() throws Exception {
+		this.limiter.setInitialLimit(10);
+		this.limiter.setBackoffRatio(0.5);
+		this.limiter.setMaxQueueSize(0);
+		ConcurrencyLimitingInterceptor interceptor = new ConcurrencyLimitingInterceptor(this.limiter);
+		HttpRequest request = mock(HttpRequest.class);
+		given(request.getURI()).willReturn(URI_1);
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		given(response.getRawStatusCode()).willReturn(503);
+
+		assertThat(interceptor.intercept(request, new byte[0], (req, body) -> {
+			assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(1);
+			return response;
+		})).isSameAs(response);
+		assertThat(this.limiter.getInFlight("example.com:443")).isEqualTo(0);
+		assertThat(this.limiter.getLimit("example.com:443")).isEqualTo(5);
+
+		for (int i = 0; i < 5; i++) {
+			this.limiter.tryAcquire(URI_1);
+		}
+		assertThatIOException().isThrownBy(() -> interceptor.intercept(request, new byte[0], (req, body) -> response))
+				.withCauseInstanceOf(RejectedExecutionException.class);
+	}
+
+}
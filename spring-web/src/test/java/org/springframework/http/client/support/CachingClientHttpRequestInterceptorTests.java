@@ -0,0 +1,222 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link CachingClientHttpRequestInterceptor}.
+ */
+public class CachingClientHttpRequestInterceptorTests {
+
+	private static final URI URI_1 = URI.create("https://example.com/foo");
+
+	private static final byte[] NO_BODY = new byte[0];
+
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final HttpResponseCache cache = new HttpResponseCache();
+
+	private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+
+
+	@AfterEach
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	public void freshResponseIsServedFromCache() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		ClientHttpRequestExecution execution = execution(200, "max-age=60", "body");
+
+		assertThat(body(interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution))).isEqualTo("body");
+		ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution);
+		assertThat(body(response)).isEqualTo("body");
+		assertThat(response.getRawStatusCode()).isEqualTo(200);
+		assertThat(response.getHeaders().getCacheControl()).isEqualTo("max-age=60");
+		assertThat(this.sentHeaders).hasSize(1);
+	}
+
+	@Test
+	public void staleResponseIsRevalidated() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(200, "max-age=60", "body"));
+		this.cache.setClock(Clock.offset(this.cache.getClock(), Duration.ofMinutes(2)));
+
+		ClientHttpResponse response = interceptor.intercept(
+				request(HttpMethod.GET), NO_BODY, execution(304, "max-age=60", ""));
+		assertThat(response.getRawStatusCode()).isEqualTo(200);
+		assertThat(body(response)).isEqualTo("body");
+		assertThat(this.sentHeaders).hasSize(2);
+		assertThat(this.sentHeaders.get(1).getIfNoneMatch()).containsExactly("\"v1\"");
+
+		// Fresh again
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(500, "", ""));
+		assertThat(this.sentHeaders).hasSize(2);
+	}
+
+	@Test
+	public void staleWhileRevalidate() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor =
+				new CachingClientHttpRequestInterceptor(this.cache, this.executor);
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY,
+				execution(200, "max-age=60, stale-while-revalidate=60", "v1"));
+		this.cache.setClock(Clock.offset(this.cache.getClock(), Duration.ofSeconds(90)));
+
+		CountDownLatch revalidated = new CountDownLatch(1);
+		ClientHttpRequestExecution execution = execution(200, "max-age=60", "v2");
+		ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+			try {
+				return execution.execute(request, body);
+			}
+			finally {
+				revalidated.countDown();
+			}
+		});
+		assertThat(body(response)).isEqualTo("v1");
+		assertThat(revalidated.await(5, TimeUnit.SECONDS)).isTrue();
+
+		response = interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(500, "", ""));
+		assertThat(body(response)).isEqualTo("v2");
+	}
+
+	@Test
+	public void concurrentRequestsAreCollapsed() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		CountDownLatch sent = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ClientHttpRequestExecution execution = execution(200, "max-age=60", "body");
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return body(interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+					sent.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					return execution.execute(request, body);
+				}));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}, this.executor);
+		assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return body(interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}, this.executor);
+		Thread.sleep(50);
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+		assertThat(this.sentHeaders).hasSize(1);
+	}
+
+	@Test
+	public void unsafeRequestEvicts() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(200, "max-age=60", "body"));
+		interceptor.intercept(request(HttpMethod.POST), NO_BODY, execution(200, "", ""));
+		assertThat(this.cache.get(URI_1, new HttpHeaders())).isNull();
+	}
+
+	@Test
+	public void notStorableResponseIsPassedThrough() throws Exception {
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(200, "no-store", "body"));
+		interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution(200, "no-store", "body"));
+		assertThat(this.sentHeaders).hasSize(2);
+	}
+
+	@Test
+	public void tooLargeResponseIsStreamedWithoutCaching() throws Exception {
+		this.cache.setMaxEntrySize(3);
+		CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+		ClientHttpResponse response = interceptor.intercept(
+				request(HttpMethod.GET), NO_BODY, execution(200, "max-age=60", "too large"));
+		assertThat(body(response)).isEqualTo("too large");
+		assertThat(this.cache.get(URI_1, new HttpHeaders())).isNull();
+	}
+
+	private ClientHttpRequestExecution execution(int status, String cacheControl, String body) {
+		return (request, content) -> {
+			synchronized (this.sentHeaders) {
+				this.sentHeaders.add(request.getHeaders());
+			}
+			HttpHeaders headers = new HttpHeaders();
+			headers.setCacheControl(cacheControl);
+			headers.setETag("\"v1\"");
+			ClientHttpResponse response = mock(ClientHttpResponse.class);
+			given(response.getRawStatusCode()).willReturn(status);
+			given(response.getStatusText()).willReturn("");
+			given(response.getHeaders()).willReturn(headers);
+			given(response.getBody()).willReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+			return response;
+		};
+	}
+
+	private static HttpRequest request(HttpMethod method) {
+		HttpRequest request = mock(HttpRequest.class);
+		given(request.getMethod()).willReturn(method);
+		given(request.getURI()).willReturn(URI_1);
+		given(request.getHeaders()).willReturn(new HttpHeaders());
+		return request;
+	}
+
+	private static String body(ClientHttpResponse response) throws IOException {
+		return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link HedgingInterceptor} and {@link HedgingPolicy}.
+ */
+public class HedgingInterceptorTests {
+
+	private static final byte[] NO_BODY = new byte[0];
+
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final HedgingPolicy policy = new HedgingPolicy();
+
+	private final HedgingInterceptor interceptor = new HedgingInterceptor(this.policy, this.executor);
+
+
+	@AfterEach
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	public void noHedgingBeforeMinSamples() throws Exception {
+		this.policy.setMinSamples(10);
+		AtomicInteger count = new AtomicInteger();
+		for (int i = 0; i < 9; i++) {
+			this.interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+				count.incrementAndGet();
+				return mock(ClientHttpResponse.class);
+			});
+		}
+		assertThat(count.get()).isEqualTo(9);
+		assertThat(this.policy.getHedgeDelay(HttpMethod.GET)).isNull();
+
+		this.policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+		assertThat(this.policy.getHedgeDelay(HttpMethod.GET)).isGreaterThanOrEqualTo(Duration.ofMillis(10));
+		assertThat(this.policy.getHedgeDelay(HttpMethod.POST)).isNull();
+	}
+
+	@Test
+	public void slowRequestIsHedged() throws Exception {
+		warmUp();
+		CountDownLatch release = new CountDownLatch(1);
+		ClientHttpResponse slow = mock(ClientHttpResponse.class);
+		ClientHttpResponse fast = mock(ClientHttpResponse.class);
+		AtomicInteger attempts = new AtomicInteger();
+		ClientHttpRequestExecution execution = (request, body) -> {
+			if (attempts.incrementAndGet() == 1) {
+				await(release);
+				return slow;
+			}
+			return fast;
+		};
+
+		ClientHttpResponse response = this.interceptor.intercept(request(HttpMethod.GET), NO_BODY, execution);
+		assertThat(response).isSameAs(fast);
+		assertThat(this.policy.getHedgeCount()).isEqualTo(1);
+
+		// The slow response is closed once it arrives
+		release.countDown();
+		verify(slow, timeout(5000)).close();
+	}
+
+	@Test
+	public void failedAttemptFallsBackToHedge() throws Exception {
+		warmUp();
+		CountDownLatch release = new CountDownLatch(1);
+		ClientHttpResponse hedged = mock(ClientHttpResponse.class);
+		AtomicInteger attempts = new AtomicInteger();
+		ClientHttpResponse response = this.interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+			if (attempts.incrementAndGet() == 1) {
+				await(release);
+				throw new IOException("Connection reset");
+			}
+			release.countDown();
+			return hedged;
+		});
+		assertThat(response).isSameAs(hedged);
+	}
+
+	@Test
+	public void errorWhenAllAttemptsFail() throws Exception {
+		warmUp();
+		assertThatIOException().isThrownBy(() ->
+				this.interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+					throw new IOException("Connection refused");
+				}));
+	}
+
+	@Test
+	public void hedgeBudget() throws Exception {
+		warmUp();
+		this.policy.setMaxHedgeRatio(0);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger attempts = new AtomicInteger();
+		this.executor.execute(() -> {
+			await(40);
+			release.countDown();
+		});
+		this.interceptor.intercept(request(HttpMethod.GET), NO_BODY, (request, body) -> {
+			attempts.incrementAndGet();
+			await(release);
+			return mock(ClientHttpResponse.class);
+		});
+		assertThat(attempts.get()).isEqualTo(1);
+		assertThat(this.policy.getHedgeCount()).isEqualTo(0);
+	}
+
+	private void warmUp() {
+		this.policy.setMinSamples(1);
+		this.policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	private static HttpRequest request(HttpMethod method) {
+		HttpRequest request = mock(HttpRequest.class);
+		given(request.getMethod()).willReturn(method);
+		given(request.getURI()).willReturn(URI.create("https://example.com"));
+		return request;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
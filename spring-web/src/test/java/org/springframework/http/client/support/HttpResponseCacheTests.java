@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link HttpResponseCache}.
+ */
+public class HttpResponseCacheTests {
+
+	private static final URI URI_1 = URI.create("https://example.com/foo");
+
+	private static final byte[] BODY = "body".getBytes(StandardCharsets.UTF_8);
+
+
+	private final HttpResponseCache cache = new HttpResponseCache();
+
+	private final HttpHeaders requestHeaders = new HttpHeaders();
+
+	private Instant now = Instant.parse("2020-10-01T10:00:00Z");
+
+
+	public HttpResponseCacheTests() {
+		this.cache.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+	}
+
+
+	@Test
+	public void cacheableRequests() {
+		assertThat(this.cache.isCacheable(HttpMethod.GET, this.requestHeaders)).isTrue();
+		assertThat(this.cache.isCacheable(HttpMethod.POST, this.requestHeaders)).isFalse();
+		this.requestHeaders.setCacheControl("no-store");
+		assertThat(this.cache.isCacheable(HttpMethod.GET, this.requestHeaders)).isFalse();
+	}
+
+	@Test
+	public void storableResponses() {
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers("max-age=60"))).isTrue();
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers("no-store, max-age=60"))).isFalse();
+		assertThat(this.cache.isStorable(this.requestHeaders, 500, headers("max-age=60"))).isFalse();
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, new HttpHeaders())).isFalse();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag("\"v1\"");
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers)).isTrue();
+		headers.setVary(Collections.singletonList("*"));
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers)).isFalse();
+
+		this.cache.setMaxEntrySize(3);
+		assertThat(this.cache.put(URI_1, this.requestHeaders, 200, headers("max-age=60"), BODY, millis())).isNull();
+	}
+
+	@Test
+	public void privateResponsesNotStoredByDefault() {
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers("private, max-age=60"))).isFalse();
+
+		HttpHeaders authorized = new HttpHeaders();
+		authorized.setBasicAuth("user", "secret");
+		assertThat(this.cache.isStorable(authorized, 200, headers("max-age=60"))).isFalse();
+		assertThat(this.cache.isStorable(authorized, 200, headers("public, max-age=60"))).isTrue();
+
+		this.cache.setCachePrivateResponses(true);
+		assertThat(this.cache.isStorable(this.requestHeaders, 200, headers("private, max-age=60"))).isTrue();
+		assertThat(this.cache.isStorable(authorized, 200, headers("max-age=60"))).isTrue();
+	}
+
+	@Test
+	public void joinFetchOnlyForMatchingRequests() {
+		CompletableFuture<HttpResponseCache.Entry> fetch = new CompletableFuture<>();
+		this.requestHeaders.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		assertThat(this.cache.joinFetch(URI_1, this.requestHeaders, fetch)).isNull();
+
+		HttpHeaders xml = new HttpHeaders();
+		xml.setAccept(Collections.singletonList(MediaType.APPLICATION_XML));
+		assertThat(this.cache.joinFetch(URI_1, xml, new CompletableFuture<>())).isNull();
+
+		HttpHeaders authorized = new HttpHeaders();
+		authorized.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		authorized.setBasicAuth("user", "secret");
+		assertThat(this.cache.joinFetch(URI_1, authorized, new CompletableFuture<>())).isNull();
+
+		HttpHeaders tenantA = new HttpHeaders();
+		tenantA.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		tenantA.set("X-Tenant", "a");
+		HttpHeaders tenantB = new HttpHeaders();
+		tenantB.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		tenantB.set("X-Tenant", "b");
+		CompletableFuture<HttpResponseCache.Entry> joinedA = this.cache.joinFetch(URI_1, tenantA, new CompletableFuture<>());
+		CompletableFuture<HttpResponseCache.Entry> joinedB = this.cache.joinFetch(URI_1, tenantB, new CompletableFuture<>());
+		assertThat(joinedA).isNotNull();
+		assertThat(joinedB).isNotNull();
+
+		HttpHeaders responseHeaders = headers("max-age=60");
+		responseHeaders.setVary(Collections.singletonList("X-Tenant"));
+		this.requestHeaders.set("X-Tenant", "a");
+		HttpResponseCache.Entry entry = this.cache.put(URI_1, this.requestHeaders, 200, responseHeaders, BODY, millis());
+		this.cache.completeFetch(URI_1, this.requestHeaders, fetch, entry);
+		assertThat(joinedA.join()).isSameAs(entry);
+		assertThat(joinedB.join()).isNull();
+		assertThat(this.cache.joinFetch(URI_1, this.requestHeaders, new CompletableFuture<>())).isNull();
+	}
+
+	@Test
+	public void freshness() {
+		HttpResponseCache.Entry entry = put(headers("max-age=60, stale-while-revalidate=30"));
+		assertThat(this.cache.get(URI_1, this.requestHeaders)).isSameAs(entry);
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.FRESH);
+
+		advance(Duration.ofSeconds(70));
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders))
+				.isEqualTo(HttpResponseCache.Freshness.STALE_WHILE_REVALIDATE);
+
+		advance(Duration.ofSeconds(30));
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.STALE);
+	}
+
+	@Test
+	public void freshnessFromExpiresAndAge() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setDate(this.now.toEpochMilli());
+		headers.setExpires(this.now.plusSeconds(60).toEpochMilli());
+		headers.set(HttpHeaders.AGE, "50");
+		HttpResponseCache.Entry entry = put(headers);
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.FRESH);
+
+		advance(Duration.ofSeconds(10));
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.STALE);
+	}
+
+	@Test
+	public void requestAndResponseDirectives() {
+		HttpResponseCache.Entry entry = put(headers("max-age=60"));
+		this.requestHeaders.setCacheControl("no-cache");
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.STALE);
+
+		entry = put(headers("no-cache, max-age=60"));
+		assertThat(this.cache.getFreshness(entry, new HttpHeaders())).isEqualTo(HttpResponseCache.Freshness.STALE);
+
+		entry = put(headers("max-age=0, must-revalidate, stale-while-revalidate=30"));
+		assertThat(this.cache.getFreshness(entry, new HttpHeaders())).isEqualTo(HttpResponseCache.Freshness.STALE);
+	}
+
+	@Test
+	public void vary() {
+		HttpHeaders headers = headers("max-age=60");
+		headers.setVary(Collections.singletonList("Accept-Language"));
+		this.requestHeaders.set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		put(headers);
+
+		assertThat(this.cache.get(URI_1, this.requestHeaders)).isNotNull();
+		HttpHeaders other = new HttpHeaders();
+		other.set(HttpHeaders.ACCEPT_LANGUAGE, "fr");
+		assertThat(this.cache.get(URI_1, other)).isNull();
+	}
+
+	@Test
+	public void revalidation() {
+		HttpHeaders headers = headers("max-age=60");
+		headers.setETag("\"v1\"");
+		headers.set(HttpHeaders.LAST_MODIFIED, "Thu, 01 Oct 2020 09:00:00 GMT");
+		HttpResponseCache.Entry entry = put(headers);
+
+		HttpHeaders conditional = new HttpHeaders();
+		this.cache.addConditionalHeaders(entry, conditional);
+		assertThat(conditional.getIfNoneMatch()).containsExactly("\"v1\"");
+		assertThat(conditional.getFirst(HttpHeaders.IF_MODIFIED_SINCE)).isEqualTo("Thu, 01 Oct 2020 09:00:00 GMT");
+
+		advance(Duration.ofSeconds(120));
+		assertThat(this.cache.getFreshness(entry, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.STALE);
+
+		HttpHeaders notModified = headers("max-age=120");
+		notModified.setContentLength(0);
+		HttpResponseCache.Entry updated = this.cache.revalidated(URI_1, entry, notModified, millis());
+		assertThat(updated.getBody()).isEqualTo(BODY);
+		assertThat(updated.getHeaders().getCacheControl()).isEqualTo("max-age=120");
+		assertThat(updated.getHeaders().getETag()).isEqualTo("\"v1\"");
+		assertThat(updated.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+		assertThat(this.cache.get(URI_1, this.requestHeaders)).isSameAs(updated);
+		assertThat(this.cache.getFreshness(updated, this.requestHeaders)).isEqualTo(HttpResponseCache.Freshness.FRESH);
+	}
+
+	@Test
+	public void pluggableStoreAndEviction() {
+		ConcurrentMapCache store = new ConcurrentMapCache("responses");
+		HttpResponseCache cache = new HttpResponseCache(store);
+		cache.put(URI_1, this.requestHeaders, 200, headers("max-age=60"), BODY, millis());
+		assertThat(store.get(URI_1)).isNotNull();
+
+		cache.evict(URI_1);
+		assertThat(cache.get(URI_1, this.requestHeaders)).isNull();
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() {
+		HttpResponseCache cache = new HttpResponseCache(2);
+		URI uri2 = URI.create("https://example.com/bar");
+		URI uri3 = URI.create("https://example.com/baz");
+		cache.put(URI_1, this.requestHeaders, 200, headers("max-age=60"), BODY, millis());
+		cache.put(uri2, this.requestHeaders, 200, headers("max-age=60"), BODY, millis());
+		cache.get(URI_1, this.requestHeaders);
+		cache.put(uri3, this.requestHeaders, 200, headers("max-age=60"), BODY, millis());
+
+		assertThat(cache.get(URI_1, this.requestHeaders)).isNotNull();
+		assertThat(cache.get(uri2, this.requestHeaders)).isNull();
+		assertThat(cache.get(uri3, this.requestHeaders)).isNotNull();
+	}
+
+	private HttpResponseCache.Entry put(HttpHeaders headers) {
+		HttpResponseCache.Entry entry = this.cache.put(URI_1, this.requestHeaders, 200, headers, BODY, millis());
+		assertThat(entry).isNotNull();
+		return entry;
+	}
+
+	private static HttpHeaders headers(String cacheControl) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl(cacheControl);
+		return headers;
+	}
+
+	private long millis() {
+		return this.now.toEpochMilli();
+	}
+
+	private void advance(Duration duration) {
+		this.now = this.now.plus(duration);
+		this.cache.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+	}
+
+}
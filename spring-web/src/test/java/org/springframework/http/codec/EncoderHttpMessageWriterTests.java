@@ -19,16 +19,27 @@ package org.springframework.http.codec;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -37,6 +48,7 @@ import org.springframework.core.codec.CharSequenceEncoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.ReflectionUtils;
@@ -199,6 +211,102 @@ class EncoderHttpMessageWriterTests {
 		assertThat((boolean) (Boolean) method.invoke(writer, TEXT_HTML)).isFalse();
 	}
 
+	@Test
+	void streamingFlushesPerItemByDefault() {
+		List<List<String>> flushed = writeStreaming(null, "a", "b", "c");
+		assertThat(flushed).containsExactly(
+				Collections.singletonList("a"), Collections.singletonList("b"), Collections.singletonList("c"));
+	}
+
+	@Test
+	void streamingCoalescesByItemsAndBytes() {
+		FlushPolicy policy = FlushPolicy.coalescing(3, 4, Duration.ofSeconds(5));
+		List<List<String>> flushed = writeStreaming(policy, "a", "b", "c", "d", "efgh", "i", "jk", "lmn");
+		assertThat(flushed).containsExactly(
+				Arrays.asList("a", "b", "c"), Collections.singletonList("d"), Collections.singletonList("efgh"),
+				Arrays.asList("i", "jk"), Collections.singletonList("lmn"));
+	}
+
+	@Test
+	void streamingFlushesAfterMaxDelay() {
+		FlushPolicy policy = FlushPolicy.coalescing(100, 1024, Duration.ofMillis(50));
+		Flux<DataBuffer> body = Flux.concat(
+				Flux.just(buffer("a"), buffer("b")), Mono.delay(Duration.ofMillis(300)).map(l -> buffer("c")));
+		List<List<String>> flushed = writeStreaming(policy, body);
+		assertThat(flushed).containsExactly(Arrays.asList("a", "b"), Collections.singletonList("c"));
+	}
+
+	@Test
+	void streamingCoalescesForSlowSubscriber() throws Exception {
+		FlushPolicy policy = FlushPolicy.coalescing(100, 1024, Duration.ofMillis(20));
+		Flux<DataBuffer> body = Flux.range(0, 300).delayElements(Duration.ofMillis(5))
+				.map(i -> buffer(String.valueOf(i)));
+		List<String> received = new CopyOnWriteArrayList<>();
+		AtomicInteger flushCount = new AtomicInteger();
+		CompletableFuture<Void> result = new CompletableFuture<>();
+
+		// Request one flush publisher at a time, like AbstractListenerWriteFlushProcessor
+		policy.apply(body).subscribe(new BaseSubscriber<Publisher<DataBuffer>>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				request(1);
+			}
+			@Override
+			protected void hookOnNext(Publisher<DataBuffer> publisher) {
+				flushCount.incrementAndGet();
+				Flux.from(publisher)
+						.doOnNext(buffer -> received.add(buffer.toString(UTF_8)))
+						.then(Mono.delay(Duration.ofMillis(100)))
+						.subscribe(l -> request(1), this::onError);
+			}
+			@Override
+			protected void hookOnComplete() {
+				result.complete(null);
+			}
+			@Override
+			protected void hookOnError(Throwable ex) {
+				result.completeExceptionally(ex);
+			}
+		});
+
+		result.get(10, TimeUnit.SECONDS);
+		assertThat(flushCount.get()).isLessThan(100);
+		assertThat(received).containsExactlyElementsOf(
+				IntStream.range(0, 300).mapToObj(String::valueOf).collect(Collectors.toList()));
+	}
+
+	private List<List<String>> writeStreaming(@Nullable FlushPolicy policy, String... items) {
+		return writeStreaming(policy, Flux.fromArray(items).map(this::buffer));
+	}
+
+	private List<List<String>> writeStreaming(@Nullable FlushPolicy policy, Flux<DataBuffer> body) {
+		configureEncoder(body, TEXT_PLAIN);
+		given(this.encoder.getStreamingMediaTypes()).willReturn(Collections.singletonList(TEXT_PLAIN));
+		EncoderHttpMessageWriter<String> writer = new EncoderHttpMessageWriter<>(this.encoder);
+		if (policy != null) {
+			writer.setFlushPolicy(policy);
+		}
+		List<List<String>> flushed = new ArrayList<>();
+		MockServerHttpResponse response = new MockServerHttpResponse() {
+			@Override
+			protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+				return Flux.from(body)
+						.concatMap(publisher -> Flux.from(publisher)
+								.map(buffer -> buffer.toString(UTF_8))
+								.collectList())
+						.doOnNext(flushed::add)
+						.then();
+			}
+		};
+		writer.write(Flux.empty(), forClass(String.class), TEXT_PLAIN, response, NO_HINTS)
+				.block(Duration.ofSeconds(5));
+		return flushed;
+	}
+
+	private DataBuffer buffer(String value) {
+		return new DefaultDataBufferFactory().wrap(value.getBytes(UTF_8));
+	}
+
 	private void configureEncoder(MimeType... mimeTypes) {
 		configureEncoder(Flux.empty(), mimeTypes);
 	}
@@ -146,6 +146,19 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 		testDecode(input, Pojo.class, step -> step.verifyComplete());
 	}
 
+	@Test
+	public void decodeElementsAtPointer() {
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("{\"total\":2,\"data\":{\"items\":[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":\"f2\"}]}}"));
+		Map<String, Object> hints = singletonMap(AbstractJackson2Decoder.ELEMENT_POINTER_HINT, "/data/items");
+
+		testDecode(input, forClass(Pojo.class), step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete(), null, hints);
+	}
+
 	@Test
 	public void fieldLevelJsonView() {
 		Flux<DataBuffer> input = Flux.from(
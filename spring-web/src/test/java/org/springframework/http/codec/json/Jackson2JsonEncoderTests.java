@@ -16,6 +16,7 @@
 
 package org.springframework.http.codec.json;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
@@ -24,8 +25,12 @@ import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -154,6 +159,50 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 	}
 
 
+	@Test
+	public void encodeToDataBuffer() {
+		this.encoder.setEncodeToDataBuffer(true);
+		Flux<Object> input = Flux.just(new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar"));
+
+		testEncodeAll(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"))
+				.consumeNextWith(expectString("{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n"))
+				.consumeNextWith(expectString("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n"))
+				.verifyComplete(),
+				APPLICATION_STREAM_JSON, null);
+	}
+
+	@Test
+	public void encodeNonStreamToDataBuffer() {
+		this.encoder.setEncodeToDataBuffer(true);
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar")
+		);
+
+		testEncode(input, Pojo.class, step -> step
+				.consumeNextWith(expectString("[" +
+						"{\"foo\":\"foo\",\"bar\":\"bar\"}," +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}]")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete());
+	}
+
+	@Test
+	public void encodeIoErrorMessage() {
+		ResolvableType type = ResolvableType.forClass(Unwritable.class);
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				this.encoder.encodeValue(new Unwritable(), this.bufferFactory, type, APPLICATION_JSON, null))
+				.withMessageEndingWith("byte array builder");
+
+		this.encoder.setEncodeToDataBuffer(true);
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				this.encoder.encodeValue(new Unwritable(), this.bufferFactory, type, APPLICATION_JSON, null))
+				.withMessageEndingWith("data buffer");
+	}
+
 	@Test  // SPR-15727
 	public void encodeAsStreamWithCustomStreamingType() {
 		MediaType fooMediaType = new MediaType("application", "foo");
@@ -251,4 +300,18 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 	private static class Bar extends ParentClass {
 	}
 
+	@JsonSerialize(using = UnwritableSerializer.class)
+	private static class Unwritable {
+	}
+
+	private static class UnwritableSerializer extends JsonSerializer<Unwritable> {
+
+		@Override
+		public void serialize(Unwritable value, JsonGenerator generator, SerializerProvider provider)
+				throws IOException {
+
+			throw new IOException("Unwritable");
+		}
+	}
+
 }
@@ -23,6 +23,7 @@ import java.util.List;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -244,6 +245,44 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 				.verifyError(DataBufferLimitException.class);
 	}
 
+	@Test
+	public void tokenizeElementsAtPointer() {
+		List<String> source = asList("{\"meta\":{\"items\":[1, 2]},",
+				"\"data\":{\"count\":3,\"items\":[{\"id\":1,\"tags\":[\"a\",",
+				"\"b\"]},{\"id\":2},",
+				"3,[4]]},\"other\":[5]}");
+
+		StepVerifier.create(decode(source, "/data/items", -1))
+				.expectNext("{\"id\":1,\"tags\":[\"a\",\"b\"]}")
+				.expectNext("{\"id\":2}")
+				.expectNext("3")
+				.expectNext("[4]")
+				.verifyComplete();
+
+		StepVerifier.create(decode(singletonList("[[1, 2], [3, 4]]"), "/1", -1))
+				.expectNext("3")
+				.expectNext("4")
+				.verifyComplete();
+
+		StepVerifier.create(decode(singletonList("{\"data\":{}}"), "/data/items", -1))
+				.verifyComplete();
+	}
+
+	@Test
+	public void testLimitElementsAtPointer() {
+		List<String> source = asList("{\"envelope\":\"", "0123456789", "0123456789", "\",\"items\":[",
+				"{\"id\":1}", ",", "{\"id\":2,\"name\":", "\"Bartholomew\"", "}", "]}");
+
+		StepVerifier.create(decode(source, "/items", 30))
+				.expectNext("{\"id\":1}")
+				.expectNext("{\"id\":2,\"name\":\"Bartholomew\"}")
+				.verifyComplete();
+
+		StepVerifier.create(decode(source, "/items", 20))
+				.expectNext("{\"id\":1}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
 	@Test
 	public void errorInStream() {
 		DataBuffer buffer = stringBuffer("{\"id\":1,\"name\":");
@@ -295,11 +334,22 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 	}
 
 	private Flux<String> decode(List<String> source, boolean tokenize, int maxInMemorySize) {
-
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
 				Flux.fromIterable(source).map(this::stringBuffer),
 				this.jsonFactory, this.objectMapper, tokenize, false, maxInMemorySize);
 
+		return toStrings(tokens);
+	}
+
+	private Flux<String> decode(List<String> source, String elementPointer, int maxInMemorySize) {
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.fromIterable(source).map(this::stringBuffer), this.jsonFactory, this.objectMapper,
+				true, JsonPointer.compile(elementPointer), false, maxInMemorySize);
+
+		return toStrings(tokens);
+	}
+
+	private Flux<String> toStrings(Flux<TokenBuffer> tokens) {
 		return tokens
 				.map(tokenBuffer -> {
 					try {
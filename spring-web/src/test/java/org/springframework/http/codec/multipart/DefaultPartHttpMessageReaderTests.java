@@ -0,0 +1,347 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.testfixture.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.core.ResolvableType.forClassWithGenerics;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ */
+public class DefaultPartHttpMessageReaderTests extends AbstractLeakCheckingTests {
+
+	private static final ResolvableType PARTS_ELEMENT_TYPE =
+			forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+
+	private static final String BOUNDARY = "simple-boundary";
+
+	private final DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+
+	private final MultipartHttpMessageReader reader = new MultipartHttpMessageReader(this.partReader);
+
+
+	@Test
+	void canRead() {
+		assertThat(this.partReader.canRead(ResolvableType.forClass(Part.class), MediaType.MULTIPART_FORM_DATA)).isTrue();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(Part.class), MediaType.MULTIPART_MIXED)).isTrue();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(Part.class), null)).isTrue();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(Part.class), MediaType.APPLICATION_JSON)).isFalse();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(String.class), MediaType.MULTIPART_FORM_DATA)).isFalse();
+	}
+
+	@Test
+	void resolveParts() {
+		MultiValueMap<String, Part> parts = readParts(generateMultipartRequest());
+
+		assertThat(parts).containsOnlyKeys("filePart", "textPart");
+
+		Part part = parts.getFirst("filePart");
+		assertThat(part).isInstanceOf(FilePart.class);
+		assertThat(part.name()).isEqualTo("filePart");
+		assertThat(((FilePart) part).filename()).isEqualTo("foo.txt");
+		assertThat(part.headers().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+		assertContent(part, "Lorem Ipsum.");
+
+		part = parts.getFirst("textPart");
+		assertThat(part).isInstanceOf(FormFieldPart.class);
+		assertThat(part.name()).isEqualTo("textPart");
+		assertThat(((FormFieldPart) part).value()).isEqualTo("sample-text");
+		assertContent(part, "sample-text");
+	}
+
+	@Test
+	void resolvePartsFromSingleByteBuffers() {
+		MultiValueMap<String, Part> parts = readParts(createRequest(body(), 1));
+
+		assertThat(parts).containsOnlyKeys("text", "file");
+		assertThat(((FormFieldPart) parts.getFirst("text")).value()).isEqualTo("a\r\n-b-");
+		assertContent(parts.getFirst("file"), "--simple-boundar\r\n--simple");
+	}
+
+	@Test
+	void preambleAndEpilogue() {
+		String content = "preamble\r\n" + body() + "\r\nepilogue";
+		MultiValueMap<String, Part> parts = readParts(createRequest(content, 7));
+
+		assertThat(parts).containsOnlyKeys("text", "file");
+		assertThat(((FormFieldPart) parts.getFirst("text")).value()).isEqualTo("a\r\n-b-");
+	}
+
+	@Test
+	void partWithoutHeaders() {
+		String content = "--" + BOUNDARY + "\r\n\r\nbody\r\n--" + BOUNDARY + "--";
+		StepVerifier.create(this.partReader.read(ResolvableType.forClass(Part.class), createRequest(content, 3), emptyMap()))
+				.consumeNextWith(part -> {
+					assertThat(part.name()).isEmpty();
+					assertThat(part.headers()).isEmpty();
+					assertContent(part, "body");
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	void filePartWrittenToDisk(@TempDir Path tempDir) throws Exception {
+		this.partReader.setMaxInMemorySize(8);
+		this.partReader.setFileStorageDirectory(tempDir);
+		MultiValueMap<String, Part> parts = readParts(createRequest(body(), 5));
+
+		assertThat(fileCount(tempDir)).isEqualTo(1);
+		FilePart part = (FilePart) parts.getFirst("file");
+		File dest = File.createTempFile(part.filename(), "multipart");
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(new String(Files.readAllBytes(dest.toPath()), UTF_8)).isEqualTo("--simple-boundar\r\n--simple");
+		assertThat(dest.delete()).isTrue();
+
+		// Temporary file is kept until the part is deleted
+		assertThat(fileCount(tempDir)).isEqualTo(1);
+		part.delete().block(Duration.ofSeconds(5));
+		assertThat(fileCount(tempDir)).isEqualTo(0);
+	}
+
+	@Test
+	void filePartWrittenToDiskCanBeReadRepeatedly(@TempDir Path tempDir) throws Exception {
+		this.partReader.setMaxInMemorySize(8);
+		this.partReader.setFileStorageDirectory(tempDir);
+		MultiValueMap<String, Part> parts = readParts(createRequest(body(), 5));
+		Part part = parts.getFirst("file");
+
+		DataBuffer first = part.content().blockFirst(Duration.ofSeconds(5));
+		DataBufferUtils.release(first);
+		assertContent(part, "--simple-boundar\r\n--simple");
+		assertContent(part, "--simple-boundar\r\n--simple");
+		assertThat(fileCount(tempDir)).isEqualTo(1);
+
+		part.delete().block(Duration.ofSeconds(5));
+		assertThat(fileCount(tempDir)).isEqualTo(0);
+	}
+
+	@Test
+	void filePartsWrittenToDiskDeletedOnError(@TempDir Path tempDir) throws Exception {
+		this.partReader.setMaxInMemorySize(8);
+		this.partReader.setMaxParts(1);
+		this.partReader.setFileStorageDirectory(tempDir);
+		String content = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+				"\r\n" +
+				"--simple-boundar\r\n--simple\r\n" +
+				"--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"text\"\r\n" +
+				"\r\n" +
+				"text\r\n" +
+				"--" + BOUNDARY + "--\r\n";
+
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, createRequest(content, 16), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+
+		// Temporary file is deleted asynchronously after the error
+		for (int i = 0; i < 100 && fileCount(tempDir) > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertThat(fileCount(tempDir)).isEqualTo(0);
+	}
+
+	@Test
+	void transferTo() throws IOException {
+		MultiValueMap<String, Part> parts = readParts(generateMultipartRequest());
+		FilePart part = (FilePart) parts.getFirst("filePart");
+
+		File dest = File.createTempFile(part.filename(), "multipart");
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+
+		assertThat(dest.exists()).isTrue();
+		assertThat(dest.length()).isEqualTo(12);
+		assertThat(dest.delete()).isTrue();
+	}
+
+	@Test
+	void noBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(Flux.just(this.bufferFactory.wrap("invalid content".getBytes(UTF_8))));
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void missingEnd() {
+		String content = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"text\"\r\n\r\nfoo";
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, createRequest(content, 8), emptyMap()))
+				.expectErrorMessage("Could not find end of multipart content")
+				.verify();
+	}
+
+	@Test
+	void readPartsWithoutDemand() {
+		Mono<MultiValueMap<String, Part>> parts =
+				this.reader.readMono(PARTS_ELEMENT_TYPE, generateMultipartRequest(), emptyMap());
+		ZeroDemandSubscriber subscriber = new ZeroDemandSubscriber();
+		parts.subscribe(subscriber);
+		subscriber.cancel();
+	}
+
+	@Test
+	void readTooManyParts() {
+		testMultipartExceptions(reader -> reader.setMaxParts(1), ex -> assertThat(ex)
+				.isInstanceOf(DecodingException.class)
+				.hasMessage("Too many parts (1 allowed)"));
+	}
+
+	@Test
+	void readFilePartTooBig() {
+		testMultipartExceptions(reader -> reader.setMaxDiskUsagePerPart(5), ex -> assertThat(ex)
+				.isInstanceOf(DecodingException.class)
+				.hasMessage("Part[2] exceeded the disk usage limit of 5 bytes"));
+	}
+
+	@Test
+	void readFormFieldTooBig() {
+		testMultipartExceptions(reader -> reader.setMaxInMemorySize(1), ex -> assertThat(ex)
+				.isInstanceOf(DataBufferLimitException.class)
+				.hasMessage("Part[1] exceeded the in-memory limit of 1 bytes"));
+	}
+
+	@Test
+	void readPartHeadersTooBig() {
+		testMultipartExceptions(reader -> reader.setMaxHeadersSize(10), ex -> assertThat(ex)
+				.isInstanceOf(DataBufferLimitException.class)
+				.hasMessage("Part headers exceeded the limit of 10 bytes"));
+	}
+
+
+	private MultiValueMap<String, Part> readParts(ServerHttpRequest request) {
+		MultiValueMap<String, Part> parts = this.reader.readMono(PARTS_ELEMENT_TYPE, request, emptyMap())
+				.block(Duration.ofSeconds(5));
+		assertThat(parts).isNotNull();
+		return parts;
+	}
+
+	private static long fileCount(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.count();
+		}
+	}
+
+	private void assertContent(Part part, String expected) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertThat(buffer.toString(UTF_8)).isEqualTo(expected);
+		DataBufferUtils.release(buffer);
+	}
+
+	private void testMultipartExceptions(
+			Consumer<DefaultPartHttpMessageReader> configurer, Consumer<Throwable> assertions) {
+
+		configurer.accept(this.partReader);
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, createRequest(body(), 16), emptyMap()))
+				.consumeErrorWith(assertions)
+				.verify();
+	}
+
+	private static String body() {
+		return "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"text\"\r\n" +
+				"\r\n" +
+				"a\r\n-b-\r\n" +
+				"--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"\r\n" +
+				"--simple-boundar\r\n--simple\r\n" +
+				"--" + BOUNDARY + "--\r\n";
+	}
+
+	private ServerHttpRequest createRequest(String content, int bufferSize) {
+		byte[] bytes = content.getBytes(UTF_8);
+		List<byte[]> chunks = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i += bufferSize) {
+			byte[] chunk = new byte[Math.min(bufferSize, bytes.length - i)];
+			System.arraycopy(bytes, i, chunk, 0, chunk.length);
+			chunks.add(chunk);
+		}
+		Flux<DataBuffer> body = Flux.defer(() -> Flux.fromIterable(chunks).map(chunk -> {
+			DataBuffer buffer = this.bufferFactory.allocateBuffer(chunk.length);
+			buffer.write(chunk);
+			return buffer;
+		}));
+		return MockServerHttpRequest.post("/")
+				.contentType(new MediaType(MediaType.MULTIPART_FORM_DATA, singletonMap("boundary", BOUNDARY)))
+				.body(body);
+	}
+
+	private ServerHttpRequest generateMultipartRequest() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("filePart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("textPart", "sample-text");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+		Flux<DataBuffer> requestBody = outputMessage.getBody()
+				.map(buffer -> this.bufferFactory.wrap(buffer.asByteBuffer()));
+		return MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(requestBody);
+	}
+
+
+	private static class ZeroDemandSubscriber extends BaseSubscriber<MultiValueMap<String, Part>> {
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			// Just subscribe without requesting
+		}
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MockHttpInputMessage;
+import org.springframework.http.MockHttpOutputMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link Jackson2ObjectReaderWriterCache}.
+ */
+public class Jackson2ObjectReaderWriterCacheTests {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache(2);
+
+
+	@Test
+	public void cachesReaderPerKey() {
+		JavaType type = this.mapper.constructType(String.class);
+
+		ObjectReader reader1 = this.cache.getObjectReader(this.mapper, type, null, MediaType.APPLICATION_JSON,
+				() -> this.mapper.readerFor(type));
+		ObjectReader reader2 = this.cache.getObjectReader(this.mapper, type, null, MediaType.APPLICATION_JSON,
+				() -> this.mapper.readerFor(type));
+		ObjectReader reader3 = this.cache.getObjectReader(this.mapper, type, String.class, MediaType.APPLICATION_JSON,
+				() -> this.mapper.readerFor(type));
+
+		assertThat(reader2).isSameAs(reader1);
+		assertThat(reader3).isNotSameAs(reader1);
+		assertThat(this.cache.getHitCount()).isEqualTo(1);
+		assertThat(this.cache.getMissCount()).isEqualTo(2);
+		assertThat(this.cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void distinguishesReadersFromWritersAndMappers() {
+		JavaType type = this.mapper.constructType(String.class);
+		ObjectMapper otherMapper = new ObjectMapper();
+
+		this.cache.getObjectReader(this.mapper, type, null, null, () -> this.mapper.readerFor(type));
+		ObjectWriter writer = this.cache.getObjectWriter(this.mapper, type, null, null, this.mapper::writer);
+		ObjectWriter otherWriter = this.cache.getObjectWriter(otherMapper, type, null, null, otherMapper::writer);
+
+		assertThat(otherWriter).isNotSameAs(writer);
+		assertThat(this.cache.getMissCount()).isEqualTo(3);
+		assertThat(this.cache.getHitCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void evictsEldestEntry() {
+		JavaType stringType = this.mapper.constructType(String.class);
+		JavaType intType = this.mapper.constructType(Integer.class);
+		JavaType longType = this.mapper.constructType(Long.class);
+
+		this.cache.getObjectWriter(this.mapper, stringType, null, null, this.mapper::writer);
+		ObjectWriter intWriter = this.cache.getObjectWriter(this.mapper, intType, null, null, this.mapper::writer);
+		this.cache.getObjectWriter(this.mapper, longType, null, null, this.mapper::writer);
+
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.getObjectWriter(this.mapper, intType, null, null, this.mapper::writer))
+				.isSameAs(intWriter);
+		this.cache.getObjectWriter(this.mapper, stringType, null, null, this.mapper::writer);
+		assertThat(this.cache.getMissCount()).isEqualTo(4);
+		assertThat(this.cache.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void clear() {
+		JavaType type = this.mapper.constructType(String.class);
+		this.cache.getObjectWriter(this.mapper, type, null, null, this.mapper::writer);
+		this.cache.clear();
+
+		assertThat(this.cache.size()).isEqualTo(0);
+		this.cache.getObjectWriter(this.mapper, type, null, null, this.mapper::writer);
+		assertThat(this.cache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void usedByMessageConverter() throws IOException {
+		Jackson2ObjectReaderWriterCache converterCache = new Jackson2ObjectReaderWriterCache();
+		MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+		converter.setObjectReaderWriterCache(converterCache);
+
+		for (int i = 0; i < 2; i++) {
+			MockHttpInputMessage inputMessage = new MockHttpInputMessage("[\"foo\",\"bar\"]".getBytes(StandardCharsets.UTF_8));
+			inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			List<String> result = (List<String>) converter.read(List.class, inputMessage);
+			assertThat(result).containsExactly("foo", "bar");
+
+			MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+			converter.write(result, MediaType.APPLICATION_JSON, outputMessage);
+			assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo("[\"foo\",\"bar\"]");
+		}
+
+		assertThat(converterCache.getMissCount()).isEqualTo(2);
+		assertThat(converterCache.getHitCount()).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link CompressionFilter}.
+ */
+public class CompressionFilterTests {
+
+	private static final String LARGE_BODY = String.join("", Collections.nCopies(500, "Hello World "));
+
+
+	private final CompressionFilter filter = new CompressionFilter();
+
+
+	@Test
+	public void compressLargeResponse() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, writeBody("text/plain", LARGE_BODY));
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+		assertThat(response.getContentAsByteArray().length).isLessThan(LARGE_BODY.length());
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+	}
+
+	@Test
+	public void compressWithWriter() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			res.setContentType("application/json");
+			res.setCharacterEncoding("UTF-8");
+			res.getWriter().write(LARGE_BODY);
+		};
+		this.filter.doFilter(request, response, chain);
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+	}
+
+	@Test
+	public void smallResponseNotCompressed() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, writeBody("text/plain", "Hello World"));
+
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsString()).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void contentLengthAppliedWhenNotCompressed() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			res.setContentType("text/plain");
+			res.setContentLength(11);
+			FileCopyUtils.copy("Hello World".getBytes(StandardCharsets.UTF_8), res.getOutputStream());
+		};
+		this.filter.doFilter(request, response, chain);
+
+		assertThat(response.getContentLength()).isEqualTo(11);
+		assertThat(response.getContentAsString()).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void contentLengthDroppedWhenCompressed() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			byte[] bytes = LARGE_BODY.getBytes(StandardCharsets.UTF_8);
+			res.setContentType("text/plain");
+			res.setContentLength(bytes.length);
+			StreamUtils.copy(bytes, res.getOutputStream());
+		};
+		this.filter.doFilter(request, response, chain);
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(response.getHeader("Content-Length")).isNull();
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+	}
+
+	@Test
+	public void notAcceptedByClient() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, writeBody("text/plain", LARGE_BODY));
+
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+	}
+
+	@Test
+	public void mediaTypeNotCompressible() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, writeBody("image/png", LARGE_BODY));
+
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+	}
+
+	@Test
+	public void minResponseSizePerPath() throws Exception {
+		this.filter.setMinResponseSizes(Collections.singletonMap("/small/**", 5));
+		MockHttpServletRequest request = gzipRequest("/small/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, writeBody("text/plain", "Hello World"));
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo("Hello World");
+
+		this.filter.setMinResponseSizes(Collections.singletonMap("/small/**", -1));
+		response = new MockHttpServletResponse();
+		this.filter.doFilter(gzipRequest("/small/hotels"), response, writeBody("text/plain", LARGE_BODY));
+
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+	}
+
+	@Test
+	public void deflaterReturnedToPool() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.filter.doFilter(gzipRequest("/hotels"), response, writeBody("text/plain", LARGE_BODY));
+
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void asyncDispatchFinishesCompression() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			writeBody("text/plain", LARGE_BODY).doFilter(req, res);
+			req.startAsync(req, res);
+		};
+		this.filter.doFilter(request, response, chain);
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(0);
+
+		ServletResponse asyncResponse = request.getAsyncContext().getResponse();
+		request.setAsyncStarted(false);
+		request.setDispatcherType(DispatcherType.ASYNC);
+		this.filter.doFilter(request, asyncResponse, (req, res) -> res.getOutputStream().write('!'));
+
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY + "!");
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void asyncCompleteFinishesCompression() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			res.setContentType("text/plain");
+			res.getWriter().write(LARGE_BODY);
+			req.startAsync(req, res);
+		};
+		this.filter.doFilter(request, response, chain);
+
+		ServletResponse asyncResponse = request.getAsyncContext().getResponse();
+		asyncResponse.getWriter().write("!");
+		request.getAsyncContext().complete();
+
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY + "!");
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void nonBlockingWritesRejectedWhenCompressing() throws Exception {
+		MockHttpServletRequest request = gzipRequest("/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			res.setContentType("text/plain");
+			ServletOutputStream outputStream = res.getOutputStream();
+			outputStream.write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+			assertThatIllegalStateException().isThrownBy(() -> outputStream.setWriteListener(mock(WriteListener.class)));
+		};
+		this.filter.doFilter(request, response, chain);
+
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+	}
+
+	private static MockHttpServletRequest gzipRequest(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		return request;
+	}
+
+	private static FilterChain writeBody(String contentType, String body) {
+		return (request, response) -> {
+			response.setContentType(contentType);
+			StreamUtils.copy(body.getBytes(StandardCharsets.UTF_8), response.getOutputStream());
+		};
+	}
+
+	private static String gunzip(byte[] content) throws IOException {
+		return StreamUtils.copyToString(
+				new GZIPInputStream(new ByteArrayInputStream(content)), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletResponse;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.StreamUtils;
+import org.springframework.web.metrics.RequestMetricsRegistry;
+import org.springframework.web.metrics.RouteMetricsSnapshot;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link RequestMetricsFilter}.
+ */
+public class RequestMetricsFilterTests {
+
+	private static final String PATTERN_ATTRIBUTE = "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+
+
+	private final RequestMetricsRegistry registry = new RequestMetricsRegistry();
+
+	private final RequestMetricsFilter filter = new RequestMetricsFilter(this.registry);
+
+
+	@Test
+	public void recordRouteAndBytes() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/hotels/42");
+		request.setContent("request".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (req, res) -> {
+			StreamUtils.copyToByteArray(req.getInputStream());
+			req.setAttribute(PATTERN_ATTRIBUTE, "/hotels/{id}");
+			res.setCharacterEncoding("UTF-8");
+			res.getWriter().write("response body");
+		};
+		this.filter.doFilter(request, response, chain);
+
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot("POST /hotels/{id}");
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getRequestCount()).isEqualTo(1);
+		assertThat(snapshot.getServerErrorCount()).isEqualTo(0);
+		assertThat(snapshot.getBytesRead()).isEqualTo(7);
+		assertThat(snapshot.getBytesWritten()).isEqualTo(13);
+		assertThat(response.getContentAsString()).isEqualTo("response body");
+	}
+
+	@Test
+	public void recordUnmatchedFailure() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThatExceptionOfType(ServletException.class).isThrownBy(() ->
+				this.filter.doFilter(request, response, (req, res) -> {
+					throw new ServletException("failure");
+				}));
+
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot(RequestMetricsFilter.UNMATCHED_ROUTE);
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getRequestCount()).isEqualTo(1);
+		assertThat(snapshot.getServerErrorCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordAsyncRequestOnCompletion() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/async");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, (req, res) -> {
+			req.setAttribute(PATTERN_ATTRIBUTE, "/async");
+			req.startAsync(req, res);
+		});
+		assertThat(this.registry.getSnapshots()).isEmpty();
+
+		request.getAsyncContext().complete();
+		assertThat(this.registry.getRequestCount("GET /async")).isEqualTo(1);
+	}
+
+	@Test
+	public void countAsyncWriterContent() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/async");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, (req, res) -> {
+			req.setAttribute(PATTERN_ATTRIBUTE, "/async");
+			req.startAsync(req, res);
+		});
+
+		ServletResponse asyncResponse = request.getAsyncContext().getResponse();
+		asyncResponse.setCharacterEncoding("UTF-8");
+		asyncResponse.getWriter().print("h\u00e9llo");
+		assertThat(response.getContentAsString()).isEqualTo("h\u00e9llo");
+		assertThat(response.isCommitted()).isFalse();
+
+		request.getAsyncContext().complete();
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot("GET /async");
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getBytesWritten()).isEqualTo(6);
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.web.filter;
 
 import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
 
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletResponse;
@@ -29,6 +30,7 @@ import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * @author Arjen Poutsma
@@ -266,4 +268,150 @@ public class ShallowEtagHeaderFilterTests {
 		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
 	}
 
+	@Test
+	public void filterIncrementalMd5MatchesDefault() throws Exception {
+		filter.setHashAlgorithm("MD5");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write(responseBody, 0, 5);
+			filterResponse.getOutputStream().write(responseBody, 5, responseBody.length - 5);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(responseBody.length);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterCrc32WeakETagWriter() throws Exception {
+		filter.setHashAlgorithm(ShallowEtagHeaderFilter.CRC32_HASH_ALGORITHM);
+		filter.setWriteWeakETag(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		String responseBody = "Hello World";
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setCharacterEncoding("UTF-8");
+			filterResponse.getWriter().write("Hello");
+			filterResponse.getWriter().write(" World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		CRC32 crc = new CRC32();
+		crc.update(responseBody.getBytes(StandardCharsets.UTF_8));
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag")
+				.isEqualTo(String.format("W/\"0%08x\"", crc.getValue()));
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterCrc32Match() throws Exception {
+		filter.setHashAlgorithm(ShallowEtagHeaderFilter.CRC32_HASH_ALGORITHM);
+		byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		CRC32 crc = new CRC32();
+		crc.update(responseBody);
+		String etag = String.format("\"0%08x\"", crc.getValue());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", etag);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = (filterRequest, filterResponse) ->
+				FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(304);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo(etag);
+		assertThat(response.getContentAsByteArray().length).as("Invalid content").isEqualTo(0);
+	}
+
+	@Test
+	public void filterContentCacheLimitExceeded() throws Exception {
+		filter.setContentCacheLimit(8);
+		filter.setHashAlgorithm(ShallowEtagHeaderFilter.CRC32_HASH_ALGORITHM);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write(responseBody, 0, 6);
+			assertThat(response.getContentAsByteArray().length).isEqualTo(0);
+			filterResponse.getOutputStream().write(responseBody, 6, 3);
+			assertThat(response.getContentAsByteArray().length).isEqualTo(9);
+			filterResponse.getOutputStream().write(responseBody, 9, 2);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterContentCacheLimitExceededByWriter() throws Exception {
+		filter.setContentCacheLimit(8);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		String responseBody = "Hello World";
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setCharacterEncoding("UTF-8");
+			filterResponse.getWriter().write("Hello");
+			filterResponse.getWriter().flush();
+			assertThat(response.getContentAsByteArray().length).isEqualTo(0);
+			filterResponse.getWriter().write(" World");
+			filterResponse.getWriter().flush();
+			assertThat(response.getContentAsString()).isEqualTo(responseBody);
+			filterResponse.getWriter().write("!");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo(responseBody + "!");
+	}
+
+	@Test
+	public void filterContentCacheLimitExceededByContentLength() throws Exception {
+		filter.setContentCacheLimit(8);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setContentLength(responseBody.length);
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(responseBody.length);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterWithinContentCacheLimit() throws Exception {
+		filter.setContentCacheLimit(64);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) ->
+				FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void unknownHashAlgorithm() {
+		assertThatIllegalArgumentException().isThrownBy(() -> filter.setHashAlgorithm("bogus"));
+	}
+
 }
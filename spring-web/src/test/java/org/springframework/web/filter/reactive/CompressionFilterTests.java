@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressionFilter}.
+ */
+public class CompressionFilterTests extends AbstractLeakCheckingTests {
+
+	private static final String CHUNK = String.join("", Collections.nCopies(50, "Hello World "));
+
+
+	private final CompressionFilter filter = new CompressionFilter();
+
+
+	@Test
+	public void compressStreamedResponse() throws Exception {
+		MockServerWebExchange exchange = gzipExchange("/hotels");
+
+		this.filter.filter(exchange, writeBody(MediaType.TEXT_PLAIN, 5)).block(Duration.ofSeconds(5));
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+		assertThat(response.getHeaders().getFirst("Vary")).isEqualTo("Accept-Encoding");
+		assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+		assertThat(gunzip(response)).isEqualTo(String.join("", Collections.nCopies(5, CHUNK)));
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void smallResponseNotCompressed() {
+		MockServerWebExchange exchange = gzipExchange("/hotels");
+
+		this.filter.filter(exchange, writeBody(MediaType.TEXT_PLAIN, 1)).block(Duration.ofSeconds(5));
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().getFirst("Content-Encoding")).isNull();
+		assertThat(response.getHeaders().getContentLength()).isEqualTo(CHUNK.length());
+		assertThat(response.getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo(CHUNK);
+	}
+
+	@Test
+	public void mediaTypeNotCompressible() {
+		MockServerWebExchange exchange = gzipExchange("/hotels");
+
+		this.filter.filter(exchange, writeBody(MediaType.IMAGE_PNG, 5)).block(Duration.ofSeconds(5));
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().getFirst("Content-Encoding")).isNull();
+	}
+
+	@Test
+	public void notAcceptedByClient() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+
+		this.filter.filter(exchange, writeBody(MediaType.TEXT_PLAIN, 5)).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getHeaders().getFirst("Content-Encoding")).isNull();
+	}
+
+	@Test
+	public void minResponseSizePerPath() throws Exception {
+		this.filter.setMinResponseSizes(Collections.singletonMap("/small/**", 10));
+		MockServerWebExchange exchange = gzipExchange("/small/hotels");
+
+		this.filter.filter(exchange, writeBody(MediaType.TEXT_PLAIN, 1)).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+		assertThat(gunzip(exchange.getResponse())).isEqualTo(CHUNK);
+	}
+
+	@Test
+	public void errorReleasesBuffers() {
+		MockServerWebExchange exchange = gzipExchange("/hotels");
+
+		WebFilterChain chain = filterExchange -> {
+			filterExchange.getResponse().getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return filterExchange.getResponse().writeWith(Flux.just(CHUNK, CHUNK, CHUNK, CHUNK, CHUNK)
+					.map(s -> toDataBuffer(s))
+					.concatWith(Flux.error(new IllegalStateException("boo"))));
+		};
+		this.filter.filter(exchange, chain).onErrorResume(ex -> Mono.empty()).block(Duration.ofSeconds(5));
+
+		assertThat(this.filter.getDeflaterPool().getIdleCount()).isEqualTo(1);
+	}
+
+
+	private MockServerWebExchange gzipExchange(String path) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(path).header("Accept-Encoding", "gzip"));
+	}
+
+	private WebFilterChain writeBody(MediaType contentType, int count) {
+		return exchange -> {
+			exchange.getResponse().getHeaders().setContentType(contentType);
+			return exchange.getResponse().writeWith(Flux.range(0, count).map(i -> toDataBuffer(CHUNK)));
+		};
+	}
+
+	private DataBuffer toDataBuffer(String value) {
+		return this.bufferFactory.wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String gunzip(MockServerHttpResponse response) throws IOException {
+		DataBuffer buffer = DataBufferUtils.join(response.getBody()).block(Duration.ofSeconds(5));
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8);
+	}
+
+}
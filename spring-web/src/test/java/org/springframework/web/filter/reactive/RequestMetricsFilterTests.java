@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.web.metrics.RequestMetricsRegistry;
+import org.springframework.web.metrics.RouteMetricsSnapshot;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RequestMetricsFilter}.
+ */
+public class RequestMetricsFilterTests {
+
+	private static final String PATTERN_ATTRIBUTE = "org.springframework.web.reactive.HandlerMapping.bestMatchingPattern";
+
+
+	private final RequestMetricsRegistry registry = new RequestMetricsRegistry();
+
+
+	@Test
+	public void recordRouteAndBytes() {
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		handle(exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+				.doOnNext(DataBufferUtils::release)
+				.then(Mono.defer(() -> {
+					exchange.getAttributes().put(PATTERN_ATTRIBUTE, "/hotels/{id}");
+					DataBuffer buffer = exchange.getResponse().bufferFactory()
+							.wrap("response body".getBytes(StandardCharsets.UTF_8));
+					return exchange.getResponse().writeWith(Mono.just(buffer));
+				})),
+				MockServerHttpRequest.post("/hotels/42").body("request"), response);
+
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot("POST /hotels/{id}");
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getRequestCount()).isEqualTo(1);
+		assertThat(snapshot.getServerErrorCount()).isEqualTo(0);
+		assertThat(snapshot.getBytesRead()).isEqualTo(7);
+		assertThat(snapshot.getBytesWritten()).isEqualTo(13);
+		assertThat(response.getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo("response body");
+	}
+
+	@Test
+	public void recordStatusOfError() {
+		handle(exchange -> Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE)),
+				MockServerHttpRequest.get("/").build(), new MockServerHttpResponse());
+
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot(RequestMetricsFilter.UNMATCHED_ROUTE);
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getRequestCount()).isEqualTo(1);
+		assertThat(snapshot.getServerErrorCount()).isEqualTo(1);
+	}
+
+	private void handle(WebHandler handler, MockServerHttpRequest request, MockServerHttpResponse response) {
+		HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(handler)
+				.filter(new RequestMetricsFilter(this.registry))
+				.build();
+		httpHandler.handle(request, response).block(Duration.ofSeconds(5));
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void bucketsAreContiguous() {
+		long previous = -1;
+		for (int i = 0; i < 2000; i++) {
+			long value = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(i * 997L));
+			assertThat(value).isGreaterThanOrEqualTo(i * 997L).isGreaterThanOrEqualTo(previous);
+			previous = value;
+		}
+		for (int index = 1; index < 1100; index++) {
+			long lowest = LatencyHistogram.highestEquivalentValue(index - 1) + 1;
+			assertThat(LatencyHistogram.bucketIndex(lowest)).isEqualTo(index);
+			assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.highestEquivalentValue(index))).isEqualTo(index);
+		}
+	}
+
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(Duration.ofMillis(i));
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+
+		assertThat(snapshot.getCount()).isEqualTo(1000);
+		assertThat(snapshot.getMax()).isEqualTo(Duration.ofMillis(1000));
+		assertThat(snapshot.getMean().toMillis()).isCloseTo(500L, within(1L));
+		assertThat(snapshot.getValueAtPercentile(50).toMillis()).isCloseTo(500L, within(16L));
+		assertThat(snapshot.getValueAtPercentile(99).toMillis()).isCloseTo(990L, within(32L));
+		assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(Duration.ofMillis(1000));
+		assertThat(snapshot.getValueAtPercentile(0)).isBetween(Duration.ofMillis(1), Duration.ofNanos(1_031_000));
+	}
+
+	@Test
+	public void emptyAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getSnapshot().getValueAtPercentile(99)).isEqualTo(Duration.ZERO);
+
+		histogram.recordNanos(Long.MAX_VALUE);
+		assertThat(histogram.getCount()).isEqualTo(1);
+		histogram.reset();
+		assertThat(histogram.getCount()).isEqualTo(0);
+		assertThat(histogram.getSnapshot().getMax()).isEqualTo(Duration.ZERO);
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RequestMetricsRegistry}.
+ */
+public class RequestMetricsRegistryTests {
+
+	private final RequestMetricsRegistry registry = new RequestMetricsRegistry();
+
+
+	@Test
+	public void record() {
+		this.registry.record("GET /foo", 200, TimeUnit.MILLISECONDS.toNanos(10), 0, 100);
+		this.registry.record("GET /foo", 500, TimeUnit.MILLISECONDS.toNanos(20), 5, 50);
+		this.registry.record("POST /bar", 201, TimeUnit.MILLISECONDS.toNanos(30), 10, 0);
+
+		assertThat(this.registry.getSnapshots()).containsOnlyKeys("GET /foo", "POST /bar");
+		RouteMetricsSnapshot snapshot = this.registry.getSnapshot("GET /foo");
+		assertThat(snapshot).isNotNull();
+		assertThat(snapshot.getRequestCount()).isEqualTo(2);
+		assertThat(snapshot.getServerErrorCount()).isEqualTo(1);
+		assertThat(snapshot.getBytesRead()).isEqualTo(5);
+		assertThat(snapshot.getBytesWritten()).isEqualTo(150);
+		assertThat(snapshot.getLatency().getMax().toMillis()).isEqualTo(20);
+
+		this.registry.reset();
+		assertThat(this.registry.getSnapshots()).isEmpty();
+	}
+
+	@Test
+	public void maxRoutes() {
+		this.registry.setMaxRoutes(2);
+		this.registry.record("GET /a", 200, 1, 0, 0);
+		this.registry.record("GET /b", 200, 1, 0, 0);
+		this.registry.record("GET /c", 200, 1, 0, 0);
+		this.registry.record("GET /d", 200, 1, 0, 0);
+		this.registry.record("GET /a", 200, 1, 0, 0);
+
+		assertThat(this.registry.getRoutes()).containsExactlyInAnyOrder("GET /a", "GET /b", "OTHER");
+		assertThat(this.registry.getRequestCount("OTHER")).isEqualTo(2);
+		assertThat(this.registry.getRequestCount("GET /a")).isEqualTo(2);
+	}
+
+	@Test
+	public void exposedAsStandardMBean() throws Exception {
+		this.registry.record("GET /foo", 200, TimeUnit.MILLISECONDS.toNanos(10), 0, 100);
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("org.springframework.web:type=RequestMetrics,name=test");
+		server.registerMBean(this.registry, name);
+		try {
+			assertThat((String[]) server.getAttribute(name, "Routes")).containsExactly("GET /foo");
+			Object bytesWritten = server.invoke(name, "getBytesWritten",
+					new Object[] {"GET /foo"}, new String[] {String.class.getName()});
+			assertThat(bytesWritten).isEqualTo(100L);
+			Object latency = server.invoke(name, "getLatencyPercentile",
+					new Object[] {"GET /foo", 50d}, new String[] {String.class.getName(), double.class.getName()});
+			assertThat((double) latency).isEqualTo(10d);
+		}
+		finally {
+			server.unregisterMBean(name);
+		}
+	}
+
+}
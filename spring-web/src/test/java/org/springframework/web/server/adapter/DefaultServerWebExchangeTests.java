@@ -16,9 +16,21 @@
 
 package org.springframework.web.server.adapter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
+import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
@@ -56,6 +68,26 @@ public class DefaultServerWebExchangeTests {
 		assertThat(exchange.transformUrl("/foo")).isEqualTo("/foo;p=abc?q=123");
 	}
 
+	@Test
+	public void cleanupMultipartDeletesTemporaryFiles(@TempDir Path tempDir) throws Exception {
+		DefaultServerWebExchange exchange = createMultipartExchange(tempDir);
+
+		MultiValueMap<String, Part> parts = exchange.getMultipartData().block(Duration.ofSeconds(5));
+		assertThat(parts).containsOnlyKeys("file");
+		assertThat(fileCount(tempDir)).isEqualTo(1);
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertThat(fileCount(tempDir)).isEqualTo(0);
+	}
+
+	@Test
+	public void cleanupMultipartWithoutReadingMultipartData(@TempDir Path tempDir) throws Exception {
+		DefaultServerWebExchange exchange = createMultipartExchange(tempDir);
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertThat(fileCount(tempDir)).isEqualTo(0);
+	}
+
 
 	private DefaultServerWebExchange createExchange() {
 		MockServerHttpRequest request = MockServerHttpRequest.get("https://example.com").build();
@@ -68,4 +100,30 @@ public class DefaultServerWebExchangeTests {
 				new AcceptHeaderLocaleContextResolver());
 	}
 
+	private DefaultServerWebExchange createMultipartExchange(Path tempDir) {
+		String body = "--boundary\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+				"\r\n" +
+				"Lorem ipsum dolor sit amet\r\n" +
+				"--boundary--\r\n";
+		MockServerHttpRequest request = MockServerHttpRequest.post("https://example.com")
+				.contentType(MediaType.parseMediaType("multipart/form-data; boundary=boundary"))
+				.body(body);
+
+		DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+		partReader.setMaxInMemorySize(8);
+		partReader.setFileStorageDirectory(tempDir);
+		ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+		configurer.defaultCodecs().multipartReader(new MultipartHttpMessageReader(partReader));
+
+		return new DefaultServerWebExchange(request, new MockServerHttpResponse(),
+				new DefaultWebSessionManager(), configurer, new AcceptHeaderLocaleContextResolver());
+	}
+
+	private static long fileCount(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.count();
+		}
+	}
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.server.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link EvictingWebSessionStore}.
+ */
+public class EvictingWebSessionStoreTests {
+
+	private final EvictingWebSessionStore store = new EvictingWebSessionStore();
+
+
+	@Test
+	public void retrieveExpiredSession() {
+		WebSession session = insertSession();
+		String id = session.getId();
+		assertThat(this.store.retrieveSession(id).block()).isSameAs(session);
+
+		// Fast-forward 31 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void lastAccessTimeIsUpdatedOnRetrieve() {
+		WebSession session1 = insertSession();
+		Instant time1 = session1.getLastAccessTime();
+
+		// Fast-forward a few seconds
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofSeconds(5)));
+
+		WebSession session2 = this.store.retrieveSession(session1.getId()).block();
+		assertThat(session2).isSameAs(session1);
+		assertThat(time1.isBefore(session2.getLastAccessTime())).isTrue();
+	}
+
+	@Test
+	public void sessionInvalidatedBeforeSave() {
+		WebSession session1 = insertSession();
+		String id = session1.getId();
+
+		WebSession session2 = this.store.retrieveSession(id).block();
+		assertThat(session2).isSameAs(session1);
+		this.store.retrieveSession(id).block().invalidate().block();
+
+		session2.save().onErrorResume(IllegalStateException.class, ex -> null).block();
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void expiredSessionsAreRemovedWithoutRetrieval() {
+		IntStream.range(0, 100).forEach(i -> insertSession());
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(100);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(29)));
+		WebSession accessed = insertSession();
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(101);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(2)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(100);
+		assertThat(this.store.retrieveSession(accessed.getId()).block()).isSameAs(accessed);
+	}
+
+	@Test
+	public void sessionsNotAccessedAreExpiredAfterRescheduling() {
+		WebSession session = insertSession();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+
+		// Original expiration time passes, but the session was accessed since
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(11)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(0);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void leastRecentlyUsedSessionIsEvicted() {
+		this.store.setMaxSessions(3);
+		WebSession session1 = insertSession();
+		WebSession session2 = insertSession();
+		WebSession session3 = insertSession();
+		this.store.retrieveSession(session1.getId()).block();
+
+		WebSession session4 = insertSession();
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(3);
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(1);
+		assertThat(this.store.retrieveSession(session2.getId()).block()).isNull();
+		assertThat(session2.isExpired()).isTrue();
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isSameAs(session1);
+		assertThat(this.store.retrieveSession(session3.getId()).block()).isSameAs(session3);
+		assertThat(this.store.retrieveSession(session4.getId()).block()).isSameAs(session4);
+	}
+
+	@Test
+	public void expirationCheckDoesNotCountAsAccess() {
+		this.store.setMaxSessions(2);
+		WebSession session1 = insertSession();
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(5)));
+		WebSession session2 = insertSession();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(15)));
+		this.store.retrieveSession(session1.getId()).block();
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(5)));
+		this.store.retrieveSession(session2.getId()).block();
+
+		// The original expiration time of session1 passes, and it is rescheduled
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(6)));
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(2);
+
+		insertSession();
+		assertThat(this.store.getEvictedSessionCount()).isEqualTo(1);
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isNull();
+		assertThat(this.store.retrieveSession(session2.getId()).block()).isSameAs(session2);
+	}
+
+	@Test
+	public void coldSessionsArePassivated() {
+		this.store.setMaxActiveSessions(1);
+		WebSession session1 = insertSession();
+		session1.getAttributes().put("foo", "bar");
+		session1.setMaxIdleTime(Duration.ofMinutes(5));
+		session1.save().block();
+		WebSession session2 = insertSession();
+
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+		assertThat(this.store.getPassivatedSessionCount()).isEqualTo(1);
+
+		WebSession restored = this.store.retrieveSession(session1.getId()).block();
+		assertThat(restored).isNotNull().isNotSameAs(session1);
+		assertThat(restored.getId()).isEqualTo(session1.getId());
+		assertThat(restored.getAttributes()).containsEntry("foo", "bar");
+		assertThat(restored.getCreationTime()).isEqualTo(session1.getCreationTime());
+		assertThat(restored.getMaxIdleTime()).isEqualTo(Duration.ofMinutes(5));
+		assertThat(restored.isStarted()).isTrue();
+
+		// Now session2 is the least recently used one
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(1);
+		assertThat(this.store.getPassivatedSessionCount()).isEqualTo(1);
+		assertThat(this.store.retrieveSession(session2.getId()).block()).isNotNull();
+	}
+
+	@Test
+	public void passivatedSessionsExpire() {
+		this.store.setMaxActiveSessions(1);
+		WebSession session1 = insertSession();
+		insertSession();
+		assertThat(this.store.getPassivatedSessionCount()).isEqualTo(1);
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.getPassivatedSessionCount()).isEqualTo(0);
+		assertThat(this.store.getExpiredSessionCount()).isEqualTo(2);
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isNull();
+	}
+
+	@Test
+	public void nonSerializableSessionsStayOnHeap() {
+		this.store.setMaxActiveSessions(1);
+		WebSession session1 = insertSession();
+		session1.getAttributes().put("foo", new Object());
+		insertSession();
+
+		assertThat(this.store.getActiveSessionCount()).isEqualTo(2);
+		assertThat(this.store.getPassivatedSessionCount()).isEqualTo(0);
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isSameAs(session1);
+	}
+
+	@Test
+	public void changeSessionId() {
+		WebSession session = insertSession();
+		String oldId = session.getId();
+		session.changeSessionId().block();
+
+		assertThat(this.store.retrieveSession(oldId).block()).isNull();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+	}
+
+	private WebSession insertSession() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.start();
+		session.save().block();
+		return session;
+	}
+
+}
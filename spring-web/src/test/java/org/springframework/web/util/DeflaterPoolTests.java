@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DeflaterPool}.
+ */
+public class DeflaterPoolTests {
+
+	@Test
+	public void reuseReleasedDeflater() {
+		DeflaterPool pool = new DeflaterPool();
+		Deflater deflater = pool.obtain();
+		pool.release(deflater);
+
+		assertThat(pool.getIdleCount()).isEqualTo(1);
+		assertThat(pool.obtain()).isSameAs(deflater);
+		assertThat(pool.getIdleCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void endSurplusDeflaters() {
+		DeflaterPool pool = new DeflaterPool(Deflater.BEST_SPEED, 1);
+		Deflater deflater1 = pool.obtain();
+		Deflater deflater2 = pool.obtain();
+		pool.release(deflater1);
+		pool.release(deflater2);
+
+		assertThat(pool.getIdleCount()).isEqualTo(1);
+		assertThat(pool.obtain()).isSameAs(deflater1);
+	}
+
+	@Test
+	public void gzipOutputStream() throws Exception {
+		DeflaterPool pool = new DeflaterPool();
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		try (OutputStream out = pool.createGzipOutputStream(target)) {
+			out.write("Hello ".getBytes(StandardCharsets.UTF_8));
+			out.flush();
+			out.write("World".getBytes(StandardCharsets.UTF_8));
+		}
+
+		GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(target.toByteArray()));
+		assertThat(StreamUtils.copyToString(in, StandardCharsets.UTF_8)).isEqualTo("Hello World");
+		assertThat(pool.getIdleCount()).isEqualTo(1);
+	}
+
+}
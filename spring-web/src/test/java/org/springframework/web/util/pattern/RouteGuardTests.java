@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RouteGuard}.
+ */
+public class RouteGuardTests {
+
+	@Test
+	public void segmentOfPattern() {
+		assertThat(RouteGuard.segment("/users")).isEqualTo("users");
+		assertThat(RouteGuard.segment("/Users/{id}")).isEqualTo("users");
+		assertThat(RouteGuard.segment("/{id}")).isNull();
+		assertThat(RouteGuard.segment("/user*")).isNull();
+		assertThat(RouteGuard.segment("/")).isNull();
+		assertThat(RouteGuard.segment("users")).isNull();
+	}
+
+	@Test
+	public void segmentOfPath() {
+		assertThat(RouteGuard.segment(PathContainer.parsePath("/Users/42"))).isEqualTo("users");
+		assertThat(RouteGuard.segment(PathContainer.parsePath("/"))).isNull();
+		assertThat(RouteGuard.segment(PathContainer.parsePath(""))).isNull();
+	}
+
+	@Test
+	public void and() {
+		RouteGuard guard = new RouteGuard.Builder(false)
+				.method(EnumSet.of(HttpMethod.GET, HttpMethod.POST)).path("/users").and()
+				.method(EnumSet.of(HttpMethod.GET)).and()
+				.build();
+
+		assertThat(guard.getMethods()).containsExactly(HttpMethod.GET);
+		assertThat(guard.getSegments()).containsExactly("users");
+	}
+
+	@Test
+	public void nestedAndIgnoresRemainderOfPath() {
+		RouteGuard guard = new RouteGuard.Builder(true).path("/users").path("/orders").and().build();
+
+		assertThat(guard.getMethods()).isNull();
+		assertThat(guard.getSegments()).containsExactly("users");
+	}
+
+	@Test
+	public void or() {
+		RouteGuard guard = new RouteGuard.Builder(false).path("/users").path("/orders").or().build();
+		assertThat(guard.getSegments()).containsExactlyInAnyOrder("users", "orders");
+
+		guard = new RouteGuard.Builder(false).path("/users").any().or().build();
+		assertThat(guard.getSegments()).isNull();
+	}
+
+	@Test
+	public void negate() {
+		RouteGuard guard = new RouteGuard.Builder(false).method(EnumSet.of(HttpMethod.GET)).negate().build();
+		assertThat(guard).isSameAs(RouteGuard.ANY);
+	}
+
+}
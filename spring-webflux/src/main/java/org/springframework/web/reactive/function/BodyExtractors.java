@@ -16,8 +16,15 @@
 
 package org.springframework.web.reactive.function;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -25,6 +32,7 @@ import java.util.stream.Collectors;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.ResolvableType;
@@ -36,6 +44,7 @@ import org.springframework.http.client.reactive.ClientHttpResponse;
 import org.springframework.http.codec.HttpMessageReader;
 import org.springframework.http.codec.multipart.Part;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.Assert;
 import org.springframework.util.MultiValueMap;
 
 /**
@@ -175,6 +184,52 @@ public abstract class BodyExtractors {
 	}
 
 
+	/**
+	 * Extractor that writes the body to the given file as it arrives, through
+	 * an {@link java.nio.channels.AsynchronousFileChannel}, without holding
+	 * more than the data buffers in flight in memory. Each data buffer is
+	 * released once written.
+	 * <p>If reading or writing the body fails, the partially written file is
+	 * deleted, unless it was opened without truncating it, e.g. for appending.
+	 * A file that could not be opened, e.g. because it exists already and
+	 * {@link java.nio.file.StandardOpenOption#CREATE_NEW CREATE_NEW} is given,
+	 * is left untouched.
+	 * @param destination the file to write to
+	 * @param options how the file is opened, by default
+	 * {@link java.nio.file.StandardOpenOption#CREATE CREATE},
+	 * {@link java.nio.file.StandardOpenOption#TRUNCATE_EXISTING TRUNCATE_EXISTING},
+	 * and {@link java.nio.file.StandardOpenOption#WRITE WRITE}
+	 * @return {@code BodyExtractor} for the written file
+	 * @since 5.2.10
+	 * @see DataBufferUtils#write(Publisher, Path, OpenOption...)
+	 */
+	public static BodyExtractor<Mono<Path>, ReactiveHttpInputMessage> toFile(Path destination, OpenOption... options) {
+		Assert.notNull(destination, "Destination must not be null");
+		List<OpenOption> optionList = Arrays.asList(options);
+		boolean deleteOnError = (optionList.isEmpty() || optionList.contains(StandardOpenOption.CREATE_NEW) ||
+				optionList.contains(StandardOpenOption.TRUNCATE_EXISTING));
+		return (inputMessage, context) -> Mono.defer(() -> {
+			// The body is subscribed to only once the file has been opened
+			AtomicBoolean opened = new AtomicBoolean();
+			Flux<DataBuffer> body = inputMessage.getBody().doOnSubscribe(subscription -> opened.set(true));
+			return DataBufferUtils.write(body, destination, options)
+					.onErrorResume(ex -> {
+						if (!deleteOnError || !opened.get()) {
+							return Mono.error(ex);
+						}
+						return Mono.fromCallable(() -> Files.deleteIfExists(destination))
+								.subscribeOn(Schedulers.boundedElastic())
+								.onErrorResume(IOException.class, deleteEx -> {
+									ex.addSuppressed(deleteEx);
+									return Mono.empty();
+								})
+								.then(Mono.error(ex));
+					})
+					.thenReturn(destination);
+		});
+	}
+
+
 	// Private support methods
 
 	private static <T, S extends Publisher<T>> S readWithMessageReaders(
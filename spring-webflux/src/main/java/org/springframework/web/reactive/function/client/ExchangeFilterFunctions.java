@@ -16,26 +16,50 @@
 
 package org.springframework.web.reactive.function.client;
 
+import java.net.URI;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
 
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.PooledDataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpMetricsListener;
+import org.springframework.http.client.support.AdaptiveConcurrencyLimiter;
+import org.springframework.http.client.support.HedgingPolicy;
+import org.springframework.http.client.support.HttpResponseCache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.BodyExtractors;
 
 /**
  * Static factory methods providing access to built-in implementations of
- * {@link ExchangeFilterFunction} for basic authentication, error handling, etc.
+ * {@link ExchangeFilterFunction} for basic authentication, error handling,
+ * concurrency limiting, hedging, caching, request coalescing, connector
+ * metrics, etc.
  *
  * @author Rob Winch
  * @author Arjen Poutsma
@@ -53,6 +77,15 @@ public abstract class ExchangeFilterFunctions {
 	public static final String BASIC_AUTHENTICATION_CREDENTIALS_ATTRIBUTE =
 			ExchangeFilterFunctions.class.getName() + ".basicAuthenticationCredentials";
 
+	/**
+	 * The default maximum size of a response body shared by
+	 * {@link #coalesceRequests(String...) coalesced requests}: 256K.
+	 * @since 5.2.10
+	 */
+	public static final int DEFAULT_MAX_COALESCED_BODY_SIZE = 256 * 1024;
+
+	private static final DataBufferFactory cachedBufferFactory = new DefaultDataBufferFactory();
+
 
 	/**
 	 * Consume up to the specified number of bytes from the response body and
@@ -89,6 +122,307 @@ public abstract class ExchangeFilterFunctions {
 						Mono.error(exceptionFunction.apply(response)) : Mono.just(response)));
 	}
 
+	/**
+	 * Return a filter that limits the number of in-flight requests per host
+	 * through the given {@link AdaptiveConcurrencyLimiter}.
+	 * <p>Requests wait for a permit for at most the limiter's max queue time,
+	 * and fail with a {@link RejectedExecutionException} otherwise. A response
+	 * with a 429 or 503 status, or an error signal, counts as a dropped request;
+	 * the permit is released once the response has been received.
+	 * @param limiter the limiter, possibly shared with other clients
+	 * @return the filter to limit concurrency with
+	 * @since 5.2.10
+	 */
+	public static ExchangeFilterFunction limitConcurrency(AdaptiveConcurrencyLimiter limiter) {
+		Assert.notNull(limiter, "AdaptiveConcurrencyLimiter must not be null");
+		return (request, next) -> acquirePermit(limiter, request.url())
+				.flatMap(permit -> next.exchange(request)
+						.doOnSuccess(response -> {
+							if (response == null) {
+								permit.release();
+							}
+							else if (response.rawStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value() ||
+									response.rawStatusCode() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+								permit.onDropped();
+							}
+							else {
+								permit.onSuccess();
+							}
+						})
+						.doOnError(ex -> permit.onDropped())
+						.doOnCancel(permit::release));
+	}
+
+	private static Mono<AdaptiveConcurrencyLimiter.Permit> acquirePermit(AdaptiveConcurrencyLimiter limiter, URI uri) {
+		return Mono.<AdaptiveConcurrencyLimiter.Permit>create(sink -> {
+			CompletableFuture<AdaptiveConcurrencyLimiter.Permit> future = limiter.acquire(uri);
+			sink.onCancel(() -> {
+				if (!future.cancel(false)) {
+					// Granted in the meantime
+					future.thenAccept(AdaptiveConcurrencyLimiter.Permit::release);
+				}
+			});
+			future.whenComplete((permit, ex) -> {
+				if (ex != null) {
+					sink.error(ex);
+				}
+				else {
+					sink.success(permit);
+				}
+			});
+		}).timeout(limiter.getMaxQueueTime(), Mono.error(() -> new RejectedExecutionException(
+				"Timed out waiting for concurrency limit of " + uri.getHost())));
+	}
+
+	/**
+	 * Return a filter that hedges requests according to the given
+	 * {@link HedgingPolicy}: if no response has been received after the hedge
+	 * delay, the request is sent once more, and the first response received is
+	 * used while the body of the other one is released. The exchange fails
+	 * only if every attempt sent fails.
+	 * <p>This filter should be the last one in the chain, so that both
+	 * attempts go through the same filters.
+	 * @param policy the policy deciding when to hedge
+	 * @return the filter to hedge requests with
+	 * @since 5.2.10
+	 */
+	public static ExchangeFilterFunction hedge(HedgingPolicy policy) {
+		Assert.notNull(policy, "HedgingPolicy must not be null");
+		return (request, next) -> {
+			Mono<ClientResponse> attempt = Mono.defer(() -> {
+				long startTime = System.nanoTime();
+				return next.exchange(request)
+						.doOnNext(response -> policy.recordLatency(System.nanoTime() - startTime));
+			});
+			Duration delay = policy.getHedgeDelay(request.method());
+			if (delay == null) {
+				return attempt;
+			}
+			AtomicInteger pending = new AtomicInteger(1);
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			AtomicBoolean received = new AtomicBoolean();
+			Function<Throwable, Mono<ClientResponse>> errorHandler = ex -> {
+				Throwable previous = failure.getAndSet(ex);
+				if (previous != null && previous != ex) {
+					ex.addSuppressed(previous);
+				}
+				return (pending.decrementAndGet() == 0 ? Mono.error(ex) : Mono.empty());
+			};
+			Mono<ClientResponse> primary = attempt.onErrorResume(errorHandler);
+			Mono<ClientResponse> hedge = Mono.delay(delay)
+					.filter(tick -> policy.tryHedge())
+					.doOnNext(tick -> pending.incrementAndGet())
+					.flatMap(tick -> attempt.onErrorResume(errorHandler));
+			return Flux.merge(primary, hedge)
+					.concatMap(response -> received.compareAndSet(false, true) ?
+							Mono.just(response) : response.releaseBody().then(Mono.empty()))
+					.next();
+		};
+	}
+
+	/**
+	 * Return a filter that serves {@code GET} requests from the given
+	 * {@link HttpResponseCache}, revalidating stale responses with conditional
+	 * requests, and collapsing concurrent identical requests that miss the cache.
+	 * <p>Responses within their {@code stale-while-revalidate} window are
+	 * served immediately and revalidated in the background. Responses
+	 * considered for caching are buffered in memory.
+	 * @param cache the cache to use
+	 * @return the filter to cache responses with
+	 * @since 5.2.10
+	 */
+	public static ExchangeFilterFunction cache(HttpResponseCache cache) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		AtomicReference<ExchangeStrategies> strategies = new AtomicReference<>();
+		return (request, next) -> {
+			if (!cache.isCacheable(request.method(), request.headers())) {
+				HttpMethod method = request.method();
+				if (method != HttpMethod.HEAD && method != HttpMethod.OPTIONS && method != HttpMethod.TRACE) {
+					cache.evict(request.url());
+				}
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				HttpResponseCache.Entry entry = cache.get(request.url(), request.headers());
+				if (entry != null) {
+					HttpResponseCache.Freshness freshness = cache.getFreshness(entry, request.headers());
+					if (freshness == HttpResponseCache.Freshness.FRESH) {
+						return Mono.just(toClientResponse(entry, strategies));
+					}
+					if (freshness == HttpResponseCache.Freshness.STALE_WHILE_REVALIDATE) {
+						fetch(cache, request, next, entry, strategies)
+								.flatMap(ClientResponse::releaseBody)
+								.subscribe(null, ex -> {});
+						return Mono.just(toClientResponse(entry, strategies));
+					}
+				}
+				return fetch(cache, request, next, entry, strategies);
+			});
+		};
+	}
+
+	private static Mono<ClientResponse> fetch(HttpResponseCache cache, ClientRequest request,
+			ExchangeFunction next, @Nullable HttpResponseCache.Entry entry,
+			AtomicReference<ExchangeStrategies> strategies) {
+
+		URI uri = request.url();
+		HttpHeaders requestHeaders = request.headers();
+		CompletableFuture<HttpResponseCache.Entry> fetch = new CompletableFuture<>();
+		CompletableFuture<HttpResponseCache.Entry> existing = cache.joinFetch(uri, requestHeaders, fetch);
+		if (existing != null) {
+			return Mono.fromFuture(existing)
+					.map(result -> toClientResponse(result, strategies))
+					.switchIfEmpty(Mono.defer(() -> next.exchange(request)));
+		}
+
+		ClientRequest requestToUse = (entry != null ? ClientRequest.from(request)
+				.headers(headers -> cache.addConditionalHeaders(entry, headers)).build() : request);
+		long requestTime = cache.getClock().millis();
+		return next.exchange(requestToUse)
+				.flatMap(response -> {
+					strategies.set(response.strategies());
+					int statusCode = response.rawStatusCode();
+					HttpHeaders headers = response.headers().asHttpHeaders();
+					if (entry != null && statusCode == HttpStatus.NOT_MODIFIED.value()) {
+						return response.releaseBody().then(Mono.fromCallable(() -> {
+							HttpResponseCache.Entry result = cache.revalidated(uri, entry, headers, requestTime);
+							cache.completeFetch(uri, requestHeaders, fetch, result);
+							return toClientResponse(result, strategies);
+						}));
+					}
+					if (!cache.isStorable(requestHeaders, statusCode, headers)) {
+						cache.completeFetch(uri, requestHeaders, fetch, null);
+						return Mono.just(response);
+					}
+					return BoundedBodyReader.read(response.body(BodyExtractors.toDataBuffers()), cache.getMaxEntrySize())
+							.map(reader -> {
+								if (reader.isTooLarge()) {
+									cache.completeFetch(uri, requestHeaders, fetch, null);
+									return ClientResponse.from(response).body(reader.getBody()).build();
+								}
+								byte[] content = reader.getContent();
+								HttpResponseCache.Entry result = cache.put(
+										uri, requestHeaders, statusCode, headers, content, requestTime);
+								cache.completeFetch(uri, requestHeaders, fetch, result);
+								return ClientResponse.from(response)
+										.body(Flux.just(cachedBufferFactory.wrap(content)))
+										.build();
+							});
+				})
+				.doFinally(signal -> cache.completeFetch(uri, requestHeaders, fetch, null));
+	}
+
+	private static ClientResponse toClientResponse(HttpResponseCache.Entry entry,
+			AtomicReference<ExchangeStrategies> strategies) {
+
+		ExchangeStrategies strategiesToUse = strategies.get();
+		if (strategiesToUse == null) {
+			strategiesToUse = ExchangeStrategies.withDefaults();
+			strategies.compareAndSet(null, strategiesToUse);
+		}
+		return ClientResponse.create(entry.getStatusCode(), strategiesToUse)
+				.headers(headers -> headers.addAll(entry.getHeaders()))
+				.body(Flux.just(cachedBufferFactory.wrap(entry.getBody())))
+				.build();
+	}
+
+	/**
+	 * Return a filter that coalesces concurrent identical {@code GET} and
+	 * {@code HEAD} requests into a single exchange, with all callers sharing
+	 * its response.
+	 * <p>Requests are considered identical if they have the same method, URL,
+	 * cookies, and values for the given header names. The shared response
+	 * body is aggregated in memory, up to {@link #DEFAULT_MAX_COALESCED_BODY_SIZE},
+	 * with the original data buffers released once aggregated; each caller is
+	 * given its own copy of the response, whose body can be consumed
+	 * independently. The exchange runs to completion even if all callers
+	 * cancel, and is no longer shared once it has terminated.
+	 * @param headerNames the names of request headers whose values must match
+	 * for requests to be coalesced, e.g. {@code Authorization} or {@code Accept}
+	 * @return the filter to coalesce requests with
+	 * @since 5.2.10
+	 * @see #coalesceRequests(int, String...)
+	 */
+	public static ExchangeFilterFunction coalesceRequests(String... headerNames) {
+		return coalesceRequests(DEFAULT_MAX_COALESCED_BODY_SIZE, headerNames);
+	}
+
+	/**
+	 * Variant of {@link #coalesceRequests(String...)} with a custom maximum
+	 * size for the shared response body. Callers of an exchange whose body
+	 * exceeds it get a {@link org.springframework.core.io.buffer.DataBufferLimitException}.
+	 * @param maxBodySize the maximum number of bytes of a shared response body,
+	 * or -1 for unlimited
+	 * @param headerNames the names of request headers whose values must match
+	 * for requests to be coalesced, e.g. {@code Authorization} or {@code Accept}
+	 * @return the filter to coalesce requests with
+	 * @since 5.2.10
+	 */
+	public static ExchangeFilterFunction coalesceRequests(int maxBodySize, String... headerNames) {
+		Assert.notNull(headerNames, "Header names must not be null");
+		Map<List<Object>, Mono<CoalescedResponse>> inFlight = new ConcurrentHashMap<>();
+		return (request, next) -> {
+			HttpMethod method = request.method();
+			if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				List<Object> key = new ArrayList<>(headerNames.length + 3);
+				key.add(method);
+				key.add(request.url());
+				key.add(request.cookies());
+				for (String headerName : headerNames) {
+					key.add(request.headers().get(headerName));
+				}
+				Mono<CoalescedResponse> shared = inFlight.get(key);
+				if (shared == null) {
+					AtomicReference<Mono<CoalescedResponse>> self = new AtomicReference<>();
+					Mono<CoalescedResponse> exchange = next.exchange(request)
+							.flatMap(response -> DataBufferUtils.join(
+									response.body(BodyExtractors.toDataBuffers()), maxBodySize)
+									.map(buffer -> {
+										byte[] content = new byte[buffer.readableByteCount()];
+										buffer.read(content);
+										DataBufferUtils.release(buffer);
+										return content;
+									})
+									.defaultIfEmpty(new byte[0])
+									.map(content -> new CoalescedResponse(response, content)))
+							.doFinally(signal -> inFlight.remove(key, self.get()))
+							.cache();
+					self.set(exchange);
+					Mono<CoalescedResponse> existing = inFlight.putIfAbsent(key, exchange);
+					shared = (existing != null ? existing : exchange);
+				}
+				return shared.map(CoalescedResponse::toClientResponse);
+			});
+		};
+	}
+
+	/**
+	 * Return a filter that reports the connector-level timings of each
+	 * exchange, i.e. connection acquire time, time to first byte, and body
+	 * transfer time, to the given listener.
+	 * <p>The listener is passed to the connector through the Reactor context
+	 * under {@link ClientHttpMetricsListener#CONTEXT_KEY}, and is therefore
+	 * supported by the connectors that look it up there, i.e. the Reactor Netty
+	 * and Jetty connectors. Listeners of several such filters are all notified.
+	 * The listener is notified once the response body has been consumed or
+	 * released, or when the exchange fails or is canceled.
+	 * @param listener the listener to notify
+	 * @return the filter to record connector metrics with
+	 * @since 5.2.10
+	 * @see org.springframework.http.client.reactive.ReactorConnectionPoolMetrics
+	 */
+	public static ExchangeFilterFunction recordConnectorMetrics(ClientHttpMetricsListener listener) {
+		Assert.notNull(listener, "ClientHttpMetricsListener must not be null");
+		return (request, next) -> next.exchange(request).subscriberContext(context -> {
+			ClientHttpMetricsListener existing = context.getOrDefault(ClientHttpMetricsListener.CONTEXT_KEY, null);
+			return context.put(ClientHttpMetricsListener.CONTEXT_KEY,
+					(existing != null ? existing.andThen(listener) : listener));
+		});
+	}
+
 	/**
 	 * Return a filter that applies HTTP Basic Authentication to the request
 	 * headers via {@link HttpHeaders#setBasicAuth(String)} and
@@ -191,4 +525,175 @@ public abstract class ExchangeFilterFunctions {
 		}
 	}
 
+
+	/**
+	 * Reads a response body into memory up to a maximum number of bytes or,
+	 * if the body turns out to be larger, provides the part read followed by
+	 * the remainder of the body, to be streamed without further buffering.
+	 */
+	private static final class BoundedBodyReader extends BaseSubscriber<DataBuffer> {
+
+		private final long maxByteCount;
+
+		private final MonoSink<BoundedBodyReader> sink;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private long byteCount;
+
+		private volatile boolean tooLarge;
+
+		@Nullable
+		private volatile FluxSink<DataBuffer> remainder;
+
+		private boolean completed;
+
+		@Nullable
+		private Throwable error;
+
+		private BoundedBodyReader(long maxByteCount, MonoSink<BoundedBodyReader> sink) {
+			this.maxByteCount = maxByteCount;
+			this.sink = sink;
+		}
+
+		static Mono<BoundedBodyReader> read(Flux<DataBuffer> body, long maxByteCount) {
+			return Mono.create(sink -> {
+				BoundedBodyReader reader = new BoundedBodyReader(maxByteCount, sink);
+				sink.onCancel(reader::cancelAndRelease);
+				body.subscribe(reader);
+			});
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			subscription.request(1);
+		}
+
+		@Override
+		protected void hookOnNext(DataBuffer buffer) {
+			FluxSink<DataBuffer> remainder = this.remainder;
+			if (remainder != null) {
+				remainder.next(buffer);
+				return;
+			}
+			synchronized (this) {
+				this.buffers.add(buffer);
+				this.byteCount += buffer.readableByteCount();
+				this.tooLarge = (this.byteCount > this.maxByteCount);
+			}
+			if (this.tooLarge) {
+				this.sink.success(this);
+			}
+			else {
+				request(1);
+			}
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			if (!this.tooLarge) {
+				this.sink.success(this);
+				return;
+			}
+			FluxSink<DataBuffer> remainder;
+			synchronized (this) {
+				this.completed = true;
+				remainder = this.remainder;
+			}
+			if (remainder != null) {
+				remainder.complete();
+			}
+		}
+
+		@Override
+		protected void hookOnError(Throwable ex) {
+			if (!this.tooLarge) {
+				releaseBuffers();
+				this.sink.error(ex);
+				return;
+			}
+			FluxSink<DataBuffer> remainder;
+			synchronized (this) {
+				this.error = ex;
+				remainder = this.remainder;
+			}
+			if (remainder != null) {
+				remainder.error(ex);
+			}
+		}
+
+		boolean isTooLarge() {
+			return this.tooLarge;
+		}
+
+		byte[] getContent() {
+			byte[] content = new byte[(int) this.byteCount];
+			int offset = 0;
+			synchronized (this) {
+				for (DataBuffer buffer : this.buffers) {
+					int length = buffer.readableByteCount();
+					buffer.read(content, offset, length);
+					offset += length;
+					DataBufferUtils.release(buffer);
+				}
+				this.buffers.clear();
+			}
+			return content;
+		}
+
+		Flux<DataBuffer> getBody() {
+			return Flux.<DataBuffer>create(remainder -> {
+				boolean completed;
+				Throwable error;
+				synchronized (this) {
+					this.buffers.forEach(remainder::next);
+					this.buffers.clear();
+					this.remainder = remainder;
+					completed = this.completed;
+					error = this.error;
+				}
+				if (error != null) {
+					remainder.error(error);
+				}
+				else if (completed) {
+					remainder.complete();
+				}
+				else {
+					remainder.onCancel(this::cancel);
+					remainder.onRequest(this::request);
+				}
+			}).doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+		}
+
+		private void cancelAndRelease() {
+			cancel();
+			releaseBuffers();
+		}
+
+		private synchronized void releaseBuffers() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+
+	private static class CoalescedResponse {
+
+		private final ClientResponse response;
+
+		private final byte[] content;
+
+		public CoalescedResponse(ClientResponse response, byte[] content) {
+			this.response = response;
+			this.content = content;
+		}
+
+		public ClientResponse toClientResponse() {
+			return ClientResponse.from(this.response)
+					.body(Flux.defer(() -> this.content.length > 0 ?
+							Flux.just(cachedBufferFactory.wrap(this.content)) : Flux.empty()))
+					.build();
+		}
+	}
+
 }
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Combines individual requests to a bulk-capable endpoint into batches: each
+ * {@link #submit submitted} item is buffered until either the maximum batch
+ * size is reached or the maximum delay since the first buffered item has
+ * elapsed, and the buffered items are then sent in a single request whose
+ * response is split back into one result per item.
+ *
+ * <p>The items of a batch are written as a stream of elements, and the
+ * response is read as a stream of elements, through the codecs of the given
+ * {@link WebClient}, i.e. its {@code ExchangeStrategies}. With the default
+ * content type {@code application/json}, a batch is therefore sent as a JSON
+ * array, and is expected to be answered with a JSON array.
+ *
+ * <p>By default, results are matched to items by position, and the response
+ * must contain exactly one element per item. Alternatively, results can be
+ * {@linkplain #setKeyExtractors matched by key}, in which case the items of
+ * a batch are deduplicated, and items without a result complete empty.
+ *
+ * <pre class="code">
+ * WebClientBatcher&lt;Long, User&gt; batcher =
+ *         new WebClientBatcher&lt;&gt;(webClient, "/users/bulk", Long.class, User.class);
+ * batcher.setKeyExtractors(id -&gt; id, User::getId);
+ *
+ * Mono&lt;User&gt; user = batcher.submit(42L);
+ * </pre>
+ *
+ * <p>A failed batch request fails the result of each of its items. Once a
+ * batch is sent, it is not canceled even if all of its callers cancel.
+ *
+ * @param <T> the type of items
+ * @param <R> the type of results
+ * @since 5.2.10
+ */
+public class WebClientBatcher<T, R> {
+
+	private final WebClient webClient;
+
+	private final String uri;
+
+	private final ParameterizedTypeReference<T> itemType;
+
+	private final ParameterizedTypeReference<R> resultType;
+
+	private HttpMethod method = HttpMethod.POST;
+
+	private MediaType contentType = MediaType.APPLICATION_JSON;
+
+	private Consumer<HttpHeaders> headersConsumer = headers -> {};
+
+	private int maxBatchSize = 100;
+
+	private Duration maxDelay = Duration.ofMillis(10);
+
+	private Scheduler scheduler = Schedulers.parallel();
+
+	@Nullable
+	private Function<? super T, ?> itemKeyExtractor;
+
+	@Nullable
+	private Function<? super R, ?> resultKeyExtractor;
+
+	private final Object lock = new Object();
+
+	private List<PendingItem<T, R>> pendingItems = new ArrayList<>();
+
+	@Nullable
+	private Disposable scheduledFlush;
+
+
+	/**
+	 * Create a new batcher for the given endpoint.
+	 * @param webClient the client to send batches with
+	 * @param uri the URI of the bulk endpoint, possibly relative to the
+	 * client's base URL
+	 * @param itemType the type of items
+	 * @param resultType the type of results
+	 */
+	public WebClientBatcher(WebClient webClient, String uri, Class<T> itemType, Class<R> resultType) {
+		this(webClient, uri, ParameterizedTypeReference.forType(itemType),
+				ParameterizedTypeReference.forType(resultType));
+	}
+
+	/**
+	 * Create a new batcher for the given endpoint, with generic item and result types.
+	 * @param webClient the client to send batches with
+	 * @param uri the URI of the bulk endpoint, possibly relative to the
+	 * client's base URL
+	 * @param itemType the type of items
+	 * @param resultType the type of results
+	 */
+	public WebClientBatcher(WebClient webClient, String uri,
+			ParameterizedTypeReference<T> itemType, ParameterizedTypeReference<R> resultType) {
+
+		Assert.notNull(webClient, "WebClient must not be null");
+		Assert.notNull(uri, "URI must not be null");
+		Assert.notNull(itemType, "Item type must not be null");
+		Assert.notNull(resultType, "Result type must not be null");
+		this.webClient = webClient;
+		this.uri = uri;
+		this.itemType = itemType;
+		this.resultType = resultType;
+	}
+
+
+	/**
+	 * Set the HTTP method of batch requests.
+	 * <p>By default set to POST.
+	 */
+	public void setMethod(HttpMethod method) {
+		Assert.notNull(method, "'method' must not be null");
+		this.method = method;
+	}
+
+	/**
+	 * Set the content type of batch requests, which determines the codec
+	 * used to write the items of a batch.
+	 * <p>By default set to {@code application/json}.
+	 */
+	public void setContentType(MediaType contentType) {
+		Assert.notNull(contentType, "'contentType' must not be null");
+		this.contentType = contentType;
+	}
+
+	/**
+	 * Set a callback to add headers to each batch request, e.g. for authentication.
+	 */
+	public void setHeaders(Consumer<HttpHeaders> headersConsumer) {
+		Assert.notNull(headersConsumer, "'headersConsumer' must not be null");
+		this.headersConsumer = headersConsumer;
+	}
+
+	/**
+	 * Set the maximum number of items per batch; a batch is sent as soon as
+	 * it reaches this size.
+	 * <p>By default set to 100.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the maximum time an item waits for further items before its batch
+	 * is sent, which is added to the latency of each request.
+	 * <p>By default set to 10 milliseconds.
+	 */
+	public void setMaxDelay(Duration maxDelay) {
+		Assert.isTrue(maxDelay != null && !maxDelay.isNegative(), "'maxDelay' must not be negative");
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Set the scheduler to send delayed batches on.
+	 * <p>By default set to {@link Schedulers#parallel()}.
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "'scheduler' must not be null");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Match results to items by key, rather than by position.
+	 * @param itemKeyExtractor the function to extract the key of an item
+	 * @param resultKeyExtractor the function to extract the key of a result,
+	 * equal to the key of the item it belongs to
+	 */
+	public void setKeyExtractors(Function<? super T, ?> itemKeyExtractor, Function<? super R, ?> resultKeyExtractor) {
+		Assert.notNull(itemKeyExtractor, "'itemKeyExtractor' must not be null");
+		Assert.notNull(resultKeyExtractor, "'resultKeyExtractor' must not be null");
+		this.itemKeyExtractor = itemKeyExtractor;
+		this.resultKeyExtractor = resultKeyExtractor;
+	}
+
+
+	/**
+	 * Submit an item to be sent with the next batch, once the returned
+	 * {@code Mono} is subscribed to.
+	 * @param item the item
+	 * @return the result for the item, or an empty {@code Mono} if results
+	 * are matched by key and there is none for the item
+	 */
+	public Mono<R> submit(T item) {
+		Assert.notNull(item, "Item must not be null");
+		return Mono.create(sink -> {
+			PendingItem<T, R> pendingItem = new PendingItem<>(item, sink);
+			sink.onCancel(pendingItem::cancel);
+			enqueue(pendingItem);
+		});
+	}
+
+	/**
+	 * Send the items buffered so far, without waiting for the batch to fill up.
+	 */
+	public void flush() {
+		List<PendingItem<T, R>> batch;
+		synchronized (this.lock) {
+			if (this.pendingItems.isEmpty()) {
+				return;
+			}
+			batch = this.pendingItems;
+			this.pendingItems = new ArrayList<>();
+			if (this.scheduledFlush != null) {
+				this.scheduledFlush.dispose();
+				this.scheduledFlush = null;
+			}
+		}
+		send(batch);
+	}
+
+	private void enqueue(PendingItem<T, R> pendingItem) {
+		boolean full;
+		synchronized (this.lock) {
+			this.pendingItems.add(pendingItem);
+			full = (this.pendingItems.size() >= this.maxBatchSize);
+			if (!full && this.pendingItems.size() == 1) {
+				this.scheduledFlush = this.scheduler.schedule(
+						this::flush, this.maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+			}
+		}
+		if (full) {
+			flush();
+		}
+	}
+
+	private void send(List<PendingItem<T, R>> batch) {
+		List<PendingItem<T, R>> activeItems = new ArrayList<>(batch.size());
+		for (PendingItem<T, R> pendingItem : batch) {
+			if (!pendingItem.isCanceled()) {
+				activeItems.add(pendingItem);
+			}
+		}
+		if (activeItems.isEmpty()) {
+			return;
+		}
+		List<T> items = getItemsToSend(activeItems);
+		this.webClient.method(this.method)
+				.uri(this.uri)
+				.contentType(this.contentType)
+				.headers(this.headersConsumer)
+				.body(Flux.fromIterable(items), this.itemType)
+				.retrieve()
+				.bodyToFlux(this.resultType)
+				.collectList()
+				.subscribe(results -> dispatch(activeItems, results),
+						ex -> activeItems.forEach(pendingItem -> pendingItem.sink.error(ex)));
+	}
+
+	private List<T> getItemsToSend(List<PendingItem<T, R>> activeItems) {
+		Function<? super T, ?> keyExtractor = this.itemKeyExtractor;
+		if (keyExtractor == null) {
+			List<T> items = new ArrayList<>(activeItems.size());
+			activeItems.forEach(pendingItem -> items.add(pendingItem.item));
+			return items;
+		}
+		Map<Object, T> itemsByKey = new LinkedHashMap<>(activeItems.size());
+		activeItems.forEach(pendingItem -> itemsByKey.putIfAbsent(keyExtractor.apply(pendingItem.item), pendingItem.item));
+		return new ArrayList<>(itemsByKey.values());
+	}
+
+	private void dispatch(List<PendingItem<T, R>> activeItems, List<R> results) {
+		Function<? super T, ?> itemKeyExtractor = this.itemKeyExtractor;
+		Function<? super R, ?> resultKeyExtractor = this.resultKeyExtractor;
+		if (itemKeyExtractor == null || resultKeyExtractor == null) {
+			if (results.size() != activeItems.size()) {
+				IllegalStateException ex = new IllegalStateException(
+						"Expected " + activeItems.size() + " results for batch, but got " + results.size());
+				activeItems.forEach(pendingItem -> pendingItem.sink.error(ex));
+				return;
+			}
+			for (int i = 0; i < activeItems.size(); i++) {
+				activeItems.get(i).sink.success(results.get(i));
+			}
+		}
+		else {
+			Map<Object, R> resultsByKey = new HashMap<>(results.size());
+			results.forEach(result -> resultsByKey.put(resultKeyExtractor.apply(result), result));
+			activeItems.forEach(pendingItem ->
+					pendingItem.sink.success(resultsByKey.get(itemKeyExtractor.apply(pendingItem.item))));
+		}
+	}
+
+
+	private static class PendingItem<T, R> {
+
+		private final T item;
+
+		private final MonoSink<R> sink;
+
+		private volatile boolean canceled;
+
+		public PendingItem(T item, MonoSink<R> sink) {
+			this.item = item;
+			this.sink = sink;
+		}
+
+		public void cancel() {
+			this.canceled = true;
+		}
+
+		public boolean isCanceled() {
+			return this.canceled;
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 /**
  * Classes supporting the {@code org.springframework.web.reactive.function.client} package.
- * Contains a {@code ClientResponse} wrapper to adapt a request.
+ * Contains a {@code ClientResponse} wrapper to adapt a request, and a
+ * {@code WebClientBatcher} to combine requests to bulk endpoints.
  */
 @NonNullApi
 @NonNullFields
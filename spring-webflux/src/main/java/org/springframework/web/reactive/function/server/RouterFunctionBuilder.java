@@ -264,9 +264,9 @@ class RouterFunctionBuilder implements RouterFunctions.Builder {
 	/**
 	 * Router function returned by {@link #build()} that simply iterates over the registered routes.
 	 */
-	private static class BuiltRouterFunction extends RouterFunctions.AbstractRouterFunction<ServerResponse> {
+	static class BuiltRouterFunction extends RouterFunctions.AbstractRouterFunction<ServerResponse> {
 
-		private List<RouterFunction<ServerResponse>> routerFunctions;
+		final List<RouterFunction<ServerResponse>> routerFunctions;
 
 		public BuiltRouterFunction(List<RouterFunction<ServerResponse>> routerFunctions) {
 			Assert.notEmpty(routerFunctions, "RouterFunctions must not be empty");
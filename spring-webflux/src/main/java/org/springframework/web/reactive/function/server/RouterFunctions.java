@@ -16,8 +16,11 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -30,13 +33,18 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.web.cors.reactive.CorsUtils;
 import org.springframework.web.reactive.result.view.ViewResolver;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.pattern.RouteGuard;
 
 /**
  * <strong>Central entry point to Spring's functional web framework.</strong>
@@ -184,6 +192,65 @@ public abstract class RouterFunctions {
 		return new ResourcesRouterFunction(lookupFunction);
 	}
 
+	/**
+	 * Compile the given router function into one that dispatches on the HTTP method
+	 * and the first path segment of the request, rather than testing every route in turn.
+	 * <p>Composed routes are flattened, and the {@linkplain RequestPredicates#method(HttpMethod)
+	 * method} and {@linkplain RequestPredicates#path(String) path} predicates of each route
+	 * are analyzed to index it by the methods and literal first path segment it can match.
+	 * For a given request, only the candidate routes are evaluated, still in their declared
+	 * order, so that the first matching route wins as before. Routes with other predicates,
+	 * such as headers or custom predicates, resources, or unknown router functions, are
+	 * candidates for every request. Nested router functions are compiled as well.
+	 * <p>Compilation relies on predicates describing themselves accurately through
+	 * {@link RequestPredicate#accept(RequestPredicates.Visitor)}; predicates that are
+	 * not created through {@link RequestPredicates} should report themselves as
+	 * {@linkplain RequestPredicates.Visitor#unknown(RequestPredicate) unknown}.
+	 * @param routerFunction the router function to compile
+	 * @param <T> the type of response returned by the handler functions
+	 * @return a router function that routes like {@code routerFunction}
+	 * @since 5.2.10
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends ServerResponse> RouterFunction<T> compile(RouterFunction<T> routerFunction) {
+		Assert.notNull(routerFunction, "RouterFunction must not be null");
+		if (routerFunction instanceof CompiledRouterFunction) {
+			return routerFunction;
+		}
+		List<RouterFunction<?>> routerFunctions = new ArrayList<>();
+		flatten(routerFunction, routerFunctions);
+		if (routerFunctions.size() == 1) {
+			return (RouterFunction<T>) routerFunctions.get(0);
+		}
+		return new CompiledRouterFunction<>(routerFunctions);
+	}
+
+	private static void flatten(RouterFunction<?> routerFunction, List<RouterFunction<?>> result) {
+		if (routerFunction instanceof SameComposedRouterFunction) {
+			SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+			flatten(composed.first, result);
+			flatten(composed.second, result);
+		}
+		else if (routerFunction instanceof DifferentComposedRouterFunction) {
+			DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+			flatten(composed.first, result);
+			flatten(composed.second, result);
+		}
+		else if (routerFunction instanceof RouterFunctionBuilder.BuiltRouterFunction) {
+			((RouterFunctionBuilder.BuiltRouterFunction) routerFunction).routerFunctions
+					.forEach(builtRouterFunction -> flatten(builtRouterFunction, result));
+		}
+		else if (routerFunction instanceof DefaultNestedRouterFunction) {
+			result.add(((DefaultNestedRouterFunction<?>) routerFunction).compile());
+		}
+		else if (routerFunction instanceof FilteredRouterFunction) {
+			result.add(((FilteredRouterFunction<?, ?>) routerFunction).compile());
+		}
+		else {
+			result.add(routerFunction);
+		}
+	}
+
 	/**
 	 * Convert the given {@linkplain RouterFunction router function} into a {@link HttpHandler}.
 	 * This conversion uses {@linkplain HandlerStrategies#builder() default strategies}.
@@ -852,6 +919,10 @@ public abstract class RouterFunctions {
 			return this.routerFunction.route(request).map(this.filterFunction::apply);
 		}
 
+		RouterFunction<S> compile() {
+			return new FilteredRouterFunction<>(RouterFunctions.compile(this.routerFunction), this.filterFunction);
+		}
+
 		@Override
 		public void accept(Visitor visitor) {
 			this.routerFunction.accept(visitor);
@@ -911,6 +982,10 @@ public abstract class RouterFunctions {
 			this.routerFunction = routerFunction;
 		}
 
+		RouterFunction<T> compile() {
+			return new DefaultNestedRouterFunction<>(this.predicate, RouterFunctions.compile(this.routerFunction));
+		}
+
 		@Override
 		public Mono<HandlerFunction<T>> route(ServerRequest serverRequest) {
 			return this.predicate.nest(serverRequest)
@@ -941,6 +1016,142 @@ public abstract class RouterFunctions {
 	}
 
 
+	/**
+	 * Router function returned by {@link #compile(RouterFunction)}, which only evaluates
+	 * the routes whose {@link RouteGuard} admits the request, in their original order.
+	 * @param <T> the server response type
+	 */
+	private static final class CompiledRouterFunction<T extends ServerResponse> extends AbstractRouterFunction<T> {
+
+		private static final GuardedRoute[] NO_ROUTES = new GuardedRoute[0];
+
+		private final List<RouterFunction<?>> routerFunctions;
+
+		private final Map<String, GuardedRoute[]> segmentRoutes = new HashMap<>();
+
+		private final GuardedRoute[] anySegmentRoutes;
+
+		public CompiledRouterFunction(List<RouterFunction<?>> routerFunctions) {
+			this.routerFunctions = routerFunctions;
+			Map<String, List<GuardedRoute>> segmentRoutes = new HashMap<>();
+			List<GuardedRoute> anySegmentRoutes = new ArrayList<>();
+			for (int i = 0; i < routerFunctions.size(); i++) {
+				RouterFunction<?> routerFunction = routerFunctions.get(i);
+				RouteGuard guard = guard(routerFunction);
+				GuardedRoute route = new GuardedRoute(i, guard.getMethods(), routerFunction);
+				Set<String> segments = guard.getSegments();
+				if (segments == null) {
+					anySegmentRoutes.add(route);
+				}
+				else {
+					segments.forEach(segment ->
+							segmentRoutes.computeIfAbsent(segment, key -> new ArrayList<>()).add(route));
+				}
+			}
+			segmentRoutes.forEach((segment, routes) -> this.segmentRoutes.put(segment, routes.toArray(NO_ROUTES)));
+			this.anySegmentRoutes = anySegmentRoutes.toArray(NO_ROUTES);
+		}
+
+		private static RouteGuard guard(RouterFunction<?> routerFunction) {
+			if (routerFunction instanceof DefaultRouterFunction) {
+				return RouteGuardVisitor.guard(((DefaultRouterFunction<?>) routerFunction).predicate, false);
+			}
+			else if (routerFunction instanceof DefaultNestedRouterFunction) {
+				return RouteGuardVisitor.guard(((DefaultNestedRouterFunction<?>) routerFunction).predicate, true);
+			}
+			else {
+				return RouteGuard.ANY;
+			}
+		}
+
+		@Override
+		public Mono<HandlerFunction<T>> route(ServerRequest request) {
+			List<RouterFunction<?>> candidates = candidates(request);
+			if (candidates.isEmpty()) {
+				return Mono.empty();
+			}
+			else if (candidates.size() == 1) {
+				return candidates.get(0).route(request).map(this::cast);
+			}
+			else {
+				return Flux.fromIterable(candidates)
+						.concatMap(routerFunction -> routerFunction.route(request))
+						.next()
+						.map(this::cast);
+			}
+		}
+
+		private List<RouterFunction<?>> candidates(ServerRequest request) {
+			HttpMethod method = method(request);
+			String segment = RouteGuard.segment(request.pathContainer());
+			GuardedRoute[] segmentRoutes = (segment != null ? this.segmentRoutes.get(segment) : null);
+			if (segmentRoutes == null) {
+				segmentRoutes = NO_ROUTES;
+			}
+			GuardedRoute[] anySegmentRoutes = this.anySegmentRoutes;
+			List<RouterFunction<?>> result = new ArrayList<>(segmentRoutes.length + anySegmentRoutes.length);
+			int i = 0;
+			int j = 0;
+			while (i < segmentRoutes.length || j < anySegmentRoutes.length) {
+				GuardedRoute route;
+				if (j == anySegmentRoutes.length ||
+						(i < segmentRoutes.length && segmentRoutes[i].index < anySegmentRoutes[j].index)) {
+					route = segmentRoutes[i++];
+				}
+				else {
+					route = anySegmentRoutes[j++];
+				}
+				if (route.matches(method)) {
+					result.add(route.routerFunction);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Return the HTTP method as seen by {@link RequestPredicates#method(HttpMethod)}.
+		 */
+		@Nullable
+		private static HttpMethod method(ServerRequest request) {
+			if (CorsUtils.isPreFlightRequest(request.exchange().getRequest())) {
+				return HttpMethod.resolve(request.headers().firstHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD));
+			}
+			return request.method();
+		}
+
+		@SuppressWarnings("unchecked")
+		private HandlerFunction<T> cast(HandlerFunction<?> handlerFunction) {
+			return (HandlerFunction<T>) handlerFunction;
+		}
+
+		@Override
+		public void accept(Visitor visitor) {
+			this.routerFunctions.forEach(routerFunction -> routerFunction.accept(visitor));
+		}
+	}
+
+
+	private static final class GuardedRoute {
+
+		private final int index;
+
+		@Nullable
+		private final Set<HttpMethod> methods;
+
+		private final RouterFunction<?> routerFunction;
+
+		public GuardedRoute(int index, @Nullable Set<HttpMethod> methods, RouterFunction<?> routerFunction) {
+			this.index = index;
+			this.methods = methods;
+			this.routerFunction = routerFunction;
+		}
+
+		public boolean matches(@Nullable HttpMethod method) {
+			return (this.methods == null || (method != null && this.methods.contains(method)));
+		}
+	}
+
+
 	private static class ResourcesRouterFunction extends  AbstractRouterFunction<ServerResponse> {
 
 		private final Function<ServerRequest, Mono<Resource>> lookupFunction;
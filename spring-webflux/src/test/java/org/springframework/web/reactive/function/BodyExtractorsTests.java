@@ -18,6 +18,10 @@ package org.springframework.web.reactive.function;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +35,7 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.util.IllegalReferenceCountException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -417,6 +422,59 @@ public class BodyExtractorsTests {
 				.verify();
 	}
 
+	@Test
+	public void toFile(@TempDir Path tempDir) throws Exception {
+		Path destination = tempDir.resolve("body.txt");
+		NettyDataBufferFactory factory = new NettyDataBufferFactory(new PooledByteBufAllocator(true));
+		NettyDataBuffer buffer1 = factory.wrap(ByteBuffer.wrap("foo".getBytes(StandardCharsets.UTF_8)));
+		NettyDataBuffer buffer2 = factory.wrap(ByteBuffer.wrap("bar".getBytes(StandardCharsets.UTF_8)));
+
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody(Flux.just(buffer1, buffer2));
+
+		StepVerifier.create(BodyExtractors.toFile(destination).extract(response, this.context))
+				.expectNext(destination)
+				.expectComplete()
+				.verify();
+
+		assertThat(new String(Files.readAllBytes(destination), StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(buffer1.getNativeBuffer().refCnt()).isEqualTo(0);
+		assertThat(buffer2.getNativeBuffer().refCnt()).isEqualTo(0);
+	}
+
+	@Test
+	public void toFileDeletesFileOnError(@TempDir Path tempDir) {
+		Path destination = tempDir.resolve("body.txt");
+		DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+		DataBuffer buffer = factory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody(Flux.just(buffer).concatWith(Flux.error(new IllegalStateException("boo"))));
+
+		StepVerifier.create(BodyExtractors.toFile(destination).extract(response, this.context))
+				.expectErrorMessage("boo")
+				.verify();
+
+		assertThat(destination).doesNotExist();
+	}
+
+	@Test
+	public void toFileKeepsExistingFileOnCreateNewConflict(@TempDir Path tempDir) throws Exception {
+		Path destination = tempDir.resolve("body.txt");
+		Files.write(destination, "precious".getBytes(StandardCharsets.UTF_8));
+		DataBuffer buffer = new DefaultDataBufferFactory().wrap("foo".getBytes(StandardCharsets.UTF_8));
+
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody(Flux.just(buffer));
+
+		StepVerifier.create(BodyExtractors.toFile(destination, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+				.extract(response, this.context))
+				.expectError(FileAlreadyExistsException.class)
+				.verify();
+
+		assertThat(new String(Files.readAllBytes(destination), StandardCharsets.UTF_8)).isEqualTo("precious");
+	}
+
 	@Test // SPR-17054
 	public void unsupportedMediaTypeShouldConsumeAndCancel() {
 		NettyDataBufferFactory factory = new NettyDataBufferFactory(new PooledByteBufAllocator(true));
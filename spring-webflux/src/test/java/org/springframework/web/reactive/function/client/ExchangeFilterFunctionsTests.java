@@ -18,18 +18,31 @@ package org.springframework.web.reactive.function.client;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.buffer.PooledByteBufAllocator;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.AdaptiveConcurrencyLimiter;
+import org.springframework.http.client.support.HedgingPolicy;
+import org.springframework.http.client.support.HttpResponseCache;
 import org.springframework.web.reactive.function.BodyExtractors;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -232,4 +245,292 @@ public class ExchangeFilterFunctionsTests {
 
 	}
 
+	@Test
+	public void limitConcurrency() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(1);
+		limiter.setMaxLimit(1);
+		limiter.setMaxQueueTime(Duration.ofMillis(50));
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = mock(ClientResponse.class);
+		given(response.rawStatusCode()).willReturn(200);
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.limitConcurrency(limiter);
+
+		StepVerifier.create(filter.filter(request, r -> {
+					assertThat(limiter.getInFlight("example.com:443")).isEqualTo(1);
+					return Mono.just(response);
+				}))
+				.expectNext(response)
+				.verifyComplete();
+		assertThat(limiter.getInFlight("example.com:443")).isEqualTo(0);
+
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(DEFAULT_URL);
+		StepVerifier.create(filter.filter(request, r -> Mono.just(response)))
+				.expectError(RejectedExecutionException.class)
+				.verify(Duration.ofSeconds(5));
+		assertThat(limiter.getQueueSize("example.com:443")).isEqualTo(0);
+
+		permit.release();
+		assertThat(limiter.getInFlight("example.com:443")).isEqualTo(0);
+	}
+
+	@Test
+	public void hedge() {
+		HedgingPolicy policy = new HedgingPolicy();
+		policy.setMinSamples(1);
+		policy.recordLatency(Duration.ofMillis(1).toNanos());
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse slow = mock(ClientResponse.class);
+		ClientResponse fast = mock(ClientResponse.class);
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> (attempts.incrementAndGet() == 1 ?
+				Mono.just(slow).delayElement(Duration.ofSeconds(5)) : Mono.just(fast));
+
+		StepVerifier.create(ExchangeFilterFunctions.hedge(policy).filter(request, exchange))
+				.expectNext(fast)
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(2);
+		assertThat(policy.getHedgeCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgeFailsWhilePrimarySucceeds() {
+		HedgingPolicy policy = new HedgingPolicy();
+		policy.setMinSamples(1);
+		policy.recordLatency(Duration.ofMillis(1).toNanos());
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = mock(ClientResponse.class);
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> (attempts.incrementAndGet() == 1 ?
+				Mono.just(response).delayElement(Duration.ofMillis(200)) :
+				Mono.error(new IllegalStateException("hedge failed")));
+
+		StepVerifier.create(ExchangeFilterFunctions.hedge(policy).filter(request, exchange))
+				.expectNext(response)
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void hedgeFailsWhenAllAttemptsFail() {
+		HedgingPolicy policy = new HedgingPolicy();
+		policy.setMinSamples(1);
+		policy.recordLatency(Duration.ofMillis(1).toNanos());
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> (attempts.incrementAndGet() == 1 ?
+				Mono.delay(Duration.ofMillis(200)).then(Mono.error(new IllegalStateException("primary failed"))) :
+				Mono.error(new IllegalStateException("hedge failed")));
+
+		StepVerifier.create(ExchangeFilterFunctions.hedge(policy).filter(request, exchange))
+				.expectErrorMessage("primary failed")
+				.verify(Duration.ofSeconds(5));
+		assertThat(attempts.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void hedgeNotUsedForNonIdempotentMethod() {
+		HedgingPolicy policy = new HedgingPolicy();
+		policy.setMinSamples(1);
+		policy.recordLatency(Duration.ofMillis(1).toNanos());
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build();
+		ClientResponse response = mock(ClientResponse.class);
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(response).delayElement(Duration.ofMillis(100));
+		};
+
+		StepVerifier.create(ExchangeFilterFunctions.hedge(policy).filter(request, exchange))
+				.expectNext(response)
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void cache() {
+		HttpResponseCache cache = new HttpResponseCache();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+					.body("foo")
+					.build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)))
+					.expectNext("foo")
+					.verifyComplete();
+		}
+		assertThat(attempts.get()).isEqualTo(1);
+
+		ClientRequest post = ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build();
+		filter.filter(post, exchange).block();
+		assertThat(cache.get(DEFAULT_URL, new HttpHeaders())).isNull();
+	}
+
+	@Test
+	public void cacheRevalidation() {
+		HttpResponseCache cache = new HttpResponseCache();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		List<ClientRequest> requests = new ArrayList<>();
+		ExchangeFunction exchange = r -> {
+			requests.add(r);
+			HttpStatus status = (requests.size() == 1 ? HttpStatus.OK : HttpStatus.NOT_MODIFIED);
+			return Mono.just(ClientResponse.create(status)
+					.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+					.header(HttpHeaders.ETAG, "\"v1\"")
+					.body(status == HttpStatus.OK ? "foo" : "")
+					.build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+		filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)).block();
+
+		cache.setClock(Clock.offset(cache.getClock(), Duration.ofMinutes(2)));
+		StepVerifier.create(filter.filter(request, exchange))
+				.consumeNextWith(response -> {
+					assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+					assertThat(response.bodyToMono(String.class).block()).isEqualTo("foo");
+				})
+				.verifyComplete();
+		assertThat(requests).hasSize(2);
+		assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+	}
+
+	@Test
+	public void cacheStreamsTooLargeResponse() {
+		HttpResponseCache cache = new HttpResponseCache();
+		cache.setMaxEntrySize(4);
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+					.body(Flux.just("foo", "bar", "baz").map(value -> dataBuffer(value, bufferFactory)))
+					.build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)))
+					.expectNext("foobarbaz")
+					.verifyComplete();
+		}
+		assertThat(attempts.get()).isEqualTo(2);
+		assertThat(cache.get(DEFAULT_URL, new HttpHeaders())).isNull();
+	}
+
+	@Test
+	public void coalesceRequests() {
+		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+		NettyDataBuffer buffer = bufferFactory.wrap(PooledByteBufAllocator.DEFAULT.buffer().writeBytes("foo".getBytes(UTF_8)));
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header("Foo", "Bar")
+					.body(Flux.just(buffer))
+					.build())
+					.delayElement(Duration.ofMillis(100));
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests(HttpHeaders.AUTHORIZATION);
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+
+		Mono<String> result = filter.filter(request, exchange)
+				.doOnNext(response -> assertThat(response.headers().header("Foo")).containsExactly("Bar"))
+				.flatMap(response -> response.bodyToMono(String.class));
+		StepVerifier.create(Flux.merge(result, result, result))
+				.expectNext("foo", "foo", "foo")
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(1);
+		assertThat(buffer.getNativeBuffer().refCnt()).isEqualTo(0);
+	}
+
+	@Test
+	public void coalesceRequestsWithDifferentHeaders() {
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).body("foo").build())
+					.delayElement(Duration.ofMillis(100));
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests(HttpHeaders.AUTHORIZATION);
+		ClientRequest request1 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header(HttpHeaders.AUTHORIZATION, "foo")
+				.header(HttpHeaders.ACCEPT, "text/plain")
+				.build();
+		ClientRequest request2 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header(HttpHeaders.AUTHORIZATION, "bar")
+				.build();
+		ClientRequest request3 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header(HttpHeaders.AUTHORIZATION, "foo")
+				.build();
+
+		StepVerifier.create(Flux.merge(filter.filter(request1, exchange), filter.filter(request2, exchange),
+						filter.filter(request3, exchange)).flatMap(response -> response.bodyToMono(String.class)))
+				.expectNext("foo", "foo", "foo")
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(2);
+
+		// Not in flight anymore
+		filter.filter(request1, exchange).block();
+		assertThat(attempts.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void coalesceRequestsNotUsedForPost() {
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build()).delayElement(Duration.ofMillis(100));
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build();
+
+		StepVerifier.create(Flux.merge(filter.filter(request, exchange), filter.filter(request, exchange)))
+				.expectNextCount(2)
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void coalesceRequestsJoinedAfterCancel() {
+		AtomicInteger attempts = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			attempts.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).body("foo").build())
+					.delayElement(Duration.ofMillis(200));
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+
+		filter.filter(request, exchange).subscribe().dispose();
+		StepVerifier.create(filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)))
+				.expectNext("foo")
+				.verifyComplete();
+		assertThat(attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void coalesceRequestsWithBodyTooLarge() {
+		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+		NettyDataBuffer buffer = bufferFactory.wrap(PooledByteBufAllocator.DEFAULT.buffer().writeBytes("foobar".getBytes(UTF_8)));
+		ExchangeFunction exchange = r -> Mono.just(ClientResponse.create(HttpStatus.OK).body(Flux.just(buffer)).build())
+				.delayElement(Duration.ofMillis(100));
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests(5);
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+
+		Mono<ClientResponse> result = filter.filter(request, exchange);
+		StepVerifier.create(Flux.merge(result, result))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+		assertThat(buffer.getNativeBuffer().refCnt()).isEqualTo(0);
+	}
+
 }
@@ -33,6 +33,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.core.testfixture.io.buffer.AbstractDataBufferAllocatingTests;
 import org.springframework.http.HttpStatus;
@@ -114,6 +115,27 @@ class WebClientDataBufferAllocatingTests extends AbstractDataBufferAllocatingTes
 		assertThat(this.server.getRequestCount()).isEqualTo(1);
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void maxResponseSizeExceeded(String displayName, DataBufferFactory bufferFactory) {
+		setUp(bufferFactory);
+		ReactorClientHttpConnector connector = initConnector();
+		connector.setMaxResponseSize(20);
+		WebClient client = this.webClient.mutate().clientConnector(connector).build();
+
+		this.server.enqueue(new MockResponse()
+				.setResponseCode(200)
+				.setHeader("Content-Type", "application/json")
+				.setChunkedBody("{\"foo\" : {\"bar\" : \"123\", \"baz\" : \"456\"}}", 5));
+
+		Mono<String> mono = client.get()
+				.uri("/json").accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToMono(String.class);
+
+		StepVerifier.create(mono).expectError(DataBufferLimitException.class).verify(Duration.ofSeconds(3));
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
 	@ParameterizedDataBufferAllocatingTest // SPR-17482
 	void bodyToMonoVoidWithoutContentType(String displayName, DataBufferFactory bufferFactory) {
 		setUp(bufferFactory);
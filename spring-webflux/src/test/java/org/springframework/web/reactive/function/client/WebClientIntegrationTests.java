@@ -30,6 +30,9 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,6 +54,7 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
@@ -59,9 +63,12 @@ import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpExchangeMetrics;
+import org.springframework.http.client.ConnectionPoolStats;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.JettyClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorConnectionPoolMetrics;
 import org.springframework.web.testfixture.xml.Pojo;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -1079,6 +1086,117 @@ class WebClientIntegrationTests {
 		expectRequestCount(2);
 	}
 
+	@ParameterizedWebClientTest
+	void recordConnectorMetrics(ClientHttpConnector connector) throws Exception {
+		startServer(connector);
+
+		prepareResponse(response -> response.setHeader("Content-Type", "text/plain")
+				.setBody("Hello Spring!"));
+
+		BlockingQueue<ClientHttpExchangeMetrics> recorded = new LinkedBlockingQueue<>();
+		WebClient filteredClient = this.webClient.mutate()
+				.filter(ExchangeFilterFunctions.recordConnectorMetrics(recorded::add))
+				.build();
+
+		Mono<String> result = filteredClient.get()
+				.uri("/greeting")
+				.retrieve()
+				.bodyToMono(String.class);
+
+		StepVerifier.create(result)
+				.expectNext("Hello Spring!")
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		ClientHttpExchangeMetrics metrics = recorded.poll(3, TimeUnit.SECONDS);
+		assertThat(metrics).isNotNull();
+		assertThat(metrics.getHost()).isEqualTo("localhost:" + this.server.getPort());
+		assertThat(metrics.getMethod()).isEqualTo("GET");
+		assertThat(metrics.getStatusCode()).isEqualTo(200);
+		assertThat(metrics.getAcquireTime()).isNotNull();
+		assertThat(metrics.getTimeToFirstByte()).isNotNull();
+		assertThat(metrics.getBodyTransferTime()).isNotNull();
+		assertThat(metrics.getError()).isNull();
+		assertThat(recorded.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void reactorConnectionPoolMetrics() {
+		ReactorConnectionPoolMetrics poolMetrics = new ReactorConnectionPoolMetrics();
+		ConnectionProvider provider = ConnectionProvider.builder("test")
+				.metrics(true, () -> poolMetrics)
+				.build();
+		startServer(new ReactorClientHttpConnector(HttpClient.create(provider)));
+
+		try {
+			prepareResponse(response -> response.setBody("Hello Spring!"));
+			String result = this.webClient.get().uri("/greeting").retrieve().bodyToMono(String.class)
+					.block(Duration.ofSeconds(3));
+			assertThat(result).isEqualTo("Hello Spring!");
+
+			List<ConnectionPoolStats> poolStats = poolMetrics.getConnectionPoolStats();
+			assertThat(poolStats).hasSize(1);
+			assertThat(poolStats.get(0).getHost()).endsWith(":" + this.server.getPort());
+			assertThat(poolStats.get(0).getPending()).isEqualTo(0);
+			assertThat(poolStats.get(0).getMax()).isEqualTo(-1);
+		}
+		finally {
+			provider.disposeLater().block(Duration.ofSeconds(5));
+		}
+	}
+
+	@Test
+	void jettyConnectionPoolStats() {
+		JettyClientHttpConnector connector = new JettyClientHttpConnector();
+		startServer(connector);
+
+		prepareResponse(response -> response.setBody("Hello Spring!"));
+		String result = this.webClient.get().uri("/greeting").retrieve().bodyToMono(String.class)
+				.block(Duration.ofSeconds(3));
+		assertThat(result).isEqualTo("Hello Spring!");
+
+		List<ConnectionPoolStats> poolStats = connector.getConnectionPoolStats();
+		assertThat(poolStats).hasSize(1);
+		assertThat(poolStats.get(0).getHost()).isEqualTo("localhost:" + this.server.getPort());
+		assertThat(poolStats.get(0).getIdle() + poolStats.get(0).getActive()).isEqualTo(1);
+		assertThat(poolStats.get(0).getPending()).isEqualTo(0);
+		assertThat(poolStats.get(0).getMax()).isGreaterThan(0);
+	}
+
+	@ParameterizedWebClientTest
+	void maxResponseSize(ClientHttpConnector connector) {
+		if (connector instanceof ReactorClientHttpConnector) {
+			((ReactorClientHttpConnector) connector).setMaxResponseSize(10);
+		}
+		else {
+			((JettyClientHttpConnector) connector).setMaxResponseSize(10);
+		}
+		startServer(connector);
+
+		prepareResponse(response -> response.setBody("0123456789ABCDEF"));
+		StepVerifier.create(this.webClient.get().uri("/greeting").retrieve().bodyToMono(String.class))
+				.expectErrorSatisfies(ex -> assertThat(ex).isInstanceOf(DataBufferLimitException.class)
+						.hasMessageContaining("Content-Length 16"))
+				.verify(Duration.ofSeconds(3));
+
+		prepareResponse(response -> response.setChunkedBody("0123456789ABCDEF", 4));
+		StepVerifier.create(this.webClient.get().uri("/greeting").retrieve().bodyToMono(String.class))
+				.expectError(DataBufferLimitException.class)
+				.verify(Duration.ofSeconds(3));
+
+		prepareResponse(response -> response.setBody("0123456789"));
+		StepVerifier.create(this.webClient.get().uri("/greeting").retrieve().bodyToMono(String.class))
+				.expectNext("0123456789")
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		prepareResponse(response -> response.setHeader("Content-Length", "16"));
+		StepVerifier.create(this.webClient.head().uri("/greeting").retrieve().toBodilessEntity())
+				.assertNext(entity -> assertThat(entity.getHeaders().getContentLength()).isEqualTo(16))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+	}
+
 
 	private void prepareResponse(Consumer<MockResponse> consumer) {
 		MockResponse response = new MockResponse();
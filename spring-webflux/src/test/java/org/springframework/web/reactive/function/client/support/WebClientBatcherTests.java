@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client.support;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple3;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.testfixture.xml.Pojo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link WebClientBatcher}.
+ */
+public class WebClientBatcherTests {
+
+	private final MockWebServer server = new MockWebServer();
+
+	private WebClientBatcher<Integer, Pojo> batcher;
+
+
+	@BeforeEach
+	public void setup() {
+		WebClient webClient = WebClient.create(this.server.url("/").toString());
+		this.batcher = new WebClientBatcher<>(webClient, "/bulk", Integer.class, Pojo.class);
+	}
+
+	@AfterEach
+	public void shutdown() throws IOException {
+		this.server.shutdown();
+	}
+
+
+	@Test
+	public void batchSentWhenFull() throws Exception {
+		this.batcher.setMaxBatchSize(3);
+		this.batcher.setMaxDelay(Duration.ofMinutes(1));
+		prepareResponse("[{\"foo\":\"1\",\"bar\":\"a\"},{\"foo\":\"2\",\"bar\":\"b\"},{\"foo\":\"3\",\"bar\":\"c\"}]");
+
+		Tuple3<Pojo, Pojo, Pojo> results = Mono.zip(
+				this.batcher.submit(1), this.batcher.submit(2), this.batcher.submit(3))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(results.getT1()).isEqualTo(new Pojo("1", "a"));
+		assertThat(results.getT2()).isEqualTo(new Pojo("2", "b"));
+		assertThat(results.getT3()).isEqualTo(new Pojo("3", "c"));
+
+		RecordedRequest request = this.server.takeRequest();
+		assertThat(request.getMethod()).isEqualTo("POST");
+		assertThat(request.getPath()).isEqualTo("/bulk");
+		assertThat(request.getHeader(HttpHeaders.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+		assertThat(request.getBody().readUtf8()).isEqualTo("[1,2,3]");
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void batchSentAfterDelay() throws Exception {
+		this.batcher.setMaxDelay(Duration.ofMillis(50));
+		this.batcher.setHeaders(headers -> headers.setBearerAuth("token"));
+		prepareResponse("[{\"foo\":\"1\",\"bar\":\"a\"},{\"foo\":\"2\",\"bar\":\"b\"}]");
+
+		StepVerifier.create(Mono.zip(this.batcher.submit(1), this.batcher.submit(2)))
+				.assertNext(tuple -> {
+					assertThat(tuple.getT1().getBar()).isEqualTo("a");
+					assertThat(tuple.getT2().getBar()).isEqualTo("b");
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		RecordedRequest request = this.server.takeRequest();
+		assertThat(request.getHeader(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer token");
+		assertThat(request.getBody().readUtf8()).isEqualTo("[1,2]");
+	}
+
+	@Test
+	public void resultsMatchedByKey() throws Exception {
+		this.batcher.setMaxBatchSize(4);
+		this.batcher.setKeyExtractors(String::valueOf, Pojo::getFoo);
+		prepareResponse("[{\"foo\":\"3\",\"bar\":\"c\"},{\"foo\":\"1\",\"bar\":\"a\"}]");
+
+		Mono<String> result1 = this.batcher.submit(1).map(Pojo::getBar);
+		Mono<String> result2 = this.batcher.submit(2).map(Pojo::getBar).defaultIfEmpty("none");
+		Mono<String> result3 = this.batcher.submit(3).map(Pojo::getBar);
+		Mono<String> duplicate = this.batcher.submit(1).map(Pojo::getBar);
+
+		StepVerifier.create(Mono.zip(result1, result2, result3, duplicate))
+				.assertNext(tuple -> {
+					assertThat(tuple.getT1()).isEqualTo("a");
+					assertThat(tuple.getT2()).isEqualTo("none");
+					assertThat(tuple.getT3()).isEqualTo("c");
+					assertThat(tuple.getT4()).isEqualTo("a");
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.server.takeRequest().getBody().readUtf8()).isEqualTo("[1,2,3]");
+	}
+
+	@Test
+	public void resultCountMismatch() {
+		this.batcher.setMaxBatchSize(2);
+		prepareResponse("[{\"foo\":\"1\",\"bar\":\"a\"}]");
+
+		Mono<Pojo> result1 = this.batcher.submit(1);
+		Mono<Pojo> result2 = this.batcher.submit(2).onErrorResume(ex -> Mono.empty());
+
+		StepVerifier.create(Mono.zip(result1, result2))
+				.expectErrorMessage("Expected 2 results for batch, but got 1")
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void failedBatchFailsAllItems() {
+		this.batcher.setMaxBatchSize(2);
+		this.server.enqueue(new MockResponse().setResponseCode(500));
+
+		Mono<Pojo> result1 = this.batcher.submit(1).onErrorResume(WebClientResponseException.class,
+				ex -> Mono.just(new Pojo("1", String.valueOf(ex.getRawStatusCode()))));
+		Mono<Pojo> result2 = this.batcher.submit(2).onErrorResume(WebClientResponseException.class,
+				ex -> Mono.just(new Pojo("2", String.valueOf(ex.getRawStatusCode()))));
+
+		StepVerifier.create(Mono.zip(result1, result2))
+				.assertNext(tuple -> {
+					assertThat(tuple.getT1().getBar()).isEqualTo("500");
+					assertThat(tuple.getT2().getBar()).isEqualTo("500");
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void canceledItemsNotSent() throws Exception {
+		this.batcher.setMaxDelay(Duration.ofMinutes(1));
+		prepareResponse("[{\"foo\":\"2\",\"bar\":\"b\"}]");
+
+		this.batcher.submit(1).subscribe().dispose();
+		Mono<Pojo> result = this.batcher.submit(2).cache();
+		result.subscribe();
+		this.batcher.flush();
+
+		assertThat(result.block(Duration.ofSeconds(5))).isEqualTo(new Pojo("2", "b"));
+		RecordedRequest request = this.server.takeRequest(5, TimeUnit.SECONDS);
+		assertThat(request.getBody().readUtf8()).isEqualTo("[2]");
+	}
+
+
+	private void prepareResponse(String body) {
+		this.server.enqueue(new MockResponse()
+				.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.setBody(body));
+	}
+
+}
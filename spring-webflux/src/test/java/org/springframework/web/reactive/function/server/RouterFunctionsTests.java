@@ -19,6 +19,7 @@ package org.springframework.web.reactive.function.server;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
@@ -28,12 +29,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.lang.Nullable;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
 import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
 import org.springframework.web.testfixture.http.server.reactive.MockServerHttpResponse;
 import org.springframework.web.testfixture.server.MockServerWebExchange;
@@ -297,4 +300,86 @@ public class RouterFunctionsTests {
 		assertThat(filterInvoked.get()).isTrue();
 	}
 
+	@Test
+	public void compile() {
+		HandlerFunction<ServerResponse> getUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOrders = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> header = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(RouterFunctions.route()
+				.GET("/users", getUsers)
+				.POST("/users", postUsers)
+				.route(RequestPredicates.headers(headers -> headers.header("X-Route").size() == 1), header)
+				.GET("/users/{id}", getUser)
+				.nest(RequestPredicates.path("/orders"), builder -> builder.GET("", getOrders))
+				.route(RequestPredicates.all(), fallback)
+				.build());
+
+		assertRoute(routerFunction, MockServerHttpRequest.get("/users"), getUsers);
+		assertRoute(routerFunction, MockServerHttpRequest.post("/users"), postUsers);
+		assertRoute(routerFunction, MockServerHttpRequest.get("/users/1"), getUser);
+		assertRoute(routerFunction, MockServerHttpRequest.get("/users/1").header("X-Route", "foo"), header);
+		assertRoute(routerFunction, MockServerHttpRequest.get("/users").header("X-Route", "foo"), getUsers);
+		assertRoute(routerFunction, MockServerHttpRequest.get("/orders"), getOrders);
+		assertRoute(routerFunction, MockServerHttpRequest.post("/orders"), fallback);
+		assertRoute(routerFunction, MockServerHttpRequest.delete("/users"), fallback);
+		assertRoute(routerFunction, MockServerHttpRequest.get("/"), fallback);
+	}
+
+	@Test
+	public void compileSkipsNonMatchingRoutes() {
+		AtomicInteger tested = new AtomicInteger();
+		RequestPredicate counting = request -> tested.incrementAndGet() > 0;
+		HandlerFunction<ServerResponse> users = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> orders = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(
+				RouterFunctions.route(counting.and(RequestPredicates.GET("/users")), users)
+						.andRoute(counting.and(RequestPredicates.GET("/orders")), orders));
+
+		assertRoute(routerFunction, MockServerHttpRequest.get("/orders"), orders);
+		assertThat(tested.get()).isEqualTo(1);
+		assertRoute(routerFunction, MockServerHttpRequest.post("/users"), null);
+		assertThat(tested.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void compilePreFlightRequest() {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(
+				RouterFunctions.route(RequestPredicates.GET("/users"), handlerFunction)
+						.andRoute(RequestPredicates.POST("/orders"), handlerFunction));
+
+		assertRoute(routerFunction, MockServerHttpRequest.options("/orders")
+				.header(HttpHeaders.ORIGIN, "https://example.com")
+				.header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST"), handlerFunction);
+	}
+
+	@Test
+	public void compileCaseInsensitivePattern() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setCaseSensitive(false);
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(
+				RouterFunctions.route(RequestPredicates.pathPredicates(parser).apply("/Users"), handlerFunction)
+						.andRoute(RequestPredicates.path("/orders"), request -> ServerResponse.ok().build()));
+
+		assertRoute(routerFunction, MockServerHttpRequest.get("/uSERS"), handlerFunction);
+	}
+
+	private static void assertRoute(RouterFunction<ServerResponse> routerFunction,
+			MockServerHttpRequest.BaseBuilder<?> requestBuilder, @Nullable HandlerFunction<ServerResponse> expected) {
+
+		ServerRequest request = new DefaultServerRequest(
+				MockServerWebExchange.from(requestBuilder.build()), Collections.emptyList());
+		StepVerifier.Step<HandlerFunction<ServerResponse>> step = StepVerifier.create(routerFunction.route(request));
+		if (expected != null) {
+			step = step.expectNext(expected);
+		}
+		step.expectComplete().verify();
+	}
+
 }
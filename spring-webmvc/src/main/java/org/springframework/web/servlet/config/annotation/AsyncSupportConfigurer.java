@@ -47,6 +47,8 @@ public class AsyncSupportConfigurer {
 
 	private final List<DeferredResultProcessingInterceptor> deferredResultInterceptors = new ArrayList<>();
 
+	private boolean nonBlockingWrites = false;
+
 
 	/**
 	 * The provided task executor is used to:
@@ -102,6 +104,22 @@ public class AsyncSupportConfigurer {
 		return this;
 	}
 
+	/**
+	 * Whether to write streaming responses, such as from a
+	 * {@link org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter},
+	 * {@link org.springframework.web.servlet.mvc.method.annotation.SseEmitter} or
+	 * {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody},
+	 * with Servlet 3.1 non-blocking I/O, so that slow clients do not hold on
+	 * to threads while content is written to them.
+	 * <p>By default this is set to {@code false}.
+	 * @param nonBlockingWrites whether to use non-blocking writes
+	 * @since 5.2.10
+	 */
+	public AsyncSupportConfigurer setNonBlockingWrites(boolean nonBlockingWrites) {
+		this.nonBlockingWrites = nonBlockingWrites;
+		return this;
+	}
+
 
 	@Nullable
 	protected AsyncTaskExecutor getTaskExecutor() {
@@ -121,4 +139,8 @@ public class AsyncSupportConfigurer {
 		return this.deferredResultInterceptors;
 	}
 
+	protected boolean isNonBlockingWrites() {
+		return this.nonBlockingWrites;
+	}
+
 }
@@ -632,6 +632,7 @@ public class WebMvcConfigurationSupport implements ApplicationContextAware, Serv
 		}
 		adapter.setCallableInterceptors(configurer.getCallableInterceptors());
 		adapter.setDeferredResultInterceptors(configurer.getDeferredResultInterceptors());
+		adapter.setNonBlockingWrites(configurer.isNonBlockingWrites());
 
 		return adapter;
 	}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.function;
+
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.pattern.RouteGuard;
+
+/**
+ * Derives the {@link RouteGuard} of a route from the method and path leaves
+ * of its predicate, treating all other predicates as "any".
+ *
+ * @since 5.2.10
+ * @see RouterFunctions#compile(RouterFunction)
+ */
+final class RouteGuardVisitor implements RequestPredicates.Visitor {
+
+	private final RouteGuard.Builder builder;
+
+
+	private RouteGuardVisitor(boolean nested) {
+		this.builder = new RouteGuard.Builder(nested);
+	}
+
+
+	/**
+	 * Derive the guard for a route with the given predicate.
+	 * @param predicate the route predicate
+	 * @param nested whether the predicate is used to {@linkplain RequestPredicate#nest nest}
+	 * routes, rather than to {@linkplain RequestPredicate#test test} requests
+	 */
+	static RouteGuard guard(RequestPredicate predicate, boolean nested) {
+		RouteGuardVisitor visitor = new RouteGuardVisitor(nested);
+		predicate.accept(visitor);
+		return visitor.builder.build();
+	}
+
+
+	@Override
+	public void method(Set<HttpMethod> methods) {
+		this.builder.method(methods);
+	}
+
+	@Override
+	public void path(String pattern) {
+		this.builder.path(pattern);
+	}
+
+	@Override
+	public void pathExtension(String extension) {
+		this.builder.any();
+	}
+
+	@Override
+	public void header(String name, String value) {
+		this.builder.any();
+	}
+
+	@Override
+	public void param(String name, String value) {
+		this.builder.any();
+	}
+
+	@Override
+	public void startAnd() {
+	}
+
+	@Override
+	public void and() {
+	}
+
+	@Override
+	public void endAnd() {
+		this.builder.and();
+	}
+
+	@Override
+	public void startOr() {
+	}
+
+	@Override
+	public void or() {
+	}
+
+	@Override
+	public void endOr() {
+		this.builder.or();
+	}
+
+	@Override
+	public void startNegate() {
+	}
+
+	@Override
+	public void endNegate() {
+		this.builder.negate();
+	}
+
+	@Override
+	public void unknown(RequestPredicate predicate) {
+		this.builder.any();
+	}
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Writes chunks of response content through a Servlet 3.1 {@link WriteListener},
+ * queueing them while the {@link ServletOutputStream} is not ready, so that
+ * callers do not block on a slow client. Queued content is written, and flushed
+ * if requested, by whichever thread finds the output stream ready: either the
+ * caller or a container thread notified through {@link #onWritePossible()}.
+ *
+ * <p>The amount of queued content is bounded: once the limit is reached,
+ * {@link #write} either fails or waits for the queue to drain, depending on
+ * the caller's choice.
+ *
+ * @since 5.2.10
+ * @see ResponseBodyEmitterReturnValueHandler#setNonBlockingWrites
+ * @see StreamingResponseBodyReturnValueHandler#setNonBlockingWrites
+ */
+final class NonBlockingResponseWriter implements WriteListener {
+
+	/** Default maximum number of bytes queued for writing: 256K. */
+	static final int DEFAULT_MAX_PENDING_BYTES = 256 * 1024;
+
+	private static final Log logger = LogFactory.getLog(NonBlockingResponseWriter.class);
+
+
+	private final ServletOutputStream outputStream;
+
+	private final int maxPendingBytes;
+
+	private final Consumer<Throwable> errorHandler;
+
+	private final Deque<byte[]> pending = new ArrayDeque<>();
+
+	private int pendingBytes;
+
+	private boolean flushPending;
+
+	/** Whether the container signalled write possibility and isReady() has not returned false since. */
+	private boolean writePossible;
+
+	@Nullable
+	private Runnable completionCallback;
+
+	private boolean completed;
+
+	@Nullable
+	private Throwable failure;
+
+
+	private NonBlockingResponseWriter(ServletOutputStream outputStream, int maxPendingBytes,
+			Consumer<Throwable> errorHandler) {
+
+		this.outputStream = outputStream;
+		this.maxPendingBytes = maxPendingBytes;
+		this.errorHandler = errorHandler;
+	}
+
+
+	/**
+	 * Register a writer as {@link WriteListener} on the output stream of the
+	 * given response, which must be in asynchronous mode.
+	 * @param response the response to write to
+	 * @param maxPendingBytes the maximum number of bytes to queue
+	 * @param errorHandler callback for write failures reported by the container
+	 * or raised while writing from a container thread
+	 * @return the writer, or {@code null} if the response does not support
+	 * non-blocking I/O, in which case the caller should fall back on blocking writes
+	 */
+	@Nullable
+	static NonBlockingResponseWriter register(HttpServletResponse response, int maxPendingBytes,
+			Consumer<Throwable> errorHandler) throws IOException {
+
+		ServletOutputStream outputStream = response.getOutputStream();
+		NonBlockingResponseWriter writer = new NonBlockingResponseWriter(outputStream, maxPendingBytes, errorHandler);
+		try {
+			outputStream.setWriteListener(writer);
+			return writer;
+		}
+		catch (IllegalStateException | UnsupportedOperationException | AbstractMethodError ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Non-blocking writes not supported by " + outputStream + ": " + ex);
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Queue the given content for writing and write as much as possible
+	 * without blocking.
+	 * @param content the content to write, not to be modified afterwards
+	 * @param flush whether to flush the response once the content is written
+	 * @param waitForCapacity whether to wait for queued content to be written
+	 * if the limit for queued content would be exceeded, rather than failing
+	 * @throws IOException if a previous write failed, or if the limit for
+	 * queued content would be exceeded and {@code waitForCapacity} is {@code false}
+	 */
+	void write(byte[] content, boolean flush, boolean waitForCapacity) throws IOException {
+		synchronized (this) {
+			assertNotFailed();
+			if (this.completionCallback != null) {
+				throw new IllegalStateException("Writer already completed");
+			}
+			while (this.pendingBytes > 0 && this.pendingBytes + content.length > this.maxPendingBytes) {
+				if (!waitForCapacity) {
+					throw new IOException("More than " + this.maxPendingBytes + " bytes pending for " +
+							"non-blocking write: the client does not read fast enough");
+				}
+				try {
+					wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for pending writes");
+				}
+				assertNotFailed();
+			}
+			if (content.length > 0) {
+				this.pending.add(content);
+				this.pendingBytes += content.length;
+			}
+			this.flushPending |= flush;
+		}
+		writePending();
+	}
+
+	/**
+	 * Invoke the given callback once all queued content has been written and
+	 * flushed, possibly right away.
+	 */
+	void complete(Runnable callback) {
+		synchronized (this) {
+			if (this.completionCallback != null || this.failure != null) {
+				return;
+			}
+			this.completionCallback = callback;
+		}
+		try {
+			writePending();
+		}
+		catch (IOException ex) {
+			// Already reported through the error handler
+		}
+	}
+
+	/**
+	 * Wait until all content has been written after {@link #complete}.
+	 * @throws IOException if writing failed in the meantime
+	 */
+	synchronized void awaitCompletion() throws IOException {
+		while (!this.completed) {
+			assertNotFailed();
+			try {
+				wait();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for pending writes");
+			}
+		}
+	}
+
+	private void assertNotFailed() throws IOException {
+		if (this.failure != null) {
+			throw (this.failure instanceof IOException ? (IOException) this.failure :
+					new IOException("Non-blocking write failed", this.failure));
+		}
+	}
+
+
+	@Override
+	public void onWritePossible() throws IOException {
+		synchronized (this) {
+			this.writePossible = true;
+		}
+		writePending();
+	}
+
+	@Override
+	public void onError(Throwable ex) {
+		handleFailure(ex);
+	}
+
+	private void writePending() throws IOException {
+		Runnable callback = null;
+		try {
+			synchronized (this) {
+				while (this.writePossible && this.failure == null && !this.completed) {
+					if (!this.outputStream.isReady()) {
+						// The container calls onWritePossible once ready again
+						this.writePossible = false;
+						break;
+					}
+					byte[] content = this.pending.poll();
+					if (content != null) {
+						this.outputStream.write(content);
+						this.pendingBytes -= content.length;
+						notifyAll();
+					}
+					else if (this.flushPending) {
+						this.flushPending = false;
+						this.outputStream.flush();
+					}
+					else {
+						if (this.completionCallback != null) {
+							this.completed = true;
+							callback = this.completionCallback;
+							notifyAll();
+						}
+						break;
+					}
+				}
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			handleFailure(ex);
+			throw ex;
+		}
+		if (callback != null) {
+			callback.run();
+		}
+	}
+
+	private void handleFailure(Throwable ex) {
+		synchronized (this) {
+			if (this.failure != null || this.completed) {
+				return;
+			}
+			this.failure = ex;
+			this.pending.clear();
+			this.pendingBytes = 0;
+			notifyAll();
+		}
+		this.errorHandler.accept(ex);
+	}
+
+
+	/**
+	 * Return an {@link OutputStream} that collects content into chunks of
+	 * the given size and {@link #write writes} them, waiting for capacity.
+	 */
+	OutputStream asOutputStream(int chunkSize) {
+		return new ChunkingOutputStream(chunkSize);
+	}
+
+
+	private class ChunkingOutputStream extends OutputStream {
+
+		private final byte[] chunk;
+
+		private int count;
+
+		ChunkingOutputStream(int chunkSize) {
+			this.chunk = new byte[chunkSize];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.count == this.chunk.length) {
+				writeChunk(false);
+			}
+			this.chunk[this.count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (this.count == this.chunk.length) {
+					writeChunk(false);
+				}
+				int n = Math.min(len, this.chunk.length - this.count);
+				System.arraycopy(b, off, this.chunk, this.count, n);
+				this.count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			writeChunk(true);
+		}
+
+		private void writeChunk(boolean flush) throws IOException {
+			byte[] content = new byte[this.count];
+			System.arraycopy(this.chunk, 0, content, 0, this.count);
+			this.count = 0;
+			NonBlockingResponseWriter.this.write(content, flush, true);
+		}
+	}
+
+}
@@ -165,6 +165,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private DeferredResultProcessingInterceptor[] deferredResultInterceptors = new DeferredResultProcessingInterceptor[0];
 
+	private boolean nonBlockingWrites = false;
+
 	private ReactiveAdapterRegistry reactiveAdapterRegistry = ReactiveAdapterRegistry.getSharedInstance();
 
 	private boolean ignoreDefaultModelOnRedirect = false;
@@ -436,6 +438,19 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		this.deferredResultInterceptors = interceptors.toArray(new DeferredResultProcessingInterceptor[0]);
 	}
 
+	/**
+	 * Whether to write streaming responses, i.e. {@link ResponseBodyEmitter},
+	 * {@link SseEmitter}, reactive types and {@link StreamingResponseBody},
+	 * with Servlet 3.1 non-blocking I/O.
+	 * <p>By default this is set to {@code false}.
+	 * @since 5.2.10
+	 * @see ResponseBodyEmitterReturnValueHandler#setNonBlockingWrites
+	 * @see StreamingResponseBodyReturnValueHandler#setNonBlockingWrites
+	 */
+	public void setNonBlockingWrites(boolean nonBlockingWrites) {
+		this.nonBlockingWrites = nonBlockingWrites;
+	}
+
 	/**
 	 * Configure the registry for reactive library types to be supported as
 	 * return values from controller methods.
@@ -717,9 +732,13 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		handlers.add(new ModelAndViewMethodReturnValueHandler());
 		handlers.add(new ModelMethodProcessor());
 		handlers.add(new ViewMethodReturnValueHandler());
-		handlers.add(new ResponseBodyEmitterReturnValueHandler(getMessageConverters(),
-				this.reactiveAdapterRegistry, this.taskExecutor, this.contentNegotiationManager));
-		handlers.add(new StreamingResponseBodyReturnValueHandler());
+		ResponseBodyEmitterReturnValueHandler emitterHandler = new ResponseBodyEmitterReturnValueHandler(
+				getMessageConverters(), this.reactiveAdapterRegistry, this.taskExecutor, this.contentNegotiationManager);
+		emitterHandler.setNonBlockingWrites(this.nonBlockingWrites);
+		handlers.add(emitterHandler);
+		StreamingResponseBodyReturnValueHandler streamingHandler = new StreamingResponseBodyReturnValueHandler();
+		streamingHandler.setNonBlockingWrites(this.nonBlockingWrites);
+		handlers.add(streamingHandler);
 		handlers.add(new HttpEntityMethodProcessor(getMessageConverters(),
 				this.contentNegotiationManager, this.requestResponseBodyAdvice));
 		handlers.add(new HttpHeadersReturnValueHandler());
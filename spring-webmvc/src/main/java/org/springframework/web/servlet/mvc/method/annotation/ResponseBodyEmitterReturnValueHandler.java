@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -56,6 +57,9 @@ import org.springframework.web.method.support.ModelAndViewContainer;
  * <p>As of 5.0 also supports reactive return value types for any reactive
  * library with registered adapters in {@link ReactiveAdapterRegistry}.
  *
+ * <p>As of 5.2.10, emitted objects can be {@link #setNonBlockingWrites written
+ * with non-blocking I/O} through a Servlet 3.1 {@link javax.servlet.WriteListener}.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
@@ -67,6 +71,10 @@ public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodRetur
 
 	private final ReactiveTypeHandler reactiveHandler;
 
+	private boolean nonBlockingWrites = false;
+
+	private int maxPendingWriteBytes = NonBlockingResponseWriter.DEFAULT_MAX_PENDING_BYTES;
+
 
 	/**
 	 * Simple constructor with reactive type support based on a default instance of
@@ -111,6 +119,53 @@ public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodRetur
 	}
 
 
+	/**
+	 * Whether to write emitted objects with Servlet 3.1 non-blocking I/O.
+	 * <p>In this mode each emitted object is serialized into memory and queued,
+	 * and written to the response whenever the container reports the output
+	 * stream as ready, so that neither the thread calling
+	 * {@link ResponseBodyEmitter#send} nor any container thread is blocked by a
+	 * slow client. If the client does not keep up and the amount of queued
+	 * content exceeds the {@link #setMaxPendingWriteBytes limit}, {@code send}
+	 * fails with an {@link IOException}, as it would for a disconnected client.
+	 * <p>If the response does not support non-blocking I/O, e.g. due to a
+	 * response wrapper, writes fall back on blocking I/O.
+	 * <p>By default this is set to {@code false}.
+	 * @since 5.2.10
+	 */
+	public void setNonBlockingWrites(boolean nonBlockingWrites) {
+		this.nonBlockingWrites = nonBlockingWrites;
+	}
+
+	/**
+	 * Whether emitted objects are written with Servlet 3.1 non-blocking I/O.
+	 * @since 5.2.10
+	 */
+	public boolean isNonBlockingWrites() {
+		return this.nonBlockingWrites;
+	}
+
+	/**
+	 * Set the maximum number of bytes that may be queued per response in
+	 * {@link #setNonBlockingWrites non-blocking} mode.
+	 * <p>By default this is set to 256K.
+	 * @since 5.2.10
+	 */
+	public void setMaxPendingWriteBytes(int maxPendingWriteBytes) {
+		Assert.isTrue(maxPendingWriteBytes > 0, "'maxPendingWriteBytes' must be greater than 0");
+		this.maxPendingWriteBytes = maxPendingWriteBytes;
+	}
+
+	/**
+	 * Return the maximum number of bytes that may be queued per response in
+	 * {@link #setNonBlockingWrites non-blocking} mode.
+	 * @since 5.2.10
+	 */
+	public int getMaxPendingWriteBytes() {
+		return this.maxPendingWriteBytes;
+	}
+
+
 	@Override
 	public boolean supportsReturnType(MethodParameter returnType) {
 		Class<?> bodyType = ResponseEntity.class.isAssignableFrom(returnType.getParameterType()) ?
@@ -179,10 +234,41 @@ public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodRetur
 		DeferredResult<?> deferredResult = new DeferredResult<>(emitter.getTimeout());
 		WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
 
-		HttpMessageConvertingHandler handler = new HttpMessageConvertingHandler(outputMessage, deferredResult);
+		ResponseBodyEmitter.Handler handler = null;
+		if (this.nonBlockingWrites) {
+			handler = initNonBlockingHandler(outputMessage, response, deferredResult);
+		}
+		if (handler == null) {
+			handler = new HttpMessageConvertingHandler(outputMessage, deferredResult);
+		}
 		emitter.initialize(handler);
 	}
 
+	@Nullable
+	private ResponseBodyEmitter.Handler initNonBlockingHandler(ServerHttpResponse outputMessage,
+			HttpServletResponse response, DeferredResult<?> deferredResult) throws IOException {
+
+		// Write headers now, as there is no blocking flush to write them later
+		outputMessage.getBody();
+		NonBlockingResponseWriter writer = NonBlockingResponseWriter.register(
+				response, this.maxPendingWriteBytes, deferredResult::setErrorResult);
+		return (writer != null ? new NonBlockingMessageConvertingHandler(writer, deferredResult) : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void writeWithMessageConverters(T data, @Nullable MediaType mediaType,
+			ServerHttpResponse outputMessage) throws IOException {
+
+		for (HttpMessageConverter<?> converter : this.sseMessageConverters) {
+			if (converter.canWrite(data.getClass(), mediaType)) {
+				((HttpMessageConverter<T>) converter).write(data, mediaType, outputMessage);
+				outputMessage.flush();
+				return;
+			}
+		}
+		throw new IllegalArgumentException("No suitable converter for " + data.getClass());
+	}
+
 
 	/**
 	 * ResponseBodyEmitter.Handler that writes with HttpMessageConverter's.
@@ -200,19 +286,7 @@ public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodRetur
 
 		@Override
 		public void send(Object data, @Nullable MediaType mediaType) throws IOException {
-			sendInternal(data, mediaType);
-		}
-
-		@SuppressWarnings("unchecked")
-		private <T> void sendInternal(T data, @Nullable MediaType mediaType) throws IOException {
-			for (HttpMessageConverter<?> converter : ResponseBodyEmitterReturnValueHandler.this.sseMessageConverters) {
-				if (converter.canWrite(data.getClass(), mediaType)) {
-					((HttpMessageConverter<T>) converter).write(data, mediaType, this.outputMessage);
-					this.outputMessage.flush();
-					return;
-				}
-			}
-			throw new IllegalArgumentException("No suitable converter for " + data.getClass());
+			writeWithMessageConverters(data, mediaType, this.outputMessage);
 		}
 
 		@Override
@@ -248,6 +322,93 @@ public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodRetur
 	}
 
 
+	/**
+	 * ResponseBodyEmitter.Handler that serializes with HttpMessageConverter's
+	 * into memory and writes through a {@link NonBlockingResponseWriter}.
+	 */
+	private class NonBlockingMessageConvertingHandler implements ResponseBodyEmitter.Handler {
+
+		private final NonBlockingResponseWriter writer;
+
+		private final DeferredResult<?> deferredResult;
+
+		public NonBlockingMessageConvertingHandler(NonBlockingResponseWriter writer, DeferredResult<?> deferredResult) {
+			this.writer = writer;
+			this.deferredResult = deferredResult;
+		}
+
+		@Override
+		public void send(Object data, @Nullable MediaType mediaType) throws IOException {
+			BufferingServerHttpResponse buffer = new BufferingServerHttpResponse();
+			writeWithMessageConverters(data, mediaType, buffer);
+			this.writer.write(buffer.toByteArray(), true, false);
+		}
+
+		@Override
+		public void complete() {
+			this.writer.complete(() -> this.deferredResult.setResult(null));
+		}
+
+		@Override
+		public void completeWithError(Throwable failure) {
+			this.deferredResult.setErrorResult(failure);
+		}
+
+		@Override
+		public void onTimeout(Runnable callback) {
+			this.deferredResult.onTimeout(callback);
+		}
+
+		@Override
+		public void onError(Consumer<Throwable> callback) {
+			this.deferredResult.onError(callback);
+		}
+
+		@Override
+		public void onCompletion(Runnable callback) {
+			this.deferredResult.onCompletion(callback);
+		}
+	}
+
+
+	/**
+	 * In-memory ServerHttpResponse to serialize an emitted object into,
+	 * ignoring the status and headers as the response is already committed.
+	 */
+	private static class BufferingServerHttpResponse implements ServerHttpResponse {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+		@Override
+		public void setStatusCode(HttpStatus status) {
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		public byte[] toByteArray() {
+			return this.body.toByteArray();
+		}
+	}
+
+
 	/**
 	 * Wrap to silently ignore header changes HttpMessageConverter's that would
 	 * otherwise cause HttpHeaders to raise exceptions.
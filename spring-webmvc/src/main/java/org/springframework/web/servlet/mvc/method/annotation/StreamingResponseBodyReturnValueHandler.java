@@ -40,11 +40,71 @@ import org.springframework.web.method.support.ModelAndViewContainer;
  * {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}
  * and also {@code ResponseEntity<StreamingResponseBody>}.
  *
+ * <p>As of 5.2.10, the response body can be {@link #setNonBlockingWrites
+ * written with non-blocking I/O} through a Servlet 3.1
+ * {@link javax.servlet.WriteListener}.
+ *
  * @author Rossen Stoyanchev
  * @since 4.2
  */
 public class StreamingResponseBodyReturnValueHandler implements HandlerMethodReturnValueHandler {
 
+	private static final int CHUNK_SIZE = 8192;
+
+
+	private boolean nonBlockingWrites = false;
+
+	private int maxPendingWriteBytes = NonBlockingResponseWriter.DEFAULT_MAX_PENDING_BYTES;
+
+
+	/**
+	 * Whether to write the response body with Servlet 3.1 non-blocking I/O.
+	 * <p>In this mode the content written by the {@link StreamingResponseBody}
+	 * is collected in chunks and queued, and written to the response whenever
+	 * the container reports the output stream as ready. The
+	 * {@code StreamingResponseBody} still runs on a thread of the async
+	 * {@link org.springframework.core.task.AsyncTaskExecutor}, which only waits
+	 * for a slow client once the amount of queued content exceeds the
+	 * {@link #setMaxPendingWriteBytes limit}, and at the end until all content
+	 * has been written.
+	 * <p>If the response does not support non-blocking I/O, e.g. due to a
+	 * response wrapper, writes fall back on blocking I/O.
+	 * <p>By default this is set to {@code false}.
+	 * @since 5.2.10
+	 */
+	public void setNonBlockingWrites(boolean nonBlockingWrites) {
+		this.nonBlockingWrites = nonBlockingWrites;
+	}
+
+	/**
+	 * Whether the response body is written with Servlet 3.1 non-blocking I/O.
+	 * @since 5.2.10
+	 */
+	public boolean isNonBlockingWrites() {
+		return this.nonBlockingWrites;
+	}
+
+	/**
+	 * Set the maximum number of bytes that may be queued per response in
+	 * {@link #setNonBlockingWrites non-blocking} mode.
+	 * <p>By default this is set to 256K.
+	 * @since 5.2.10
+	 */
+	public void setMaxPendingWriteBytes(int maxPendingWriteBytes) {
+		Assert.isTrue(maxPendingWriteBytes > 0, "'maxPendingWriteBytes' must be greater than 0");
+		this.maxPendingWriteBytes = maxPendingWriteBytes;
+	}
+
+	/**
+	 * Return the maximum number of bytes that may be queued per response in
+	 * {@link #setNonBlockingWrites non-blocking} mode.
+	 * @since 5.2.10
+	 */
+	public int getMaxPendingWriteBytes() {
+		return this.maxPendingWriteBytes;
+	}
+
+
 	@Override
 	public boolean supportsReturnType(MethodParameter returnType) {
 		if (StreamingResponseBody.class.isAssignableFrom(returnType.getParameterType())) {
@@ -90,7 +150,9 @@ public class StreamingResponseBodyReturnValueHandler implements HandlerMethodRet
 		Assert.isInstanceOf(StreamingResponseBody.class, returnValue, "StreamingResponseBody expected");
 		StreamingResponseBody streamingBody = (StreamingResponseBody) returnValue;
 
-		Callable<Void> callable = new StreamingResponseBodyTask(outputMessage.getBody(), streamingBody);
+		Callable<Void> callable = (this.nonBlockingWrites ?
+				new NonBlockingStreamingResponseBodyTask(outputMessage, response, streamingBody) :
+				new StreamingResponseBodyTask(outputMessage.getBody(), streamingBody));
 		WebAsyncUtils.getAsyncManager(webRequest).startCallableProcessing(callable, mavContainer);
 	}
 
@@ -114,4 +176,40 @@ public class StreamingResponseBodyReturnValueHandler implements HandlerMethodRet
 		}
 	}
 
+
+	private class NonBlockingStreamingResponseBodyTask implements Callable<Void> {
+
+		private final ServerHttpResponse outputMessage;
+
+		private final HttpServletResponse response;
+
+		private final StreamingResponseBody streamingBody;
+
+		public NonBlockingStreamingResponseBodyTask(ServerHttpResponse outputMessage,
+				HttpServletResponse response, StreamingResponseBody streamingBody) {
+
+			this.outputMessage = outputMessage;
+			this.response = response;
+			this.streamingBody = streamingBody;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			// Write headers, and obtain the blocking stream in case of a fallback
+			OutputStream outputStream = this.outputMessage.getBody();
+			NonBlockingResponseWriter writer = NonBlockingResponseWriter.register(
+					this.response, maxPendingWriteBytes, ex -> {});
+			if (writer != null) {
+				outputStream = writer.asOutputStream(CHUNK_SIZE);
+			}
+			this.streamingBody.writeTo(outputStream);
+			outputStream.flush();
+			if (writer != null) {
+				writer.complete(() -> {});
+				writer.awaitCompletion();
+			}
+			return null;
+		}
+	}
+
 }
@@ -18,9 +18,11 @@ package org.springframework.web.servlet.function;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.lang.Nullable;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -101,4 +103,64 @@ public class RouterFunctionsTests {
 		assertThat(resultHandlerFunction.isPresent()).isFalse();
 	}
 
+	@Test
+	public void compile() {
+		HandlerFunction<ServerResponse> getUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOrders = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> header = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(RouterFunctions.route()
+				.GET("/users", getUsers)
+				.POST("/users", postUsers)
+				.route(RequestPredicates.headers(headers -> headers.header("X-Route").size() == 1), header)
+				.GET("/users/{id}", getUser)
+				.nest(RequestPredicates.path("/orders"), builder -> builder.GET("", getOrders))
+				.route(RequestPredicates.all(), fallback)
+				.build());
+
+		assertRoute(routerFunction, new MockHttpServletRequest("GET", "/users"), getUsers);
+		assertRoute(routerFunction, new MockHttpServletRequest("POST", "/users"), postUsers);
+		assertRoute(routerFunction, new MockHttpServletRequest("GET", "/users/1"), getUser);
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/users/1");
+		servletRequest.addHeader("X-Route", "foo");
+		assertRoute(routerFunction, servletRequest, header);
+		assertRoute(routerFunction, new MockHttpServletRequest("GET", "/orders"), getOrders);
+		assertRoute(routerFunction, new MockHttpServletRequest("POST", "/orders"), fallback);
+		assertRoute(routerFunction, new MockHttpServletRequest("DELETE", "/users"), fallback);
+		assertRoute(routerFunction, new MockHttpServletRequest("GET", "/"), fallback);
+	}
+
+	@Test
+	public void compileSkipsNonMatchingRoutes() {
+		AtomicInteger tested = new AtomicInteger();
+		RequestPredicate counting = request -> tested.incrementAndGet() > 0;
+		HandlerFunction<ServerResponse> users = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> orders = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.compile(
+				RouterFunctions.route(counting.and(RequestPredicates.GET("/users")), users)
+						.andRoute(counting.and(RequestPredicates.GET("/orders")), orders));
+
+		assertRoute(routerFunction, new MockHttpServletRequest("GET", "/orders"), orders);
+		assertThat(tested.get()).isEqualTo(1);
+		assertRoute(routerFunction, new MockHttpServletRequest("POST", "/users"), null);
+		assertThat(tested.get()).isEqualTo(1);
+	}
+
+	private static void assertRoute(RouterFunction<ServerResponse> routerFunction,
+			MockHttpServletRequest servletRequest, @Nullable HandlerFunction<ServerResponse> expected) {
+
+		ServerRequest request = new DefaultServerRequest(servletRequest, Collections.emptyList());
+		Optional<HandlerFunction<ServerResponse>> result = routerFunction.route(request);
+		if (expected != null) {
+			assertThat(result).contains(expected);
+		}
+		else {
+			assertThat(result).isEmpty();
+		}
+	}
+
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Unit tests for {@link NonBlockingResponseWriter}.
+ */
+public class NonBlockingResponseWriterTests {
+
+	private final TestServletOutputStream outputStream = new TestServletOutputStream();
+
+	private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+
+	@Test
+	public void writeQueuedUntilWritePossible() throws Exception {
+		NonBlockingResponseWriter writer = register(1024);
+		writer.write(bytes("foo"), true, false);
+		assertThat(this.outputStream.getContentAsString()).isEmpty();
+
+		this.outputStream.writeListener.onWritePossible();
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foo");
+		assertThat(this.outputStream.flushCount).isEqualTo(1);
+
+		writer.write(bytes("bar"), false, false);
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foobar");
+		assertThat(this.outputStream.flushCount).isEqualTo(1);
+	}
+
+	@Test
+	public void writeResumedWhenReadyAgain() throws Exception {
+		NonBlockingResponseWriter writer = register(1024);
+		this.outputStream.writeListener.onWritePossible();
+		this.outputStream.ready = false;
+		writer.write(bytes("foo"), true, false);
+		writer.write(bytes("bar"), true, false);
+		assertThat(this.outputStream.getContentAsString()).isEmpty();
+
+		this.outputStream.ready = true;
+		this.outputStream.writeListener.onWritePossible();
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foobar");
+		assertThat(this.outputStream.flushCount).isEqualTo(1);
+	}
+
+	@Test
+	public void writeFailsWhenLimitExceeded() throws Exception {
+		NonBlockingResponseWriter writer = register(4);
+		writer.write(bytes("foo"), false, false);
+		assertThatIOException().isThrownBy(() -> writer.write(bytes("bar"), false, false));
+
+		this.outputStream.writeListener.onWritePossible();
+		writer.write(bytes("bar"), false, false);
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foobar");
+	}
+
+	@Test
+	public void completeAfterPendingWrites() throws Exception {
+		NonBlockingResponseWriter writer = register(1024);
+		AtomicBoolean completed = new AtomicBoolean();
+		writer.write(bytes("foo"), true, false);
+		writer.complete(() -> completed.set(true));
+		assertThat(completed).isFalse();
+
+		this.outputStream.writeListener.onWritePossible();
+		assertThat(completed).isTrue();
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foo");
+		writer.awaitCompletion();
+	}
+
+	@Test
+	public void errorFailsSubsequentWrites() throws Exception {
+		NonBlockingResponseWriter writer = register(1024);
+		IOException failure = new IOException("Broken pipe");
+		this.outputStream.writeListener.onError(failure);
+
+		assertThat(this.error.get()).isSameAs(failure);
+		assertThatIOException().isThrownBy(() -> writer.write(bytes("foo"), true, false)).isSameAs(failure);
+		assertThatIOException().isThrownBy(writer::awaitCompletion).isSameAs(failure);
+	}
+
+	@Test
+	public void outputStreamChunksContent() throws Exception {
+		NonBlockingResponseWriter writer = register(1024);
+		this.outputStream.writeListener.onWritePossible();
+		OutputStream os = writer.asOutputStream(4);
+		os.write(bytes("foo"));
+		assertThat(this.outputStream.getContentAsString()).isEmpty();
+		os.write(bytes("bar"));
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foob");
+		os.flush();
+		assertThat(this.outputStream.getContentAsString()).isEqualTo("foobar");
+		assertThat(this.outputStream.flushCount).isEqualTo(1);
+	}
+
+	@Test
+	public void registerNotSupported() throws Exception {
+		assertThat(NonBlockingResponseWriter.register(new MockHttpServletResponse(), 1024, this.error::set)).isNull();
+	}
+
+
+	private NonBlockingResponseWriter register(int maxPendingBytes) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		NonBlockingResponseWriter writer = NonBlockingResponseWriter.register(response, maxPendingBytes, this.error::set);
+		assertThat(writer).isNotNull();
+		return writer;
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	static class TestServletOutputStream extends ServletOutputStream {
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		WriteListener writeListener;
+
+		boolean ready = true;
+
+		int flushCount;
+
+		@Override
+		public void write(int b) {
+			this.content.write(b);
+		}
+
+		@Override
+		public void flush() {
+			this.flushCount++;
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.ready;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.writeListener = writeListener;
+		}
+
+		String getContentAsString() {
+			return new String(this.content.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -21,6 +21,12 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.EmitterProcessor;
@@ -37,6 +43,7 @@ import org.springframework.web.context.request.async.AsyncWebRequest;
 import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
 import org.springframework.web.context.request.async.WebAsyncManager;
 import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.CompressionFilter;
 import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.testfixture.servlet.MockAsyncContext;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
@@ -153,6 +160,92 @@ public class ResponseBodyEmitterReturnValueHandlerTests {
 		assertThat(asyncContext.getDispatchedPath()).isNotNull();
 	}
 
+	@Test
+	public void responseBodyEmitterWithNonBlockingWrites() throws Exception {
+		NonBlockingResponseWriterTests.TestServletOutputStream outputStream =
+				new NonBlockingResponseWriterTests.TestServletOutputStream();
+		this.response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		this.webRequest = new ServletWebRequest(this.request, this.response);
+		AsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(this.request, this.response);
+		WebAsyncUtils.getAsyncManager(this.webRequest).setAsyncWebRequest(asyncWebRequest);
+		this.handler.setNonBlockingWrites(true);
+
+		MethodParameter type = on(TestController.class).resolveReturnType(ResponseBodyEmitter.class);
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		this.handler.handleReturnValue(emitter, type, this.mavContainer, this.webRequest);
+		assertThat(outputStream.writeListener).isNotNull();
+
+		SimpleBean bean = new SimpleBean();
+		bean.setId(1L);
+		bean.setName("Joe");
+		emitter.send(bean);
+		emitter.send("\n");
+		emitter.complete();
+		assertThat(outputStream.getContentAsString()).isEmpty();
+
+		MockAsyncContext asyncContext = (MockAsyncContext) this.request.getAsyncContext();
+		assertThat(asyncContext.getDispatchedPath()).isNull();
+
+		outputStream.writeListener.onWritePossible();
+		assertThat(outputStream.getContentAsString()).isEqualTo("{\"id\":1,\"name\":\"Joe\"}\n");
+		assertThat(asyncContext.getDispatchedPath()).isNotNull();
+	}
+
+	@Test
+	public void responseBodyEmitterWithNonBlockingWritesThroughCompressionFilter() throws Exception {
+		NonBlockingResponseWriterTests.TestServletOutputStream outputStream =
+				new NonBlockingResponseWriterTests.TestServletOutputStream();
+		this.response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.response.setContentType("application/json");
+		this.handler.setNonBlockingWrites(true);
+
+		// Large enough to be compressed, if it were written with blocking I/O
+		String name = String.join("", Collections.nCopies(1000, "Joe "));
+		SimpleBean bean = new SimpleBean();
+		bean.setId(1L);
+		bean.setName(name);
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		emitter.send(bean);
+		emitter.complete();
+
+		MethodParameter type = on(TestController.class).resolveReturnType(ResponseBodyEmitter.class);
+		FilterChain chain = (req, res) -> {
+			this.webRequest = new ServletWebRequest((HttpServletRequest) req, (HttpServletResponse) res);
+			AsyncWebRequest asyncWebRequest =
+					new StandardServletAsyncWebRequest((HttpServletRequest) req, (HttpServletResponse) res);
+			WebAsyncUtils.getAsyncManager(this.webRequest).setAsyncWebRequest(asyncWebRequest);
+			try {
+				this.handler.handleReturnValue(emitter, type, this.mavContainer, this.webRequest);
+			}
+			catch (Exception ex) {
+				throw new ServletException(ex);
+			}
+			// Container signals write possibility before the filter chain returns
+			assertThat(outputStream.writeListener).isNotNull();
+			outputStream.writeListener.onWritePossible();
+		};
+		new CompressionFilter().doFilter(this.request, this.response, chain);
+
+		String expected = "{\"id\":1,\"name\":\"" + name + "\"}";
+		assertThat(outputStream.getContentAsString()).isEqualTo(expected);
+		assertThat(this.response.getHeader("Content-Encoding")).isNull();
+
+		MockAsyncContext asyncContext = (MockAsyncContext) this.request.getAsyncContext();
+		asyncContext.complete();
+		assertThat(outputStream.getContentAsString()).isEqualTo(expected);
+	}
+
 	@Test
 	public void responseBodyEmitterWithTimeoutValue() throws Exception {
 